@@ -0,0 +1,53 @@
+package com.api.payglobal.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.api.payglobal.repository.GananciaMensualJdbcRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Llena ganancias_mensuales desde el historial la primera vez que arranca
+ * con la tabla vacia. Despues la tabla se mantiene sola con cada ganancia;
+ * para recalcularla completa esta POST
+ * /api/transacciones/admin/ganancias-por-mes/reconstruir.
+ */
+@Component
+@Slf4j
+@DependsOn({ "entityManagerFactory", "migracionOperaciones" })
+public class MigracionGananciasMensuales {
+
+    // Evita que dos instancias llenen la tabla a la vez
+    private static final long CLAVE_BLOQUEO = 0x67616e616eL;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private GananciaMensualJdbcRepository gananciaMensualJdbcRepository;
+
+    @PostConstruct
+    public void migrar() {
+        if (!gananciaMensualJdbcRepository.estaVacia()) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", CLAVE_BLOQUEO);
+            if (!gananciaMensualJdbcRepository.estaVacia()) {
+                return;
+            }
+            long inicio = System.currentTimeMillis();
+            int filas = gananciaMensualJdbcRepository.reconstruir();
+            log.info("Ganancias mensuales: {} filas calculadas en {} ms", filas, System.currentTimeMillis() - inicio);
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.api.payglobal.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Migracion unica de la herencia JOINED (operaciones + transacciones /
+ * solicitudes) a una tabla por entidad con todas sus columnas.
+ * Corre al arrancar, despues de que ddl-auto agrega las columnas nuevas y
+ * antes de que el servidor acepte peticiones. En una sola transaccion copia
+ * las columnas comunes desde operaciones, quita las llaves foraneas hacia
+ * operaciones, da a cada tabla su propia secuencia de ids y renombra
+ * operaciones a operaciones_migrada, que queda como respaldo. Sin la tabla
+ * operaciones no hace nada.
+ */
+@Component
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class MigracionOperaciones {
+
+    private static final String TABLA_ORIGEN = "operaciones";
+    private static final String TABLA_RESPALDO = "operaciones_migrada";
+    private static final List<String> TABLAS = List.of("transacciones", "solicitudes");
+
+    // Evita que dos instancias migren a la vez
+    private static final long CLAVE_BLOQUEO = 0x6f70657261L;
+
+    private static final String SQL_EXISTE_TABLA = "SELECT to_regclass(?) IS NOT NULL";
+
+    private static final String SQL_COPIAR = """
+            UPDATE %s d SET monto = o.monto, fecha = o.fecha, estado = o.estado,
+                tipo_crypto = o.tipo_crypto, descripcion = o.descripcion
+            FROM operaciones o
+            WHERE o.id = d.id
+            """;
+
+    private static final String SQL_LLAVES_FORANEAS = """
+            SELECT c.conrelid::regclass::text AS tabla, c.conname AS nombre
+            FROM pg_constraint c
+            WHERE c.contype = 'f' AND c.confrelid = 'operaciones'::regclass
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    public void migrar() {
+        if (!existeTabla(TABLA_ORIGEN)) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", CLAVE_BLOQUEO);
+            // Otra instancia pudo terminar mientras se esperaba el bloqueo
+            if (!existeTabla(TABLA_ORIGEN)) {
+                return;
+            }
+            long inicio = System.currentTimeMillis();
+            for (String tabla : TABLAS) {
+                int copiadas = jdbcTemplate.update(String.format(SQL_COPIAR, tabla));
+                log.info("Migracion de operaciones: {} filas copiadas a {}", copiadas, tabla);
+            }
+            for (Map<String, Object> llave : jdbcTemplate.queryForList(SQL_LLAVES_FORANEAS)) {
+                jdbcTemplate.execute("ALTER TABLE " + llave.get("tabla") + " DROP CONSTRAINT \""
+                        + llave.get("nombre") + "\"");
+            }
+            for (String tabla : TABLAS) {
+                crearSecuencia(tabla);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLA_ORIGEN + " RENAME TO " + TABLA_RESPALDO);
+            log.info("Migracion de operaciones completada en {} ms", System.currentTimeMillis() - inicio);
+        });
+    }
+
+    /**
+     * Con JOINED el id de la subclase venia de operaciones y la columna no
+     * tiene secuencia; se crea una que continua desde el id mayor
+     */
+    private void crearSecuencia(String tabla) {
+        String actual = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, tabla);
+        if (actual != null) {
+            return;
+        }
+        String secuencia = tabla + "_id_seq";
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + secuencia + " OWNED BY " + tabla + ".id");
+        jdbcTemplate.queryForList("SELECT setval('" + secuencia + "', (SELECT COALESCE(MAX(id), 0) + 1 FROM "
+                + tabla + "), false)");
+        jdbcTemplate.execute("ALTER TABLE " + tabla + " ALTER COLUMN id SET DEFAULT nextval('" + secuencia + "')");
+    }
+
+    private boolean existeTabla(String tabla) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(SQL_EXISTE_TABLA, Boolean.class, tabla));
+    }
+}
@@ -0,0 +1,50 @@
+package com.api.payglobal.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.api.payglobal.repository.IngresoPasivoJdbcRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Antes de pagos_licencia solo se guardaba licencias.fecha_ultimo_ingreso_pasivo.
+ * La primera vez que arranca con la tabla vacia se copia esa fecha como marca,
+ * para que una corrida de ese dia que se reanude no la pague otra vez.
+ */
+@Component
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class MigracionPagosLicencia {
+
+    // Evita que dos instancias copien las marcas a la vez
+    private static final long CLAVE_BLOQUEO = 0x7061676f73L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IngresoPasivoJdbcRepository ingresoPasivoJdbcRepository;
+
+    @PostConstruct
+    public void migrar() {
+        if (!ingresoPasivoJdbcRepository.sinPagosRegistrados()) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", CLAVE_BLOQUEO);
+            int marcas = ingresoPasivoJdbcRepository.migrarMarcas();
+            if (marcas > 0) {
+                log.info("Pagos de licencia: {} marcas copiadas desde fecha_ultimo_ingreso_pasivo", marcas);
+            }
+        });
+    }
+}
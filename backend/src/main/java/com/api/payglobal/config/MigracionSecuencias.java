@@ -0,0 +1,83 @@
+package com.api.payglobal.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.api.payglobal.helpers.SecuenciasIds;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pasa las tablas con muchas escrituras de columnas identity a las
+ * secuencias pooled-lo de SecuenciasIds. Corre en cada arranque y es
+ * idempotente: adelanta cada secuencia por encima del id mayor existente,
+ * quita la identity de la columna y deja la secuencia como default para los
+ * inserts que no traen id.
+ */
+@Component
+@Slf4j
+@DependsOn({ "entityManagerFactory", "migracionOperaciones" })
+public class MigracionSecuencias {
+
+    private static final Map<String, String> SECUENCIAS = Map.of(
+            "transacciones", SecuenciasIds.TRANSACCIONES,
+            "bonos", SecuenciasIds.BONOS,
+            "wallets", SecuenciasIds.WALLETS,
+            "licencias", SecuenciasIds.LICENCIAS);
+
+    // Evita que dos instancias ajusten las secuencias a la vez
+    private static final long CLAVE_BLOQUEO = 0x7365637565L;
+
+    /**
+     * El siguiente bloque debe empezar despues del id mayor; last_value es
+     * nulo mientras la secuencia no se ha usado
+     */
+    private static final String SQL_ADELANTAR = """
+            SELECT setval('%2$s', GREATEST(
+                (SELECT COALESCE(MAX(id), 0) + 1 FROM %1$s),
+                (SELECT COALESCE(s.last_value + s.increment_by, s.start_value) FROM pg_sequences s
+                 WHERE s.schemaname = current_schema() AND s.sequencename = '%2$s')), false)
+            """;
+
+    private static final String SQL_DEFAULT_ACTUAL = """
+            SELECT column_default FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'id'
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    public void migrar() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", CLAVE_BLOQUEO);
+            SECUENCIAS.forEach((tabla, secuencia) -> {
+                jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + secuencia + " START WITH 1 INCREMENT BY "
+                        + SecuenciasIds.TAMANO_BLOQUE);
+                jdbcTemplate.queryForList(String.format(SQL_ADELANTAR, tabla, secuencia));
+                jdbcTemplate.execute("ALTER TABLE " + tabla + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+
+                String esperado = "nextval('" + secuencia + "'::regclass)";
+                // Sin default la columna viene nula, y findFirst no admite nulos
+                List<String> defaults = jdbcTemplate.queryForList(SQL_DEFAULT_ACTUAL, String.class, tabla);
+                String actual = defaults.isEmpty() ? null : defaults.get(0);
+                if (!esperado.equals(actual)) {
+                    jdbcTemplate.execute("ALTER TABLE " + tabla + " ALTER COLUMN id SET DEFAULT nextval('"
+                            + secuencia + "')");
+                    log.info("Ids de {} generados ahora por {}", tabla, secuencia);
+                }
+            });
+        });
+    }
+}
@@ -21,6 +21,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.api.payglobal.helpers.JwtHelper;
 import com.api.payglobal.security.JwtAuthenticationFilter;
+import com.api.payglobal.security.PrincipalCache;
 import com.api.payglobal.service.usuario.UsuarioService;
 
 import java.util.Arrays;
@@ -49,8 +50,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    JwtAuthenticationFilter jwtAuthenticationFilter(JwtHelper jwtHelper, UsuarioService usuarioService) {
-        return new JwtAuthenticationFilter(jwtHelper, usuarioService);
+    JwtAuthenticationFilter jwtAuthenticationFilter(JwtHelper jwtHelper, PrincipalCache principalCache) {
+        return new JwtAuthenticationFilter(jwtHelper, principalCache);
     }
 
     @Bean
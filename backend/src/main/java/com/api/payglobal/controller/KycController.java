@@ -18,15 +18,20 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.api.payglobal.dto.request.EvaluarKycFileRequest;
 import com.api.payglobal.dto.request.GuardarKycFile;
 import com.api.payglobal.entity.KycFile;
+import com.api.payglobal.entity.enums.TipoKycFile;
 import com.api.payglobal.helpers.ApiResponseWrapper;
+import com.api.payglobal.service.kycFile.ErrorArchivoKyc;
 import com.api.payglobal.service.kycFile.FileStorageService;
 import com.api.payglobal.service.kycFile.KycServicio;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/api/kyc")
 public class KycController {
@@ -51,6 +56,37 @@ public class KycController {
         try {
             KycFile kycFile = kycServicio.guardarKycFile(guardarKycFile, idUsuario);
             return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponseWrapper<>(true, kycFile, "Archivo KYC subido exitosamente"));
+        } catch (ErrorArchivoKyc e) {
+            return archivoRechazado(e);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponseWrapper<>(false, null, "Error al guardar el archivo: " + e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+        }
+    }
+
+    /**
+     * Endpoint para subir un archivo KYC como cuerpo binario de la petición,
+     * sin multipart. Se escribe a disco mientras llega y se rechaza en cuanto
+     * el Content-Length o lo recibido pasa del límite
+     * @param fileType Tipo de documento
+     * @param idUsuario ID del usuario
+     * @return KycFile guardado
+     */
+    @PostMapping("/upload/{idUsuario}/stream")
+    @PreAuthorize("hasRole('USUARIO')")
+    public ResponseEntity<ApiResponseWrapper<KycFile>> uploadKycFileStream(
+            @RequestParam TipoKycFile fileType,
+            @PathVariable Long idUsuario,
+            HttpServletRequest request) {
+        try {
+            KycFile kycFile = kycServicio.guardarKycFile(request.getInputStream(), request.getContentLengthLong(),
+                    fileType, idUsuario);
+            return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponseWrapper<>(true, kycFile, "Archivo KYC subido exitosamente"));
+        } catch (ErrorArchivoKyc e) {
+            return archivoRechazado(e);
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponseWrapper<>(false, null, "Error al guardar el archivo: " + e.getMessage()));
@@ -157,6 +193,34 @@ public class KycController {
         }
     }
 
+    /**
+     * Endpoint para obtener la miniatura de un archivo KYC para el revisor
+     * @param fileName Nombre del archivo
+     * @return Vista previa en PNG, o 404 si no hay (PDF o aún generándose)
+     */
+    @GetMapping("/file/{fileName}/preview")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Resource> downloadPreview(@PathVariable String fileName) {
+        try {
+            Resource resource = fileStorageService.loadPreviewAsResource(fileName);
+            if (!resource.exists()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_PNG)
+                    .header(HttpHeaders.CACHE_CONTROL, "max-age=3600")
+                    .body(resource);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    private <T> ResponseEntity<ApiResponseWrapper<T>> archivoRechazado(ErrorArchivoKyc e) {
+        return ResponseEntity
+                .status(e.isDemasiadoGrande() ? HttpStatus.CONTENT_TOO_LARGE : HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                .body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+    }
+
     /**
      * Determina el tipo MIME basándose en la extensión del archivo
      * @param fileName Nombre del archivo
@@ -16,15 +16,18 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.api.payglobal.dto.response.GananciaMesDTO;
+import com.api.payglobal.dto.response.PaginaTransaccionesResponse;
 import com.api.payglobal.entity.Transaccion;
 import com.api.payglobal.entity.Usuario;
 import com.api.payglobal.entity.enums.EstadoOperacion;
 import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoConteo;
 import com.api.payglobal.helpers.ApiResponseWrapper;
 import com.api.payglobal.service.transaccion.TransaccionService;
 
@@ -58,26 +61,25 @@ public class TransaccionController {
 	}
 
 	/**
-	 * Filtrar transacciones por fecha, concepto, estado y usuario (paginado)
+	 * Filtrar transacciones por fecha, concepto, estado y usuario. Para la
+	 * pagina siguiente se envian cursorFecha y cursorId de la respuesta
+	 * anterior; page solo se usa para saltar a una pagina sin cursor
 	 */
 	@GetMapping("/filtrar")
 	@PreAuthorize("hasRole('ADMIN') or hasRole('USUARIO')")
-	public ResponseEntity<ApiResponseWrapper<Page<Transaccion>>> filtrarTransacciones(
+	public ResponseEntity<ApiResponseWrapper<PaginaTransaccionesResponse>> filtrarTransacciones(
 			@RequestParam(required = false) Long usuarioId,
 			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
 			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
 			@RequestParam(required = false) TipoConceptos concepto,
 			@RequestParam(required = false) EstadoOperacion estado,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorFecha,
+			@RequestParam(required = false) Long cursorId,
+			@RequestParam(defaultValue = "ESTIMADO") TipoConteo conteo,
 			@PageableDefault(page = 0, size = 10) Pageable pageable) {
 		try {
-			// Crear Pageable con ordenamiento por fecha descendente
-			Pageable sortedPageable = PageRequest.of(
-					pageable.getPageNumber(),
-					pageable.getPageSize(),
-					Sort.by(Sort.Direction.DESC, "fecha")
-			);
-			Page<Transaccion> transacciones = transaccionService.filtrarTransacciones(
-					usuarioId, desde, hasta, concepto, estado, sortedPageable);
+			PaginaTransaccionesResponse transacciones = transaccionService.filtrarTransacciones(
+					usuarioId, desde, hasta, concepto, estado, cursorFecha, cursorId, pageable, conteo);
 			return ResponseEntity.ok(new ApiResponseWrapper<>(true, transacciones, null));
 		} catch (Exception e) {
 			return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -101,4 +103,19 @@ public class TransaccionController {
 					.body(new ApiResponseWrapper<>(false, null, e.getMessage()));
 		}
 	}
+
+	/**
+	 * Recalcular el acumulado de ganancias por mes desde el historial (Admin)
+	 */
+	@PostMapping("/admin/ganancias-por-mes/reconstruir")
+	@PreAuthorize("hasRole('ADMINISTRADOR')")
+	public ResponseEntity<ApiResponseWrapper<Integer>> reconstruirGananciasPorMes() {
+		try {
+			int filas = transaccionService.reconstruirGananciasMensuales();
+			return ResponseEntity.ok(new ApiResponseWrapper<>(true, filas, null));
+		} catch (Exception e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+					.body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+		}
+	}
 }
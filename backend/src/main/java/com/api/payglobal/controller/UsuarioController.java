@@ -1,6 +1,7 @@
 package com.api.payglobal.controller;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +9,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -27,9 +30,14 @@ import com.api.payglobal.dto.request.CambiarPasswordRequest;
 import com.api.payglobal.dto.request.EditarPerfilRequest;
 import com.api.payglobal.dto.request.LoginRequest;
 import com.api.payglobal.dto.request.RegistroResquestDTO;
+import com.api.payglobal.dto.response.ConciliacionLedgerResponse;
+import com.api.payglobal.dto.response.ConsistenciaGrafoResponse;
 import com.api.payglobal.dto.response.JwtResponse;
+import com.api.payglobal.dto.response.ResumenUsuarioDTO;
 import com.api.payglobal.dto.response.UsuarioEnRedResponse;
 import com.api.payglobal.dto.response.UsuarioExplorerResponseDTO;
+import com.api.payglobal.dto.response.UsuarioSesionDTO;
+import com.api.payglobal.entity.CorridaIngresoPasivo;
 import com.api.payglobal.entity.Solicitud;
 import com.api.payglobal.entity.Usuario;
 import com.api.payglobal.entity.enums.TipoCrypto;
@@ -38,7 +46,12 @@ import com.api.payglobal.entity.enums.TipoMetodoPago;
 import com.api.payglobal.entity.enums.TipoSolicitud;
 import com.api.payglobal.entity.enums.TipoWallets;
 import com.api.payglobal.helpers.ApiResponseWrapper;
+import com.api.payglobal.helpers.CacheTtl;
+import com.api.payglobal.service.ingresoPasivo.IngresoPasivoService;
+import com.api.payglobal.service.red.RedReferidosService;
+import com.api.payglobal.service.resumen.ResumenUsuarioService;
 import com.api.payglobal.service.usuario.UsuarioService;
+import com.api.payglobal.service.wallet.LedgerService;
 
 @RestController
 @RequestMapping("/api/usuarios")
@@ -47,6 +60,18 @@ public class UsuarioController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private RedReferidosService redReferidosService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private IngresoPasivoService ingresoPasivoService;
+
+    @Autowired
+    private ResumenUsuarioService resumenUsuarioService;
+
     /**
      * Registro de nuevo usuario
      */
@@ -75,6 +100,67 @@ public class UsuarioController {
         }
     }
 
+    /**
+     * Resumen del perfil del usuario autenticado
+     */
+    @GetMapping("/perfil")
+    @PreAuthorize("hasAnyRole('USUARIO', 'ADMINISTRADOR')")
+    public ResponseEntity<ApiResponseWrapper<UsuarioSesionDTO>> obtenerPerfil(
+            @AuthenticationPrincipal Usuario usuario) {
+        try {
+            UsuarioSesionDTO perfil = usuarioService.obtenerPerfil(usuario.getId());
+            return ResponseEntity.ok(new ApiResponseWrapper<>(true, perfil, null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+        }
+    }
+
+    /**
+     * Resumen del dashboard del usuario autenticado, servido desde cache
+     */
+    @GetMapping("/resumen")
+    @PreAuthorize("hasAnyRole('USUARIO', 'ADMINISTRADOR')")
+    public ResponseEntity<ApiResponseWrapper<ResumenUsuarioDTO>> obtenerResumen(
+            @AuthenticationPrincipal Usuario usuario) {
+        try {
+            ResumenUsuarioDTO resumen = resumenUsuarioService.obtenerResumen(usuario.getId());
+            return ResponseEntity.ok(new ApiResponseWrapper<>(true, resumen, null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+        }
+    }
+
+    /**
+     * Aciertos, fallos y desalojos de la cache de resumenes (Admin)
+     */
+    @GetMapping("/admin/resumen/estadisticas")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ApiResponseWrapper<CacheTtl.Estadisticas>> estadisticasResumen() {
+        return ResponseEntity.ok(new ApiResponseWrapper<>(true, resumenUsuarioService.estadisticas(), null));
+    }
+
+    /**
+     * Solicitudes del usuario autenticado, paginadas de la mas reciente a la
+     * mas antigua
+     */
+    @GetMapping("/perfil/solicitudes")
+    @PreAuthorize("hasAnyRole('USUARIO', 'ADMINISTRADOR')")
+    public ResponseEntity<ApiResponseWrapper<Page<Solicitud>>> obtenerSolicitudesPerfil(
+            @AuthenticationPrincipal Usuario usuario,
+            @PageableDefault(page = 0, size = 20) Pageable pageable) {
+        try {
+            Page<Solicitud> solicitudes = usuarioService.obtenerSolicitudesUsuario(usuario.getId(),
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                            Sort.by(Sort.Direction.DESC, "fecha")));
+            return ResponseEntity.ok(new ApiResponseWrapper<>(true, solicitudes, null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+        }
+    }
+
     /**
      * Editar perfil del usuario autenticado
      */
@@ -139,6 +225,106 @@ public class UsuarioController {
         }
     }
 
+    /**
+     * Obtener usuarios en red paginados y filtrados por nivel
+     */
+    @GetMapping("/red/{username}/paginada")
+    @PreAuthorize("hasRole('USUARIO')")
+    public ResponseEntity<ApiResponseWrapper<Page<UsuarioEnRedResponse>>> obtenerUsuariosEnRedPaginado(
+            @PathVariable String username,
+            @RequestParam(defaultValue = "1") int nivelDesde,
+            @RequestParam(defaultValue = "10") int nivelHasta,
+            @PageableDefault(page = 0, size = 50) Pageable pageable) {
+        try {
+            Page<UsuarioEnRedResponse> usuariosEnRed = usuarioService.obtenerUsuariosEnRedPaginado(username,
+                    nivelDesde, nivelHasta, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+            return ResponseEntity.ok(new ApiResponseWrapper<>(true, usuariosEnRed, null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+        }
+    }
+
+    /**
+     * Reconstruir la tabla de cierre de la red de referidos (Admin)
+     */
+    @PostMapping("/admin/red/reconstruir")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ApiResponseWrapper<Integer>> reconstruirRed() {
+        try {
+            int filas = redReferidosService.reconstruir();
+            return ResponseEntity.ok(new ApiResponseWrapper<>(true, filas, null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+        }
+    }
+
+    /**
+     * Recargar el grafo de referidos en memoria (Admin)
+     */
+    @PostMapping("/admin/red/grafo/reconstruir")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ApiResponseWrapper<Integer>> reconstruirGrafoRed() {
+        try {
+            int usuarios = redReferidosService.reconstruirGrafo();
+            return ResponseEntity.ok(new ApiResponseWrapper<>(true, usuarios, null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+        }
+    }
+
+    /**
+     * Comparar el grafo de referidos en memoria con la base de datos (Admin)
+     */
+    @GetMapping("/admin/red/grafo/verificar")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ApiResponseWrapper<ConsistenciaGrafoResponse>> verificarGrafoRed() {
+        try {
+            ConsistenciaGrafoResponse resultado = redReferidosService.verificarGrafo();
+            return ResponseEntity.ok(new ApiResponseWrapper<>(true, resultado, null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+        }
+    }
+
+    /**
+     * Conciliar el saldo de las wallets con el libro mayor (Admin)
+     */
+    @GetMapping("/admin/wallets/conciliar")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ApiResponseWrapper<ConciliacionLedgerResponse>> conciliarWallets() {
+        try {
+            ConciliacionLedgerResponse resultado = ledgerService.conciliar();
+            return ResponseEntity.ok(new ApiResponseWrapper<>(true, resultado, null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+        }
+    }
+
+    /**
+     * Pagar el ingreso pasivo de los dias habiles sin corrida completada (Admin).
+     * Sin desde se buscan huecos a partir de la primera corrida; sin
+     * hasta, hasta hoy
+     */
+    @PostMapping("/admin/ingreso-pasivo/recuperar")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ApiResponseWrapper<List<CorridaIngresoPasivo>>> recuperarIngresoPasivo(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            List<CorridaIngresoPasivo> corridas = ingresoPasivoService.recuperarDias(desde,
+                    hasta != null ? hasta : LocalDate.now());
+            return ResponseEntity.ok(new ApiResponseWrapper<>(true, corridas, null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponseWrapper<>(false, null, e.getMessage()));
+        }
+    }
+
     /**
      * Editar usuario (Admin)
      */
@@ -0,0 +1,13 @@
+package com.api.payglobal.dto.projection;
+
+import java.math.BigDecimal;
+
+import com.api.payglobal.entity.enums.TipoBono;
+
+public interface BonoResumenProjection {
+    Long getId();
+
+    TipoBono getNombre();
+
+    BigDecimal getAcumulado();
+}
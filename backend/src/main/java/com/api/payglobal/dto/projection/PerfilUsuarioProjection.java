@@ -0,0 +1,55 @@
+package com.api.payglobal.dto.projection;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import com.api.payglobal.entity.enums.RolesUsuario;
+import com.api.payglobal.entity.enums.TipoRango;
+
+/**
+ * Datos de perfil del usuario con el resumen de su licencia, devueltos por
+ * UsuarioRepository.findPerfilById sin hidratar la entidad Usuario
+ */
+public interface PerfilUsuarioProjection {
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getNombre();
+
+    String getApellido();
+
+    String getTelefono();
+
+    String getPais();
+
+    String getReferenciado();
+
+    Date getFechaRegistro();
+
+    Boolean getActivo();
+
+    Boolean getVerificado();
+
+    TipoRango getRango();
+
+    RolesUsuario getRol();
+
+    Long getCapitalRed();
+
+    Integer getTamanoRed();
+
+    String getLicenciaNombre();
+
+    Integer getLicenciaPrecio();
+
+    Integer getLicenciaLimite();
+
+    Boolean getLicenciaActivo();
+
+    Integer getLicenciaSaldoAcumulado();
+
+    LocalDate getLicenciaFechaCompra();
+}
@@ -0,0 +1,30 @@
+package com.api.payglobal.dto.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Fila de la red descendente devuelta por
+ * UsuarioRepository.findRedDescendente: datos del usuario, resumen de su
+ * licencia y su nivel respecto al usuario raiz
+ */
+public interface UsuarioEnRedProjection {
+    Long getUsuarioId();
+
+    String getUsername();
+
+    String getReferenciado();
+
+    Integer getNivel();
+
+    String getLicenciaNombre();
+
+    Integer getLicenciaPrecio();
+
+    Integer getLicenciaLimite();
+
+    Boolean getLicenciaActivo();
+
+    Integer getLicenciaSaldoAcumulado();
+
+    LocalDate getLicenciaFechaCompra();
+}
@@ -0,0 +1,16 @@
+package com.api.payglobal.dto.projection;
+
+import java.math.BigDecimal;
+
+import com.api.payglobal.entity.enums.CodigoTipoWallets;
+import com.api.payglobal.entity.enums.TipoWallets;
+
+public interface WalletSaldoProjection {
+    Long getId();
+
+    TipoWallets getTipo();
+
+    CodigoTipoWallets getCodigo();
+
+    BigDecimal getSaldo();
+}
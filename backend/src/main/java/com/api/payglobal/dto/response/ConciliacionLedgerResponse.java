@@ -0,0 +1,16 @@
+package com.api.payglobal.dto.response;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ConciliacionLedgerResponse {
+    private Integer walletsRevisadas;
+    private Integer diferencias;
+    // Primeras wallets cuyo saldo no coincide con el libro mayor
+    private List<Long> ejemplos;
+    private Long duracionMs;
+}
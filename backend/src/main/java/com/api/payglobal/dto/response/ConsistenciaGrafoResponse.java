@@ -0,0 +1,16 @@
+package com.api.payglobal.dto.response;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ConsistenciaGrafoResponse {
+    private Integer usuariosBaseDatos;
+    private Integer usuariosGrafo;
+    private Integer diferencias;
+    // Primeros ids de usuario cuyo referenciador no coincide
+    private List<Long> ejemplos;
+}
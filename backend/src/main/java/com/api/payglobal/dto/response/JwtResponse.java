@@ -1,7 +1,5 @@
 package com.api.payglobal.dto.response;
 
-import com.api.payglobal.entity.Usuario;
-
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,11 +19,11 @@ public class JwtResponse {
     
     private String email;
 
-    private Usuario user;
+    private UsuarioSesionDTO user;
 
     private Integer usuarioEnRed;
 
-    public JwtResponse(String token, Long id, String username, String email, Usuario user, Integer ususarioEnRed) {
+    public JwtResponse(String token, Long id, String username, String email, UsuarioSesionDTO user, Integer ususarioEnRed) {
         this.token = token;
         this.id = id;
         this.username = username;
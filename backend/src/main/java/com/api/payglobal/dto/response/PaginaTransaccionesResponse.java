@@ -0,0 +1,34 @@
+package com.api.payglobal.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Pagina del historial de transacciones. content y page conservan la forma de
+ * Page para el frontend; cursorFecha y cursorId se envian de vuelta para
+ * pedir la pagina siguiente sin OFFSET.
+ */
+@Data
+@Builder
+public class PaginaTransaccionesResponse {
+    private List<TransaccionResumenDTO> content;
+    private InfoPagina page;
+    // Ultima fila de la pagina; null si no hay mas
+    private LocalDateTime cursorFecha;
+    private Long cursorId;
+    private boolean hayMas;
+
+    @Data
+    @Builder
+    public static class InfoPagina {
+        private Integer number;
+        private Integer size;
+        // null si se pidio sin conteo
+        private Long totalElements;
+        private Integer totalPages;
+        private boolean totalEstimado;
+    }
+}
@@ -0,0 +1,32 @@
+package com.api.payglobal.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.api.payglobal.entity.enums.TipoRango;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Datos del dashboard en una sola respuesta: saldos de wallets, licencia,
+ * tamano y capital de la red y ganancias por mes. generadoEn indica cuando se
+ * armo la copia que guarda la cache.
+ */
+@Data
+@Builder
+public class ResumenUsuarioDTO {
+    private Long usuarioId;
+    private String username;
+    private TipoRango rango;
+    private Long capitalRed;
+    private Integer tamanoRed;
+
+    private UsuarioSesionDTO.LicenciaResumen licencia;
+    private List<UsuarioSesionDTO.WalletSaldo> wallets;
+    private BigDecimal saldoTotal;
+    private List<GananciaMesDTO> gananciasPorMes;
+
+    private LocalDateTime generadoEn;
+}
@@ -0,0 +1,31 @@
+package com.api.payglobal.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.api.payglobal.entity.enums.EstadoOperacion;
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoCrypto;
+import com.api.payglobal.entity.enums.TipoMetodoPago;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila del historial de transacciones, con los mismos campos que se
+ * serializaban de Transaccion pero sin cargar el usuario
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransaccionResumenDTO {
+    private Long id;
+    private BigDecimal monto;
+    private LocalDateTime fecha;
+    private EstadoOperacion estado;
+    private TipoCrypto tipoCrypto;
+    private String descripcion;
+    private TipoConceptos concepto;
+    private TipoMetodoPago metodoPago;
+}
@@ -0,0 +1,73 @@
+package com.api.payglobal.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import com.api.payglobal.entity.enums.CodigoTipoWallets;
+import com.api.payglobal.entity.enums.RolesUsuario;
+import com.api.payglobal.entity.enums.TipoBono;
+import com.api.payglobal.entity.enums.TipoRango;
+import com.api.payglobal.entity.enums.TipoWallets;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Resumen del usuario que se devuelve en el login, el registro y el perfil.
+ * Conserva los nombres de campo de la entidad Usuario para que el frontend
+ * lo use igual, pero sin colecciones de transacciones, solicitudes, tickets
+ * ni archivos KYC.
+ */
+@Data
+@Builder
+public class UsuarioSesionDTO {
+    private Long id;
+    private String username;
+    private String email;
+    private String nombre;
+    private String apellido;
+    private String telefono;
+    private String pais;
+    private String referenciado;
+    private Date fechaRegistro;
+    private boolean activo;
+    private Boolean verificado;
+    private TipoRango rango;
+    private RolesUsuario rol;
+    private Long capitalRed;
+    private Integer tamanoRed;
+
+    private LicenciaResumen licencia;
+    private List<WalletSaldo> wallets;
+    private List<BonoResumen> bonos;
+
+    @Data
+    @Builder
+    public static class LicenciaResumen {
+        private String nombre;
+        private Integer precio;
+        private Integer limite;
+        private Boolean activo;
+        private Integer saldoAcumulado;
+        private LocalDate fechaCompra;
+    }
+
+    @Data
+    @Builder
+    public static class WalletSaldo {
+        private Long id;
+        private TipoWallets tipo;
+        private CodigoTipoWallets codigo;
+        private BigDecimal saldo;
+    }
+
+    @Data
+    @Builder
+    public static class BonoResumen {
+        private Long id;
+        private TipoBono nombre;
+        private BigDecimal acumulado;
+    }
+}
@@ -3,6 +3,7 @@ package com.api.payglobal.entity;
 import java.math.BigDecimal;
 
 import com.api.payglobal.entity.enums.TipoBono;
+import com.api.payglobal.helpers.SecuenciasIds;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.Entity;
@@ -12,6 +13,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -27,7 +29,9 @@ import lombok.NoArgsConstructor;
 public class Bono {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SecuenciasIds.BONOS)
+    @SequenceGenerator(name = SecuenciasIds.BONOS, sequenceName = SecuenciasIds.BONOS,
+            allocationSize = SecuenciasIds.TAMANO_BLOQUE)
     private Long id;
 
     @Enumerated(EnumType.STRING)
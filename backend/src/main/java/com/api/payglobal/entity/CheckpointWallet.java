@@ -0,0 +1,45 @@
+package com.api.payglobal.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Saldo de una wallet hasta un movimiento del libro mayor. La conciliacion
+ * solo suma los movimientos posteriores al ultimo checkpoint.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "checkpoints_wallet", indexes = {
+        @Index(name = "idx_checkpoint_wallet", columnList = "wallet_id, movimiento_id")
+})
+public class CheckpointWallet {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "movimiento_id", nullable = false)
+    private Long movimientoId;
+
+    @Column(nullable = false)
+    private BigDecimal saldo;
+
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,71 @@
+package com.api.payglobal.entity;
+
+import java.time.LocalDateTime;
+
+import com.api.payglobal.entity.enums.EstadoCorreo;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Correo en la bandeja de salida. EmailService lo inserta en la transaccion
+ * de quien lo pide y DespachadorCorreos lo envia despues, fuera de la
+ * peticion. Un correo ENVIANDO cuyo proximoIntento ya paso se vuelve a tomar
+ * (la instancia que lo tenia se detuvo a mitad del envio).
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "correos_salientes", indexes = {
+        @Index(name = "idx_correos_estado_proximo", columnList = "estado, proximo_intento")
+})
+public class CorreoSaliente {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String destinatario;
+
+    private String asunto;
+
+    @Column(columnDefinition = "TEXT")
+    private String contenido;
+
+    // text/plain o text/html
+    @Column(name = "tipo_contenido", nullable = false)
+    private String tipoContenido;
+
+    // null: el remitente configurado en sendgrid.from.*
+    private String remitente;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoCorreo estado;
+
+    @Column(nullable = false)
+    private int intentos;
+
+    @Column(name = "proximo_intento", nullable = false)
+    private LocalDateTime proximoIntento;
+
+    private LocalDateTime fechaCreacion;
+
+    private LocalDateTime fechaEnvio;
+
+    @Column(length = 1000)
+    private String ultimoError;
+}
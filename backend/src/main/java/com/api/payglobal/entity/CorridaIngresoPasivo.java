@@ -0,0 +1,50 @@
+package com.api.payglobal.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.api.payglobal.entity.enums.EstadoCorrida;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Registro de una corrida del pago de ingreso pasivo. El avance de cada
+ * particion se guarda en ParticionCorrida para poder reanudar la corrida tras
+ * una caida. ultimoIdLicencia solo lo usan las corridas anteriores a las
+ * particiones.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "corridas_ingreso_pasivo")
+public class CorridaIngresoPasivo {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private LocalDate fechaNegocio;
+
+    @Enumerated(EnumType.STRING)
+    private EstadoCorrida estado;
+
+    private Long ultimoIdLicencia;
+    // Se fija al crear la corrida para que una reanudacion use el mismo reparto
+    private Integer particiones;
+    private Long licenciasProcesadas;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+}
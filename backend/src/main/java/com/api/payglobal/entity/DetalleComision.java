@@ -0,0 +1,58 @@
+package com.api.payglobal.entity;
+
+import java.time.LocalDateTime;
+
+import com.api.payglobal.entity.enums.TipoConceptos;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Desglose por referido de las comisiones de una corrida de ingreso pasivo.
+ * Las wallets y transacciones reciben los totales por beneficiario y nivel;
+ * esta tabla conserva de que referido viene cada parte. Solo se escribe desde
+ * IngresoPasivoJdbcRepository.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "detalle_comisiones", indexes = {
+        @Index(name = "idx_detalle_comision_corrida", columnList = "corrida_id"),
+        @Index(name = "idx_detalle_comision_usuario", columnList = "usuario_id, corrida_id")
+})
+public class DetalleComision {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "corrida_id", nullable = false)
+    private Long corridaId;
+
+    @Enumerated(EnumType.STRING)
+    private TipoConceptos concepto;
+
+    // Beneficiario de la comision
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    private Integer nivel;
+    private Long walletId;
+    private Long licenciaId;
+    private Long usuarioOrigenId;
+    private Long montoCentavos;
+    private Integer montoLicencia;
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,54 @@
+package com.api.payglobal.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.api.payglobal.entity.enums.TipoConceptos;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Total de ganancias COMPLETADAS de un usuario por mes y concepto. Se suma en
+ * la misma transaccion que registra cada ganancia, asi ganancias-por-mes lee
+ * unas pocas filas sin recorrer el historial. Solo se escribe desde
+ * GananciaMensualJdbcRepository.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "ganancias_mensuales", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ganancia_mensual", columnNames = { "usuario_id", "mes", "concepto" })
+})
+public class GananciaMensual {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    // Primer dia del mes
+    @Column(nullable = false)
+    private LocalDate mes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TipoConceptos concepto;
+
+    @Column(nullable = false)
+    private BigDecimal monto;
+}
@@ -2,6 +2,7 @@ package com.api.payglobal.entity;
 
 import java.time.LocalDate;
 
+import com.api.payglobal.helpers.SecuenciasIds;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.Entity;
@@ -9,6 +10,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,7 +25,9 @@ import lombok.NoArgsConstructor;
 @Table(name = "licencias")
 public class Licencia {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SecuenciasIds.LICENCIAS)
+    @SequenceGenerator(name = SecuenciasIds.LICENCIAS, sequenceName = SecuenciasIds.LICENCIAS,
+            allocationSize = SecuenciasIds.TAMANO_BLOQUE)
     private Long id;
 
     private String nombre;
@@ -32,6 +36,9 @@ public class Licencia {
     private Boolean activo;
     private LocalDate fechaCompra;
     private Integer saldoAcumulado;
+    // Ultima fecha de negocio con ingreso pasivo pagado; una corrida repetida
+    // o de recuperacion no vuelve a pagar la licencia ese dia
+    private LocalDate fechaUltimoIngresoPasivo;
 
     @OneToOne
     @JsonBackReference
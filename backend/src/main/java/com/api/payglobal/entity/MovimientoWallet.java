@@ -0,0 +1,68 @@
+package com.api.payglobal.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.api.payglobal.entity.enums.TipoConceptos;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Asiento inmutable del libro mayor de wallets. Cada fila guarda el saldo de
+ * la wallet despues de aplicarla, de modo que el saldo actual es el
+ * saldoResultante del ultimo movimiento. Los movimientos de un mismo evento
+ * comparten asiento; walletContrapartidaId es null cuando la contrapartida es
+ * externa (plataforma, retiro a blockchain).
+ * Solo se escribe desde LedgerJdbcRepository.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "movimientos_wallet", indexes = {
+        @Index(name = "idx_movimiento_wallet", columnList = "wallet_id, id"),
+        @Index(name = "idx_movimiento_asiento", columnList = "asiento")
+})
+public class MovimientoWallet {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    private Long walletId;
+
+    @Column(nullable = false, updatable = false, length = 36)
+    private String asiento;
+
+    @Column(nullable = false, updatable = false)
+    private BigDecimal monto;
+
+    @Column(nullable = false, updatable = false)
+    private BigDecimal saldoResultante;
+
+    @Column(updatable = false)
+    private Long walletContrapartidaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(updatable = false)
+    private TipoConceptos concepto;
+
+    @Column(updatable = false)
+    private String descripcion;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime fecha;
+}
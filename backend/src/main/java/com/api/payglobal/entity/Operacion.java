@@ -6,33 +6,27 @@ import java.time.LocalDateTime;
 import com.api.payglobal.entity.enums.EstadoOperacion;
 import com.api.payglobal.entity.enums.TipoCrypto;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
-import jakarta.persistence.Inheritance;
-import jakarta.persistence.InheritanceType;
-import jakarta.persistence.Table;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.MappedSuperclass;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
-@Entity
-@Inheritance(strategy = InheritanceType.JOINED)
-@Table(name = "operaciones")
+/**
+ * Columnas comunes de Transaccion y Solicitud. Cada una tiene su propia tabla
+ * con todas las columnas y su propia secuencia de ids, asi un insert escribe
+ * una sola fila y las lecturas no hacen join. Las bases anteriores (herencia
+ * JOINED sobre operaciones) se migran con MigracionOperaciones.
+ */
+@MappedSuperclass
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @SuperBuilder
 public abstract class Operacion {
 
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
     private BigDecimal monto;
 
     private LocalDateTime fecha;
@@ -0,0 +1,44 @@
+package com.api.payglobal.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Marca de ingreso pasivo pagado a una licencia en una fecha de negocio. Se
+ * escribe en la misma transaccion que el abono y la clave unica impide pagar
+ * dos veces el mismo dia, aunque los dias se paguen fuera de orden. Solo se
+ * escribe desde IngresoPasivoJdbcRepository.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "pagos_licencia", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_pago_licencia_fecha", columnNames = { "licencia_id", "fecha_negocio" })
+})
+public class PagoLicencia {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "licencia_id", nullable = false)
+    private Long licenciaId;
+
+    @Column(name = "fecha_negocio", nullable = false)
+    private LocalDate fechaNegocio;
+
+    @Column(name = "corrida_id")
+    private Long corridaId;
+}
@@ -0,0 +1,53 @@
+package com.api.payglobal.entity;
+
+import java.time.LocalDateTime;
+
+import com.api.payglobal.entity.enums.EstadoCorrida;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Avance de una particion (usuario_id % particiones) dentro de una corrida de
+ * ingreso pasivo. Cada particion tiene su propio cursor y se reanuda por
+ * separado; duracionMs suma el tiempo de los chunks confirmados.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "particiones_corrida_ingreso_pasivo", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "corrida_id", "particion" })
+})
+public class ParticionCorrida {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "corrida_id", nullable = false)
+    private Long corridaId;
+
+    @Column(nullable = false)
+    private Integer particion;
+
+    @Enumerated(EnumType.STRING)
+    private EstadoCorrida estado;
+
+    private Long ultimoIdLicencia;
+    private Long licenciasProcesadas;
+    private Long duracionMs;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+}
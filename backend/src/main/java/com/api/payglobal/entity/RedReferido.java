@@ -0,0 +1,48 @@
+package com.api.payglobal.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tabla de cierre de la red de referidos: una fila por cada par
+ * ancestro/descendiente hasta RedReferido.PROFUNDIDAD_MAXIMA niveles,
+ * incluida la fila del propio usuario con profundidad 0.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "red_referidos", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_red_ancestro_descendiente", columnNames = { "ancestro_id", "descendiente_id" })
+}, indexes = {
+    @Index(name = "idx_red_ancestro_profundidad", columnList = "ancestro_id, profundidad"),
+    @Index(name = "idx_red_descendiente_profundidad", columnList = "descendiente_id, profundidad")
+})
+public class RedReferido {
+
+    public static final int PROFUNDIDAD_MAXIMA = 10;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ancestro_id", nullable = false)
+    private Long ancestroId;
+
+    @Column(name = "descendiente_id", nullable = false)
+    private Long descendienteId;
+
+    @Column(nullable = false)
+    private Integer profundidad;
+}
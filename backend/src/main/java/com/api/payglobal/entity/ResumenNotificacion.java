@@ -0,0 +1,68 @@
+package com.api.payglobal.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.api.payglobal.entity.enums.TipoRango;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resumen diario de notificaciones de un usuario: lo que cobro y el rango que
+ * alcanzo ese dia. AgregadorNotificaciones lo va sumando desde la cola y
+ * NotificacionService lo envia como un solo correo al dia siguiente. Solo se
+ * escribe desde ResumenNotificacionJdbcRepository.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "resumenes_notificacion", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_resumen_notificacion", columnNames = { "usuario_id", "fecha" })
+}, indexes = {
+        @Index(name = "idx_resumen_notificacion_enviado", columnList = "enviado, fecha")
+})
+public class ResumenNotificacion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    // Dia en que ocurrieron los pagos
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "ingreso_pasivo", nullable = false)
+    private BigDecimal ingresoPasivo;
+
+    // Bono uninivel y el resto de bonos
+    @Column(nullable = false)
+    private BigDecimal bonos;
+
+    // Ultimo rango alcanzado en el dia, si subio
+    @Enumerated(EnumType.STRING)
+    private TipoRango rango;
+
+    @Column(nullable = false)
+    private boolean enviado;
+
+    @Column(name = "fecha_envio")
+    private LocalDateTime fechaEnvio;
+}
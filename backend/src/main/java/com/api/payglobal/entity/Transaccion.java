@@ -2,13 +2,16 @@ package com.api.payglobal.entity;
 
 import com.api.payglobal.entity.enums.TipoConceptos;
 import com.api.payglobal.entity.enums.TipoMetodoPago;
+import com.api.payglobal.helpers.SecuenciasIds;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -19,7 +22,11 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "transacciones")
+// Historial paginado por keyset sobre (fecha, id), con y sin usuario
+@Table(name = "transacciones", indexes = {
+        @Index(name = "idx_transacciones_usuario_fecha_id", columnList = "usuario_id, fecha, id"),
+        @Index(name = "idx_transacciones_fecha_id", columnList = "fecha, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,7 +34,9 @@ import lombok.experimental.SuperBuilder;
 @EqualsAndHashCode(callSuper=false)
 public class Transaccion extends Operacion {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SecuenciasIds.TRANSACCIONES)
+    @SequenceGenerator(name = SecuenciasIds.TRANSACCIONES, sequenceName = SecuenciasIds.TRANSACCIONES,
+            allocationSize = SecuenciasIds.TAMANO_BLOQUE)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -31,6 +32,7 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Data 
+@DynamicUpdate
 @Table(name = "usuarios", indexes = {
     @Index(name = "idx_email", columnList = "email"),
     @Index(name = "idx_username", columnList = "username"),
@@ -55,6 +57,13 @@ public class Usuario implements UserDetails{
     private boolean activo;
     @Enumerated(EnumType.STRING)
     private TipoRango rango;
+    // Suma del precio de las licencias de la red hasta 10 niveles, base del rango.
+    // Solo se escribe desde RangoJdbcRepository
+    @Column(insertable = false, updatable = false)
+    private Long capitalRed;
+    // Numero de usuarios en la red hasta 10 niveles, mantenido por RedReferidosService
+    @Column(insertable = false, updatable = false)
+    private Integer tamanoRed;
 
     @Enumerated(EnumType.STRING)
     private RolesUsuario rol;
@@ -4,14 +4,18 @@ import java.math.BigDecimal;
 
 import com.api.payglobal.entity.enums.CodigoTipoWallets;
 import com.api.payglobal.entity.enums.TipoWallets;
+import com.api.payglobal.helpers.SecuenciasIds;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -25,13 +29,21 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class Wallet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SecuenciasIds.WALLETS)
+    @SequenceGenerator(name = SecuenciasIds.WALLETS, sequenceName = SecuenciasIds.WALLETS,
+            allocationSize = SecuenciasIds.TAMANO_BLOQUE)
     private Long id;
 
     private TipoWallets tipo;
     private CodigoTipoWallets codigo;
     private BigDecimal saldo;
 
+    // Las escrituras por JDBC (LedgerJdbcRepository) tambien lo incrementan,
+    // asi una entidad leida antes de un abono no puede pisar el saldo al guardarse
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @ManyToOne
     @JsonBackReference
     private Usuario usuario;
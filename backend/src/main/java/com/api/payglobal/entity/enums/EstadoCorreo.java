@@ -0,0 +1,8 @@
+package com.api.payglobal.entity.enums;
+
+public enum EstadoCorreo {
+    PENDIENTE,
+    ENVIANDO,
+    ENVIADO,
+    FALLIDO
+}
@@ -0,0 +1,7 @@
+package com.api.payglobal.entity.enums;
+
+public enum EstadoCorrida {
+    EN_PROCESO,
+    COMPLETADA,
+    FALLIDA
+}
@@ -0,0 +1,13 @@
+package com.api.payglobal.entity.enums;
+
+/**
+ * Como calcular el total de un listado paginado
+ */
+public enum TipoConteo {
+    // count(*) siempre
+    EXACTO,
+    // Estimacion del planificador; si es pequena se cuenta exacto
+    ESTIMADO,
+    // Sin total, solo cursor a la pagina siguiente
+    NINGUNO
+}
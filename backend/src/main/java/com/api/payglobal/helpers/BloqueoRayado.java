@@ -0,0 +1,82 @@
+package com.api.payglobal.helpers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloqueo por franjas: cada clave se asigna a uno de N locks, de modo que
+ * claves distintas casi nunca se esperan entre si y la memoria no crece con
+ * el numero de claves. Con una sola franja equivale a un lock global.
+ */
+public class BloqueoRayado {
+
+    private final ReentrantLock[] franjas;
+    private final int mascara;
+    private final long esperaMaximaMs;
+
+    /**
+     * @param numeroFranjas   se redondea a la siguiente potencia de dos
+     * @param esperaMaximaMs  tiempo maximo para adquirir el lock
+     */
+    public BloqueoRayado(int numeroFranjas, long esperaMaximaMs) {
+        int tamano = numeroFranjas <= 1 ? 1 : Integer.highestOneBit(numeroFranjas - 1) << 1;
+        this.franjas = new ReentrantLock[tamano];
+        for (int i = 0; i < tamano; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        this.mascara = tamano - 1;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    public <T> T ejecutar(long clave, Callable<T> operacion) throws Exception {
+        ReentrantLock lock = franjas[franja(clave)];
+        adquirir(lock);
+        try {
+            return operacion.call();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bloquea las dos claves siempre en orden de franja, asi dos operaciones
+     * cruzadas (A con B y B con A) no se interbloquean
+     */
+    public <T> T ejecutar(long claveA, long claveB, Callable<T> operacion) throws Exception {
+        int franjaA = franja(claveA);
+        int franjaB = franja(claveB);
+        if (franjaA == franjaB) {
+            return ejecutar(claveA, operacion);
+        }
+        ReentrantLock primero = franjas[Math.min(franjaA, franjaB)];
+        ReentrantLock segundo = franjas[Math.max(franjaA, franjaB)];
+        adquirir(primero);
+        try {
+            adquirir(segundo);
+            try {
+                return operacion.call();
+            } finally {
+                segundo.unlock();
+            }
+        } finally {
+            primero.unlock();
+        }
+    }
+
+    public int numeroFranjas() {
+        return franjas.length;
+    }
+
+    int franja(long clave) {
+        // Mezcla de Fibonacci para que ids consecutivos caigan en franjas distintas
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mascara;
+    }
+
+    private void adquirir(ReentrantLock lock) throws Exception {
+        if (!lock.tryLock(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+            throw new Exception("Hay otra operacion en curso, intente de nuevo");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.api.payglobal.helpers;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache en memoria con tiempo de vida por entrada y numero maximo de
+ * entradas. Como el TTL es el mismo para todas, el orden de insercion es el
+ * orden de vencimiento: al superar el maximo se descarta la entrada mas
+ * antigua, que es la vencida o la mas proxima a vencer, en O(1).
+ *
+ * Una carga que empezo antes de una invalidacion de su clave no guarda su
+ * resultado, asi una lectura lenta no deja en la cache datos anteriores al
+ * cambio que la invalido.
+ */
+public class CacheTtl<K, V> {
+
+    private final LinkedHashMap<K, Entrada<V>> entradas = new LinkedHashMap<>();
+    // Claves con cargas en curso; se invalidan subiendo su generacion
+    private final Map<K, Carga> cargas = new HashMap<>();
+    private final long ttlMillis;
+    private final int maximoEntradas;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+
+    public CacheTtl(long ttlMillis, int maximoEntradas) {
+        this.ttlMillis = ttlMillis;
+        this.maximoEntradas = maximoEntradas;
+    }
+
+    /**
+     * Devuelve el valor vigente o lo carga con cargador, fuera del lock. Si
+     * el cargador devuelve null no se guarda nada.
+     */
+    public V obtener(K clave, Function<K, V> cargador) {
+        Carga carga;
+        long generacion;
+        synchronized (this) {
+            Entrada<V> entrada = entradas.get(clave);
+            if (entrada != null && entrada.venceEn > System.currentTimeMillis()) {
+                aciertos.increment();
+                return entrada.valor;
+            }
+            fallos.increment();
+            carga = cargas.computeIfAbsent(clave, k -> new Carga());
+            carga.enCurso++;
+            generacion = carga.generacion;
+        }
+
+        V valor = null;
+        try {
+            valor = cargador.apply(clave);
+        } finally {
+            guardar(clave, valor, carga, generacion);
+        }
+        return valor;
+    }
+
+    private synchronized void guardar(K clave, V valor, Carga carga, long generacion) {
+        if (--carga.enCurso == 0) {
+            cargas.remove(clave);
+        }
+        if (carga.generacion != generacion) {
+            return;
+        }
+        // Se quita antes de poner para que la clave pase al final del orden
+        entradas.remove(clave);
+        if (valor == null) {
+            return;
+        }
+        long ahora = System.currentTimeMillis();
+        entradas.put(clave, new Entrada<>(valor, ahora + ttlMillis));
+        recortar(ahora);
+    }
+
+    public synchronized void invalidar(K clave) {
+        entradas.remove(clave);
+        Carga carga = cargas.get(clave);
+        if (carga != null) {
+            carga.generacion++;
+        }
+    }
+
+    /**
+     * Las cargas en curso no tienen valor aun contra el cual evaluar la
+     * condicion, asi que se invalidan todas
+     */
+    public synchronized void invalidarSi(Predicate<V> condicion) {
+        entradas.values().removeIf(entrada -> condicion.test(entrada.valor));
+        cargas.values().forEach(carga -> carga.generacion++);
+    }
+
+    public synchronized void limpiar() {
+        entradas.clear();
+        cargas.values().forEach(carga -> carga.generacion++);
+    }
+
+    public synchronized int tamano() {
+        return entradas.size();
+    }
+
+    public synchronized Estadisticas estadisticas() {
+        return new Estadisticas(entradas.size(), maximoEntradas, aciertos.sum(), fallos.sum(), desalojos.sum());
+    }
+
+    /**
+     * Quita desde la cabeza las vencidas y, mientras sobren, las mas antiguas
+     */
+    private void recortar(long ahora) {
+        Iterator<Entrada<V>> iterador = entradas.values().iterator();
+        while (iterador.hasNext()) {
+            Entrada<V> masAntigua = iterador.next();
+            boolean vencida = masAntigua.venceEn <= ahora;
+            if (!vencida && entradas.size() <= maximoEntradas) {
+                return;
+            }
+            iterador.remove();
+            if (!vencida) {
+                desalojos.increment();
+            }
+        }
+    }
+
+    /**
+     * Contadores desde que se creo la cache. Los desalojos son las entradas
+     * vigentes descartadas por superar el maximo
+     */
+    public static final class Estadisticas {
+        private final int tamano;
+        private final int maximo;
+        private final long aciertos;
+        private final long fallos;
+        private final long desalojos;
+
+        private Estadisticas(int tamano, int maximo, long aciertos, long fallos, long desalojos) {
+            this.tamano = tamano;
+            this.maximo = maximo;
+            this.aciertos = aciertos;
+            this.fallos = fallos;
+            this.desalojos = desalojos;
+        }
+
+        public int getTamano() {
+            return tamano;
+        }
+
+        public int getMaximo() {
+            return maximo;
+        }
+
+        public long getAciertos() {
+            return aciertos;
+        }
+
+        public long getFallos() {
+            return fallos;
+        }
+
+        public long getDesalojos() {
+            return desalojos;
+        }
+
+        public double getTasaAciertos() {
+            long total = aciertos + fallos;
+            return total == 0 ? 0 : (double) aciertos / total;
+        }
+    }
+
+    private static final class Carga {
+        private int enCurso;
+        private long generacion;
+    }
+
+    private static final class Entrada<V> {
+        private final V valor;
+        private final long venceEn;
+
+        private Entrada(V valor, long venceEn) {
+            this.valor = valor;
+            this.venceEn = venceEn;
+        }
+    }
+}
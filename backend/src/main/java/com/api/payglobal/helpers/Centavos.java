@@ -0,0 +1,67 @@
+package com.api.payglobal.helpers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Aritmetica de dinero en centavos sobre long, sin objetos intermedios.
+ * Las tasas se expresan en partes por millon (1% = 10_000), de modo que
+ * todos los porcentajes del negocio son enteros exactos.
+ * Reglas de redondeo:
+ * - porTasa redondea al centavo mas cercano, las mitades lejos de cero
+ *   (HALF_UP), igual para montos negativos.
+ * - deBigDecimal usa la misma regla al pasar a centavos.
+ * - unidades trunca hacia cero, como el intValue() que se usaba para el
+ *   saldo acumulado de las licencias.
+ * Cualquier desbordamiento lanza ArithmeticException en lugar de dar un
+ * monto incorrecto.
+ */
+public final class Centavos {
+
+    public static final int ESCALA = 2;
+    public static final long POR_UNIDAD = 100L;
+    public static final long PPM = 1_000_000L;
+
+    private Centavos() {
+    }
+
+    /**
+     * Monto entero (precio de licencia, limite) a centavos
+     */
+    public static long deUnidades(long unidades) {
+        return Math.multiplyExact(unidades, POR_UNIDAD);
+    }
+
+    public static long sumar(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long restar(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * centavos * tasaPpm / 1_000_000 redondeado HALF_UP
+     */
+    public static long porTasa(long centavos, long tasaPpm) {
+        long producto = Math.multiplyExact(centavos, tasaPpm);
+        long mitad = producto >= 0 ? PPM / 2 : -PPM / 2;
+        return Math.addExact(producto, mitad) / PPM;
+    }
+
+    /**
+     * Parte entera del monto, truncada hacia cero
+     */
+    public static int unidades(long centavos) {
+        return Math.toIntExact(centavos / POR_UNIDAD);
+    }
+
+    public static BigDecimal aBigDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    public static long deBigDecimal(BigDecimal monto) {
+        return monto == null ? 0L
+                : monto.setScale(ESCALA, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,55 @@
+package com.api.payglobal.helpers;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Ejecuta una operacion que lanza excepciones checked en una transaccion
+ * nueva, haciendo rollback ante cualquier excepcion. La excepcion original
+ * llega sin envolver a quien llama.
+ */
+public class EjecucionTransaccional {
+
+    private final TransactionTemplate transactionTemplate;
+
+    public EjecucionTransaccional(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Como ejecutar, pero falla si ya hay una transaccion abierta: sirve a
+     * quien debe confirmar antes de liberar un bloqueo
+     */
+    public <T> T ejecutarNueva(Callable<T> operacion) throws Exception {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("La operacion debe empezar fuera de una transaccion abierta");
+        }
+        return ejecutar(operacion);
+    }
+
+    public <T> T ejecutar(Callable<T> operacion) throws Exception {
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    return operacion.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    // Envuelta para que la plantilla haga rollback
+                    throw new OperacionRechazada(e);
+                }
+            });
+        } catch (OperacionRechazada e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private static class OperacionRechazada extends RuntimeException {
+        OperacionRechazada(Exception causa) {
+            super(causa);
+        }
+    }
+}
@@ -3,19 +3,24 @@ package com.api.payglobal.helpers;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class JwtHelper {
@@ -25,6 +30,32 @@ public class JwtHelper {
     @Value("${jwt.expiration}")
     private Long JWT_EXPIRATION;
 
+    // La clave y el parser se construyen una sola vez y son thread-safe
+    private Key signInKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void inicializar() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+    }
+
+    /**
+     * Valida firma y expiracion en un solo parseo y devuelve los claims
+     * @throws JwtException si el token no es valido o ya expiro
+     */
+    public Claims parsearToken(String token) {
+        return extractAllClaims(token);
+    }
+
+    /**
+     * Autoridades guardadas en el claim "rol" al generar el token
+     */
+    public List<GrantedAuthority> extraerAutoridades(Claims claims) {
+        String rol = claims.get("rol", String.class);
+        return rol == null ? List.of() : List.of(new SimpleGrantedAuthority(rol));
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -59,35 +90,16 @@ public class JwtHelper {
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts
-                    .parserBuilder()
-                    .setSigningKey(getSignInKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return jwtParser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
             throw new JwtException("Error al procesar el token JWT: " + e.getMessage());
         }
     }
 
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
     }
 
     public boolean validateToken(String token) {
@@ -0,0 +1,133 @@
+package com.api.payglobal.helpers;
+
+import java.util.Arrays;
+
+/**
+ * Mapa long -> long de direccionamiento abierto, sin objetos por entrada.
+ * Pensado para acumular montos en centavos por id durante un proceso batch.
+ * No es thread-safe.
+ */
+public class MapaLong {
+
+    private static final float CARGA_MAXIMA = 0.6f;
+
+    private long[] claves;
+    private long[] valores;
+    private boolean[] usados;
+    private int tamano;
+    private int mascara;
+
+    public MapaLong() {
+        this(64);
+    }
+
+    public MapaLong(int capacidadInicial) {
+        int capacidad = Integer.highestOneBit(Math.max(4, (int) (capacidadInicial / CARGA_MAXIMA)) - 1) << 1;
+        reservar(capacidad);
+    }
+
+    /**
+     * Suma delta al valor de la clave (0 si no existia)
+     */
+    public void sumar(long clave, long delta) {
+        int i = posicion(clave);
+        if (usados[i]) {
+            valores[i] += delta;
+            return;
+        }
+        usados[i] = true;
+        claves[i] = clave;
+        valores[i] = delta;
+        if (++tamano > capacidad() * CARGA_MAXIMA) {
+            redimensionar();
+        }
+    }
+
+    /**
+     * Guarda el valor solo si la clave no existia
+     */
+    public void ponerSiAusente(long clave, long valor) {
+        int i = posicion(clave);
+        if (!usados[i]) {
+            sumar(clave, valor);
+        }
+    }
+
+    public long obtener(long clave, long porDefecto) {
+        int i = posicion(clave);
+        return usados[i] ? valores[i] : porDefecto;
+    }
+
+    public boolean contiene(long clave) {
+        return usados[posicion(clave)];
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public void recorrer(Consumidor consumidor) {
+        for (int i = 0; i < usados.length; i++) {
+            if (usados[i]) {
+                consumidor.aceptar(claves[i], valores[i]);
+            }
+        }
+    }
+
+    /**
+     * Claves en orden ascendente, para escribir las filas siempre en el mismo orden
+     */
+    public long[] clavesOrdenadas() {
+        long[] resultado = new long[tamano];
+        int k = 0;
+        for (int i = 0; i < usados.length; i++) {
+            if (usados[i]) {
+                resultado[k++] = claves[i];
+            }
+        }
+        Arrays.sort(resultado);
+        return resultado;
+    }
+
+    private int posicion(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        int i = (int) (h ^ (h >>> 32)) & mascara;
+        while (usados[i] && claves[i] != clave) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private int capacidad() {
+        return claves.length;
+    }
+
+    private void reservar(int capacidad) {
+        claves = new long[capacidad];
+        valores = new long[capacidad];
+        usados = new boolean[capacidad];
+        mascara = capacidad - 1;
+        tamano = 0;
+    }
+
+    private void redimensionar() {
+        long[] clavesAnteriores = claves;
+        long[] valoresAnteriores = valores;
+        boolean[] usadosAnteriores = usados;
+        reservar(capacidad() * 2);
+        for (int i = 0; i < usadosAnteriores.length; i++) {
+            if (usadosAnteriores[i]) {
+                int j = posicion(clavesAnteriores[i]);
+                usados[j] = true;
+                claves[j] = clavesAnteriores[i];
+                valores[j] = valoresAnteriores[i];
+                tamano++;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Consumidor {
+        void aceptar(long clave, long valor);
+    }
+}
@@ -0,0 +1,20 @@
+package com.api.payglobal.helpers;
+
+/**
+ * Secuencias de las entidades con muchas escrituras. Hibernate reserva
+ * bloques de TAMANO_BLOQUE ids por cada nextval (optimizador pooled-lo): el
+ * valor de la secuencia es el primer id del bloque. Los inserts por JDBC
+ * reservan bloques igual (SecuenciaJdbcRepository), asi nunca chocan.
+ */
+public final class SecuenciasIds {
+
+    public static final int TAMANO_BLOQUE = 50;
+
+    public static final String TRANSACCIONES = "transacciones_seq";
+    public static final String BONOS = "bonos_seq";
+    public static final String WALLETS = "wallets_seq";
+    public static final String LICENCIAS = "licencias_seq";
+
+    private SecuenciasIds() {
+    }
+}
@@ -1,83 +1,158 @@
 package com.api.payglobal.helpers;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import com.api.payglobal.dto.projection.UsuarioEnRedProjection;
 import com.api.payglobal.dto.response.UsuarioEnRedResponse;
+import com.api.payglobal.entity.Licencia;
+import com.api.payglobal.entity.RedReferido;
 import com.api.payglobal.entity.Usuario;
 import com.api.payglobal.entity.enums.TipoRango;
+import com.api.payglobal.repository.RedReferidoRepository;
 import com.api.payglobal.repository.UsuarioRepository;
-
+import com.api.payglobal.service.red.GrafoReferidos;
+import com.api.payglobal.service.red.IndiceRedReferidos;
+
+/**
+ * Consultas sobre la red de referidos. Las que devuelven entidades se
+ * resuelven con una sola consulta (tabla de cierre red_referidos o CTE
+ * recursivo); las de ids, niveles y tamanos usan el grafo en memoria.
+ */
 @Service
 public class UninivelHelper {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private RedReferidoRepository redReferidoRepository;
+
+    @Autowired
+    private IndiceRedReferidos indiceRedReferidos;
+
+    /**
+     * Ids de la red descendente hasta profundidadMaxima niveles, ordenados por
+     * nivel, resueltos en el grafo en memoria
+     */
+    public long[] obtenerIdsDescendientes(Long usuarioId, int profundidadMaxima) {
+        return indiceRedReferidos.obtener().descendientes(usuarioId, profundidadMaxima);
+    }
+
+    /**
+     * Ids de la linea ascendente del mas cercano al mas lejano, resueltos en el
+     * grafo en memoria
+     */
+    public long[] obtenerIdsAscendientes(Long usuarioId, int profundidadMaxima) {
+        return indiceRedReferidos.obtener().ascendientes(usuarioId, profundidadMaxima);
+    }
+
+    public int contarRed(Long usuarioId, int profundidadMaxima) {
+        return indiceRedReferidos.obtener().contarDescendientes(usuarioId, profundidadMaxima);
+    }
+
+    /**
+     * Distancia del usuario a la raiz de su red, -1 si no esta en el grafo
+     */
+    public int obtenerProfundidad(Long usuarioId) {
+        return indiceRedReferidos.obtener().profundidad(usuarioId);
+    }
+
+    /**
+     * Total de descendientes del usuario sin limite de niveles
+     */
+    public int obtenerTamanoSubred(Long usuarioId) {
+        return indiceRedReferidos.obtener().tamanoSubred(usuarioId);
+    }
+
     public List<Usuario> obtenerRedDeUsuario(String username) {
         Usuario usuario = usuarioRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        List<Usuario> redDeUsuario = new java.util.ArrayList<>();
-        obtenerReferidosRecursivo(usuario.getUsername(), redDeUsuario, 0, 10);
-        
-        return redDeUsuario;
+        return redReferidoRepository.findDescendientes(usuario.getId(), RedReferido.PROFUNDIDAD_MAXIMA);
     }
 
-    private void obtenerReferidosRecursivo(String username, List<Usuario> redDeUsuario, int nivelActual, int nivelMaximo) {
-        if (nivelActual >= nivelMaximo) {
-            return;
+    /**
+     * Pagina de la red descendente resuelta con un solo CTE recursivo, sin
+     * hidratar entidades Usuario
+     */
+    public Page<UsuarioEnRedResponse> obtenerRedDeUsuario(String username, int nivelDesde, int nivelHasta,
+            Pageable pageable) {
+        if (!usuarioRepository.existsByUsername(username)) {
+            throw new RuntimeException("Usuario no encontrado");
         }
 
-        List<Usuario> referidos = usuarioRepository.findByReferenciado(username);
-        redDeUsuario.addAll(referidos);
-
-        for (Usuario referido : referidos) {
-            obtenerReferidosRecursivo(referido.getUsername(), redDeUsuario, nivelActual + 1, nivelMaximo);
-        }
+        int hasta = Math.min(nivelHasta, RedReferido.PROFUNDIDAD_MAXIMA);
+        return usuarioRepository.findRedDescendente(username, Math.max(nivelDesde, 1), hasta, pageable)
+            .map(this::mapearAUsuarioEnRedResponse);
     }
 
-    public List<UsuarioEnRedResponse> mapearAUsuarioEnRedResponse(List<Usuario> usuarios, String usernameRaiz) {
-        List<UsuarioEnRedResponse> respuestas = new java.util.ArrayList<>();
-        for (Usuario usuario : usuarios) {
-            UsuarioEnRedResponse respuesta = UsuarioEnRedResponse.builder()
-                .username(usuario.getUsername())
-                .licencia(usuario.getLicencia())
-                .nivel(calcularNivelUsuario(usuario.getUsername(), usernameRaiz))
-                .referido(usuario.getReferenciado())
-                .build();
-            respuestas.add(respuesta);
-        }
-        return respuestas;
+    public UsuarioEnRedResponse mapearAUsuarioEnRedResponse(UsuarioEnRedProjection fila) {
+        Licencia licencia = fila.getLicenciaNombre() == null ? null : Licencia.builder()
+            .nombre(fila.getLicenciaNombre())
+            .precio(fila.getLicenciaPrecio())
+            .limite(fila.getLicenciaLimite())
+            .activo(fila.getLicenciaActivo())
+            .saldoAcumulado(fila.getLicenciaSaldoAcumulado())
+            .fechaCompra(fila.getLicenciaFechaCompra())
+            .build();
+
+        return UsuarioEnRedResponse.builder()
+            .username(fila.getUsername())
+            .licencia(licencia)
+            .nivel(fila.getNivel())
+            .referido(fila.getReferenciado())
+            .build();
     }
+
     public void asignarNivelesAUsuarios(List<UsuarioEnRedResponse> usuarios, String usernameRaiz) {
-        usuarios.forEach(u -> u.setNivel(calcularNivelUsuario(u.getUsername(), usernameRaiz)));
+        List<Usuario> entidades = usuarioRepository.findByUsernameIn(
+            usuarios.stream().map(UsuarioEnRedResponse::getUsername).toList());
+        Map<Long, Integer> niveles = obtenerNiveles(entidades, usernameRaiz);
+
+        Map<String, Integer> nivelesPorUsername = new HashMap<>();
+        entidades.forEach(u -> nivelesPorUsername.put(u.getUsername(), niveles.getOrDefault(u.getId(), 0)));
+        usuarios.forEach(u -> u.setNivel(nivelesPorUsername.getOrDefault(u.getUsername(), 0)));
     }
 
-    private Integer calcularNivelUsuario(String username, String usernameRaiz) {
-        Usuario usuario = usuarioRepository.findByUsername(username).orElse(null);
-        if (usuario == null || username.equals(usernameRaiz)) {
-            return 0;
+    private Map<Long, Integer> obtenerNiveles(List<Usuario> usuarios, String usernameRaiz) {
+        Map<Long, Integer> niveles = new HashMap<>();
+        if (usuarios.isEmpty()) {
+            return niveles;
         }
-        
-        int nivel = 0;
-        String referenciador = usuario.getReferenciado();
-        
-        while (referenciador != null && !referenciador.equals(usernameRaiz)) {
-            Usuario referenciadorUsuario = usuarioRepository.findByUsername(referenciador).orElse(null);
-            if (referenciadorUsuario == null) break;
-            referenciador = referenciadorUsuario.getReferenciado();
-            nivel++;
+
+        Usuario raiz = usuarioRepository.findByUsername(usernameRaiz).orElse(null);
+        if (raiz == null) {
+            return niveles;
         }
-        
-        return referenciador != null ? nivel + 1 : 0;
+
+        // El nivel es la posicion de la raiz en la linea ascendente de cada usuario
+        GrafoReferidos grafo = indiceRedReferidos.obtener();
+        for (Usuario usuario : usuarios) {
+            long[] ascendientes = grafo.ascendientes(usuario.getId(), RedReferido.PROFUNDIDAD_MAXIMA);
+            for (int i = 0; i < ascendientes.length; i++) {
+                if (ascendientes[i] == raiz.getId()) {
+                    niveles.put(usuario.getId(), i + 1);
+                    break;
+                }
+            }
+        }
+        return niveles;
     }
 
+    /**
+     * Linea ascendente del usuario. El propio usuario se devuelve con
+     * nivel nivelActual + 1 y cada ascendiente con un nivel mas.
+     */
     public List<UsuarioEnRedResponse> obtenerRedDeUsuariosInversaRecursiva(String usernameReferenciador,Integer nivelActual, Integer nivelMaximo) {
         List<UsuarioEnRedResponse> redInversa = new ArrayList<>();
-        
+
         Usuario usuario = usuarioRepository.findByUsername(usernameReferenciador)
             .orElse(null);
 
@@ -85,16 +160,14 @@ public class UninivelHelper {
             return redInversa;
         }
 
-        UsuarioEnRedResponse usuarioResponse = UsuarioEnRedResponse.builder()
-            .username(usuario.getUsername())
-            .licencia(usuario.getLicencia())
-            .nivel(nivelActual+1)
-            .build();
-
-        redInversa.add(usuarioResponse);
-
-        if (nivelActual < nivelMaximo) {
-            redInversa.addAll(obtenerRedDeUsuariosInversaRecursiva(usuario.getReferenciado(), nivelActual + 1, nivelMaximo));
+        for (Object[] fila : redReferidoRepository.findAscendientes(usuario.getId(), nivelMaximo - nivelActual)) {
+            Usuario ascendiente = (Usuario) fila[0];
+            Integer profundidad = (Integer) fila[1];
+            redInversa.add(UsuarioEnRedResponse.builder()
+                .username(ascendiente.getUsername())
+                .licencia(ascendiente.getLicencia())
+                .nivel(nivelActual + 1 + profundidad)
+                .build());
         }
 
         return redInversa;
@@ -104,8 +177,6 @@ public class UninivelHelper {
         Usuario usuario = usuarioRepository.findByUsername(usernameReferenciador)
             .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        List<Usuario> redPorRango = new ArrayList<>();
-        obtenerReferidosRecursivo(usuario.getUsername(), redPorRango, 0, tipoRango.getNumero());
-        return redPorRango;
+        return redReferidoRepository.findDescendientes(usuario.getId(), tipoRango.getNumero());
     }
 }
@@ -0,0 +1,154 @@
+package com.api.payglobal.repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.api.payglobal.entity.enums.TipoBono;
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.helpers.Centavos;
+import com.api.payglobal.helpers.MapaLong;
+import com.api.payglobal.helpers.SecuenciasIds;
+import com.api.payglobal.service.bono.LoteAbonos;
+import com.api.payglobal.service.bono.LoteAbonos.TransaccionPendiente;
+
+/**
+ * Escritura en lote (JDBC batch) de los abonos calculados en memoria.
+ * Debe llamarse dentro de una transaccion activa.
+ */
+@Repository
+public class AbonoJdbcRepository {
+
+    private static final String SQL_SUMAR_SALDO_LICENCIA =
+            "UPDATE licencias SET saldo_acumulado = COALESCE(saldo_acumulado, 0) + ? WHERE id = ?";
+
+    private static final String SQL_DESACTIVAR_LICENCIA = "UPDATE licencias SET activo = false WHERE id = ?";
+
+    // Igual que crearOActualizarBono: si el usuario tiene varios bonos del mismo
+    // tipo se acumula en el primero
+    private static final String SQL_ACUMULAR_BONO = """
+            UPDATE bonos SET acumulado = COALESCE(acumulado, 0) + ?
+            WHERE id = (SELECT MIN(b.id) FROM bonos b WHERE b.usuario_id = ? AND b.nombre = ?)
+            """;
+
+    private static final String SQL_INSERTAR_BONO =
+            "INSERT INTO bonos (id, nombre, acumulado, usuario_id) VALUES (?, ?, ?, ?)";
+
+    private static final String SQL_INSERTAR_TRANSACCION = """
+            INSERT INTO transacciones (id, monto, fecha, estado, tipo_crypto, descripcion, concepto, metodo_pago,
+                usuario_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LedgerJdbcRepository ledgerJdbcRepository;
+
+    @Autowired
+    private SecuenciaJdbcRepository secuenciaJdbcRepository;
+
+    @Autowired
+    private GananciaMensualJdbcRepository gananciaMensualJdbcRepository;
+
+    public void aplicar(LoteAbonos lote, LocalDateTime fecha) {
+        abonarWallets(lote.getSaldosWallet(), fecha);
+        sumarSaldosLicencias(lote.getSaldosAcumuladosLicencia());
+        desactivarLicencias(new ArrayList<>(lote.getLicenciasDesactivadas()));
+        acumularBonos(lote.getBonosAcumulados());
+        insertarTransacciones(lote.getTransacciones(), fecha);
+    }
+
+    // Todas las wallets del lote comparten asiento en el libro mayor; el
+    // detalle por concepto queda en las transacciones del lote
+    private void abonarWallets(MapaLong saldos, LocalDateTime fecha) {
+        ledgerJdbcRepository.abonarLote(saldos, UUID.randomUUID().toString(), null, "Abono en lote", fecha);
+    }
+
+    private void sumarSaldosLicencias(MapaLong saldos) {
+        if (saldos.tamano() == 0) {
+            return;
+        }
+        List<Object[]> parametros = new ArrayList<>(saldos.tamano());
+        for (long licenciaId : saldos.clavesOrdenadas()) {
+            parametros.add(new Object[] { Math.toIntExact(saldos.obtener(licenciaId, 0)), licenciaId });
+        }
+        jdbcTemplate.batchUpdate(SQL_SUMAR_SALDO_LICENCIA, parametros);
+    }
+
+    private void desactivarLicencias(List<Long> licenciaIds) {
+        if (licenciaIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> parametros = new ArrayList<>(licenciaIds.size());
+        licenciaIds.forEach(id -> parametros.add(new Object[] { id }));
+        jdbcTemplate.batchUpdate(SQL_DESACTIVAR_LICENCIA, parametros);
+    }
+
+    private void acumularBonos(Map<TipoBono, MapaLong> bonos) {
+        if (bonos.isEmpty()) {
+            return;
+        }
+        List<Object[]> parametros = new ArrayList<>();
+        bonos.forEach((tipo, porUsuario) -> {
+            for (long usuarioId : porUsuario.clavesOrdenadas()) {
+                parametros.add(new Object[] { Centavos.aBigDecimal(porUsuario.obtener(usuarioId, 0)), usuarioId,
+                        tipo.name() });
+            }
+        });
+        int[] actualizados = jdbcTemplate.batchUpdate(SQL_ACUMULAR_BONO, parametros);
+
+        // Los usuarios que aun no tenian el bono se insertan en un segundo lote
+        List<Object[]> nuevos = new ArrayList<>();
+        for (int i = 0; i < actualizados.length; i++) {
+            if (actualizados[i] == 0) {
+                Object[] fila = parametros.get(i);
+                nuevos.add(new Object[] { null, fila[2], fila[0], fila[1] });
+            }
+        }
+        if (!nuevos.isEmpty()) {
+            long[] ids = secuenciaJdbcRepository.reservarIds(SecuenciasIds.BONOS, nuevos.size());
+            for (int i = 0; i < ids.length; i++) {
+                nuevos.get(i)[0] = ids[i];
+            }
+            jdbcTemplate.batchUpdate(SQL_INSERTAR_BONO, nuevos);
+        }
+    }
+
+    private void insertarTransacciones(List<TransaccionPendiente> transacciones, LocalDateTime fecha) {
+        if (transacciones.isEmpty()) {
+            return;
+        }
+        // Los ids salen de la misma secuencia que usa la entidad Transaccion
+        long[] ids = secuenciaJdbcRepository.reservarIds(SecuenciasIds.TRANSACCIONES, transacciones.size());
+        Timestamp fechaOperacion = Timestamp.valueOf(fecha);
+        List<Object[]> filas = new ArrayList<>(transacciones.size());
+        Map<TipoConceptos, MapaLong> ganancias = new EnumMap<>(TipoConceptos.class);
+        for (int i = 0; i < transacciones.size(); i++) {
+            TransaccionPendiente t = transacciones.get(i);
+            if (GananciaMensualJdbcRepository.esGanancia(t.getConcepto(), t.getEstado())) {
+                ganancias.computeIfAbsent(t.getConcepto(), c -> new MapaLong()).sumar(t.getUsuarioId(),
+                        t.getCentavos());
+            }
+            filas.add(new Object[] { ids[i], Centavos.aBigDecimal(t.getCentavos()), fechaOperacion,
+                    t.getEstado().name(),
+                    null, t.getDescripcion(), t.getConcepto().name(),
+                    t.getMetodoPago() != null ? t.getMetodoPago().name() : null, t.getUsuarioId() });
+        }
+
+        jdbcTemplate.batchUpdate(SQL_INSERTAR_TRANSACCION, filas,
+                new int[] { Types.BIGINT, Types.NUMERIC, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR,
+                        Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT });
+        gananciaMensualJdbcRepository.acumular(fecha, ganancias);
+    }
+}
@@ -1,9 +1,13 @@
 package com.api.payglobal.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import com.api.payglobal.dto.projection.BonoResumenProjection;
 import com.api.payglobal.entity.Bono;
 
 public interface BonoRepository extends JpaRepository<Bono, Long> {
-    
+
+    List<BonoResumenProjection> findByUsuario_IdOrderById(Long usuarioId);
 }
@@ -0,0 +1,89 @@
+package com.api.payglobal.repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.api.payglobal.entity.CorreoSaliente;
+import com.api.payglobal.entity.enums.EstadoCorreo;
+
+/**
+ * Toma y cierre de correos de la bandeja de salida. Cada metodo es una sola
+ * sentencia, no necesita transaccion externa.
+ */
+@Repository
+public class CorreoSalienteJdbcRepository {
+
+    /**
+     * SKIP LOCKED reparte los correos entre instancias sin que se esperen;
+     * el plazo en proximo_intento los libera si la instancia se detiene
+     */
+    private static final String SQL_RECLAMAR = """
+            UPDATE correos_salientes c
+            SET estado = 'ENVIANDO', intentos = c.intentos + 1, proximo_intento = ?
+            WHERE c.id IN (
+                SELECT id FROM correos_salientes
+                WHERE estado IN ('PENDIENTE', 'ENVIANDO') AND proximo_intento <= ?
+                ORDER BY proximo_intento, id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING c.id, c.destinatario, c.asunto, c.contenido, c.tipo_contenido, c.remitente, c.intentos
+            """;
+
+    private static final String SQL_MARCAR_ENVIADO =
+            "UPDATE correos_salientes SET estado = 'ENVIADO', fecha_envio = ?, ultimo_error = NULL WHERE id = ?";
+
+    private static final String SQL_REPROGRAMAR = """
+            UPDATE correos_salientes SET estado = ?, proximo_intento = ?, ultimo_error = ?
+            WHERE id = ?
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public List<CorreoSaliente> reclamar(int limite, LocalDateTime ahora, long plazoMillis) {
+        List<CorreoSaliente> correos = jdbcTemplate.query(SQL_RECLAMAR, (rs, i) -> CorreoSaliente.builder()
+                .id(rs.getLong("id"))
+                .destinatario(rs.getString("destinatario"))
+                .asunto(rs.getString("asunto"))
+                .contenido(rs.getString("contenido"))
+                .tipoContenido(rs.getString("tipo_contenido"))
+                .remitente(rs.getString("remitente"))
+                .intentos(rs.getInt("intentos"))
+                .estado(EstadoCorreo.ENVIANDO)
+                .build(),
+                Timestamp.valueOf(ahora.plus(Duration.ofMillis(plazoMillis))), Timestamp.valueOf(ahora), limite);
+        // RETURNING no respeta el ORDER BY de la subconsulta
+        correos.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        return correos;
+    }
+
+    public void marcarEnviados(List<CorreoSaliente> correos, LocalDateTime fecha) {
+        List<Object[]> parametros = new ArrayList<>(correos.size());
+        correos.forEach(c -> parametros.add(new Object[] { Timestamp.valueOf(fecha), c.getId() }));
+        jdbcTemplate.batchUpdate(SQL_MARCAR_ENVIADO, parametros);
+    }
+
+    /**
+     * Vuelve a PENDIENTE con su proximo intento, o queda FALLIDO si
+     * proximoIntento es null
+     */
+    public void reprogramar(List<CorreoSaliente> correos, List<LocalDateTime> proximosIntentos, String error) {
+        String mensaje = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        List<Object[]> parametros = new ArrayList<>(correos.size());
+        for (int i = 0; i < correos.size(); i++) {
+            LocalDateTime proximo = proximosIntentos.get(i);
+            parametros.add(new Object[] {
+                    proximo != null ? EstadoCorreo.PENDIENTE.name() : EstadoCorreo.FALLIDO.name(),
+                    Timestamp.valueOf(proximo != null ? proximo : LocalDateTime.now()), mensaje,
+                    correos.get(i).getId() });
+        }
+        jdbcTemplate.batchUpdate(SQL_REPROGRAMAR, parametros);
+    }
+}
@@ -0,0 +1,8 @@
+package com.api.payglobal.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.api.payglobal.entity.CorreoSaliente;
+
+public interface CorreoSalienteRepository extends JpaRepository<CorreoSaliente, Long> {
+}
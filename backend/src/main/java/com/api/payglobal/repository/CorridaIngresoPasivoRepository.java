@@ -0,0 +1,41 @@
+package com.api.payglobal.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.api.payglobal.entity.CorridaIngresoPasivo;
+import com.api.payglobal.entity.enums.EstadoCorrida;
+
+public interface CorridaIngresoPasivoRepository extends JpaRepository<CorridaIngresoPasivo, Long> {
+    Optional<CorridaIngresoPasivo> findByFechaNegocio(LocalDate fechaNegocio);
+
+    @Query("SELECT MIN(c.fechaNegocio) FROM CorridaIngresoPasivo c")
+    LocalDate buscarPrimeraFecha();
+
+    @Query("SELECT c.fechaNegocio FROM CorridaIngresoPasivo c " +
+           "WHERE c.estado = :estado AND c.fechaNegocio BETWEEN :desde AND :hasta")
+    List<LocalDate> buscarFechas(@Param("estado") EstadoCorrida estado, @Param("desde") LocalDate desde,
+            @Param("hasta") LocalDate hasta);
+
+    @Modifying
+    @Query("UPDATE CorridaIngresoPasivo c SET c.licenciasProcesadas = :procesadas WHERE c.id = :id")
+    int actualizarProcesadas(@Param("id") Long id, @Param("procesadas") long procesadas);
+
+    /**
+     * Una corrida completada ya aplico sus comisiones y no cambia de estado.
+     * Devuelve 0 si ya estaba completada
+     */
+    @Modifying
+    @Query("UPDATE CorridaIngresoPasivo c SET c.estado = :estado, c.fechaFin = :fechaFin " +
+           "WHERE c.id = :id AND (c.estado IS NULL " +
+           "OR c.estado <> com.api.payglobal.entity.enums.EstadoCorrida.COMPLETADA)")
+    int actualizarEstadoSiNoCompletada(@Param("id") Long id, @Param("estado") EstadoCorrida estado,
+            @Param("fechaFin") LocalDateTime fechaFin);
+}
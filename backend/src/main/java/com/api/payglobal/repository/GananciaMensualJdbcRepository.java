@@ -0,0 +1,116 @@
+package com.api.payglobal.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.api.payglobal.dto.response.GananciaMesDTO;
+import com.api.payglobal.entity.enums.EstadoOperacion;
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.helpers.Centavos;
+import com.api.payglobal.helpers.MapaLong;
+
+/**
+ * Acumulado mensual de ganancias (tabla ganancias_mensuales). Las sumas deben
+ * hacerse en la misma transaccion que inserta las transacciones que las
+ * originan.
+ */
+@Repository
+public class GananciaMensualJdbcRepository {
+
+    /** Conceptos que cuentan como ganancia del usuario */
+    public static final Set<TipoConceptos> CONCEPTOS = EnumSet.of(TipoConceptos.BONO_ANUAL,
+            TipoConceptos.BONO_FUNDADOR, TipoConceptos.BONO_RANGO, TipoConceptos.BONO_REGISTRO_DIRECTO,
+            TipoConceptos.BONO_REONOVACION_LICENCIA, TipoConceptos.INGRESO_PASIVO, TipoConceptos.BONO_UNINIVEL);
+
+    private static final String SQL_ACUMULAR = """
+            INSERT INTO ganancias_mensuales (usuario_id, mes, concepto, monto) VALUES (?, ?, ?, ?)
+            ON CONFLICT (usuario_id, mes, concepto)
+            DO UPDATE SET monto = ganancias_mensuales.monto + EXCLUDED.monto
+            """;
+
+    private static final String SQL_POR_MES = """
+            SELECT mes, SUM(monto) AS monto FROM ganancias_mensuales
+            WHERE usuario_id = ?
+            GROUP BY mes
+            ORDER BY mes
+            """;
+
+    private static final String SQL_RECONSTRUIR = """
+            INSERT INTO ganancias_mensuales (usuario_id, mes, concepto, monto)
+            SELECT t.usuario_id, CAST(date_trunc('month', t.fecha) AS DATE), t.concepto, SUM(t.monto)
+            FROM transacciones t
+            WHERE t.estado = ? AND t.usuario_id IS NOT NULL AND t.monto IS NOT NULL AND t.concepto IN (%s)
+            GROUP BY 1, 2, 3
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public static boolean esGanancia(TipoConceptos concepto, EstadoOperacion estado) {
+        return estado == EstadoOperacion.COMPLETADA && CONCEPTOS.contains(concepto);
+    }
+
+    public void acumular(long usuarioId, LocalDateTime fecha, TipoConceptos concepto, long centavos) {
+        jdbcTemplate.update(SQL_ACUMULAR, usuarioId, inicioDeMes(fecha), concepto.name(),
+                Centavos.aBigDecimal(centavos));
+    }
+
+    /**
+     * Un lote con una fila por concepto y usuario, siempre en el mismo orden
+     * para que dos lotes concurrentes bloqueen las filas igual
+     */
+    public void acumular(LocalDateTime fecha, Map<TipoConceptos, MapaLong> centavosPorConcepto) {
+        if (centavosPorConcepto.isEmpty()) {
+            return;
+        }
+        Date mes = inicioDeMes(fecha);
+        List<Object[]> parametros = new ArrayList<>();
+        centavosPorConcepto.forEach((concepto, porUsuario) -> {
+            for (long usuarioId : porUsuario.clavesOrdenadas()) {
+                parametros.add(new Object[] { usuarioId, mes, concepto.name(),
+                        Centavos.aBigDecimal(porUsuario.obtener(usuarioId, 0)) });
+            }
+        });
+        jdbcTemplate.batchUpdate(SQL_ACUMULAR, parametros);
+    }
+
+    public List<GananciaMesDTO> buscarPorMes(long usuarioId) {
+        return jdbcTemplate.query(SQL_POR_MES, (rs, i) -> {
+            LocalDate mes = rs.getDate("mes").toLocalDate();
+            return new GananciaMesDTO(mes.getMonth().name() + " " + mes.getYear(),
+                    rs.getBigDecimal("monto").doubleValue());
+        }, usuarioId);
+    }
+
+    /**
+     * Recalcula toda la tabla desde transacciones. El bloqueo EXCLUSIVE hace
+     * esperar a las sumas incrementales hasta que termine, asi ninguna
+     * ganancia se cuenta dos veces ni se pierde. Devuelve las filas escritas
+     */
+    public int reconstruir() {
+        jdbcTemplate.execute("LOCK TABLE ganancias_mensuales IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM ganancias_mensuales");
+        String conceptos = CONCEPTOS.stream().map(c -> "'" + c.name() + "'").collect(Collectors.joining(", "));
+        return jdbcTemplate.update(String.format(SQL_RECONSTRUIR, conceptos), EstadoOperacion.COMPLETADA.name());
+    }
+
+    public boolean estaVacia() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM ganancias_mensuales LIMIT 1").isEmpty();
+    }
+
+    private static Date inicioDeMes(LocalDateTime fecha) {
+        return Date.valueOf(YearMonth.from(fecha).atDay(1));
+    }
+}
@@ -0,0 +1,223 @@
+package com.api.payglobal.repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoRango;
+import com.api.payglobal.entity.enums.TipoWallets;
+import com.api.payglobal.service.bono.AcumuladorComisiones;
+import com.api.payglobal.service.bono.ComisionDetalle;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Lecturas en bloque usadas por el pago de ingreso pasivo. Cada metodo
+ * resuelve un chunk completo en una sola consulta.
+ */
+@Repository
+public class IngresoPasivoJdbcRepository {
+
+    private static final String SQL_LICENCIAS_ACTIVAS = """
+            SELECT l.id, l.usuario_id, l.precio, l.limite, u.username, u.rango
+            FROM licencias l
+            JOIN usuarios u ON u.id = l.usuario_id
+            WHERE l.activo = true AND l.id > :cursor AND l.usuario_id % :particiones = :particion
+              AND (l.fecha_compra IS NULL OR l.fecha_compra <= :fechaNegocio)
+              AND NOT EXISTS (SELECT 1 FROM pagos_licencia p
+                              WHERE p.licencia_id = l.id AND p.fecha_negocio = :fechaNegocio)
+            ORDER BY l.id
+            LIMIT :limite
+            """;
+
+    // Sin ON CONFLICT: si otra ejecucion ya pago el dia, el chunk completo se revierte
+    private static final String SQL_MARCAR_PAGADAS = """
+            INSERT INTO pagos_licencia (licencia_id, fecha_negocio, corrida_id)
+            VALUES (:licenciaId, :fechaNegocio, :corridaId)
+            """;
+
+    // Un dia recuperado no mueve hacia atras la ultima fecha pagada
+    private static final String SQL_ULTIMO_PAGO = """
+            UPDATE licencias SET fecha_ultimo_ingreso_pasivo = GREATEST(fecha_ultimo_ingreso_pasivo, :fechaNegocio)
+            WHERE id IN (:ids)
+            """;
+
+    // Marcas de antes de pagos_licencia, para que no se pague de nuevo ese dia
+    private static final String SQL_MIGRAR_MARCAS = """
+            INSERT INTO pagos_licencia (licencia_id, fecha_negocio)
+            SELECT id, fecha_ultimo_ingreso_pasivo FROM licencias WHERE fecha_ultimo_ingreso_pasivo IS NOT NULL
+            ON CONFLICT (licencia_id, fecha_negocio) DO NOTHING
+            """;
+
+    // Wallet.tipo se persiste como ordinal
+    private static final String SQL_WALLETS_POR_TIPO = """
+            SELECT DISTINCT ON (w.usuario_id) w.id, w.usuario_id, w.saldo
+            FROM wallets w
+            WHERE w.usuario_id IN (:usuarioIds) AND w.tipo = :tipo
+            ORDER BY w.usuario_id, w.id
+            """;
+
+    private static final String SQL_INSERTAR_DETALLE = """
+            INSERT INTO detalle_comisiones (corrida_id, concepto, usuario_id, nivel, wallet_id, licencia_id,
+                usuario_origen_id, monto_centavos, monto_licencia, fecha)
+            VALUES (:corridaId, :concepto, :usuarioId, :nivel, :walletId, :licenciaId,
+                :usuarioOrigenId, :centavos, :montoLicencia, :fecha)
+            """;
+
+    private static final String SQL_TOTALES_DETALLE = """
+            SELECT concepto, usuario_id, nivel, MIN(wallet_id) AS wallet_id, licencia_id,
+                   SUM(monto_centavos) AS centavos, SUM(monto_licencia) AS monto_licencia, COUNT(*) AS abonos
+            FROM detalle_comisiones
+            WHERE corrida_id = :corridaId
+            GROUP BY concepto, usuario_id, nivel, licencia_id
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Licencias activas de la particion (usuario_id % particiones) posteriores
+     * al cursor que aun no cobraron la fecha de negocio. Todas las licencias
+     * de un usuario caen en la misma particion.
+     */
+    public List<LicenciaActiva> buscarLicenciasActivas(LocalDate fechaNegocio, long cursor, int limite,
+            int particiones, int particion) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("fechaNegocio", fechaNegocio)
+                .addValue("cursor", cursor)
+                .addValue("limite", limite)
+                .addValue("particiones", particiones)
+                .addValue("particion", particion);
+
+        return jdbcTemplate.query(SQL_LICENCIAS_ACTIVAS, parametros, (rs, i) -> new LicenciaActiva(
+                rs.getLong("id"),
+                rs.getLong("usuario_id"),
+                rs.getString("username"),
+                (Integer) rs.getObject("precio"),
+                (Integer) rs.getObject("limite"),
+                rs.getString("rango") != null ? TipoRango.valueOf(rs.getString("rango")) : null));
+    }
+
+    /**
+     * Registra el pago del dia para cada licencia. Debe ejecutarse en la
+     * misma transaccion que los abonos de las licencias
+     */
+    public void marcarPagadas(Collection<Long> licenciaIds, LocalDate fechaNegocio, Long corridaId) {
+        if (licenciaIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] filas = licenciaIds.stream()
+                .map(id -> new MapSqlParameterSource()
+                        .addValue("licenciaId", id)
+                        .addValue("fechaNegocio", fechaNegocio)
+                        .addValue("corridaId", corridaId))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(SQL_MARCAR_PAGADAS, filas);
+        jdbcTemplate.update(SQL_ULTIMO_PAGO, new MapSqlParameterSource()
+                .addValue("fechaNegocio", fechaNegocio)
+                .addValue("ids", licenciaIds));
+    }
+
+    public boolean sinPagosRegistrados() {
+        return jdbcTemplate.getJdbcTemplate().queryForList("SELECT 1 FROM pagos_licencia LIMIT 1").isEmpty();
+    }
+
+    /**
+     * Copia a pagos_licencia la ultima fecha pagada de cada licencia
+     * @return marcas creadas
+     */
+    public int migrarMarcas() {
+        return jdbcTemplate.getJdbcTemplate().update(SQL_MIGRAR_MARCAS);
+    }
+
+    public Map<Long, WalletSaldo> buscarWalletsPorTipo(Collection<Long> usuarioIds, TipoWallets tipo) {
+        Map<Long, WalletSaldo> wallets = new HashMap<>();
+        if (usuarioIds.isEmpty()) {
+            return wallets;
+        }
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("usuarioIds", usuarioIds)
+                .addValue("tipo", tipo.ordinal());
+
+        jdbcTemplate.query(SQL_WALLETS_POR_TIPO, parametros, rs -> {
+            wallets.put(rs.getLong("usuario_id"),
+                    new WalletSaldo(rs.getLong("id"), rs.getLong("usuario_id"), rs.getBigDecimal("saldo")));
+        });
+        return wallets;
+    }
+
+    public void insertarDetalleComisiones(Long corridaId, List<ComisionDetalle> detalle, LocalDateTime fecha) {
+        if (detalle.isEmpty()) {
+            return;
+        }
+        Timestamp fechaDetalle = Timestamp.valueOf(fecha);
+        MapSqlParameterSource[] filas = new MapSqlParameterSource[detalle.size()];
+        for (int i = 0; i < filas.length; i++) {
+            ComisionDetalle comision = detalle.get(i);
+            filas[i] = new MapSqlParameterSource()
+                    .addValue("corridaId", corridaId)
+                    .addValue("concepto", comision.getConcepto().name())
+                    .addValue("usuarioId", comision.getUsuarioId())
+                    .addValue("nivel", comision.getNivel())
+                    .addValue("walletId", comision.getWalletId(), Types.BIGINT)
+                    .addValue("licenciaId", comision.getLicenciaId(), Types.BIGINT)
+                    .addValue("usuarioOrigenId", comision.getUsuarioOrigenId())
+                    .addValue("centavos", comision.getCentavos())
+                    .addValue("montoLicencia", comision.getMontoLicencia())
+                    .addValue("fecha", fechaDetalle);
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERTAR_DETALLE, filas);
+    }
+
+    /**
+     * Reconstruye los totales de la corrida desde el detalle confirmado, para
+     * cerrar una corrida reanudada cuyos acumuladores en memoria se perdieron
+     */
+    public AcumuladorComisiones acumularDetalle(Long corridaId) {
+        AcumuladorComisiones acumulador = new AcumuladorComisiones();
+        jdbcTemplate.query(SQL_TOTALES_DETALLE, new MapSqlParameterSource("corridaId", corridaId), rs -> {
+            acumulador.registrarAgregado(
+                    TipoConceptos.valueOf(rs.getString("concepto")),
+                    rs.getLong("usuario_id"),
+                    rs.getInt("nivel"),
+                    (Long) rs.getObject("wallet_id"),
+                    (Long) rs.getObject("licencia_id"),
+                    rs.getLong("centavos"),
+                    rs.getLong("monto_licencia"),
+                    rs.getLong("abonos"));
+        });
+        return acumulador;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class LicenciaActiva {
+        private Long id;
+        private Long usuarioId;
+        private String username;
+        private Integer precio;
+        private Integer limite;
+        private TipoRango rango;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class WalletSaldo {
+        private Long id;
+        private Long usuarioId;
+        private BigDecimal saldo;
+    }
+}
@@ -10,5 +10,6 @@ import com.api.payglobal.entity.enums.EstadoOperacion;
 public interface KycFileRepository extends JpaRepository<KycFile, Long> {
     List<KycFile> findByUsuario_Id(Long idUsuario);
     List<KycFile> findByEstado(EstadoOperacion estado);
+    boolean existsByFileNameAndIdNot(String fileName, Long id);
     
 }
@@ -0,0 +1,203 @@
+package com.api.payglobal.repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.helpers.Centavos;
+import com.api.payglobal.helpers.MapaLong;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Libro mayor de wallets. Cada escritura actualiza wallets.saldo e inserta el
+ * movimiento con el saldo resultante en la misma sentencia, asi el saldo de la
+ * wallet y el del ultimo movimiento no pueden divergir. Los cambios de saldo
+ * son relativos (saldo = saldo + delta) y el cargo lleva la validacion de
+ * fondos en el WHERE, por lo que no hay lectura-modificacion-escritura que
+ * pueda perder actualizaciones concurrentes.
+ * Las escrituras deben llamarse dentro de una transaccion activa.
+ */
+@Repository
+public class LedgerJdbcRepository {
+
+    private static final String SQL_INSERTAR_MOVIMIENTO = """
+            INSERT INTO movimientos_wallet
+                (wallet_id, asiento, monto, saldo_resultante, wallet_contrapartida_id, concepto, descripcion, fecha)
+            SELECT id, ?, ?, saldo, ?, ?, ?, ? FROM upd
+            """;
+
+    private static final String SQL_ABONAR_LOTE = """
+            WITH upd AS (
+                UPDATE wallets SET saldo = COALESCE(saldo, 0) + ?, version = version + 1
+                WHERE id = ? RETURNING id, saldo
+            )
+            """ + SQL_INSERTAR_MOVIMIENTO;
+
+    private static final String SQL_ABONAR = SQL_ABONAR_LOTE + " RETURNING saldo_resultante";
+
+    // El cargo solo se aplica si hay fondos; sin fondos no devuelve filas
+    private static final String SQL_CARGAR = """
+            WITH upd AS (
+                UPDATE wallets SET saldo = saldo - ?, version = version + 1
+                WHERE id = ? AND saldo >= ? RETURNING id, saldo
+            )
+            """ + SQL_INSERTAR_MOVIMIENTO + " RETURNING saldo_resultante";
+
+    private static final String SQL_SALDO_ACTUAL =
+            "SELECT saldo_resultante FROM movimientos_wallet WHERE wallet_id = ? ORDER BY id DESC LIMIT 1";
+
+    // Las wallets anteriores al libro mayor abren con su saldo actual
+    private static final String SQL_ABRIR_WALLETS = """
+            INSERT INTO movimientos_wallet (wallet_id, asiento, monto, saldo_resultante, descripcion, fecha)
+            SELECT w.id, ?, COALESCE(w.saldo, 0), COALESCE(w.saldo, 0), 'Apertura de libro mayor', ?
+            FROM wallets w
+            WHERE NOT EXISTS (SELECT 1 FROM movimientos_wallet m WHERE m.wallet_id = w.id)
+            """;
+
+    private static final String SQL_CREAR_CHECKPOINTS = """
+            INSERT INTO checkpoints_wallet (wallet_id, movimiento_id, saldo, fecha)
+            SELECT DISTINCT ON (m.wallet_id) m.wallet_id, m.id, m.saldo_resultante, ?
+            FROM movimientos_wallet m
+            WHERE m.id > COALESCE(
+                (SELECT MAX(c.movimiento_id) FROM checkpoints_wallet c WHERE c.wallet_id = m.wallet_id), 0)
+            ORDER BY m.wallet_id, m.id DESC
+            """;
+
+    // Solo se conserva el ultimo checkpoint de cada wallet; los movimientos no se borran
+    private static final String SQL_COMPACTAR_CHECKPOINTS = """
+            DELETE FROM checkpoints_wallet c
+            WHERE EXISTS (SELECT 1 FROM checkpoints_wallet c2
+                          WHERE c2.wallet_id = c.wallet_id AND c2.movimiento_id > c.movimiento_id)
+            """;
+
+    private static final String SQL_RANGO_WALLETS = "SELECT MIN(id), MAX(id) FROM wallets";
+
+    // Saldo segun el libro mayor: ultimo checkpoint mas los movimientos posteriores
+    private static final String SQL_CONCILIAR_RANGO = """
+            SELECT w.id AS wallet_id, COALESCE(w.saldo, 0) AS saldo_wallet,
+                   COALESCE(c.saldo, 0) + COALESCE((SELECT SUM(m.monto) FROM movimientos_wallet m
+                       WHERE m.wallet_id = w.id AND m.id > COALESCE(c.movimiento_id, 0)), 0) AS saldo_ledger
+            FROM wallets w
+            LEFT JOIN LATERAL (
+                SELECT ck.saldo, ck.movimiento_id FROM checkpoints_wallet ck
+                WHERE ck.wallet_id = w.id ORDER BY ck.movimiento_id DESC LIMIT 1
+            ) c ON true
+            WHERE w.id >= ? AND w.id < ?
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Abona (monto positivo) o descuenta sin validar fondos
+     * @return saldo resultante, null si la wallet no existe
+     */
+    public BigDecimal abonar(Long walletId, BigDecimal monto, String asiento, Long contrapartidaId,
+            TipoConceptos concepto, String descripcion, LocalDateTime fecha) {
+        List<BigDecimal> saldo = jdbcTemplate.queryForList(SQL_ABONAR, BigDecimal.class,
+                monto, walletId, asiento, monto, contrapartidaId, nombre(concepto), descripcion,
+                Timestamp.valueOf(fecha));
+        return saldo.isEmpty() ? null : saldo.get(0);
+    }
+
+    /**
+     * Descuenta el monto solo si la wallet tiene fondos suficientes
+     * @return saldo resultante, null si no hay fondos o la wallet no existe
+     */
+    public BigDecimal cargar(Long walletId, BigDecimal monto, String asiento, Long contrapartidaId,
+            TipoConceptos concepto, String descripcion, LocalDateTime fecha) {
+        List<BigDecimal> saldo = jdbcTemplate.queryForList(SQL_CARGAR, BigDecimal.class,
+                monto, walletId, monto, asiento, monto.negate(), contrapartidaId, nombre(concepto), descripcion,
+                Timestamp.valueOf(fecha));
+        return saldo.isEmpty() ? null : saldo.get(0);
+    }
+
+    /**
+     * Abono en lote de varias wallets (walletId -> centavos) bajo un mismo asiento. Se recorren en
+     * orden de id para que dos lotes concurrentes bloqueen las filas en el
+     * mismo orden.
+     */
+    public void abonarLote(MapaLong centavos, String asiento, TipoConceptos concepto,
+            String descripcion, LocalDateTime fecha) {
+        if (centavos.tamano() == 0) {
+            return;
+        }
+        Timestamp fechaMovimiento = Timestamp.valueOf(fecha);
+        List<Object[]> parametros = new ArrayList<>(centavos.tamano());
+        for (long walletId : centavos.clavesOrdenadas()) {
+            BigDecimal monto = Centavos.aBigDecimal(centavos.obtener(walletId, 0));
+            parametros.add(new Object[] {
+                    monto, walletId, asiento, monto, null, nombre(concepto), descripcion, fechaMovimiento });
+        }
+        jdbcTemplate.batchUpdate(SQL_ABONAR_LOTE, parametros);
+    }
+
+    /**
+     * Saldo del ultimo movimiento de la wallet, null si no tiene movimientos
+     */
+    public BigDecimal saldoActual(Long walletId) {
+        List<BigDecimal> saldo = jdbcTemplate.queryForList(SQL_SALDO_ACTUAL, BigDecimal.class, walletId);
+        return saldo.isEmpty() ? null : saldo.get(0);
+    }
+
+    public int abrirWalletsSinMovimientos(String asiento, LocalDateTime fecha) {
+        return jdbcTemplate.update(SQL_ABRIR_WALLETS, asiento, Timestamp.valueOf(fecha));
+    }
+
+    public int crearCheckpoints(LocalDateTime fecha) {
+        return jdbcTemplate.update(SQL_CREAR_CHECKPOINTS, Timestamp.valueOf(fecha));
+    }
+
+    public int compactarCheckpoints() {
+        return jdbcTemplate.update(SQL_COMPACTAR_CHECKPOINTS);
+    }
+
+    /**
+     * Menor y mayor id de wallet, o null si no hay wallets
+     */
+    public long[] rangoWallets() {
+        return jdbcTemplate.queryForObject(SQL_RANGO_WALLETS, (rs, i) -> {
+            long minimo = rs.getLong(1);
+            return rs.wasNull() ? null : new long[] { minimo, rs.getLong(2) };
+        });
+    }
+
+    /**
+     * Compara wallets.saldo con el libro mayor para las wallets con id en
+     * [desde, hasta) y agrega a diferencias las que no coinciden
+     * @return numero de wallets revisadas
+     */
+    public int conciliarRango(long desde, long hasta, List<DiferenciaSaldo> diferencias) {
+        int[] revisadas = { 0 };
+        jdbcTemplate.query(SQL_CONCILIAR_RANGO, rs -> {
+            revisadas[0]++;
+            BigDecimal saldoWallet = rs.getBigDecimal("saldo_wallet");
+            BigDecimal saldoLedger = rs.getBigDecimal("saldo_ledger");
+            if (saldoWallet.compareTo(saldoLedger) != 0) {
+                diferencias.add(new DiferenciaSaldo(rs.getLong("wallet_id"), saldoWallet, saldoLedger));
+            }
+        }, desde, hasta);
+        return revisadas[0];
+    }
+
+    private static String nombre(TipoConceptos concepto) {
+        return concepto != null ? concepto.name() : null;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class DiferenciaSaldo {
+        private Long walletId;
+        private BigDecimal saldoWallet;
+        private BigDecimal saldoLedger;
+    }
+}
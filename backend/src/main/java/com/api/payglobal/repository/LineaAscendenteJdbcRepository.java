@@ -0,0 +1,99 @@
+package com.api.payglobal.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.api.payglobal.entity.enums.TipoWallets;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Resuelve la linea ascendente de uno o varios usuarios en una sola consulta
+ * sobre la tabla de cierre, junto con la wallet de comisiones y la licencia de
+ * cada ascendiente. El nivel 1 es el propio usuario, igual que en
+ * UninivelHelper.obtenerRedDeUsuariosInversaRecursiva
+ */
+@Repository
+public class LineaAscendenteJdbcRepository {
+
+    // Wallet.tipo se persiste como ordinal; si hay varias wallets del mismo
+    // tipo se toma la de menor id
+    private static final String SQL_COLUMNAS = """
+            SELECT r.descendiente_id AS origen_id, r.profundidad + 1 AS nivel, r.ancestro_id AS usuario_id,
+                   (SELECT MIN(w.id) FROM wallets w
+                    WHERE w.usuario_id = r.ancestro_id AND w.tipo = :tipoNetwork) AS wallet_id,
+                   lic.id AS licencia_id
+            FROM red_referidos r
+            LEFT JOIN licencias lic ON lic.usuario_id = r.ancestro_id
+            """;
+
+    private static final String SQL_LINEAS = SQL_COLUMNAS + """
+            WHERE r.descendiente_id IN (:usuarioIds) AND r.profundidad < :nivelMaximo
+            ORDER BY r.descendiente_id, r.profundidad
+            """;
+
+    private static final String SQL_LINEA_POR_USERNAME = SQL_COLUMNAS + """
+            WHERE r.descendiente_id = (SELECT u.id FROM usuarios u WHERE u.username = :username)
+              AND r.profundidad < :nivelMaximo
+            ORDER BY r.profundidad
+            """;
+
+    private static final RowMapper<Ascendente> ASCENDENTE_MAPPER = (rs, i) -> new Ascendente(
+            rs.getLong("usuario_id"),
+            rs.getInt("nivel"),
+            (Long) rs.getObject("wallet_id"),
+            (Long) rs.getObject("licencia_id"));
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Devuelve, por cada usuario, su linea ascendente ordenada por nivel
+     */
+    public Map<Long, List<Ascendente>> buscarLineas(Collection<Long> usuarioIds, int nivelMaximo) {
+        Map<Long, List<Ascendente>> lineas = new HashMap<>();
+        if (usuarioIds.isEmpty()) {
+            return lineas;
+        }
+        MapSqlParameterSource parametros = parametros(nivelMaximo).addValue("usuarioIds", usuarioIds);
+
+        jdbcTemplate.query(SQL_LINEAS, parametros, rs -> {
+            lineas.computeIfAbsent(rs.getLong("origen_id"), k -> new ArrayList<>())
+                    .add(ASCENDENTE_MAPPER.mapRow(rs, 0));
+        });
+        return lineas;
+    }
+
+    /**
+     * Linea ascendente de un usuario, vacia si el username no existe
+     */
+    public List<Ascendente> buscarLinea(String username, int nivelMaximo) {
+        return jdbcTemplate.query(SQL_LINEA_POR_USERNAME, parametros(nivelMaximo).addValue("username", username),
+                ASCENDENTE_MAPPER);
+    }
+
+    private MapSqlParameterSource parametros(int nivelMaximo) {
+        return new MapSqlParameterSource()
+                .addValue("nivelMaximo", nivelMaximo)
+                .addValue("tipoNetwork", TipoWallets.WALLET_NETWORK.ordinal());
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Ascendente {
+        private Long usuarioId;
+        private Integer nivel;
+        private Long walletId;
+        private Long licenciaId;
+    }
+}
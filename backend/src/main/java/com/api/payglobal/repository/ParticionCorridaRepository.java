@@ -0,0 +1,28 @@
+package com.api.payglobal.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.api.payglobal.entity.ParticionCorrida;
+import com.api.payglobal.entity.enums.EstadoCorrida;
+
+public interface ParticionCorridaRepository extends JpaRepository<ParticionCorrida, Long> {
+    List<ParticionCorrida> findByCorridaIdOrderByParticion(Long corridaId);
+
+    @Modifying
+    @Query("UPDATE ParticionCorrida p SET p.ultimoIdLicencia = :ultimoIdLicencia, " +
+           "p.licenciasProcesadas = p.licenciasProcesadas + :procesadas, " +
+           "p.duracionMs = p.duracionMs + :duracionMs WHERE p.id = :id")
+    int avanzarCursor(@Param("id") Long id, @Param("ultimoIdLicencia") Long ultimoIdLicencia,
+            @Param("procesadas") long procesadas, @Param("duracionMs") long duracionMs);
+
+    @Modifying
+    @Query("UPDATE ParticionCorrida p SET p.estado = :estado, p.fechaFin = :fechaFin WHERE p.id = :id")
+    int actualizarEstado(@Param("id") Long id, @Param("estado") EstadoCorrida estado,
+            @Param("fechaFin") LocalDateTime fechaFin);
+}
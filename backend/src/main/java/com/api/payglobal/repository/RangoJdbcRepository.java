@@ -0,0 +1,160 @@
+package com.api.payglobal.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.api.payglobal.entity.RedReferido;
+import com.api.payglobal.entity.enums.TipoRango;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Mantenimiento del capital de red y del rango de los usuarios sobre la
+ * tabla de cierre red_referidos
+ */
+@Repository
+public class RangoJdbcRepository {
+
+    private static final String CASE_RANGO = construirCaseRango();
+
+    private static final String SQL_ASCENDIENTES = """
+            SELECT r.ancestro_id FROM red_referidos r
+            WHERE r.descendiente_id = :usuarioId AND r.profundidad BETWEEN 1 AND :profundidadMaxima
+            """;
+
+    private static final String SQL_SUMAR_CAPITAL = """
+            UPDATE usuarios SET capital_red = COALESCE(capital_red, 0) + :delta
+            WHERE id IN (SELECT r.ancestro_id FROM red_referidos r
+                         WHERE r.descendiente_id = :usuarioId AND r.profundidad BETWEEN 1 AND :profundidadMaxima)
+            """;
+
+    private static final String SQL_CAPITAL_CALCULADO = """
+            SELECT COALESCE(SUM(l.precio), 0)
+            FROM red_referidos r
+            JOIN licencias l ON l.usuario_id = r.descendiente_id
+            WHERE r.ancestro_id = u.id AND r.profundidad BETWEEN 1 AND :profundidadMaxima
+            """;
+
+    private static final String SQL_RECALCULAR_CAPITAL =
+            "UPDATE usuarios u SET capital_red = (" + SQL_CAPITAL_CALCULADO + ") WHERE u.id IN (:usuarioIds)";
+
+    private static final String SQL_RECONCILIAR_CAPITAL = """
+            UPDATE usuarios u SET capital_red = c.capital
+            FROM (
+                SELECT r.ancestro_id AS usuario_id, SUM(l.precio) AS capital
+                FROM red_referidos r
+                JOIN licencias l ON l.usuario_id = r.descendiente_id
+                WHERE r.profundidad BETWEEN 1 AND :profundidadMaxima
+                GROUP BY r.ancestro_id
+            ) c
+            WHERE c.usuario_id = u.id AND u.capital_red IS DISTINCT FROM c.capital
+            """;
+
+    private static final String SQL_CAPITAL_SIN_RED = """
+            UPDATE usuarios u SET capital_red = 0
+            WHERE u.capital_red IS DISTINCT FROM 0
+              AND NOT EXISTS (SELECT 1 FROM red_referidos r JOIN licencias l ON l.usuario_id = r.descendiente_id
+                              WHERE r.ancestro_id = u.id AND r.profundidad BETWEEN 1 AND :profundidadMaxima)
+            """;
+
+    /**
+     * La subconsulta ve el rango de antes del UPDATE; RETURNING devuelve
+     * ambos para saber quien subio
+     */
+    private static final String SQL_CAMBIAR_RANGO = """
+            UPDATE usuarios u SET rango = %1$s
+            FROM (SELECT id, rango FROM usuarios %2$s) anterior
+            WHERE anterior.id = u.id AND u.rango IS DISTINCT FROM %1$s
+            RETURNING u.id, anterior.rango AS rango_anterior, u.rango
+            """;
+
+    private static final String SQL_ACTUALIZAR_RANGO =
+            String.format(SQL_CAMBIAR_RANGO, CASE_RANGO, "WHERE id IN (:usuarioIds)");
+
+    private static final String SQL_RECONCILIAR_RANGO = String.format(SQL_CAMBIAR_RANGO, CASE_RANGO, "");
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<Long> buscarAscendientes(Long usuarioId) {
+        return jdbcTemplate.queryForList(SQL_ASCENDIENTES, parametros().addValue("usuarioId", usuarioId),
+                Long.class);
+    }
+
+    public int sumarCapitalAscendientes(Long usuarioId, long delta) {
+        return jdbcTemplate.update(SQL_SUMAR_CAPITAL, parametros()
+                .addValue("usuarioId", usuarioId)
+                .addValue("delta", delta));
+    }
+
+    public int recalcularCapital(Collection<Long> usuarioIds) {
+        if (usuarioIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(SQL_RECALCULAR_CAPITAL, parametros().addValue("usuarioIds", usuarioIds));
+    }
+
+    public List<CambioRango> actualizarRango(Collection<Long> usuarioIds) {
+        if (usuarioIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SQL_ACTUALIZAR_RANGO, new MapSqlParameterSource("usuarioIds", usuarioIds),
+                RangoJdbcRepository::mapearCambio);
+    }
+
+    public int reconciliarCapital() {
+        return jdbcTemplate.update(SQL_RECONCILIAR_CAPITAL, parametros())
+                + jdbcTemplate.update(SQL_CAPITAL_SIN_RED, parametros());
+    }
+
+    public List<CambioRango> reconciliarRango() {
+        return jdbcTemplate.query(SQL_RECONCILIAR_RANGO, new MapSqlParameterSource(),
+                RangoJdbcRepository::mapearCambio);
+    }
+
+    private MapSqlParameterSource parametros() {
+        return new MapSqlParameterSource("profundidadMaxima", RedReferido.PROFUNDIDAD_MAXIMA);
+    }
+
+    private static CambioRango mapearCambio(ResultSet rs, int fila) throws SQLException {
+        String anterior = rs.getString("rango_anterior");
+        return new CambioRango(rs.getLong("id"),
+                anterior != null ? TipoRango.valueOf(anterior) : TipoRango.SIN_RANGO,
+                TipoRango.valueOf(rs.getString("rango")));
+    }
+
+    /**
+     * Genera el CASE que asigna el mayor rango cuyo capital necesario alcanza
+     * capital_red, con los mismos umbrales de TipoRango
+     */
+    private static String construirCaseRango() {
+        StringBuilder sql = new StringBuilder("(CASE");
+        TipoRango[] rangos = TipoRango.values();
+        for (int i = rangos.length - 1; i > 0; i--) {
+            sql.append(" WHEN COALESCE(capital_red, 0) >= ")
+                    .append((long) rangos[i].getCapitalNecesario())
+                    .append(" THEN '").append(rangos[i].name()).append("'");
+        }
+        return sql.append(" ELSE '").append(TipoRango.SIN_RANGO.name()).append("' END)").toString();
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class CambioRango {
+        private Long usuarioId;
+        private TipoRango anterior;
+        private TipoRango nuevo;
+
+        public boolean esAscenso() {
+            return nuevo.getNumero() > anterior.getNumero();
+        }
+    }
+}
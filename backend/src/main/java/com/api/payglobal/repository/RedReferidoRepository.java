@@ -0,0 +1,151 @@
+package com.api.payglobal.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.api.payglobal.entity.RedReferido;
+import com.api.payglobal.entity.Usuario;
+
+public interface RedReferidoRepository extends JpaRepository<RedReferido, Long> {
+
+    @Query("SELECT u FROM Usuario u, RedReferido r WHERE r.descendienteId = u.id AND r.ancestroId = :ancestroId " +
+           "AND r.profundidad BETWEEN 1 AND :profundidadMaxima ORDER BY r.profundidad, u.id")
+    List<Usuario> findDescendientes(@Param("ancestroId") Long ancestroId,
+            @Param("profundidadMaxima") int profundidadMaxima);
+
+    /**
+     * Ascendientes del usuario ordenados por profundidad, incluido el propio
+     * usuario con profundidad 0. Cada fila es [Usuario, Integer profundidad].
+     */
+    @Query("SELECT u, r.profundidad FROM Usuario u, RedReferido r WHERE r.ancestroId = u.id " +
+           "AND r.descendienteId = :descendienteId AND r.profundidad <= :profundidadMaxima ORDER BY r.profundidad")
+    List<Object[]> findAscendientes(@Param("descendienteId") Long descendienteId,
+            @Param("profundidadMaxima") int profundidadMaxima);
+
+    /**
+     * Profundidad de cada descendiente respecto al ancestro. Cada fila es
+     * [Long descendienteId, Integer profundidad].
+     */
+    @Query("SELECT r.descendienteId, r.profundidad FROM RedReferido r WHERE r.ancestroId = :ancestroId " +
+           "AND r.descendienteId IN :descendienteIds")
+    List<Object[]> findProfundidades(@Param("ancestroId") Long ancestroId,
+            @Param("descendienteIds") Collection<Long> descendienteIds);
+
+    @Query("SELECT r.ancestroId FROM RedReferido r WHERE r.descendienteId = :descendienteId " +
+           "AND r.profundidad BETWEEN 1 AND :profundidadMaxima")
+    List<Long> findIdsAscendientes(@Param("descendienteId") Long descendienteId,
+            @Param("profundidadMaxima") int profundidadMaxima);
+
+    @Query("SELECT COUNT(r) > 0 FROM RedReferido r WHERE r.ancestroId = :ancestroId AND r.descendienteId = :descendienteId")
+    boolean esAncestro(@Param("ancestroId") Long ancestroId, @Param("descendienteId") Long descendienteId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO red_referidos (ancestro_id, descendiente_id, profundidad)
+            SELECT :usuarioId, :usuarioId, 0
+            UNION ALL
+            SELECT r.ancestro_id, :usuarioId, r.profundidad + 1
+            FROM red_referidos r
+            JOIN usuarios p ON p.id = r.descendiente_id
+            WHERE p.username = :referenciado AND r.profundidad < :profundidadMaxima
+            """, nativeQuery = true)
+    int insertarUsuario(@Param("usuarioId") Long usuarioId, @Param("referenciado") String referenciado,
+            @Param("profundidadMaxima") int profundidadMaxima);
+
+    /**
+     * Elimina los enlaces entre el subarbol del usuario y sus ascendientes
+     * actuales. Los enlaces internos del subarbol se conservan.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM red_referidos r
+            WHERE r.descendiente_id IN (SELECT s.descendiente_id FROM red_referidos s WHERE s.ancestro_id = :usuarioId)
+              AND r.ancestro_id NOT IN (SELECT s.descendiente_id FROM red_referidos s WHERE s.ancestro_id = :usuarioId)
+            """, nativeQuery = true)
+    int desvincularSubarbol(@Param("usuarioId") Long usuarioId);
+
+    /**
+     * Cuelga el subarbol del usuario bajo el nuevo referenciador
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO red_referidos (ancestro_id, descendiente_id, profundidad)
+            SELECT a.ancestro_id, d.descendiente_id, a.profundidad + d.profundidad + 1
+            FROM red_referidos a
+            JOIN usuarios p ON p.id = a.descendiente_id
+            JOIN red_referidos d ON d.ancestro_id = :usuarioId
+            WHERE p.username = :referenciado AND a.profundidad + d.profundidad + 1 <= :profundidadMaxima
+            """, nativeQuery = true)
+    int vincularSubarbol(@Param("usuarioId") Long usuarioId, @Param("referenciado") String referenciado,
+            @Param("profundidadMaxima") int profundidadMaxima);
+
+    @Modifying
+    @Query(value = "DELETE FROM red_referidos WHERE ancestro_id = :usuarioId OR descendiente_id = :usuarioId",
+            nativeQuery = true)
+    int eliminarUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Modifying
+    @Query(value = "TRUNCATE TABLE red_referidos", nativeQuery = true)
+    void vaciar();
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO red_referidos (ancestro_id, descendiente_id, profundidad)
+            WITH RECURSIVE cierre (ancestro_id, descendiente_id, profundidad) AS (
+                SELECT u.id, u.id, 0 FROM usuarios u
+                UNION ALL
+                SELECT p.id, c.descendiente_id, c.profundidad + 1
+                FROM cierre c
+                JOIN usuarios a ON a.id = c.ancestro_id
+                JOIN usuarios p ON p.username = a.referenciado
+                WHERE c.profundidad < :profundidadMaxima
+            )
+            SELECT ancestro_id, descendiente_id, MIN(profundidad)
+            FROM cierre
+            GROUP BY ancestro_id, descendiente_id
+            """, nativeQuery = true)
+    int reconstruir(@Param("profundidadMaxima") int profundidadMaxima);
+
+    /**
+     * Suma el usuario recien registrado al tamano de red de sus ascendientes
+     * e inicializa el suyo en 0
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE usuarios SET tamano_red = COALESCE(tamano_red, 0) + CASE WHEN id = :usuarioId THEN 0 ELSE 1 END
+            WHERE id IN (SELECT r.ancestro_id FROM red_referidos r
+                         WHERE r.descendiente_id = :usuarioId AND r.profundidad <= :profundidadMaxima)
+            """, nativeQuery = true)
+    int sumarTamanoRed(@Param("usuarioId") Long usuarioId, @Param("profundidadMaxima") int profundidadMaxima);
+
+    @Modifying
+    @Query(value = """
+            UPDATE usuarios u SET tamano_red = (
+                SELECT COUNT(*) FROM red_referidos r
+                WHERE r.ancestro_id = u.id AND r.profundidad BETWEEN 1 AND :profundidadMaxima)
+            WHERE u.id IN (:usuarioIds)
+            """, nativeQuery = true)
+    int recalcularTamanoRed(@Param("usuarioIds") Collection<Long> usuarioIds,
+            @Param("profundidadMaxima") int profundidadMaxima);
+
+    @Modifying
+    @Query(value = """
+            UPDATE usuarios u SET tamano_red = c.total
+            FROM (
+                SELECT x.id, COUNT(r.descendiente_id) AS total
+                FROM usuarios x
+                LEFT JOIN red_referidos r ON r.ancestro_id = x.id AND r.profundidad BETWEEN 1 AND :profundidadMaxima
+                GROUP BY x.id
+            ) c
+            WHERE c.id = u.id AND u.tamano_red IS DISTINCT FROM c.total
+            """, nativeQuery = true)
+    int recalcularTamanoRedTodos(@Param("profundidadMaxima") int profundidadMaxima);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM usuarios WHERE tamano_red IS NULL)", nativeQuery = true)
+    boolean existeTamanoRedPendiente();
+}
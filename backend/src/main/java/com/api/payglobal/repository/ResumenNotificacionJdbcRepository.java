@@ -0,0 +1,119 @@
+package com.api.payglobal.repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.api.payglobal.entity.enums.TipoRango;
+import com.api.payglobal.helpers.Centavos;
+import com.api.payglobal.service.notificacion.EventoNotificacion;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Resumenes diarios de notificaciones (tabla resumenes_notificacion)
+ */
+@Repository
+public class ResumenNotificacionJdbcRepository {
+
+    /**
+     * Un resumen ya enviado no se toca: lo que llegue tarde para ese dia se
+     * pierde en vez de mandarse dos veces
+     */
+    private static final String SQL_ACUMULAR = """
+            INSERT INTO resumenes_notificacion (usuario_id, fecha, ingreso_pasivo, bonos, rango, enviado)
+            VALUES (?, ?, ?, ?, ?, false)
+            ON CONFLICT (usuario_id, fecha) DO UPDATE SET
+                ingreso_pasivo = resumenes_notificacion.ingreso_pasivo + EXCLUDED.ingreso_pasivo,
+                bonos = resumenes_notificacion.bonos + EXCLUDED.bonos,
+                rango = COALESCE(EXCLUDED.rango, resumenes_notificacion.rango)
+            WHERE NOT resumenes_notificacion.enviado
+            """;
+
+    /**
+     * SKIP LOCKED reparte los resumenes entre instancias; las filas quedan
+     * bloqueadas hasta que la transaccion que las envia las marca
+     */
+    private static final String SQL_PENDIENTES = """
+            SELECT r.id, r.fecha, r.ingreso_pasivo, r.bonos, r.rango, u.email,
+                   COALESCE(NULLIF(u.nombre, ''), u.username) AS nombre
+            FROM resumenes_notificacion r
+            JOIN usuarios u ON u.id = r.usuario_id
+            WHERE NOT r.enviado AND r.fecha < ? AND r.id > ?
+            ORDER BY r.id
+            LIMIT ?
+            FOR UPDATE OF r SKIP LOCKED
+            """;
+
+    private static final String SQL_MARCAR_ENVIADO =
+            "UPDATE resumenes_notificacion SET enviado = true, fecha_envio = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Espera un evento por usuario y fecha, en orden de usuario para que dos
+     * lotes concurrentes bloqueen las filas igual
+     */
+    public void acumular(Collection<EventoNotificacion> resumenes) {
+        if (resumenes.isEmpty()) {
+            return;
+        }
+        List<Object[]> parametros = new ArrayList<>(resumenes.size());
+        for (EventoNotificacion resumen : resumenes) {
+            parametros.add(new Object[] { resumen.getUsuarioId(), Date.valueOf(resumen.getFecha()),
+                    Centavos.aBigDecimal(resumen.getIngresoPasivo()), Centavos.aBigDecimal(resumen.getBonos()),
+                    resumen.getRango() != null ? resumen.getRango().name() : null });
+        }
+        jdbcTemplate.batchUpdate(SQL_ACUMULAR, parametros);
+    }
+
+    /**
+     * Resumenes sin enviar de dias anteriores a antesDe, por keyset sobre el
+     * id. Debe llamarse dentro de la transaccion que los marca como enviados
+     */
+    public List<ResumenPendiente> buscarPendientes(LocalDate antesDe, long despuesDeId, int limite) {
+        return jdbcTemplate.query(SQL_PENDIENTES, (rs, i) -> new ResumenPendiente(
+                rs.getLong("id"),
+                rs.getDate("fecha").toLocalDate(),
+                rs.getBigDecimal("ingreso_pasivo"),
+                rs.getBigDecimal("bonos"),
+                rs.getString("rango") != null ? TipoRango.valueOf(rs.getString("rango")) : null,
+                rs.getString("email"),
+                rs.getString("nombre")),
+                Date.valueOf(antesDe), despuesDeId, limite);
+    }
+
+    public void marcarEnviados(List<ResumenPendiente> resumenes, LocalDateTime fecha) {
+        List<Object[]> parametros = new ArrayList<>(resumenes.size());
+        resumenes.forEach(r -> parametros.add(new Object[] { Timestamp.valueOf(fecha), r.getId() }));
+        jdbcTemplate.batchUpdate(SQL_MARCAR_ENVIADO, parametros);
+    }
+
+    public int eliminarEnviadosAntesDe(LocalDate fecha) {
+        return jdbcTemplate.update("DELETE FROM resumenes_notificacion WHERE enviado AND fecha < ?",
+                Date.valueOf(fecha));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ResumenPendiente {
+        private Long id;
+        private LocalDate fecha;
+        private BigDecimal ingresoPasivo;
+        private BigDecimal bonos;
+        private TipoRango rango;
+        private String email;
+        private String nombre;
+    }
+}
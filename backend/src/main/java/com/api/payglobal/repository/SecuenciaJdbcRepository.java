@@ -0,0 +1,39 @@
+package com.api.payglobal.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.api.payglobal.helpers.SecuenciasIds;
+
+/**
+ * Reserva de ids para los inserts en lote por JDBC sobre tablas cuyas
+ * entidades usan secuencias pooled-lo
+ */
+@Repository
+public class SecuenciaJdbcRepository {
+
+    private static final String SQL_RESERVAR = "SELECT nextval(?::regclass) FROM generate_series(1, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Un nextval por cada bloque de ids, igual que el optimizador pooled-lo
+     * de Hibernate
+     */
+    public long[] reservarIds(String secuencia, int cantidad) {
+        long[] ids = new long[cantidad];
+        if (cantidad == 0) {
+            return ids;
+        }
+        int bloques = (cantidad + SecuenciasIds.TAMANO_BLOQUE - 1) / SecuenciasIds.TAMANO_BLOQUE;
+        List<Long> inicios = jdbcTemplate.queryForList(SQL_RESERVAR, Long.class, secuencia, bloques);
+        for (int i = 0; i < cantidad; i++) {
+            ids[i] = inicios.get(i / SecuenciasIds.TAMANO_BLOQUE) + i % SecuenciasIds.TAMANO_BLOQUE;
+        }
+        return ids;
+    }
+}
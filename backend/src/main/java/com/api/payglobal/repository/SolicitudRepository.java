@@ -1,10 +1,13 @@
 package com.api.payglobal.repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.api.payglobal.entity.Solicitud;
 import com.api.payglobal.entity.enums.EstadoOperacion;
@@ -15,6 +18,13 @@ public interface SolicitudRepository extends JpaRepository<Solicitud, Long> {
 
     Page<Solicitud> findAll(Pageable pageable);
 
+    Page<Solicitud> findByUsuario_Id(Long usuarioId, Pageable pageable);
+
     Page<Solicitud> findByTipoSolicitudIn(List<TipoSolicitud> tipos, Pageable pageable);
 
+    @Query("SELECT COALESCE(SUM(s.monto), 0) FROM Solicitud s "
+            + "WHERE s.usuario.id = :usuarioId AND s.tipoSolicitud = :tipo AND s.estado = :estado")
+    BigDecimal sumarMonto(@Param("usuarioId") Long usuarioId, @Param("tipo") TipoSolicitud tipo,
+            @Param("estado") EstadoOperacion estado);
+
 }
@@ -0,0 +1,128 @@
+package com.api.payglobal.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.api.payglobal.dto.response.TransaccionResumenDTO;
+import com.api.payglobal.entity.enums.EstadoOperacion;
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoCrypto;
+import com.api.payglobal.entity.enums.TipoMetodoPago;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Historial de transacciones paginado por keyset sobre (fecha, id)
+ * descendente, leyendo solo las columnas que muestra el historial.
+ */
+@Repository
+public class TransaccionJdbcRepository {
+
+    private static final String SQL_SELECT = """
+            SELECT t.id, t.monto, t.fecha, t.estado, t.tipo_crypto, t.descripcion, t.concepto, t.metodo_pago
+            FROM transacciones t
+            """;
+
+    private static final String SQL_CONTAR = "SELECT COUNT(*) FROM transacciones t";
+
+    private static final String ORDEN = " ORDER BY t.fecha DESC, t.id DESC";
+
+    // Filas que estima el nodo raiz del plan
+    private static final Pattern FILAS_PLAN = Pattern.compile("\"Plan Rows\"\\s*:\\s*(\\d+)");
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Filas posteriores al cursor en orden (fecha, id) descendente. Sin cursor
+     * se salta offset filas, solo para saltar directo a una pagina.
+     */
+    public List<TransaccionResumenDTO> buscar(Filtro filtro, LocalDateTime cursorFecha, Long cursorId, long offset,
+            int limite) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder(SQL_SELECT).append(where(filtro, parametros));
+        if (cursorFecha != null && cursorId != null) {
+            sql.append(" AND (t.fecha, t.id) < (:cursorFecha, :cursorId)");
+            parametros.addValue("cursorFecha", Timestamp.valueOf(cursorFecha))
+                    .addValue("cursorId", cursorId);
+        }
+        sql.append(ORDEN).append(" LIMIT :limite");
+        parametros.addValue("limite", limite);
+        if (offset > 0) {
+            sql.append(" OFFSET :offset");
+            parametros.addValue("offset", offset);
+        }
+
+        return jdbcTemplate.query(sql.toString(), parametros, (rs, i) -> new TransaccionResumenDTO(
+                rs.getLong("id"),
+                rs.getBigDecimal("monto"),
+                rs.getTimestamp("fecha") != null ? rs.getTimestamp("fecha").toLocalDateTime() : null,
+                rs.getString("estado") != null ? EstadoOperacion.valueOf(rs.getString("estado")) : null,
+                rs.getString("tipo_crypto") != null ? TipoCrypto.valueOf(rs.getString("tipo_crypto")) : null,
+                rs.getString("descripcion"),
+                rs.getString("concepto") != null ? TipoConceptos.valueOf(rs.getString("concepto")) : null,
+                rs.getString("metodo_pago") != null ? TipoMetodoPago.valueOf(rs.getString("metodo_pago")) : null));
+    }
+
+    public long contar(Filtro filtro) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource();
+        Long total = jdbcTemplate.queryForObject(SQL_CONTAR + where(filtro, parametros), parametros, Long.class);
+        return total != null ? total : 0L;
+    }
+
+    /**
+     * Total estimado por el planificador de PostgreSQL con las estadisticas de
+     * las tablas, sin recorrer las filas
+     */
+    public long estimar(Filtro filtro) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource();
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + SQL_SELECT + where(filtro, parametros),
+                parametros, String.class);
+        Matcher matcher = FILAS_PLAN.matcher(plan != null ? plan : "");
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0L;
+    }
+
+    private String where(Filtro filtro, MapSqlParameterSource parametros) {
+        StringBuilder sql = new StringBuilder(" WHERE 1 = 1");
+        if (filtro.getUsuarioId() != null) {
+            sql.append(" AND t.usuario_id = :usuarioId");
+            parametros.addValue("usuarioId", filtro.getUsuarioId());
+        }
+        if (filtro.getDesde() != null) {
+            sql.append(" AND t.fecha >= :desde");
+            parametros.addValue("desde", Timestamp.valueOf(filtro.getDesde()));
+        }
+        if (filtro.getHasta() != null) {
+            sql.append(" AND t.fecha <= :hasta");
+            parametros.addValue("hasta", Timestamp.valueOf(filtro.getHasta()));
+        }
+        if (filtro.getConcepto() != null) {
+            sql.append(" AND t.concepto = :concepto");
+            parametros.addValue("concepto", filtro.getConcepto().name());
+        }
+        if (filtro.getEstado() != null) {
+            sql.append(" AND t.estado = :estado");
+            parametros.addValue("estado", filtro.getEstado().name());
+        }
+        return sql.toString();
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Filtro {
+        private Long usuarioId;
+        private LocalDateTime desde;
+        private LocalDateTime hasta;
+        private TipoConceptos concepto;
+        private EstadoOperacion estado;
+    }
+}
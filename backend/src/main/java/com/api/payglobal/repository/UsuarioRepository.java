@@ -1,5 +1,6 @@
 package com.api.payglobal.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +11,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.api.payglobal.dto.projection.PerfilUsuarioProjection;
+import com.api.payglobal.dto.projection.UsuarioEnRedProjection;
 import com.api.payglobal.entity.Usuario;
 
 @Repository
@@ -25,6 +28,74 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     List<Usuario> findByReferenciado(String referenciado);
 
+    List<Usuario> findByUsernameIn(Collection<String> usernames);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.nombre AS nombre, " +
+           "u.apellido AS apellido, u.telefono AS telefono, u.pais AS pais, u.referenciado AS referenciado, " +
+           "u.fechaRegistro AS fechaRegistro, u.activo AS activo, u.verificado AS verificado, u.rango AS rango, " +
+           "u.rol AS rol, u.capitalRed AS capitalRed, u.tamanoRed AS tamanoRed, " +
+           "l.nombre AS licenciaNombre, l.precio AS licenciaPrecio, l.limite AS licenciaLimite, " +
+           "l.activo AS licenciaActivo, l.saldoAcumulado AS licenciaSaldoAcumulado, " +
+           "l.fechaCompra AS licenciaFechaCompra " +
+           "FROM Usuario u LEFT JOIN u.licencia l WHERE u.id = :id")
+    Optional<PerfilUsuarioProjection> findPerfilById(@Param("id") Long id);
+
+    @Query("SELECT u.id FROM Usuario u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    /**
+     * Pares [id, id del referenciador] de todos los usuarios ordenados por id,
+     * usados para construir el grafo de referidos en memoria
+     */
+    @Query(value = """
+            SELECT u.id, p.id
+            FROM usuarios u
+            LEFT JOIN usuarios p ON p.username = u.referenciado
+            ORDER BY u.id
+            """, nativeQuery = true)
+    List<Object[]> findEnlacesReferido();
+
+    /**
+     * Red descendente del usuario en un solo viaje a la base de datos,
+     * recorriendo usuarios.referenciado con un CTE recursivo hasta nivelHasta
+     * y devolviendo solo los niveles a partir de nivelDesde
+     */
+    @Query(value = """
+            WITH RECURSIVE red (usuario_id, username, nivel) AS (
+                SELECT u.id, u.username, 1
+                FROM usuarios u
+                WHERE u.referenciado = :username
+                UNION ALL
+                SELECT h.id, h.username, r.nivel + 1
+                FROM red r
+                JOIN usuarios h ON h.referenciado = r.username
+                WHERE r.nivel < :nivelHasta
+            )
+            SELECT u.id AS "usuarioId", u.username AS "username", u.referenciado AS "referenciado",
+                   r.nivel AS "nivel", l.nombre AS "licenciaNombre", l.precio AS "licenciaPrecio",
+                   l.limite AS "licenciaLimite", l.activo AS "licenciaActivo",
+                   l.saldo_acumulado AS "licenciaSaldoAcumulado", l.fecha_compra AS "licenciaFechaCompra"
+            FROM red r
+            JOIN usuarios u ON u.id = r.usuario_id
+            LEFT JOIN licencias l ON l.usuario_id = u.id
+            WHERE r.nivel >= :nivelDesde
+            ORDER BY r.nivel, u.username
+            """, countQuery = """
+            WITH RECURSIVE red (username, nivel) AS (
+                SELECT u.username, 1
+                FROM usuarios u
+                WHERE u.referenciado = :username
+                UNION ALL
+                SELECT h.username, r.nivel + 1
+                FROM red r
+                JOIN usuarios h ON h.referenciado = r.username
+                WHERE r.nivel < :nivelHasta
+            )
+            SELECT COUNT(*) FROM red r WHERE r.nivel >= :nivelDesde
+            """, nativeQuery = true)
+    Page<UsuarioEnRedProjection> findRedDescendente(@Param("username") String username,
+            @Param("nivelDesde") int nivelDesde, @Param("nivelHasta") int nivelHasta, Pageable pageable);
+
     @Query("SELECT u FROM Usuario u WHERE " +
            "(:filtro IS NULL OR :filtro = '' OR " +
            "LOWER(u.username) LIKE LOWER(CONCAT('%', :filtro, '%')) OR " +
@@ -1,5 +1,6 @@
 package com.api.payglobal.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -7,21 +8,22 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.api.payglobal.entity.Usuario;
 import com.api.payglobal.helpers.JwtHelper;
-import com.api.payglobal.service.usuario.UsuarioService;
 
 import java.io.IOException;
+import java.util.List;
 
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtHelper jwtHelper;
-    private final UsuarioService usuarioService;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(
@@ -43,22 +45,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            // Extraer username del token
-            username = jwtHelper.extractUsername(jwt);
+            // Un solo parseo valida firma y expiracion y devuelve los claims
+            Claims claims = jwtHelper.parsearToken(jwt);
+            username = claims.getSubject();
 
             // Si el username no es null y no hay autenticación en el contexto
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                UserDetails userDetails = usuarioService.loadUserByUsername(username);
+                Usuario usuario = principalCache.obtener(username);
 
-                // Validar el token
-                if (jwtHelper.isTokenValid(jwt, userDetails)) {
+                if (usuario != null && usuario.isEnabled()) {
+                    // Las autoridades vienen del claim "rol"; los tokens sin claim usan las del usuario
+                    List<GrantedAuthority> autoridades = jwtHelper.extraerAutoridades(claims);
 
                     // Crear token de autenticación
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            usuario,
                             null,
-                            userDetails.getAuthorities());
+                            autoridades.isEmpty() ? usuario.getAuthorities() : autoridades);
 
                     // Establecer detalles de la petición
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -0,0 +1,62 @@
+package com.api.payglobal.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.api.payglobal.entity.Usuario;
+import com.api.payglobal.helpers.CacheTtl;
+import com.api.payglobal.repository.UsuarioRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache de los Usuario que JwtAuthenticationFilter usa como principal, para
+ * no consultar la base de datos en cada peticion autenticada. Las entradas se
+ * invalidan cuando el usuario cambia sus datos o un administrador lo edita,
+ * desactiva o elimina; el TTL acota el tiempo maximo con datos viejos.
+ */
+@Component
+public class PrincipalCache {
+
+    @Value("${jwt.principal.cache.ttl-segundos:60}")
+    private long ttlSegundos;
+
+    @Value("${jwt.principal.cache.maximo:10000}")
+    private int maximoEntradas;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private CacheTtl<String, Usuario> cache;
+
+    @PostConstruct
+    void inicializar() {
+        cache = new CacheTtl<>(ttlSegundos * 1000, maximoEntradas);
+    }
+
+    /**
+     * Principal vigente para el username del token, null si ya no existe
+     */
+    public Usuario obtener(String username) {
+        return cache.obtener(username, u -> usuarioRepository.findByUsernameOrEmailForLogin(u).orElse(null));
+    }
+
+    /**
+     * Quita al usuario de la cache ahora y otra vez al confirmar la
+     * transaccion, para no conservar una copia leida antes del commit
+     */
+    public void invalidar(Long usuarioId) {
+        cache.invalidarSi(usuario -> usuarioId.equals(usuario.getId()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidarSi(usuario -> usuarioId.equals(usuario.getId()));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.api.payglobal.service.bloqueo;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Serializa las operaciones de saldo de un mismo usuario (validar fondos y
+ * mover dinero) sin frenar a usuarios distintos. La operacion se ejecuta en
+ * una transaccion propia que se confirma antes de liberar el bloqueo, por lo
+ * que no debe llamarse con una transaccion ya abierta.
+ * El backend se elige con wallet.bloqueo.backend: local (por defecto, un solo
+ * nodo) o postgres (advisory locks, varios nodos).
+ */
+public interface BloqueoUsuarios {
+
+    <T> T ejecutar(Long usuarioId, Callable<T> operacion) throws Exception;
+
+    /**
+     * Bloquea a los dos usuarios en un orden determinista, para operaciones
+     * entre dos partes como las transferencias
+     */
+    <T> T ejecutar(Long usuarioIdA, Long usuarioIdB, Callable<T> operacion) throws Exception;
+}
@@ -0,0 +1,40 @@
+package com.api.payglobal.service.bloqueo;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.api.payglobal.helpers.BloqueoRayado;
+import com.api.payglobal.helpers.EjecucionTransaccional;
+
+/**
+ * Bloqueo en memoria por franjas; solo protege dentro de una instancia
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.bloqueo.backend", havingValue = "local", matchIfMissing = true)
+public class BloqueoUsuariosLocal implements BloqueoUsuarios {
+
+    private final BloqueoRayado bloqueo;
+    private final EjecucionTransaccional transaccion;
+
+    public BloqueoUsuariosLocal(
+            @Value("${wallet.bloqueo.franjas:1024}") int franjas,
+            @Value("${wallet.bloqueo.espera-ms:5000}") long esperaMs,
+            PlatformTransactionManager transactionManager) {
+        this.bloqueo = new BloqueoRayado(franjas, esperaMs);
+        this.transaccion = new EjecucionTransaccional(transactionManager);
+    }
+
+    @Override
+    public <T> T ejecutar(Long usuarioId, Callable<T> operacion) throws Exception {
+        return bloqueo.ejecutar(usuarioId, () -> transaccion.ejecutarNueva(operacion));
+    }
+
+    @Override
+    public <T> T ejecutar(Long usuarioIdA, Long usuarioIdB, Callable<T> operacion) throws Exception {
+        return bloqueo.ejecutar(usuarioIdA, usuarioIdB, () -> transaccion.ejecutarNueva(operacion));
+    }
+}
@@ -0,0 +1,66 @@
+package com.api.payglobal.service.bloqueo;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.api.payglobal.helpers.EjecucionTransaccional;
+
+/**
+ * Bloqueo con advisory locks de transaccion de PostgreSQL, compartido entre
+ * todas las instancias. La clave del lock es el id del usuario y se libera
+ * sola al confirmar o revertir la transaccion.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.bloqueo.backend", havingValue = "postgres")
+public class BloqueoUsuariosPostgres implements BloqueoUsuarios {
+
+    private static final String SQL_BLOQUEAR = "SELECT pg_advisory_xact_lock(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EjecucionTransaccional transaccion;
+    private final long esperaMs;
+
+    public BloqueoUsuariosPostgres(
+            @Value("${wallet.bloqueo.espera-ms:5000}") long esperaMs,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.esperaMs = esperaMs;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new EjecucionTransaccional(transactionManager);
+    }
+
+    @Override
+    public <T> T ejecutar(Long usuarioId, Callable<T> operacion) throws Exception {
+        return transaccion.ejecutarNueva(() -> {
+            limitarEspera();
+            bloquear(usuarioId);
+            return operacion.call();
+        });
+    }
+
+    @Override
+    public <T> T ejecutar(Long usuarioIdA, Long usuarioIdB, Callable<T> operacion) throws Exception {
+        return transaccion.ejecutarNueva(() -> {
+            limitarEspera();
+            // Siempre el menor id primero para no interbloquear transferencias cruzadas
+            bloquear(Math.min(usuarioIdA, usuarioIdB));
+            if (!usuarioIdA.equals(usuarioIdB)) {
+                bloquear(Math.max(usuarioIdA, usuarioIdB));
+            }
+            return operacion.call();
+        });
+    }
+
+    private void limitarEspera() {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + esperaMs + "ms'");
+    }
+
+    private void bloquear(long usuarioId) {
+        jdbcTemplate.queryForList(SQL_BLOQUEAR, usuarioId);
+    }
+}
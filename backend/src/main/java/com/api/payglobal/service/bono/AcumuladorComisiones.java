@@ -0,0 +1,97 @@
+package com.api.payglobal.service.bono;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoMetodoPago;
+import com.api.payglobal.helpers.MapaLong;
+
+/**
+ * Acumula en centavos, con mapas primitivos, las comisiones de una corrida
+ * por beneficiario, nivel y concepto. Al volcarse genera un abono por wallet,
+ * una suma por licencia y una transaccion resumida por beneficiario y nivel,
+ * en lugar de una escritura por cada abono individual.
+ * No es thread-safe: cada worker usa el suyo y se combinan al final.
+ */
+public class AcumuladorComisiones {
+
+    // Los niveles de la red caben en 4 bits (PorcentajesBono.BONO_UNINIVEL)
+    private static final int BITS_NIVEL = 4;
+
+    private final Map<TipoConceptos, MapaLong> centavos = new EnumMap<>(TipoConceptos.class);
+    private final Map<TipoConceptos, MapaLong> abonos = new EnumMap<>(TipoConceptos.class);
+    private final MapaLong walletPorUsuario = new MapaLong();
+    private final MapaLong saldoLicencia = new MapaLong();
+
+    public void registrar(ComisionDetalle comision) {
+        registrarAgregado(comision.getConcepto(), comision.getUsuarioId(), comision.getNivel(),
+                comision.getWalletId(), comision.getLicenciaId(), comision.getCentavos(),
+                comision.getMontoLicencia(), 1);
+    }
+
+    /**
+     * Registra el total de varios abonos del mismo beneficiario, nivel y concepto
+     */
+    public void registrarAgregado(TipoConceptos concepto, long usuarioId, int nivel, Long walletId,
+            Long licenciaId, long totalCentavos, long totalLicencia, long numeroAbonos) {
+        // Sin wallet no hay abono ni transaccion, pero si saldo acumulado
+        if (walletId != null) {
+            long clave = clave(usuarioId, nivel);
+            centavos.computeIfAbsent(concepto, c -> new MapaLong()).sumar(clave, totalCentavos);
+            abonos.computeIfAbsent(concepto, c -> new MapaLong()).sumar(clave, numeroAbonos);
+            walletPorUsuario.ponerSiAusente(usuarioId, walletId);
+        }
+        if (licenciaId != null) {
+            saldoLicencia.sumar(licenciaId, totalLicencia);
+        }
+    }
+
+    public void combinar(AcumuladorComisiones otro) {
+        otro.centavos.forEach((concepto, mapa) -> {
+            MapaLong destino = centavos.computeIfAbsent(concepto, c -> new MapaLong(mapa.tamano()));
+            mapa.recorrer(destino::sumar);
+        });
+        otro.abonos.forEach((concepto, mapa) -> {
+            MapaLong destino = abonos.computeIfAbsent(concepto, c -> new MapaLong(mapa.tamano()));
+            mapa.recorrer(destino::sumar);
+        });
+        otro.walletPorUsuario.recorrer(walletPorUsuario::ponerSiAusente);
+        otro.saldoLicencia.recorrer(saldoLicencia::sumar);
+    }
+
+    public int beneficiarios() {
+        return walletPorUsuario.tamano();
+    }
+
+    /**
+     * Pasa los totales al lote: un abono por wallet, una suma por licencia y
+     * una transaccion por beneficiario, nivel y concepto
+     */
+    public void volcar(LoteAbonos lote, String descripcion) {
+        centavos.forEach((concepto, mapa) -> {
+            MapaLong numeroAbonos = abonos.get(concepto);
+            for (long clave : mapa.clavesOrdenadas()) {
+                long usuarioId = clave >>> BITS_NIVEL;
+                int nivel = (int) (clave & ((1 << BITS_NIVEL) - 1));
+                long total = mapa.obtener(clave, 0);
+                if (total == 0) {
+                    continue;
+                }
+                lote.abonarWallet(walletPorUsuario.obtener(usuarioId, 0), total);
+                lote.registrarTransaccion(usuarioId, total, concepto,
+                        TipoMetodoPago.WALLET_COMISIONES, descripcion + " nivel " + nivel + " ("
+                                + numeroAbonos.obtener(clave, 0) + " abonos)");
+            }
+        });
+        saldoLicencia.recorrer((licenciaId, monto) -> {
+            if (monto != 0) {
+                lote.sumarSaldoAcumulado(licenciaId, Math.toIntExact(monto));
+            }
+        });
+    }
+
+    private static long clave(long usuarioId, int nivel) {
+        return usuarioId << BITS_NIVEL | nivel;
+    }
+}
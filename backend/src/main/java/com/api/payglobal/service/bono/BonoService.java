@@ -14,7 +14,7 @@ public interface BonoService {
 
     void ingresoPasivo() throws Exception;
 
-    void bonoUninivel(String usernameReferido, Double monto,TipoRango tipoRango) throws Exception;
+    void bonoUninivel(String usernameReferido, long centavos, TipoRango tipoRango) throws Exception;
 
     void asignacionRango() throws Exception;
 
@@ -1,15 +1,15 @@
 package com.api.payglobal.service.bono;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.api.payglobal.dto.response.UsuarioEnRedResponse;
 import com.api.payglobal.entity.Bono;
-import com.api.payglobal.entity.Licencia;
 import com.api.payglobal.entity.Usuario;
 import com.api.payglobal.entity.Wallet;
 import com.api.payglobal.entity.enums.EstadoOperacion;
@@ -19,25 +19,26 @@ import com.api.payglobal.entity.enums.TipoLicencia;
 import com.api.payglobal.entity.enums.TipoMetodoPago;
 import com.api.payglobal.entity.enums.TipoRango;
 import com.api.payglobal.entity.enums.TipoWallets;
-import com.api.payglobal.helpers.UninivelHelper;
+import com.api.payglobal.helpers.Centavos;
+import com.api.payglobal.repository.AbonoJdbcRepository;
 import com.api.payglobal.repository.BonoRepository;
 import com.api.payglobal.repository.LicenciaRepository;
+import com.api.payglobal.repository.LineaAscendenteJdbcRepository;
+import com.api.payglobal.repository.LineaAscendenteJdbcRepository.Ascendente;
 import com.api.payglobal.repository.UsuarioRepository;
 import com.api.payglobal.repository.WalletRepository;
+import com.api.payglobal.service.ingresoPasivo.IngresoPasivoService;
+import com.api.payglobal.service.rango.RangoService;
+import com.api.payglobal.service.resumen.DatosUsuarioModificadosEvent;
 import com.api.payglobal.service.transaccion.TransaccionService;
+import com.api.payglobal.service.wallet.LedgerService;
+
+import lombok.extern.slf4j.Slf4j;
 
 @Service
+@Slf4j
 public class BonoServiceImpl implements BonoService {
 
-    private final Double BONO_INSCRIPCION_NIVEL_1 = 0.07;
-    private final Double BONO_INSCRIPCION_NIVEL_2 = 0.03;
-    private final Double BONO_RENOVACION = 0.05;
-
-    private final Double[] BONO_UNINIVEL = { 0.10, 0.06, 0.03, 0.02, 0.01, 0.01, 0.01, 0.01, 0.02, 0.03 };
-
-    @Autowired
-    private UninivelHelper uninivelHelper;
-
     @Autowired
     private WalletRepository walletRepository;
 
@@ -53,58 +54,46 @@ public class BonoServiceImpl implements BonoService {
     @Autowired
     private BonoRepository bonoRepository;
 
-    @Override
-    @Transactional
-    public void bonoInscripcion(TipoLicencia tipoLicencia, String usernameReferido) throws Exception {
-        List<UsuarioEnRedResponse> redInversa = uninivelHelper.obtenerRedDeUsuariosInversaRecursiva(usernameReferido, 0,
-                2);
-
-        for (UsuarioEnRedResponse usuarioEnRed : redInversa) {
-            Double bono = 0.0;
-            if (usuarioEnRed.getNivel() == 1) {
-                bono = tipoLicencia.getValor() * BONO_INSCRIPCION_NIVEL_1;
-            } else if (usuarioEnRed.getNivel() == 2) {
-                bono = tipoLicencia.getValor() * BONO_INSCRIPCION_NIVEL_2;
-            }
+    @Autowired
+    private IngresoPasivoService ingresoPasivoService;
 
-            final Double bonoFinal = bono;
-            if (bonoFinal > 0) {
-                Wallet wallet = walletRepository.findByUsuario_Username(usuarioEnRed.getUsername()).stream()
-                        .filter(w -> w.getTipo().equals(TipoWallets.WALLET_NETWORK))
-                        .findFirst()
-                        .orElse(null);
+    @Autowired
+    private RangoService rangoService;
 
-                if (wallet != null) {
-                    wallet.setSaldo(wallet.getSaldo().add(BigDecimal.valueOf(bonoFinal)));
-                    walletRepository.save(wallet);
+    @Autowired
+    private LineaAscendenteJdbcRepository lineaAscendenteJdbcRepository;
 
-                    TipoConceptos concepto = usuarioEnRed.getNivel() == 1
-                            ? TipoConceptos.BONO_REGISTRO_DIRECTO
-                            : TipoConceptos.BONO_REGISTRO_INDIRECTO;
+    @Autowired
+    private AbonoJdbcRepository abonoJdbcRepository;
 
-                    Bono nuevoBono = crearOActualizarBono(usuarioEnRed.getUsername(), TipoBono.BONO_INSCRIPCION,
-                            bonoFinal);
-                    bonoRepository.save(nuevoBono);
+    @Autowired
+    private LedgerService ledgerService;
 
-                    String descripcion = "Bono de inscripción por "
-                            + (usuarioEnRed.getNivel() == 1 ? "registro directo" : "registro indirecto") +
-                            " de usuario: " + usernameReferido;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-                    aumentarSaldoAcumuladoLicencia(usernameReferido, bonoFinal);
+    /**
+     * Resuelve los dos niveles superiores en una consulta y aplica todos los
+     * abonos en un solo lote
+     */
+    @Override
+    @Transactional
+    public void bonoInscripcion(TipoLicencia tipoLicencia, String usernameReferido) throws Exception {
+        List<Ascendente> linea = lineaAscendenteJdbcRepository.buscarLinea(usernameReferido, 2);
 
-                    registrarTransaccion(usuarioEnRed.getUsername(), bonoFinal, concepto,
-                            TipoMetodoPago.WALLET_COMISIONES, descripcion);
-                }
-            }
+        LoteAbonos lote = new LoteAbonos();
+        DistribucionBonos.inscripcion(tipoLicencia, usernameReferido, linea, lote);
+        if (!lote.isEmpty()) {
+            abonoJdbcRepository.aplicar(lote, LocalDateTime.now());
+            eventPublisher.publishEvent(DatosUsuarioModificadosEvent.de(lote.usuariosAfectados()));
         }
-
     }
 
     @Override
     public void bonoRenovacion(TipoLicencia tipoLicencia, String usernameReferido) throws Exception {
         List<Wallet> wallets = walletRepository.findByUsuario_Username(usernameReferido);
 
-        Double bono = tipoLicencia.getValor() * BONO_RENOVACION;
+        long bono = Centavos.porTasa(Centavos.deUnidades(tipoLicencia.getValor()), PorcentajesBono.BONO_RENOVACION);
 
         Wallet wallet = wallets.stream()
                 .filter(w -> w.getTipo().equals(TipoWallets.WALLET_NETWORK))
@@ -112,13 +101,13 @@ public class BonoServiceImpl implements BonoService {
                 .orElse(null);
 
         if (wallet != null) {
-            wallet.setSaldo(wallet.getSaldo().add(BigDecimal.valueOf(bono)));
-            walletRepository.save(wallet);
+            ledgerService.abonar(wallet.getId(), Centavos.aBigDecimal(bono), TipoConceptos.BONO_REONOVACION_LICENCIA,
+                    "Bono de renovacion de " + usernameReferido);
 
             Bono nuevoBono = crearOActualizarBono(usernameReferido, TipoBono.BONO_REONOVACION_LICENCIA, bono);
             bonoRepository.save(nuevoBono);
 
-            aumentarSaldoAcumuladoLicencia(usernameReferido, bono);
+            aumentarSaldoAcumuladoLicencia(usernameReferido, Centavos.unidades(bono));
 
             registrarTransaccion(usernameReferido, bono, TipoConceptos.BONO_REONOVACION_LICENCIA,
                     TipoMetodoPago.WALLET_COMISIONES, null);
@@ -132,135 +121,58 @@ public class BonoServiceImpl implements BonoService {
         return null;
     }
 
+    /**
+     * Delegado al motor por chunks de IngresoPasivoService, que maneja sus
+     * propias transacciones por chunk. Los dias habiles anteriores sin pagar
+     * no se recuperan solos, solo se avisan en el log
+     */
     @Override
-    @Transactional
     public void ingresoPasivo() throws Exception {
-        licenciaRepository.findByActivoTrue().forEach(licencia -> {
-            try {
-                Wallet wallet = walletRepository.findByUsuario_Username(licencia.getUsuario().getUsername()).stream()
-                        .filter(w -> w.getTipo().equals(TipoWallets.WALLET_STAKING))
-                        .findFirst()
-                        .orElseThrow(() -> new Exception("Wallet de staking no encontrada para el usuario: "
-                                + licencia.getUsuario().getUsername()));
-
-                Double ingresoPasivo = licencia.getPrecio() * 0.005; // 0.5% de ingreso pasivo diario
-                BigDecimal nuevoSaldo = wallet.getSaldo().add(BigDecimal.valueOf(ingresoPasivo));
-
-                // Actualizar saldoAcumulado en la licencia
-                Integer saldoActual = licencia.getSaldoAcumulado() != null ? licencia.getSaldoAcumulado() : 0;
-                licencia.setSaldoAcumulado(saldoActual + ingresoPasivo.intValue());
-
-                if (nuevoSaldo.compareTo(BigDecimal.valueOf(licencia.getLimite())) >= 0) {
-                    licencia.setActivo(false);
-                    BigDecimal diferencia = nuevoSaldo.subtract(BigDecimal.valueOf(licencia.getPrecio()));
-                    wallet.setSaldo(wallet.getSaldo().add(diferencia));
-                    licenciaRepository.save(licencia);
-                    walletRepository.save(wallet);
-
-                    registrarTransaccion(licencia.getUsuario().getUsername(), ingresoPasivo,
-                            TipoConceptos.INGRESO_PASIVO, TipoMetodoPago.WALLET_DIVIDENDOS, null);
-                    return;
-                }
-
-                wallet.setSaldo(nuevoSaldo);
-                Licencia nuevaLicencia = licenciaRepository.save(licencia);
-                walletRepository.save(wallet);
-
-                registrarTransaccion(nuevaLicencia.getUsuario().getUsername(), ingresoPasivo,
-                        TipoConceptos.INGRESO_PASIVO,
-                        TipoMetodoPago.WALLET_DIVIDENDOS, null);
-
-                bonoUninivel(nuevaLicencia.getUsuario().getUsername(), ingresoPasivo,
-                        nuevaLicencia.getUsuario().getRango());
-
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        LocalDate hoy = LocalDate.now();
+        List<LocalDate> pendientes = ingresoPasivoService.diasPendientes(null, hoy.minusDays(1));
+        if (!pendientes.isEmpty()) {
+            log.warn("Dias de ingreso pasivo sin pagar: {}. Usar la recuperacion de ingreso pasivo (Admin)",
+                    pendientes);
+        }
+        try {
+            ingresoPasivoService.ejecutarCorrida(hoy);
+        } finally {
+            // Una corrida, aunque quede incompleta, toca los saldos de todos
+            eventPublisher.publishEvent(DatosUsuarioModificadosEvent.deTodos());
+        }
     }
 
     @Override
     @Transactional
-    public void bonoUninivel(String usernameReferido, Double monto, TipoRango tipoRango) throws Exception {
-        List<UsuarioEnRedResponse> redInversa = uninivelHelper.obtenerRedDeUsuariosInversaRecursiva(usernameReferido, 0,
-                tipoRango.getNumero());
-
-        for (UsuarioEnRedResponse usuarioEnRed : redInversa) {
-            int nivel = usuarioEnRed.getNivel();
-            if (nivel <= BONO_UNINIVEL.length) {
-                Double porcentajeBono = BONO_UNINIVEL[nivel];
-                Double bono = monto * porcentajeBono;
-
-                final Double bonoFinal = bono;
-                if (bonoFinal > 0) {
-                    // Actualizar wallet de comisiones
-                    Wallet wallet = walletRepository.findByUsuario_Username(usuarioEnRed.getUsername()).stream()
-                            .filter(w -> w.getTipo().equals(TipoWallets.WALLET_NETWORK))
-                            .findFirst()
-                            .orElse(null);
-
-                    if (wallet != null) {
-                        wallet.setSaldo(wallet.getSaldo().add(BigDecimal.valueOf(bonoFinal)));
-                        walletRepository.save(wallet);
-
-                        registrarTransaccion(usuarioEnRed.getUsername(), bonoFinal, TipoConceptos.BONO_UNINIVEL,
-                                TipoMetodoPago.WALLET_COMISIONES, usernameReferido);
-                    }
-
-                    // Actualizar saldoAcumulado en la licencia del usuario que recibe el bono
-                    usuarioRepository.findByUsername(usuarioEnRed.getUsername()).ifPresent(usuario -> {
-                        if (usuario.getLicencia() != null) {
-                            Integer saldoActual = usuario.getLicencia().getSaldoAcumulado() != null
-                                    ? usuario.getLicencia().getSaldoAcumulado()
-                                    : 0;
-                            usuario.getLicencia().setSaldoAcumulado(saldoActual + bonoFinal.intValue());
-                            licenciaRepository.save(usuario.getLicencia());
-                        }
-                    });
-                }
-            }
+    public void bonoUninivel(String usernameReferido, long centavos, TipoRango tipoRango) throws Exception {
+        List<Ascendente> linea = lineaAscendenteJdbcRepository.buscarLinea(usernameReferido,
+                tipoRango.getNumero() + 1);
+
+        LoteAbonos lote = new LoteAbonos();
+        DistribucionBonos.uninivel(usernameReferido, centavos, tipoRango, linea, lote);
+        if (!lote.isEmpty()) {
+            abonoJdbcRepository.aplicar(lote, LocalDateTime.now());
+            eventPublisher.publishEvent(DatosUsuarioModificadosEvent.de(lote.usuariosAfectados()));
         }
     }
 
+    /**
+     * El rango se mantiene de forma incremental al comprar licencias; este job
+     * solo concilia los usuarios cuyo capital o rango almacenado no cuadra
+     */
     @Override
-    @Transactional
     public void asignacionRango() throws Exception {
-        usuarioRepository.findAll().forEach(usuario -> {
-            try {
-
-                List<Usuario> redDeUsuario = uninivelHelper.obtenerRedDeUsuario(usuario.getUsername());
-
-                BigDecimal totalPrecioLicencias = redDeUsuario.stream()
-                        .map(u -> u.getLicencia())
-                        .map(licencia -> BigDecimal.valueOf(licencia.getPrecio()))
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                TipoRango nuevoRango = TipoRango.SIN_RANGO;
-                for (TipoRango rango : TipoRango.values()) {
-                    if (totalPrecioLicencias.compareTo(BigDecimal.valueOf(rango.getCapitalNecesario())) >= 0) {
-                        nuevoRango = rango;
-                    } else {
-                        break;
-                    }
-                }
-
-                usuario.setRango(nuevoRango);
-                usuarioRepository.save(usuario);
-
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        rangoService.reconciliar();
     }
 
-    private void registrarTransaccion(String username, Double monto, TipoConceptos concepto,
+    private void registrarTransaccion(String username, long centavos, TipoConceptos concepto,
             TipoMetodoPago metodoPago, String descripcion) throws Exception {
         Usuario usuario = usuarioRepository.findByUsername(username)
                 .orElseThrow(() -> new Exception("Usuario no encontrado con username: " + username));
 
         transaccionService.procesarTransaccion(
                 usuario.getId(),
-                monto,
+                Centavos.aBigDecimal(centavos),
                 concepto,
                 metodoPago,
                 EstadoOperacion.COMPLETADA,
@@ -268,7 +180,7 @@ public class BonoServiceImpl implements BonoService {
                 descripcion);
     }
 
-    private Bono crearOActualizarBono(String username, TipoBono tipoBono, Double monto) {
+    private Bono crearOActualizarBono(String username, TipoBono tipoBono, long centavos) {
 
         Usuario usuario = usuarioRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -277,12 +189,12 @@ public class BonoServiceImpl implements BonoService {
                 .filter(b -> b.getNombre().equals(tipoBono))
                 .findFirst()
                 .map(b -> {
-                    b.setAcumulado(b.getAcumulado().add(BigDecimal.valueOf(monto)));
+                    b.setAcumulado(b.getAcumulado().add(Centavos.aBigDecimal(centavos)));
                     return b;
                 })
                 .orElseGet(() -> {
                     Bono nuevoBono = Bono.builder()
-                            .acumulado(BigDecimal.valueOf(monto))
+                            .acumulado(Centavos.aBigDecimal(centavos))
                             .nombre(tipoBono)
                             .usuario(usuario)
                             .build();
@@ -292,13 +204,13 @@ public class BonoServiceImpl implements BonoService {
         return bono;
     }
 
-    private void aumentarSaldoAcumuladoLicencia(String username, Double monto) {
+    private void aumentarSaldoAcumuladoLicencia(String username, int monto) {
         usuarioRepository.findByUsername(username).ifPresent(usuario -> {
             if (usuario.getLicencia() != null) {
                 Integer saldoActual = usuario.getLicencia().getSaldoAcumulado() != null
                         ? usuario.getLicencia().getSaldoAcumulado()
                         : 0;
-                usuario.getLicencia().setSaldoAcumulado(saldoActual + monto.intValue());
+                usuario.getLicencia().setSaldoAcumulado(saldoActual + monto);
                 licenciaRepository.save(usuario.getLicencia());
             }
         });
@@ -0,0 +1,25 @@
+package com.api.payglobal.service.bono;
+
+import com.api.payglobal.entity.enums.TipoConceptos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Una comision de un referido a un ascendiente, tal como se guarda en
+ * detalle_comisiones para auditoria
+ */
+@Data
+@AllArgsConstructor
+public class ComisionDetalle {
+    private TipoConceptos concepto;
+    private long usuarioId;
+    private int nivel;
+    // null si el ascendiente no tiene wallet de comisiones o licencia
+    private Long walletId;
+    private Long licenciaId;
+    private long usuarioOrigenId;
+    private long centavos;
+    // Parte entera del bono, lo que se suma al saldo acumulado de la licencia
+    private int montoLicencia;
+}
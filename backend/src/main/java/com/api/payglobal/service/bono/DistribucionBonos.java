@@ -0,0 +1,107 @@
+package com.api.payglobal.service.bono;
+
+import java.util.List;
+
+import com.api.payglobal.entity.enums.TipoBono;
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoLicencia;
+import com.api.payglobal.entity.enums.TipoMetodoPago;
+import com.api.payglobal.entity.enums.TipoRango;
+import com.api.payglobal.helpers.Centavos;
+import com.api.payglobal.repository.LineaAscendenteJdbcRepository.Ascendente;
+
+/**
+ * Reparto de bonos sobre una linea ascendente ya resuelta. Solo acumula los
+ * abonos en el lote, la escritura la hace AbonoJdbcRepository.
+ * Los montos van en centavos; el saldo acumulado de las licencias suma solo
+ * las unidades enteras de cada bono, igual que antes.
+ */
+public final class DistribucionBonos {
+
+    private DistribucionBonos() {
+    }
+
+    public static void uninivel(String usernameReferido, long monto, TipoRango tipoRango,
+            List<Ascendente> linea, LoteAbonos lote) {
+        for (Ascendente ascendente : linea) {
+            int nivel = ascendente.getNivel();
+            if (nivel > tipoRango.getNumero() + 1 || nivel >= PorcentajesBono.BONO_UNINIVEL.length) {
+                break;
+            }
+
+            long bono = Centavos.porTasa(monto, PorcentajesBono.BONO_UNINIVEL[nivel]);
+            if (bono <= 0) {
+                continue;
+            }
+
+            if (ascendente.getWalletId() != null) {
+                lote.abonarWallet(ascendente.getWalletId(), bono);
+                lote.registrarTransaccion(ascendente.getUsuarioId(), bono, TipoConceptos.BONO_UNINIVEL,
+                        TipoMetodoPago.WALLET_COMISIONES, usernameReferido);
+            }
+
+            // El saldo acumulado se suma aunque el ascendiente no tenga wallet de comisiones
+            if (ascendente.getLicenciaId() != null) {
+                lote.sumarSaldoAcumulado(ascendente.getLicenciaId(), Centavos.unidades(bono));
+            }
+        }
+    }
+
+    /**
+     * Igual que uninivel pero dejando cada comision como detalle, para que la
+     * corrida de ingreso pasivo las acumule y las aplique sumadas
+     */
+    public static void uninivel(Long usuarioOrigenId, long monto, TipoRango tipoRango, List<Ascendente> linea,
+            List<ComisionDetalle> detalle) {
+        for (Ascendente ascendente : linea) {
+            int nivel = ascendente.getNivel();
+            if (nivel > tipoRango.getNumero() + 1 || nivel >= PorcentajesBono.BONO_UNINIVEL.length) {
+                break;
+            }
+
+            long bono = Centavos.porTasa(monto, PorcentajesBono.BONO_UNINIVEL[nivel]);
+            if (bono <= 0) {
+                continue;
+            }
+
+            detalle.add(new ComisionDetalle(TipoConceptos.BONO_UNINIVEL, ascendente.getUsuarioId(), nivel,
+                    ascendente.getWalletId(), ascendente.getLicenciaId(), usuarioOrigenId,
+                    bono, Centavos.unidades(bono)));
+        }
+    }
+
+    public static void inscripcion(TipoLicencia tipoLicencia, String usernameReferido, List<Ascendente> linea,
+            LoteAbonos lote) {
+        if (linea.isEmpty()) {
+            return;
+        }
+        // El saldo acumulado de ambos niveles va a la licencia de usernameReferido (nivel 1)
+        Long licenciaReferido = linea.get(0).getLicenciaId();
+        long valor = Centavos.deUnidades(tipoLicencia.getValor());
+
+        for (Ascendente ascendente : linea) {
+            long bono = 0;
+            if (ascendente.getNivel() == 1) {
+                bono = Centavos.porTasa(valor, PorcentajesBono.BONO_INSCRIPCION_NIVEL_1);
+            } else if (ascendente.getNivel() == 2) {
+                bono = Centavos.porTasa(valor, PorcentajesBono.BONO_INSCRIPCION_NIVEL_2);
+            }
+
+            if (bono <= 0 || ascendente.getWalletId() == null) {
+                continue;
+            }
+
+            boolean directo = ascendente.getNivel() == 1;
+            lote.abonarWallet(ascendente.getWalletId(), bono);
+            lote.acumularBono(ascendente.getUsuarioId(), TipoBono.BONO_INSCRIPCION, bono);
+            if (licenciaReferido != null) {
+                lote.sumarSaldoAcumulado(licenciaReferido, Centavos.unidades(bono));
+            }
+            lote.registrarTransaccion(ascendente.getUsuarioId(), bono,
+                    directo ? TipoConceptos.BONO_REGISTRO_DIRECTO : TipoConceptos.BONO_REGISTRO_INDIRECTO,
+                    TipoMetodoPago.WALLET_COMISIONES,
+                    "Bono de inscripción por " + (directo ? "registro directo" : "registro indirecto")
+                            + " de usuario: " + usernameReferido);
+        }
+    }
+}
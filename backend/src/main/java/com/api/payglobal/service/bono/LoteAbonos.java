@@ -0,0 +1,91 @@
+package com.api.payglobal.service.bono;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.api.payglobal.entity.enums.EstadoOperacion;
+import com.api.payglobal.entity.enums.TipoBono;
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoMetodoPago;
+import com.api.payglobal.helpers.MapaLong;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+
+/**
+ * Acumula en memoria los abonos de un evento de pago (wallets, licencias y
+ * transacciones) para escribirlos despues en un solo lote JDBC.
+ * Los montos van en centavos (ver Centavos) y se convierten a BigDecimal solo
+ * al escribir. Las filas se escriben en orden de id para que se bloqueen
+ * siempre en el mismo orden.
+ */
+@Getter
+public class LoteAbonos {
+
+    // walletId -> centavos
+    private final MapaLong saldosWallet = new MapaLong();
+    // licenciaId -> unidades enteras
+    private final MapaLong saldosAcumuladosLicencia = new MapaLong();
+    private final Set<Long> licenciasDesactivadas = new TreeSet<>();
+    // tipo -> usuarioId -> centavos
+    private final Map<TipoBono, MapaLong> bonosAcumulados = new EnumMap<>(TipoBono.class);
+    private final List<TransaccionPendiente> transacciones = new ArrayList<>();
+
+    public void abonarWallet(long walletId, long centavos) {
+        saldosWallet.sumar(walletId, centavos);
+    }
+
+    public void sumarSaldoAcumulado(long licenciaId, int monto) {
+        saldosAcumuladosLicencia.sumar(licenciaId, monto);
+    }
+
+    public void desactivarLicencia(Long licenciaId) {
+        licenciasDesactivadas.add(licenciaId);
+    }
+
+    public void acumularBono(long usuarioId, TipoBono tipoBono, long centavos) {
+        bonosAcumulados.computeIfAbsent(tipoBono, t -> new MapaLong()).sumar(usuarioId, centavos);
+    }
+
+    public void registrarTransaccion(Long usuarioId, long centavos, TipoConceptos concepto,
+            TipoMetodoPago metodoPago, String descripcion) {
+        transacciones.add(new TransaccionPendiente(usuarioId, centavos, concepto, metodoPago,
+                EstadoOperacion.COMPLETADA, descripcion));
+    }
+
+    /**
+     * Usuarios con transacciones o bonos en el lote. Cada abono a wallet
+     * registra su transaccion, asi que cubre tambien a los duenos de wallets
+     */
+    public Set<Long> usuariosAfectados() {
+        Set<Long> usuarios = new TreeSet<>();
+        transacciones.forEach(t -> usuarios.add(t.getUsuarioId()));
+        bonosAcumulados.values().forEach(porUsuario -> {
+            for (long usuarioId : porUsuario.clavesOrdenadas()) {
+                usuarios.add(usuarioId);
+            }
+        });
+        return usuarios;
+    }
+
+    public boolean isEmpty() {
+        return saldosWallet.tamano() == 0 && saldosAcumuladosLicencia.tamano() == 0
+                && licenciasDesactivadas.isEmpty() && bonosAcumulados.isEmpty() && transacciones.isEmpty();
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class TransaccionPendiente {
+        private Long usuarioId;
+        private long centavos;
+        private TipoConceptos concepto;
+        private TipoMetodoPago metodoPago;
+        private EstadoOperacion estado;
+        private String descripcion;
+    }
+}
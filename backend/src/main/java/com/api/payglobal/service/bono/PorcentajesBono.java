@@ -0,0 +1,23 @@
+package com.api.payglobal.service.bono;
+
+/**
+ * Porcentajes usados para el calculo de bonos e ingreso pasivo, en partes por
+ * millon para operar con Centavos.porTasa sin errores de coma flotante
+ */
+public final class PorcentajesBono {
+
+    public static final long BONO_INSCRIPCION_NIVEL_1 = 70_000;
+    public static final long BONO_INSCRIPCION_NIVEL_2 = 30_000;
+    public static final long BONO_RENOVACION = 50_000;
+    public static final long INGRESO_PASIVO_DIARIO = 5_000;
+
+    /**
+     * Porcentaje uninivel indexado por el nivel devuelto por
+     * UninivelHelper.obtenerRedDeUsuariosInversaRecursiva
+     */
+    public static final long[] BONO_UNINIVEL = {
+            100_000, 60_000, 30_000, 20_000, 10_000, 10_000, 10_000, 10_000, 20_000, 30_000 };
+
+    private PorcentajesBono() {
+    }
+}
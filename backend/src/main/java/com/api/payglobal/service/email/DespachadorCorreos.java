@@ -0,0 +1,186 @@
+package com.api.payglobal.service.email;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.api.payglobal.entity.CorreoSaliente;
+import com.api.payglobal.repository.CorreoSalienteJdbcRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Vacia la bandeja de salida en asyncTaskExecutor. Toma los correos
+ * pendientes por bloques, agrupa los que tienen el mismo mensaje en un solo
+ * envio al proveedor y reprograma los que fallan con espera exponencial.
+ * Se despierta al confirmarse una transaccion que encolo correos y, para los
+ * reintentos, desde la tarea periodica en tasks.
+ */
+@Component
+@Slf4j
+public class DespachadorCorreos {
+
+    @Value("${correo.despacho.bloque:200}")
+    private int tamanoBloque;
+
+    // Tiempo que un correo tomado queda reservado para esta instancia
+    @Value("${correo.despacho.plazo-ms:120000}")
+    private long plazoMillis;
+
+    @Value("${correo.reintentos.maximo:6}")
+    private int maximoIntentos;
+
+    @Value("${correo.reintentos.espera-base-ms:30000}")
+    private long esperaBaseMillis;
+
+    @Value("${correo.reintentos.espera-maxima-ms:3600000}")
+    private long esperaMaximaMillis;
+
+    @Value("${sendgrid.from.email:noreply@payglobal.com}")
+    private String fromEmail;
+
+    @Value("${sendgrid.from.name:PayGlobal}")
+    private String fromName;
+
+    @Autowired
+    private CorreoSalienteJdbcRepository correoSalienteJdbcRepository;
+
+    @Autowired
+    private RemitenteCorreo remitenteCorreo;
+
+    @Autowired
+    @Qualifier("asyncTaskExecutor")
+    private Executor asyncTaskExecutor;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+    private final AtomicBoolean pendiente = new AtomicBoolean();
+
+    /**
+     * Despacha al confirmar la transaccion actual, o ya si no hay una. Si la
+     * transaccion se revierte los correos no existen y no hay nada que enviar
+     */
+    public void despacharAlConfirmar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    despachar();
+                }
+            });
+        } else {
+            despachar();
+        }
+    }
+
+    /**
+     * Nunca bloquea a quien lo llama. Si ya hay un vaciado en curso solo le
+     * pide otra vuelta
+     */
+    public void despachar() {
+        pendiente.set(true);
+        if (!enCurso.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            asyncTaskExecutor.execute(this::vaciar);
+        } catch (RejectedExecutionException e) {
+            enCurso.set(false);
+            log.warn("Executor lleno, los correos se enviaran en el siguiente ciclo");
+        }
+    }
+
+    private void vaciar() {
+        try {
+            while (pendiente.getAndSet(false)) {
+                enviarPendientes();
+            }
+        } catch (RuntimeException e) {
+            log.error("Error al vaciar la bandeja de salida: {}", e.getMessage(), e);
+        } finally {
+            enCurso.set(false);
+        }
+        // Un aviso pudo llegar entre la ultima vuelta y la liberacion
+        if (pendiente.get()) {
+            despachar();
+        }
+    }
+
+    private void enviarPendientes() {
+        List<CorreoSaliente> correos;
+        do {
+            LocalDateTime ahora = LocalDateTime.now();
+            correos = correoSalienteJdbcRepository.reclamar(tamanoBloque, ahora, plazoMillis);
+            for (List<CorreoSaliente> grupo : agrupar(correos)) {
+                enviarGrupo(grupo);
+            }
+        } while (correos.size() == tamanoBloque);
+    }
+
+    /**
+     * Mismo remitente, asunto y contenido: un solo envio con un destinatario
+     * por copia, hasta el maximo del proveedor
+     */
+    private List<List<CorreoSaliente>> agrupar(List<CorreoSaliente> correos) {
+        Map<List<String>, List<CorreoSaliente>> porMensaje = new LinkedHashMap<>();
+        for (CorreoSaliente correo : correos) {
+            porMensaje.computeIfAbsent(Arrays.asList(correo.getRemitente(), correo.getAsunto(),
+                    correo.getTipoContenido(), correo.getContenido()), k -> new ArrayList<>()).add(correo);
+        }
+        int maximo = Math.max(1, remitenteCorreo.maximoDestinatarios());
+        List<List<CorreoSaliente>> grupos = new ArrayList<>();
+        for (List<CorreoSaliente> mismos : porMensaje.values()) {
+            for (int desde = 0; desde < mismos.size(); desde += maximo) {
+                grupos.add(mismos.subList(desde, Math.min(mismos.size(), desde + maximo)));
+            }
+        }
+        return grupos;
+    }
+
+    private void enviarGrupo(List<CorreoSaliente> grupo) {
+        CorreoSaliente primero = grupo.get(0);
+        boolean conRemitente = primero.getRemitente() != null;
+        LoteCorreo lote = new LoteCorreo(
+                conRemitente ? primero.getRemitente() : fromEmail,
+                conRemitente ? null : fromName,
+                primero.getAsunto(),
+                primero.getTipoContenido(),
+                primero.getContenido(),
+                grupo.stream().map(CorreoSaliente::getDestinatario).toList());
+        try {
+            remitenteCorreo.enviar(lote);
+            correoSalienteJdbcRepository.marcarEnviados(grupo, LocalDateTime.now());
+        } catch (IOException | RuntimeException e) {
+            boolean reintentable = !(e instanceof ErrorEnvioCorreo error) || error.isReintentable();
+            LocalDateTime ahora = LocalDateTime.now();
+            List<LocalDateTime> proximos = grupo.stream()
+                    .map(c -> reintentable && c.getIntentos() < maximoIntentos
+                            ? ahora.plus(Duration.ofMillis(espera(c)))
+                            : null)
+                    .toList();
+            log.warn("Fallo el envio de {} correos (intento {}): {}", grupo.size(), primero.getIntentos(),
+                    e.getMessage());
+            correoSalienteJdbcRepository.reprogramar(grupo, proximos, e.getMessage());
+        }
+    }
+
+    // Espera base * 2^(intentos - 1), con tope
+    private long espera(CorreoSaliente correo) {
+        int exponente = Math.min(Math.max(correo.getIntentos() - 1, 0), 20);
+        return Math.min(esperaMaximaMillis, esperaBaseMillis << exponente);
+    }
+}
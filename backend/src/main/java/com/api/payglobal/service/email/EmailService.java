@@ -3,7 +3,9 @@ package com.api.payglobal.service.email;
 import java.io.IOException;
 
 /**
- * Servicio para el envío de correos electrónicos mediante SendGrid
+ * Servicio para el envío de correos electrónicos mediante SendGrid. Los
+ * metodos solo encolan el correo; el envio ocurre despues de confirmar la
+ * transaccion de quien llama (ver DespachadorCorreos)
  */
 public interface EmailService {
     
@@ -12,7 +14,7 @@ public interface EmailService {
      * @param destinatario Email del destinatario
      * @param asunto Asunto del correo
      * @param contenido Contenido del correo (texto plano)
-     * @throws IOException Si hay un error al enviar el correo
+     * @throws IOException Si el correo no se puede encolar
      */
     void enviarEmail(String destinatario, String asunto, String contenido) throws IOException;
     
@@ -21,7 +23,7 @@ public interface EmailService {
      * @param destinatario Email del destinatario
      * @param asunto Asunto del correo
      * @param contenidoHtml Contenido del correo en formato HTML
-     * @throws IOException Si hay un error al enviar el correo
+     * @throws IOException Si el correo no se puede encolar
      */
     void enviarEmailHtml(String destinatario, String asunto, String contenidoHtml) throws IOException;
     
@@ -31,7 +33,7 @@ public interface EmailService {
      * @param asunto Asunto del correo
      * @param contenidoHtml Contenido del correo en formato HTML
      * @param remitente Email del remitente (opcional, si no se especifica usa el por defecto)
-     * @throws IOException Si hay un error al enviar el correo
+     * @throws IOException Si el correo no se puede encolar
      */
     void enviarEmailConRemitente(String destinatario, String asunto, String contenidoHtml, String remitente) throws IOException;
 }
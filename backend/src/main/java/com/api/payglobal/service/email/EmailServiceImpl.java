@@ -1,94 +1,66 @@
 package com.api.payglobal.service.email;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.sendgrid.Method;
-import com.sendgrid.Request;
-import com.sendgrid.Response;
-import com.sendgrid.SendGrid;
-import com.sendgrid.helpers.mail.Mail;
-import com.sendgrid.helpers.mail.objects.Content;
-import com.sendgrid.helpers.mail.objects.Email;
+import com.api.payglobal.entity.CorreoSaliente;
+import com.api.payglobal.entity.enums.EstadoCorreo;
+import com.api.payglobal.repository.CorreoSalienteRepository;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Implementación del servicio de correo electrónico usando SendGrid API
+ * Implementación del servicio de correo electrónico. Los correos se guardan
+ * en la bandeja de salida dentro de la transaccion de quien llama y
+ * DespachadorCorreos los envia por SendGrid al confirmarse, fuera del hilo de
+ * la peticion. Si la transaccion se revierte el correo no se envia.
  */
 @Service
 @Slf4j
 public class EmailServiceImpl implements EmailService {
 
-    @Value("${sendgrid.api.key}")
-    private String sendGridApiKey;
+    @Autowired
+    private CorreoSalienteRepository correoSalienteRepository;
 
-    @Value("${sendgrid.from.email:noreply@payglobal.com}")
-    private String fromEmail;
-
-    @Value("${sendgrid.from.name:PayGlobal}")
-    private String fromName;
+    @Autowired
+    private DespachadorCorreos despachadorCorreos;
 
     @Override
     public void enviarEmail(String destinatario, String asunto, String contenido) throws IOException {
-        Email from = new Email(fromEmail, fromName);
-        Email to = new Email(destinatario);
-        Content content = new Content("text/plain", contenido);
-        Mail mail = new Mail(from, asunto, to, content);
-
-        enviarCorreo(mail);
+        encolar(destinatario, asunto, "text/plain", contenido, null);
     }
 
     @Override
     public void enviarEmailHtml(String destinatario, String asunto, String contenidoHtml) throws IOException {
-        Email from = new Email(fromEmail, fromName);
-        Email to = new Email(destinatario);
-        Content content = new Content("text/html", contenidoHtml);
-        Mail mail = new Mail(from, asunto, to, content);
-
-        enviarCorreo(mail);
+        encolar(destinatario, asunto, "text/html", contenidoHtml, null);
     }
 
     @Override
     public void enviarEmailConRemitente(String destinatario, String asunto, String contenidoHtml, String remitente) throws IOException {
-        Email from = new Email(remitente);
-        Email to = new Email(destinatario);
-        Content content = new Content("text/html", contenidoHtml);
-        Mail mail = new Mail(from, asunto, to, content);
-
-        enviarCorreo(mail);
+        encolar(destinatario, asunto, "text/html", contenidoHtml, remitente);
     }
 
-    /**
-     * Método privado para enviar el correo a través de SendGrid
-     */
-    private void enviarCorreo(Mail mail) throws IOException {
-        SendGrid sg = new SendGrid(sendGridApiKey);
-        Request request = new Request();
-        
-        try {
-            request.setMethod(Method.POST);
-            request.setEndpoint("mail/send");
-            request.setBody(mail.build());
-            
-            Response response = sg.api(request);
-            
-            log.info("Email enviado - Status Code: {}", response.getStatusCode());
-            log.debug("Response Body: {}", response.getBody());
-            log.debug("Response Headers: {}", response.getHeaders());
-            
-            // SendGrid retorna 202 cuando el email fue aceptado para envío
-            if (response.getStatusCode() != 202) {
-                log.error("Error al enviar email. Status: {}, Body: {}", 
-                    response.getStatusCode(), response.getBody());
-                throw new IOException("Error al enviar el correo. Status code: " + response.getStatusCode());
-            }
-            
-        } catch (IOException ex) {
-            log.error("Error al enviar email: {}", ex.getMessage(), ex);
-            throw ex;
+    private void encolar(String destinatario, String asunto, String tipoContenido, String contenido,
+            String remitente) throws IOException {
+        if (destinatario == null || destinatario.isBlank()) {
+            throw new IOException("El destinatario del correo es obligatorio");
         }
+        LocalDateTime ahora = LocalDateTime.now();
+        correoSalienteRepository.save(CorreoSaliente.builder()
+                .destinatario(destinatario)
+                .asunto(asunto)
+                .tipoContenido(tipoContenido)
+                .contenido(contenido)
+                .remitente(remitente)
+                .estado(EstadoCorreo.PENDIENTE)
+                .intentos(0)
+                .proximoIntento(ahora)
+                .fechaCreacion(ahora)
+                .build());
+        log.debug("Email encolado para {}", destinatario);
+        despachadorCorreos.despacharAlConfirmar();
     }
 }
@@ -42,4 +42,38 @@ public interface EmailTemplateService {
      * @throws IOException Si hay un error al enviar el correo
      */
     void enviarEmailNotificacionTransaccion(String destinatario, String nombreUsuario, String tipoTransaccion, String monto) throws IOException;
+
+    /**
+     * Envía el aviso de un pago acreditado (ingreso pasivo, bonos)
+     * @param destinatario Email del destinatario
+     * @param nombreUsuario Nombre del usuario
+     * @param fecha Fecha del pago
+     * @param concepto Concepto del pago
+     * @param monto Monto acreditado
+     * @throws IOException Si el correo no se puede encolar
+     */
+    void enviarEmailPagoCompletado(String destinatario, String nombreUsuario, String fecha, String concepto,
+            String monto) throws IOException;
+
+    /**
+     * Envía el aviso de un nuevo rango alcanzado
+     * @param destinatario Email del destinatario
+     * @param nombreUsuario Nombre del usuario
+     * @param rango Rango alcanzado
+     * @throws IOException Si el correo no se puede encolar
+     */
+    void enviarEmailRangoAlcanzado(String destinatario, String nombreUsuario, String rango) throws IOException;
+
+    /**
+     * Envía el resumen diario de pagos y rango de un usuario
+     * @param destinatario Email del destinatario
+     * @param nombreUsuario Nombre del usuario
+     * @param fecha Día resumido
+     * @param ingresoPasivo Total de ingreso pasivo del día
+     * @param bonos Total de bonos del día
+     * @param rango Rango alcanzado en el día, o sin cambios
+     * @throws IOException Si el correo no se puede encolar
+     */
+    void enviarEmailResumenDiario(String destinatario, String nombreUsuario, String fecha, String ingresoPasivo,
+            String bonos, String rango) throws IOException;
 }
@@ -0,0 +1,21 @@
+package com.api.payglobal.service.email;
+
+import java.io.IOException;
+
+/**
+ * Rechazo del proveedor de correo. Los errores de red y las respuestas 429 o
+ * 5xx se reintentan; el resto (datos invalidos, credenciales) no.
+ */
+public class ErrorEnvioCorreo extends IOException {
+
+    private final boolean reintentable;
+
+    public ErrorEnvioCorreo(String mensaje, boolean reintentable) {
+        super(mensaje);
+        this.reintentable = reintentable;
+    }
+
+    public boolean isReintentable() {
+        return reintentable;
+    }
+}
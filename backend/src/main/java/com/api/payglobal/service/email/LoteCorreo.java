@@ -0,0 +1,21 @@
+package com.api.payglobal.service.email;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Un mismo mensaje para varios destinatarios. Cada destinatario recibe su
+ * propia copia (no ve a los demas).
+ */
+@Data
+@AllArgsConstructor
+public class LoteCorreo {
+    private String remitente;
+    private String nombreRemitente;
+    private String asunto;
+    private String tipoContenido;
+    private String contenido;
+    private List<String> destinatarios;
+}
@@ -0,0 +1,130 @@
+package com.api.payglobal.service.email;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plantilla de correo compilada una sola vez: el texto queda partido en
+ * segmentos fijos y huecos {{variable}}. Renderizar solo concatena los
+ * segmentos con los valores escapados para HTML en un buffer por hilo que se
+ * reutiliza entre envios.
+ */
+public final class PlantillaCorreo {
+
+    private static final String APERTURA = "{{";
+    private static final String CIERRE = "}}";
+
+    // Un buffer que crecio por un valor enorme no se conserva
+    private static final int CAPACIDAD_MAXIMA_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(8 * 1024));
+
+    private final List<String> variables;
+    // segmentos.length == huecos.length + 1
+    private final String[] segmentos;
+    // Indice en variables del valor de cada hueco
+    private final int[] huecos;
+    private final int longitudFija;
+
+    private PlantillaCorreo(List<String> variables, String[] segmentos, int[] huecos) {
+        this.variables = variables;
+        this.segmentos = segmentos;
+        this.huecos = huecos;
+        int longitud = 0;
+        for (String segmento : segmentos) {
+            longitud += segmento.length();
+        }
+        this.longitudFija = longitud;
+    }
+
+    /**
+     * Los valores de renderizar van en el orden de variables. Falla si el
+     * texto usa una variable no declarada o no usa alguna declarada
+     */
+    public static PlantillaCorreo compilar(String texto, List<String> variables) {
+        List<String> segmentos = new ArrayList<>();
+        List<Integer> huecos = new ArrayList<>();
+        boolean[] usadas = new boolean[variables.size()];
+
+        int desde = 0;
+        int apertura;
+        while ((apertura = texto.indexOf(APERTURA, desde)) >= 0) {
+            int cierre = texto.indexOf(CIERRE, apertura + APERTURA.length());
+            if (cierre < 0) {
+                throw new IllegalArgumentException("Variable sin cerrar en la posicion " + apertura);
+            }
+            String nombre = texto.substring(apertura + APERTURA.length(), cierre).trim();
+            int indice = variables.indexOf(nombre);
+            if (indice < 0) {
+                throw new IllegalArgumentException("Variable no declarada en la plantilla: " + nombre);
+            }
+            usadas[indice] = true;
+            segmentos.add(texto.substring(desde, apertura));
+            huecos.add(indice);
+            desde = cierre + CIERRE.length();
+        }
+        segmentos.add(texto.substring(desde));
+
+        for (int i = 0; i < usadas.length; i++) {
+            if (!usadas[i]) {
+                throw new IllegalArgumentException("Variable declarada sin usar en la plantilla: " + variables.get(i));
+            }
+        }
+        return new PlantillaCorreo(List.copyOf(variables), segmentos.toArray(String[]::new),
+                huecos.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    public String renderizar(String... valores) {
+        if (valores.length != variables.size()) {
+            throw new IllegalArgumentException("La plantilla espera " + variables.size() + " valores: " + variables);
+        }
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        int longitud = longitudFija;
+        for (int hueco : huecos) {
+            longitud += valores[hueco] != null ? valores[hueco].length() : 0;
+        }
+        buffer.ensureCapacity(longitud + 64);
+
+        for (int i = 0; i < huecos.length; i++) {
+            buffer.append(segmentos[i]);
+            escaparHtml(valores[huecos[i]], buffer);
+        }
+        buffer.append(segmentos[huecos.length]);
+
+        String resultado = buffer.toString();
+        if (buffer.capacity() > CAPACIDAD_MAXIMA_BUFFER) {
+            BUFFER.remove();
+        }
+        return resultado;
+    }
+
+    /**
+     * Copia el valor por tramos y solo reemplaza los caracteres especiales
+     */
+    static void escaparHtml(String valor, StringBuilder destino) {
+        if (valor == null) {
+            return;
+        }
+        int inicioTramo = 0;
+        for (int i = 0; i < valor.length(); i++) {
+            String reemplazo = switch (valor.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (reemplazo != null) {
+                destino.append(valor, inicioTramo, i).append(reemplazo);
+                inicioTramo = i + 1;
+            }
+        }
+        destino.append(valor, inicioTramo, valor.length());
+    }
+}
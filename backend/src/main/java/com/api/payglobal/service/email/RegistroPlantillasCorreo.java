@@ -0,0 +1,41 @@
+package com.api.payglobal.service.email;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Compila todas las plantillas de TipoPlantillaCorreo al arrancar. Una
+ * plantilla ausente o con variables que no cuadran impide el arranque en
+ * vez de fallar en el primer envio.
+ */
+@Component
+public class RegistroPlantillasCorreo {
+
+    private static final String CARPETA = "correos/";
+
+    private final Map<TipoPlantillaCorreo, PlantillaCorreo> plantillas = new EnumMap<>(TipoPlantillaCorreo.class);
+
+    @PostConstruct
+    void cargar() throws IOException {
+        for (TipoPlantillaCorreo tipo : TipoPlantillaCorreo.values()) {
+            try (InputStream entrada = new ClassPathResource(CARPETA + tipo.getArchivo()).getInputStream()) {
+                String texto = new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+                plantillas.put(tipo, PlantillaCorreo.compilar(texto, tipo.getVariables()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Plantilla " + tipo.getArchivo() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public String renderizar(TipoPlantillaCorreo tipo, String... valores) {
+        return plantillas.get(tipo).renderizar(valores);
+    }
+}
@@ -0,0 +1,21 @@
+package com.api.payglobal.service.email;
+
+import java.io.IOException;
+
+/**
+ * Proveedor que entrega los correos de la bandeja de salida. La
+ * implementacion por defecto es SendGridRemitenteCorreo.
+ */
+public interface RemitenteCorreo {
+
+    /**
+     * Maximo de destinatarios que acepta en un solo envio
+     */
+    int maximoDestinatarios();
+
+    /**
+     * Entrega el lote completo o lanza excepcion; un ErrorEnvioCorreo no
+     * reintentable marca el lote como fallido sin reintentos
+     */
+    void enviar(LoteCorreo lote) throws IOException;
+}
@@ -0,0 +1,75 @@
+package com.api.payglobal.service.email;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sendgrid.Method;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import com.sendgrid.SendGrid;
+import com.sendgrid.helpers.mail.Mail;
+import com.sendgrid.helpers.mail.objects.Content;
+import com.sendgrid.helpers.mail.objects.Email;
+import com.sendgrid.helpers.mail.objects.Personalization;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Envio por la API v3 de SendGrid con un solo cliente para toda la
+ * aplicacion. Cada destinatario va en su propia personalization, asi un lote
+ * es una sola peticion HTTP. sendgrid.api.host y sendgrid.api.http permiten
+ * apuntar a un servidor local en pruebas.
+ */
+@Component
+@Slf4j
+public class SendGridRemitenteCorreo implements RemitenteCorreo {
+
+    // Limite de personalizations por peticion de SendGrid
+    private static final int MAXIMO_PERSONALIZACIONES = 1000;
+
+    private final SendGrid cliente;
+
+    public SendGridRemitenteCorreo(@Value("${sendgrid.api.key}") String apiKey,
+            @Value("${sendgrid.api.host:}") String host,
+            @Value("${sendgrid.api.http:false}") boolean http) {
+        cliente = new SendGrid(apiKey, http);
+        if (!host.isBlank()) {
+            cliente.setHost(host);
+        }
+    }
+
+    @Override
+    public int maximoDestinatarios() {
+        return MAXIMO_PERSONALIZACIONES;
+    }
+
+    @Override
+    public void enviar(LoteCorreo lote) throws IOException {
+        Mail mail = new Mail();
+        mail.setFrom(new Email(lote.getRemitente(), lote.getNombreRemitente()));
+        mail.setSubject(lote.getAsunto());
+        mail.addContent(new Content(lote.getTipoContenido(), lote.getContenido()));
+        for (String destinatario : lote.getDestinatarios()) {
+            Personalization personalizacion = new Personalization();
+            personalizacion.addTo(new Email(destinatario));
+            mail.addPersonalization(personalizacion);
+        }
+
+        Request request = new Request();
+        request.setMethod(Method.POST);
+        request.setEndpoint("mail/send");
+        request.setBody(mail.build());
+
+        Response response = cliente.api(request);
+        int status = response.getStatusCode();
+        // SendGrid retorna 202 cuando el email fue aceptado para envío
+        if (status != 202) {
+            log.error("Error al enviar email. Status: {}, Body: {}", status, response.getBody());
+            throw new ErrorEnvioCorreo("Error al enviar el correo. Status code: " + status,
+                    status == 429 || status >= 500);
+        }
+        log.info("Email enviado a {} destinatarios - Status Code: {}", lote.getDestinatarios().size(), status);
+    }
+}
@@ -0,0 +1,43 @@
+package com.api.payglobal.service.email;
+
+import java.util.List;
+
+/**
+ * Plantillas de correo en src/main/resources/correos con su asunto y las
+ * variables que reciben, en el orden en que se pasan a renderizar
+ */
+public enum TipoPlantillaCorreo {
+    BIENVENIDA("bienvenida.html", "¡Bienvenido a PayGlobal!", "nombreUsuario"),
+    RECUPERACION_PASSWORD("recuperacion-password.html", "Recuperación de Contraseña - PayGlobal",
+            "nombreUsuario", "codigoVerificacion"),
+    VERIFICACION("verificacion.html", "Verifica tu cuenta - PayGlobal", "nombreUsuario", "codigoVerificacion"),
+    NOTIFICACION_TRANSACCION("notificacion-transaccion.html", "Notificación de Transacción - PayGlobal",
+            "nombreUsuario", "tipoTransaccion", "monto"),
+    PAGO_COMPLETADO("pago-completado.html", "Pago acreditado - PayGlobal",
+            "nombreUsuario", "fecha", "concepto", "monto"),
+    RANGO_ALCANZADO("rango-alcanzado.html", "¡Nuevo rango alcanzado! - PayGlobal", "nombreUsuario", "rango"),
+    RESUMEN_DIARIO("resumen-diario.html", "Tu resumen del día - PayGlobal",
+            "nombreUsuario", "fecha", "ingresoPasivo", "bonos", "rango");
+
+    private final String archivo;
+    private final String asunto;
+    private final List<String> variables;
+
+    TipoPlantillaCorreo(String archivo, String asunto, String... variables) {
+        this.archivo = archivo;
+        this.asunto = asunto;
+        this.variables = List.of(variables);
+    }
+
+    public String getArchivo() {
+        return archivo;
+    }
+
+    public String getAsunto() {
+        return asunto;
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+}
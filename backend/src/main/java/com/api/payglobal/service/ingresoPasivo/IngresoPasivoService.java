@@ -0,0 +1,29 @@
+package com.api.payglobal.service.ingresoPasivo;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.api.payglobal.entity.CorridaIngresoPasivo;
+
+public interface IngresoPasivoService {
+
+    /**
+     * Paga el ingreso pasivo de todas las licencias activas para la fecha de
+     * negocio indicada. Si ya existe una corrida sin terminar para esa fecha se
+     * reanuda desde el ultimo chunk confirmado.
+     */
+    CorridaIngresoPasivo ejecutarCorrida(LocalDate fechaNegocio) throws Exception;
+
+    /**
+     * Dias habiles (lunes a viernes) hasta la fecha indicada sin corrida
+     * completada. Si desde es null se cuenta desde la primera corrida
+     * registrada, asi un dia salteado entre dos corridas tambien aparece.
+     */
+    List<LocalDate> diasPendientes(LocalDate desde, LocalDate hasta);
+
+    /**
+     * Paga los dias pendientes entre desde y hasta. Los dias se procesan en
+     * orden dentro de cada particion y las particiones corren en paralelo.
+     */
+    List<CorridaIngresoPasivo> recuperarDias(LocalDate desde, LocalDate hasta) throws Exception;
+}
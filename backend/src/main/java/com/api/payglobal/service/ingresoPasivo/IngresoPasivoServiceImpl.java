@@ -0,0 +1,533 @@
+package com.api.payglobal.service.ingresoPasivo;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import com.api.payglobal.entity.CorridaIngresoPasivo;
+import com.api.payglobal.entity.ParticionCorrida;
+import com.api.payglobal.entity.enums.EstadoCorrida;
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoMetodoPago;
+import com.api.payglobal.entity.enums.TipoWallets;
+import com.api.payglobal.helpers.Centavos;
+import com.api.payglobal.repository.AbonoJdbcRepository;
+import com.api.payglobal.repository.CorridaIngresoPasivoRepository;
+import com.api.payglobal.repository.IngresoPasivoJdbcRepository;
+import com.api.payglobal.repository.IngresoPasivoJdbcRepository.LicenciaActiva;
+import com.api.payglobal.repository.IngresoPasivoJdbcRepository.WalletSaldo;
+import com.api.payglobal.repository.LineaAscendenteJdbcRepository;
+import com.api.payglobal.repository.LineaAscendenteJdbcRepository.Ascendente;
+import com.api.payglobal.repository.ParticionCorridaRepository;
+import com.api.payglobal.service.bono.AcumuladorComisiones;
+import com.api.payglobal.service.bono.ComisionDetalle;
+import com.api.payglobal.service.bono.DistribucionBonos;
+import com.api.payglobal.service.bono.LoteAbonos;
+import com.api.payglobal.service.bono.PorcentajesBono;
+import com.api.payglobal.service.notificacion.ColaNotificaciones;
+import com.api.payglobal.service.notificacion.EventoNotificacion;
+import com.api.payglobal.service.resumen.DatosUsuarioModificadosEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pago de ingreso pasivo por particiones y chunks. Las licencias activas se
+ * reparten por usuario_id % particiones y cada particion corre en su propio
+ * worker, recorriendo sus licencias por keyset sobre el id. Cada chunk precarga
+ * wallets y lineas ascendentes en bloque, calcula los abonos en memoria y
+ * escribe en su propia transaccion lo que pertenece a sus usuarios (wallet de
+ * staking, licencia, transacciones) junto con el cursor de la particion.
+ * Los bonos uninivel a ascendientes cruzan particiones: cada chunk guarda su
+ * desglose en detalle_comisiones y cada particion los acumula en memoria; al
+ * cerrar la corrida se aplican sumados, con un abono por wallet, una suma por
+ * licencia y una transaccion por beneficiario y nivel.
+ * Cada licencia pagada queda marcada en pagos_licencia con la fecha de
+ * negocio en la misma transaccion que su abono, asi una corrida repetida no
+ * paga dos veces aunque los dias se paguen fuera de orden. Los dias habiles
+ * sin corrida se recuperan con recuperarDias.
+ * Al confirmarse cada chunk se deja en ColaNotificaciones un evento por
+ * usuario pagado; el pago no espera a ningun envio.
+ */
+@Service
+@Slf4j
+public class IngresoPasivoServiceImpl implements IngresoPasivoService {
+
+    // Espacio de locks de dos claves: (CLAVE_CORRIDAS, dia en epoch)
+    private static final int CLAVE_CORRIDAS = 0x697073;
+    private static final String SQL_RESERVAR_DIA = "SELECT pg_try_advisory_lock(?, ?)";
+    private static final String SQL_LIBERAR_DIAS = "SELECT pg_advisory_unlock_all()";
+
+    @Value("${ingreso.pasivo.chunk.size:500}")
+    private int tamanoChunk;
+
+    @Value("${ingreso.pasivo.particiones:4}")
+    private int numeroParticiones;
+
+    @Value("${ingreso.pasivo.recuperacion.max-dias:31}")
+    private int maximoDiasRecuperacion;
+
+    @Autowired
+    private IngresoPasivoJdbcRepository ingresoPasivoJdbcRepository;
+
+    @Autowired
+    private LineaAscendenteJdbcRepository lineaAscendenteJdbcRepository;
+
+    @Autowired
+    private AbonoJdbcRepository abonoJdbcRepository;
+
+    @Autowired
+    private CorridaIngresoPasivoRepository corridaRepository;
+
+    @Autowired
+    private ParticionCorridaRepository particionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ColaNotificaciones colaNotificaciones;
+
+    @Autowired
+    @Qualifier("ingresoPasivoExecutor")
+    private ThreadPoolTaskExecutor ingresoPasivoExecutor;
+
+    @Override
+    public CorridaIngresoPasivo ejecutarCorrida(LocalDate fechaNegocio) throws Exception {
+        return ejecutarCorridas(List.of(fechaNegocio)).get(0);
+    }
+
+    @Override
+    public List<LocalDate> diasPendientes(LocalDate desde, LocalDate hasta) {
+        LocalDate inicio = desde;
+        if (inicio == null) {
+            // Desde la primera corrida, para ver tambien los huecos entre corridas completadas
+            LocalDate primera = corridaRepository.buscarPrimeraFecha();
+            inicio = primera != null ? primera : hasta;
+        }
+        if (inicio.isAfter(hasta)) {
+            return List.of();
+        }
+        Set<LocalDate> completadas = new HashSet<>(
+                corridaRepository.buscarFechas(EstadoCorrida.COMPLETADA, inicio, hasta));
+        return inicio.datesUntil(hasta.plusDays(1))
+                .filter(dia -> dia.getDayOfWeek() != DayOfWeek.SATURDAY && dia.getDayOfWeek() != DayOfWeek.SUNDAY)
+                .filter(dia -> !completadas.contains(dia))
+                .toList();
+    }
+
+    @Override
+    public List<CorridaIngresoPasivo> recuperarDias(LocalDate desde, LocalDate hasta) throws Exception {
+        if (desde != null && desde.isAfter(hasta)) {
+            throw new Exception("La fecha inicial no puede ser posterior a la final");
+        }
+        List<LocalDate> dias = diasPendientes(desde, hasta);
+        if (dias.size() > maximoDiasRecuperacion) {
+            throw new Exception("Hay " + dias.size() + " dias pendientes, el maximo por recuperacion es "
+                    + maximoDiasRecuperacion);
+        }
+        if (dias.isEmpty()) {
+            log.info("No hay dias de ingreso pasivo pendientes hasta el {}", hasta);
+            return List.of();
+        }
+        log.info("Recuperando ingreso pasivo de {} dias: {}", dias.size(), dias);
+        try {
+            return ejecutarCorridas(dias);
+        } finally {
+            eventPublisher.publishEvent(DatosUsuarioModificadosEvent.deTodos());
+        }
+    }
+
+    /**
+     * Ejecuta o reanuda las corridas de los dias indicados, en orden. Los dias
+     * seguidos con el mismo numero de particiones corren a la vez: cada worker
+     * recorre los dias en orden para su particion. Es seguro porque el pago de
+     * una licencia solo depende de la wallet de staking y la licencia de su
+     * usuario, que estan en la misma particion todos los dias; las comisiones
+     * a ascendientes van a la wallet network y se aplican al cerrar cada dia.
+     */
+    private List<CorridaIngresoPasivo> ejecutarCorridas(List<LocalDate> dias) throws Exception {
+        // Lock de sesion en una conexion aparte: cubre todas las transacciones
+        // de la corrida y se suelta solo si el proceso se cae
+        try (Connection conexion = dataSource.getConnection()) {
+            try {
+                for (LocalDate dia : dias) {
+                    reservarDia(conexion, dia);
+                }
+                return ejecutarCorridasReservadas(dias);
+            } finally {
+                try (Statement liberar = conexion.createStatement()) {
+                    liberar.execute(SQL_LIBERAR_DIAS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Impide que el cron, la recuperacion u otra instancia corran el mismo
+     * dia a la vez; la segunda falla en lugar de esperar
+     */
+    private void reservarDia(Connection conexion, LocalDate dia) throws Exception {
+        try (PreparedStatement reservar = conexion.prepareStatement(SQL_RESERVAR_DIA)) {
+            reservar.setInt(1, CLAVE_CORRIDAS);
+            reservar.setInt(2, (int) dia.toEpochDay());
+            try (ResultSet rs = reservar.executeQuery()) {
+                if (!rs.next() || !rs.getBoolean(1)) {
+                    throw new Exception("Ya hay una corrida de ingreso pasivo en curso para el " + dia);
+                }
+            }
+        }
+    }
+
+    private List<CorridaIngresoPasivo> ejecutarCorridasReservadas(List<LocalDate> dias) throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        List<CorridaIngresoPasivo> resultado = new ArrayList<>();
+        List<CorridaIngresoPasivo> grupo = new ArrayList<>();
+        for (LocalDate dia : dias) {
+            CorridaIngresoPasivo corrida = transactionTemplate.execute(status -> obtenerOCrearCorrida(dia));
+            if (corrida.getEstado() == EstadoCorrida.COMPLETADA) {
+                log.info("La corrida de ingreso pasivo del {} ya fue completada", dia);
+                resultado.add(corrida);
+                continue;
+            }
+            if (!grupo.isEmpty() && !grupo.get(0).getParticiones().equals(corrida.getParticiones())) {
+                resultado.addAll(ejecutarGrupo(grupo));
+                grupo = new ArrayList<>();
+            }
+            grupo.add(corrida);
+        }
+        if (!grupo.isEmpty()) {
+            resultado.addAll(ejecutarGrupo(grupo));
+        }
+        resultado.sort(Comparator.comparing(CorridaIngresoPasivo::getFechaNegocio));
+        return resultado;
+    }
+
+    private List<CorridaIngresoPasivo> ejecutarGrupo(List<CorridaIngresoPasivo> corridas) throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int totalParticiones = corridas.get(0).getParticiones();
+
+        List<List<ParticionCorrida>> particionesPorDia = new ArrayList<>();
+        // Si ya habia chunks confirmados, sus comisiones no estan en memoria y
+        // los totales se reconstruyen desde el detalle al cerrar
+        boolean[] reanudada = new boolean[corridas.size()];
+        for (int d = 0; d < corridas.size(); d++) {
+            CorridaIngresoPasivo corrida = corridas.get(d);
+            List<ParticionCorrida> particiones = transactionTemplate
+                    .execute(status -> obtenerOCrearParticiones(corrida));
+            particionesPorDia.add(particiones);
+            reanudada[d] = particiones.stream().anyMatch(p -> p.getLicenciasProcesadas() > 0);
+            log.info("Iniciando corrida de ingreso pasivo {} del {} con {} particiones", corrida.getId(),
+                    corrida.getFechaNegocio(), particiones.size());
+        }
+
+        long inicio = System.currentTimeMillis();
+        try {
+            List<Future<AcumuladorComisiones[]>> workers = new ArrayList<>();
+            for (int p = 0; p < totalParticiones; p++) {
+                final int particion = p;
+                workers.add(ingresoPasivoExecutor.submit(
+                        () -> procesarParticionEnDias(corridas, particionesPorDia, particion, totalParticiones)));
+            }
+            AcumuladorComisiones[] comisiones = new AcumuladorComisiones[corridas.size()];
+            Arrays.setAll(comisiones, d -> new AcumuladorComisiones());
+            Exception error = null;
+            for (Future<AcumuladorComisiones[]> worker : workers) {
+                try {
+                    AcumuladorComisiones[] porDia = worker.get();
+                    for (int d = 0; d < porDia.length; d++) {
+                        comisiones[d].combinar(porDia[d]);
+                    }
+                } catch (ExecutionException e) {
+                    // Se espera al resto de particiones antes de fallar las corridas
+                    if (error == null) {
+                        error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+
+            for (int d = 0; d < corridas.size(); d++) {
+                Long corridaId = corridas.get(d).getId();
+                AcumuladorComisiones totales = reanudada[d] ? null : comisiones[d];
+                transactionTemplate.executeWithoutResult(status -> cerrarCorrida(corridaId, totales));
+            }
+        } catch (Exception e) {
+            // Los chunks confirmados y las licencias marcadas se conservan; la
+            // siguiente ejecucion reanuda cada dia donde se quedo. Los dias
+            // que ya cerraron siguen completados
+            for (CorridaIngresoPasivo corrida : corridas) {
+                transactionTemplate.executeWithoutResult(status -> corridaRepository
+                        .actualizarEstadoSiNoCompletada(corrida.getId(), EstadoCorrida.FALLIDA,
+                                LocalDateTime.now()));
+            }
+            throw e;
+        }
+
+        long duracion = System.currentTimeMillis() - inicio;
+        List<CorridaIngresoPasivo> resultado = new ArrayList<>();
+        for (CorridaIngresoPasivo corrida : corridas) {
+            reportarParticiones(corrida.getId(), duracion);
+            resultado.add(corridaRepository.findById(corrida.getId()).orElse(corrida));
+        }
+        return resultado;
+    }
+
+    /**
+     * Procesa una particion en todos los dias del grupo, en orden de fecha,
+     * para que cada dia vea los saldos y licencias que dejo el anterior
+     */
+    private AcumuladorComisiones[] procesarParticionEnDias(List<CorridaIngresoPasivo> corridas,
+            List<List<ParticionCorrida>> particionesPorDia, int particion, int totalParticiones) {
+        AcumuladorComisiones[] comisiones = new AcumuladorComisiones[corridas.size()];
+        for (int d = 0; d < corridas.size(); d++) {
+            ParticionCorrida particionDia = particionesPorDia.get(d).get(particion);
+            comisiones[d] = particionDia.getEstado() == EstadoCorrida.COMPLETADA
+                    ? new AcumuladorComisiones()
+                    : procesarParticion(particionDia, totalParticiones, corridas.get(d).getFechaNegocio());
+        }
+        return comisiones;
+    }
+
+    private CorridaIngresoPasivo obtenerOCrearCorrida(LocalDate fechaNegocio) {
+        return corridaRepository.findByFechaNegocio(fechaNegocio)
+                .map(this::fijarParticiones)
+                .orElseGet(() -> corridaRepository.save(CorridaIngresoPasivo.builder()
+                        .fechaNegocio(fechaNegocio)
+                        .estado(EstadoCorrida.EN_PROCESO)
+                        .ultimoIdLicencia(0L)
+                        .licenciasProcesadas(0L)
+                        .particiones(Math.max(1, numeroParticiones))
+                        .fechaInicio(LocalDateTime.now())
+                        .build()));
+    }
+
+    /**
+     * Una corrida anterior a las particiones se reanuda como una sola
+     * particion desde su cursor
+     */
+    private CorridaIngresoPasivo fijarParticiones(CorridaIngresoPasivo corrida) {
+        if (corrida.getParticiones() == null) {
+            corrida.setParticiones(1);
+            corridaRepository.save(corrida);
+        }
+        return corrida;
+    }
+
+    private List<ParticionCorrida> obtenerOCrearParticiones(CorridaIngresoPasivo corrida) {
+        List<ParticionCorrida> existentes = particionRepository.findByCorridaIdOrderByParticion(corrida.getId());
+        if (!existentes.isEmpty()) {
+            return existentes;
+        }
+        long cursorInicial = corrida.getUltimoIdLicencia() != null ? corrida.getUltimoIdLicencia() : 0L;
+        List<ParticionCorrida> particiones = new ArrayList<>();
+        for (int p = 0; p < corrida.getParticiones(); p++) {
+            particiones.add(ParticionCorrida.builder()
+                    .corridaId(corrida.getId())
+                    .particion(p)
+                    .estado(EstadoCorrida.EN_PROCESO)
+                    .ultimoIdLicencia(cursorInicial)
+                    .licenciasProcesadas(0L)
+                    .duracionMs(0L)
+                    .fechaInicio(LocalDateTime.now())
+                    .build());
+        }
+        return particionRepository.saveAll(particiones);
+    }
+
+    /**
+     * @return las comisiones de los chunks confirmados por esta particion
+     */
+    private AcumuladorComisiones procesarParticion(ParticionCorrida particion, int totalParticiones,
+            LocalDate fechaNegocio) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AcumuladorComisiones comisiones = new AcumuladorComisiones();
+        try {
+            Long siguienteCursor = particion.getUltimoIdLicencia() != null ? particion.getUltimoIdLicencia() : 0L;
+            while (siguienteCursor != null) {
+                final long desde = siguienteCursor;
+                List<ComisionDetalle> detalle = new ArrayList<>();
+                siguienteCursor = transactionTemplate
+                        .execute(status -> procesarChunk(particion, totalParticiones, fechaNegocio, desde,
+                                detalle));
+                // Solo se acumula lo que ya quedo confirmado
+                detalle.forEach(comisiones::registrar);
+            }
+            transactionTemplate.executeWithoutResult(status -> particionRepository.actualizarEstado(
+                    particion.getId(), EstadoCorrida.COMPLETADA, LocalDateTime.now()));
+            return comisiones;
+        } catch (RuntimeException e) {
+            log.error("Particion {} de la corrida {} fallida", particion.getParticion(), particion.getCorridaId(), e);
+            transactionTemplate.executeWithoutResult(status -> particionRepository.actualizarEstado(
+                    particion.getId(), EstadoCorrida.FALLIDA, LocalDateTime.now()));
+            throw e;
+        }
+    }
+
+    /**
+     * Procesa un chunk de licencias de la particion posteriores al cursor y
+     * marca como pagadas en la fecha de negocio las que recibieron su abono.
+     * 
+     * @return el nuevo cursor, o null si no quedan licencias por procesar
+     */
+    private Long procesarChunk(ParticionCorrida particion, int totalParticiones, LocalDate fechaNegocio,
+            long cursor, List<ComisionDetalle> detalle) {
+        long inicio = System.currentTimeMillis();
+        List<LicenciaActiva> licencias = ingresoPasivoJdbcRepository.buscarLicenciasActivas(fechaNegocio, cursor,
+                tamanoChunk, totalParticiones, particion.getParticion());
+        if (licencias.isEmpty()) {
+            return null;
+        }
+
+        Set<Long> usuarioIds = licencias.stream().map(LicenciaActiva::getUsuarioId).collect(Collectors.toSet());
+        int nivelMaximo = licencias.stream()
+                .filter(l -> l.getRango() != null)
+                .mapToInt(l -> l.getRango().getNumero() + 1)
+                .max()
+                .orElse(1);
+
+        Map<Long, WalletSaldo> walletsStaking = ingresoPasivoJdbcRepository.buscarWalletsPorTipo(usuarioIds,
+                TipoWallets.WALLET_STAKING);
+        Map<Long, List<Ascendente>> lineas = lineaAscendenteJdbcRepository.buscarLineas(usuarioIds,
+                nivelMaximo);
+
+        LoteAbonos lote = new LoteAbonos();
+        List<Long> pagadas = new ArrayList<>(licencias.size());
+        for (LicenciaActiva licencia : licencias) {
+            if (calcularIngresoPasivo(licencia, walletsStaking.get(licencia.getUsuarioId()),
+                    lineas.getOrDefault(licencia.getUsuarioId(), List.of()), lote, detalle)) {
+                pagadas.add(licencia.getId());
+            }
+        }
+
+        LocalDateTime fecha = LocalDateTime.now();
+        abonoJdbcRepository.aplicar(lote, fecha);
+        colaNotificaciones.publicarAlConfirmar(EventoNotificacion.dePagos(lote, fecha.toLocalDate()));
+        ingresoPasivoJdbcRepository.marcarPagadas(pagadas, fechaNegocio, particion.getCorridaId());
+        ingresoPasivoJdbcRepository.insertarDetalleComisiones(particion.getCorridaId(), detalle, fecha);
+
+        Long ultimoId = licencias.get(licencias.size() - 1).getId();
+        particionRepository.avanzarCursor(particion.getId(), ultimoId, licencias.size(),
+                System.currentTimeMillis() - inicio);
+        return ultimoId;
+    }
+
+    /**
+     * Aplica las comisiones acumuladas a los ascendientes y marca la corrida
+     * como completada, todo en una transaccion. El cambio de estado va
+     * primero y retiene la fila: si la corrida ya estaba completada no se
+     * abona nada.
+     * 
+     * @param comisiones totales en memoria, o null para reconstruirlos desde
+     *                   el detalle
+     */
+    private void cerrarCorrida(Long corridaId, AcumuladorComisiones comisiones) {
+        if (corridaRepository.actualizarEstadoSiNoCompletada(corridaId, EstadoCorrida.COMPLETADA,
+                LocalDateTime.now()) == 0) {
+            log.warn("La corrida {} ya estaba completada, no se aplican sus comisiones otra vez", corridaId);
+            return;
+        }
+        if (comisiones == null) {
+            comisiones = ingresoPasivoJdbcRepository.acumularDetalle(corridaId);
+        }
+        LoteAbonos lote = new LoteAbonos();
+        comisiones.volcar(lote, "Bono uninivel de la corrida " + corridaId);
+        LocalDateTime fecha = LocalDateTime.now();
+        abonoJdbcRepository.aplicar(lote, fecha);
+        colaNotificaciones.publicarAlConfirmar(EventoNotificacion.dePagos(lote, fecha.toLocalDate()));
+        log.info("Corrida {}: bonos uninivel aplicados a {} beneficiarios con {} transacciones", corridaId,
+                comisiones.beneficiarios(), lote.getTransacciones().size());
+
+        long procesadas = particionRepository.findByCorridaIdOrderByParticion(corridaId).stream()
+                .mapToLong(ParticionCorrida::getLicenciasProcesadas)
+                .sum();
+        corridaRepository.actualizarProcesadas(corridaId, procesadas);
+    }
+
+    private void reportarParticiones(Long corridaId, long duracionTotalMs) {
+        long total = 0;
+        for (ParticionCorrida particion : particionRepository.findByCorridaIdOrderByParticion(corridaId)) {
+            long procesadas = particion.getLicenciasProcesadas();
+            long duracion = Math.max(1, particion.getDuracionMs());
+            total += procesadas;
+            log.info("Corrida {} particion {}: {} licencias en {} ms ({} licencias/s)", corridaId,
+                    particion.getParticion(), procesadas, particion.getDuracionMs(), procesadas * 1000 / duracion);
+        }
+        log.info("Corrida de ingreso pasivo {} completada: {} licencias en {} ms ({} licencias/s)", corridaId,
+                total, duracionTotalMs, total * 1000 / Math.max(1, duracionTotalMs));
+    }
+
+    /**
+     * Lo del propio usuario va a lote; los bonos a ascendientes van al detalle
+     * 
+     * @return false si la licencia se omitio sin pagar
+     */
+    private boolean calcularIngresoPasivo(LicenciaActiva licencia, WalletSaldo wallet, List<Ascendente> linea,
+            LoteAbonos lote, List<ComisionDetalle> detalle) {
+        if (wallet == null) {
+            log.warn("Wallet de staking no encontrada para el usuario: {}", licencia.getUsername());
+            return false;
+        }
+        if (licencia.getPrecio() == null || licencia.getLimite() == null) {
+            log.warn("Licencia {} sin precio o limite, se omite", licencia.getId());
+            return false;
+        }
+
+        long precio = Centavos.deUnidades(licencia.getPrecio());
+        long ingresoPasivo = Centavos.porTasa(precio, PorcentajesBono.INGRESO_PASIVO_DIARIO);
+        long nuevoSaldo = Centavos.sumar(Centavos.deBigDecimal(wallet.getSaldo()), ingresoPasivo);
+
+        lote.sumarSaldoAcumulado(licencia.getId(), Centavos.unidades(ingresoPasivo));
+
+        if (nuevoSaldo >= Centavos.deUnidades(licencia.getLimite())) {
+            lote.desactivarLicencia(licencia.getId());
+            lote.abonarWallet(wallet.getId(), Centavos.restar(nuevoSaldo, precio));
+            lote.registrarTransaccion(licencia.getUsuarioId(), ingresoPasivo, TipoConceptos.INGRESO_PASIVO,
+                    TipoMetodoPago.WALLET_DIVIDENDOS, null);
+            return true;
+        }
+
+        lote.abonarWallet(wallet.getId(), ingresoPasivo);
+        lote.registrarTransaccion(licencia.getUsuarioId(), ingresoPasivo, TipoConceptos.INGRESO_PASIVO,
+                TipoMetodoPago.WALLET_DIVIDENDOS, null);
+
+        if (licencia.getRango() != null) {
+            DistribucionBonos.uninivel(licencia.getUsuarioId(), ingresoPasivo, licencia.getRango(), linea,
+                    detalle);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,17 @@
+package com.api.payglobal.service.kycFile;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resultado de guardar un archivo KYC. El nombre es el SHA-256 del contenido
+ * mas la extension de su tipo; dos subidas iguales comparten archivo.
+ */
+@Getter
+@AllArgsConstructor
+public class ArchivoAlmacenado {
+    private final String fileName;
+    private final long size;
+    private final TipoContenidoKyc tipo;
+    private final boolean duplicado;
+}
@@ -0,0 +1,26 @@
+package com.api.payglobal.service.kycFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Subida ya validada y escrita en un temporal, aun sin publicar con su
+ * nombre final. Al cerrarla se borra el temporal si no se movio.
+ */
+@Getter
+@AllArgsConstructor
+public class ArchivoRecibido implements AutoCloseable {
+    private final Path temporal;
+    private final String fileName;
+    private final long size;
+    private final TipoContenidoKyc tipo;
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(temporal);
+    }
+}
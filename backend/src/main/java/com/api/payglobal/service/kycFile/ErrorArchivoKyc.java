@@ -0,0 +1,25 @@
+package com.api.payglobal.service.kycFile;
+
+import java.io.IOException;
+
+/**
+ * Archivo KYC rechazado antes de guardarse: por pasar del tamano maximo o
+ * porque su contenido no es un PDF o una imagen.
+ */
+public class ErrorArchivoKyc extends IOException {
+
+    private final boolean demasiadoGrande;
+
+    public ErrorArchivoKyc(String mensaje, boolean demasiadoGrande) {
+        super(mensaje);
+        this.demasiadoGrande = demasiadoGrande;
+    }
+
+    public static ErrorArchivoKyc demasiadoGrande(long maximoBytes) {
+        return new ErrorArchivoKyc("El archivo supera el tamano maximo de " + maximoBytes + " bytes", true);
+    }
+
+    public boolean isDemasiadoGrande() {
+        return demasiadoGrande;
+    }
+}
@@ -1,43 +1,151 @@
 package com.api.payglobal.service.kycFile;
 
+import java.awt.image.RenderedImage;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Almacen de archivos KYC en ../../uploads/kyc. Cada subida se copia a un
+ * temporal del mismo disco por un buffer fijo mientras se calcula su SHA-256,
+ * y solo si pasa el limite de tamano y es un PDF o una imagen se mueve de una
+ * vez a su nombre final (hash + extension). Un contenido ya guardado no se
+ * vuelve a escribir. Las vistas previas van en la subcarpeta previews.
+ */
 @Service
+@Slf4j
 public class FileStorageService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final Path fileStorageLocation;
+    private final Path tempLocation;
+    private final Path previewLocation;
+    private final long maxBytes;
 
-    public FileStorageService() {
-        this.fileStorageLocation = Paths.get("../../uploads/kyc")
-                .toAbsolutePath().normalize();
+    @Autowired
+    public FileStorageService(@Value("${kyc.archivo.max-bytes:10485760}") long maxBytes) {
+        this(Paths.get("../../uploads/kyc"), maxBytes);
+    }
+
+    FileStorageService(Path location, long maxBytes) {
+        this.fileStorageLocation = location.toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.tempLocation = fileStorageLocation.resolve(".tmp");
+        this.previewLocation = fileStorageLocation.resolve("previews");
 
         try {
-            Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.tempLocation);
+            Files.createDirectories(this.previewLocation);
         } catch (Exception ex) {
             throw new RuntimeException("No se pudo crear el directorio", ex);
         }
     }
 
-    public String storeFile(MultipartFile file, String username, String fileType) throws IOException {
-        // Extraer la extensión del archivo original
-        String originalFileName = file.getOriginalFilename();
-        String fileExtension = "";
-        if (originalFileName != null && originalFileName.contains(".")) {
-            fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
+    public ArchivoAlmacenado storeFile(MultipartFile file, String username, String fileType) throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            return storeFile(input, file.getSize(), username, fileType);
+        }
+    }
+
+    /**
+     * Guarda el contenido de la entrada: recibir y publicar seguidos
+     *
+     * @param declaredSize tamano anunciado por el cliente, o -1 si no se sabe
+     */
+    public ArchivoAlmacenado storeFile(InputStream input, long declaredSize, String username, String fileType)
+            throws IOException {
+        try (ArchivoRecibido recibido = recibir(input, declaredSize)) {
+            ArchivoAlmacenado archivo = publicar(recibido);
+            log.debug("Archivo KYC {} de {} guardado como {} (duplicado: {})", fileType, username,
+                    archivo.getFileName(), archivo.isDuplicado());
+            return archivo;
         }
-        
-        String fileName = String.format("%s_%s_%s%s", username, System.currentTimeMillis(),
-                fileType, fileExtension);
-        Path targetLocation = this.fileStorageLocation.resolve(fileName);
-        Files.copy(file.getInputStream(), targetLocation);
-        return fileName;
+    }
+
+    /**
+     * Copia la entrada a un temporal leyendo de a un buffer y calcula su
+     * nombre final. Se rechaza sin leer nada si el tamano declarado ya pasa
+     * del maximo, y en cuanto lo leido lo pase si no se declaro. Quien llama
+     * debe cerrar el resultado
+     *
+     * @param declaredSize tamano anunciado por el cliente, o -1 si no se sabe
+     */
+    public ArchivoRecibido recibir(InputStream input, long declaredSize) throws IOException {
+        if (declaredSize > maxBytes) {
+            throw ErrorArchivoKyc.demasiadoGrande(maxBytes);
+        }
+        MessageDigest sha256 = newSha256();
+        Path tempFile = Files.createTempFile(tempLocation, "subida-", ".part");
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            TipoContenidoKyc tipo = null;
+            try (OutputStream output = Files.newOutputStream(tempFile)) {
+                int read;
+                // readNBytes llena el buffer, asi el primer bloque trae la firma completa
+                while ((read = input.readNBytes(buffer, 0, buffer.length)) > 0) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw ErrorArchivoKyc.demasiadoGrande(maxBytes);
+                    }
+                    if (tipo == null) {
+                        tipo = TipoContenidoKyc.detectar(buffer, read);
+                        if (tipo == null) {
+                            throw new ErrorArchivoKyc("Solo se aceptan archivos PDF o imagenes", false);
+                        }
+                    }
+                    sha256.update(buffer, 0, read);
+                    output.write(buffer, 0, read);
+                }
+            }
+            if (tipo == null) {
+                throw new ErrorArchivoKyc("El archivo esta vacio", false);
+            }
+            String fileName = HexFormat.of().formatHex(sha256.digest()) + tipo.getExtension();
+            return new ArchivoRecibido(tempFile, fileName, size, tipo);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Mueve el temporal a su nombre final si ese archivo no esta en disco.
+     * Si ya esta, la subida es un duplicado y el temporal se descarta al
+     * cerrar; si falta aunque otro registro lo use, esto lo vuelve a crear
+     */
+    public ArchivoAlmacenado publicar(ArchivoRecibido recibido) throws IOException {
+        Path targetLocation = resolveFile(recibido.getFileName());
+        boolean duplicate = Files.exists(targetLocation);
+        if (!duplicate) {
+            try {
+                Files.move(recibido.getTemporal(), targetLocation, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Otra subida del mismo contenido gano la carrera
+                duplicate = true;
+            }
+        }
+        return new ArchivoAlmacenado(recibido.getFileName(), recibido.getSize(), recibido.getTipo(), duplicate);
     }
 
     public Resource loadFileAsResource(String fileName) throws IOException {
@@ -45,4 +153,56 @@ public class FileStorageService {
         Resource resource = new UrlResource(filePath.toUri());
         return resource;
     }
+
+    public Path resolveFile(String fileName) {
+        return fileStorageLocation.resolve(fileName).normalize();
+    }
+
+    public Resource loadPreviewAsResource(String fileName) throws IOException {
+        return new UrlResource(resolvePreview(fileName).toUri());
+    }
+
+    /**
+     * Escribe la vista previa en PNG a un temporal y la mueve a su lugar, asi
+     * nunca se sirve una a medio escribir
+     */
+    public void storePreview(String fileName, RenderedImage image) throws IOException {
+        Path tempFile = Files.createTempFile(tempLocation, "vista-", ".part");
+        try {
+            if (!ImageIO.write(image, "png", tempFile.toFile())) {
+                throw new IOException("No hay escritor PNG disponible");
+            }
+            Files.move(tempFile, resolvePreview(fileName), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    public boolean hasPreview(String fileName) {
+        return Files.exists(resolvePreview(fileName));
+    }
+
+    /**
+     * Borra el archivo y su vista previa. Quien llama debe comprobar que
+     * ningun otro registro comparte el archivo
+     */
+    public void deleteFile(String fileName) throws IOException {
+        Files.deleteIfExists(resolveFile(fileName));
+        Files.deleteIfExists(resolvePreview(fileName));
+    }
+
+    private Path resolvePreview(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return previewLocation.resolve(baseName + ".png").normalize();
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package com.api.payglobal.service.kycFile;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Genera en kycExecutor las miniaturas que ve el administrador al revisar
+ * documentos, fuera del hilo de la peticion. La imagen se lee submuestreada
+ * para no cargar en memoria fotos de muchos megapixeles. Los PDF y los
+ * formatos sin lector en ImageIO (webp) se quedan sin vista previa.
+ */
+@Component
+@Slf4j
+public class GeneradorVistasPrevias {
+
+    @Value("${kyc.vista-previa.lado-maximo:320}")
+    private int ladoMaximo;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    @Qualifier("kycExecutor")
+    private ThreadPoolTaskExecutor kycExecutor;
+
+    /**
+     * Genera al confirmar la transaccion actual, o ya si no hay una
+     */
+    public void generarAlConfirmar(String fileName) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generar(fileName);
+                }
+            });
+        } else {
+            generar(fileName);
+        }
+    }
+
+    public void generar(String fileName) {
+        try {
+            kycExecutor.execute(() -> crear(fileName));
+        } catch (RejectedExecutionException e) {
+            log.warn("Cola de vistas previas llena, {} queda sin miniatura", fileName);
+        }
+    }
+
+    private void crear(String fileName) {
+        TipoContenidoKyc tipo = TipoContenidoKyc.deNombre(fileName);
+        if (tipo == null || !tipo.isImagen() || fileStorageService.hasPreview(fileName)) {
+            return;
+        }
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(fileStorageService.resolveFile(fileName)
+                .toFile())) {
+            Iterator<ImageReader> lectores = entrada != null ? ImageIO.getImageReaders(entrada) : null;
+            if (lectores == null || !lectores.hasNext()) {
+                return;
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(entrada, true, true);
+                int ancho = lector.getWidth(0);
+                int alto = lector.getHeight(0);
+                // Queda entre ladoMaximo y el doble; el escalado final ajusta
+                int paso = Math.max(1, Math.max(ancho, alto) / ladoMaximo);
+                ImageReadParam parametros = lector.getDefaultReadParam();
+                parametros.setSourceSubsampling(paso, paso, 0, 0);
+                fileStorageService.storePreview(fileName, escalar(lector.read(0, parametros)));
+            } finally {
+                lector.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo generar la vista previa de {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    private BufferedImage escalar(BufferedImage imagen) {
+        double factor = Math.min(1.0, (double) ladoMaximo / Math.max(imagen.getWidth(), imagen.getHeight()));
+        int ancho = Math.max(1, (int) Math.round(imagen.getWidth() * factor));
+        int alto = Math.max(1, (int) Math.round(imagen.getHeight() * factor));
+        BufferedImage miniatura = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D grafico = miniatura.createGraphics();
+        try {
+            grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            // Fondo blanco para las transparencias
+            grafico.drawImage(imagen, 0, 0, ancho, alto, Color.WHITE, null);
+        } finally {
+            grafico.dispose();
+        }
+        return miniatura;
+    }
+}
@@ -1,10 +1,14 @@
 package com.api.payglobal.service.kycFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.api.payglobal.dto.request.EvaluarKycFileRequest;
@@ -12,39 +16,104 @@ import com.api.payglobal.dto.request.GuardarKycFile;
 import com.api.payglobal.entity.KycFile;
 import com.api.payglobal.entity.Usuario;
 import com.api.payglobal.entity.enums.EstadoOperacion;
+import com.api.payglobal.entity.enums.TipoKycFile;
+import com.api.payglobal.helpers.EjecucionTransaccional;
 import com.api.payglobal.repository.KycFileRepository;
 import com.api.payglobal.repository.UsuarioRepository;
 
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Los registros comparten archivo cuando el contenido es el mismo. Publicar
+ * una subida y borrar un registro toman el mismo advisory lock por nombre de
+ * archivo, asi un borrado no quita el archivo que una subida acaba de dar por
+ * existente.
+ */
 @Service
 public class KycServiceImpl implements KycServicio {
 
+    private static final String SQL_BLOQUEAR_ARCHIVO = "SELECT pg_advisory_xact_lock(?, ?)";
+
+    // Primera clave del lock de dos claves, para no cruzarse con otros locks
+    private static final int CLAVE_ARCHIVOS_KYC = 0x6B7963;
+
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private GeneradorVistasPrevias generadorVistasPrevias;
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
     @Autowired
     private KycFileRepository kycFileRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private EjecucionTransaccional transaccion;
+
+    @PostConstruct
+    void inicializar() {
+        transaccion = new EjecucionTransaccional(transactionManager);
+    }
+
+    /**
+     * Sin transaccion alrededor: la copia del archivo no retiene una conexion
+     * mientras llegan los bytes. El archivo se publica y el registro se
+     * guarda al final en su propia transaccion
+     */
     @Override
-    @Transactional
     public KycFile guardarKycFile(GuardarKycFile guardarKycFile, Long idUsuario) throws IOException {
         Usuario usuario = usuarioRepository.findById(idUsuario)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        String fileName = fileStorageService.storeFile(guardarKycFile.getFile(), usuario.getUsername(), guardarKycFile.getFileType().name());
+        try (InputStream contenido = guardarKycFile.getFile().getInputStream()) {
+            return guardar(contenido, guardarKycFile.getFile().getSize(), guardarKycFile.getFileType(), usuario);
+        }
+    }
 
+    @Override
+    public KycFile guardarKycFile(InputStream contenido, long tamanoDeclarado, TipoKycFile fileType,
+            Long idUsuario) throws IOException {
+        Usuario usuario = usuarioRepository.findById(idUsuario)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+
+        return guardar(contenido, tamanoDeclarado, fileType, usuario);
+    }
+
+    private KycFile guardar(InputStream contenido, long tamanoDeclarado, TipoKycFile fileType, Usuario usuario)
+            throws IOException {
+        try (ArchivoRecibido recibido = fileStorageService.recibir(contenido, tamanoDeclarado)) {
+            return transaccion.ejecutar(() -> {
+                bloquearArchivo(recibido.getFileName());
+                return registrar(fileStorageService.publicar(recibido), fileType, usuario);
+            });
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private KycFile registrar(ArchivoAlmacenado archivo, TipoKycFile fileType, Usuario usuario) {
         KycFile kycFile = KycFile.builder()
-                .fileName(fileName)
-                .fileType(guardarKycFile.getFileType())
-                .fileSize(guardarKycFile.getFile().getSize())
+                .fileName(archivo.getFileName())
+                .fileType(fileType)
+                .fileSize(archivo.getSize())
                 .estado(EstadoOperacion.PENDIENTE)
-                .filePath("uploads/kyc/"+fileName)
+                .filePath("uploads/kyc/" + archivo.getFileName())
+                .uploadDate(LocalDateTime.now())
                 .usuario(usuario)
                 .build();
 
         kycFileRepository.save(kycFile);
+        // La miniatura para el revisor se genera fuera de la peticion
+        generadorVistasPrevias.generarAlConfirmar(archivo.getFileName());
         return kycFile;
     }
  
@@ -53,7 +122,12 @@ public class KycServiceImpl implements KycServicio {
     public void eliminarKycFile(Long id)throws IOException {
         KycFile kycFile = kycFileRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("KYC File no encontrado"));
-        fileStorageService.loadFileAsResource(kycFile.getFileName()).getFile().delete();
+        // Con el lock tomado ninguna subida puede registrar este archivo
+        // entre la comprobacion y el borrado
+        bloquearArchivo(kycFile.getFileName());
+        if (!kycFileRepository.existsByFileNameAndIdNot(kycFile.getFileName(), kycFile.getId())) {
+            fileStorageService.deleteFile(kycFile.getFileName());
+        }
         kycFileRepository.delete(kycFile);
 
     }
@@ -89,4 +163,7 @@ public class KycServiceImpl implements KycServicio {
         return kycFileRepository.save(kycFile);
     }
 
+    private void bloquearArchivo(String fileName) {
+        jdbcTemplate.queryForList(SQL_BLOQUEAR_ARCHIVO, CLAVE_ARCHIVOS_KYC, fileName.hashCode());
+    }
 }
@@ -1,14 +1,22 @@
 package com.api.payglobal.service.kycFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import com.api.payglobal.dto.request.EvaluarKycFileRequest;
 import com.api.payglobal.dto.request.GuardarKycFile;
 import com.api.payglobal.entity.KycFile;
+import com.api.payglobal.entity.enums.TipoKycFile;
 
 public interface KycServicio {
     KycFile guardarKycFile(GuardarKycFile guardarKycFile, Long idUsuario) throws IOException;
+    /**
+     * Guarda un archivo que llega como cuerpo de la peticion, sin multipart
+     * @param tamanoDeclarado Content-Length de la peticion, o -1 si no viene
+     */
+    KycFile guardarKycFile(InputStream contenido, long tamanoDeclarado, TipoKycFile fileType, Long idUsuario)
+            throws IOException;
     void eliminarKycFile(Long id)throws IOException;
     List<KycFile> obtenerKycFilePorIdUsuario(Long id);
     List<KycFile> obtenerKycFilesPorEstado();
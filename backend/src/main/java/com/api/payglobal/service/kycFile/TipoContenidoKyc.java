@@ -0,0 +1,85 @@
+package com.api.payglobal.service.kycFile;
+
+/**
+ * Tipos de archivo aceptados para KYC, reconocidos por sus primeros bytes y
+ * no por el nombre o el Content-Type que manda el cliente
+ */
+public enum TipoContenidoKyc {
+    PDF(".pdf", false),
+    JPEG(".jpg", true),
+    PNG(".png", true),
+    GIF(".gif", true),
+    BMP(".bmp", true),
+    WEBP(".webp", true);
+
+    private final String extension;
+    private final boolean imagen;
+
+    TipoContenidoKyc(String extension, boolean imagen) {
+        this.extension = extension;
+        this.imagen = imagen;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public boolean isImagen() {
+        return imagen;
+    }
+
+    /**
+     * @return el tipo segun la firma al inicio del contenido, o null si no es
+     *         uno aceptado
+     */
+    public static TipoContenidoKyc detectar(byte[] inicio, int longitud) {
+        if (empiezaCon(inicio, longitud, 0, '%', 'P', 'D', 'F', '-')) {
+            return PDF;
+        }
+        if (empiezaCon(inicio, longitud, 0, 0xFF, 0xD8, 0xFF)) {
+            return JPEG;
+        }
+        if (empiezaCon(inicio, longitud, 0, 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n')) {
+            return PNG;
+        }
+        if (empiezaCon(inicio, longitud, 0, 'G', 'I', 'F', '8')) {
+            return GIF;
+        }
+        if (empiezaCon(inicio, longitud, 0, 'B', 'M')) {
+            return BMP;
+        }
+        if (empiezaCon(inicio, longitud, 0, 'R', 'I', 'F', 'F')
+                && empiezaCon(inicio, longitud, 8, 'W', 'E', 'B', 'P')) {
+            return WEBP;
+        }
+        return null;
+    }
+
+    /**
+     * @return el tipo segun la extension de un archivo ya guardado, o null
+     */
+    public static TipoContenidoKyc deNombre(String fileName) {
+        String nombre = fileName.toLowerCase();
+        if (nombre.endsWith(".jpeg")) {
+            return JPEG;
+        }
+        for (TipoContenidoKyc tipo : values()) {
+            if (nombre.endsWith(tipo.extension)) {
+                return tipo;
+            }
+        }
+        return null;
+    }
+
+    private static boolean empiezaCon(byte[] datos, int longitud, int desde, int... firma) {
+        if (longitud < desde + firma.length) {
+            return false;
+        }
+        for (int i = 0; i < firma.length; i++) {
+            if ((datos[desde + i] & 0xFF) != firma[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
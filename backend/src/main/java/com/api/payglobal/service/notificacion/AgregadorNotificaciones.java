@@ -0,0 +1,119 @@
+package com.api.payglobal.service.notificacion;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.api.payglobal.repository.ResumenNotificacionJdbcRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Consumidor de ColaNotificaciones en su propio hilo (notificacionesExecutor).
+ * Toma los eventos por bloques, los junta en memoria por dia y usuario y los
+ * suma a resumenes_notificacion con un lote de upserts. Si la base falla los
+ * totales siguen en memoria y se reintentan despues, sumando lo que llegue
+ * mientras tanto.
+ */
+@Component
+@Slf4j
+public class AgregadorNotificaciones {
+
+    @Value("${notificaciones.agregador.bloque:5000}")
+    private int tamanoBloque;
+
+    @Value("${notificaciones.agregador.espera-ms:1000}")
+    private long esperaMillis;
+
+    @Value("${notificaciones.agregador.reintento-ms:30000}")
+    private long reintentoMillis;
+
+    @Autowired
+    private ColaNotificaciones colaNotificaciones;
+
+    @Autowired
+    private ResumenNotificacionJdbcRepository resumenNotificacionJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("notificacionesExecutor")
+    private ThreadPoolTaskExecutor notificacionesExecutor;
+
+    // fecha -> usuarioId -> total; solo lo toca el hilo consumidor
+    private final Map<LocalDate, Map<Long, EventoNotificacion>> pendientes = new TreeMap<>();
+    private final CountDownLatch terminado = new CountDownLatch(1);
+    private volatile boolean activo = true;
+    private long proximoIntento;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        notificacionesExecutor.execute(this::consumir);
+    }
+
+    /**
+     * Al apagar deja de tomar y vuelca lo que quede en la cola antes de que
+     * se cierre la base
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        if (!terminado.await(esperaMillis * 10, TimeUnit.MILLISECONDS)) {
+            log.warn("El agregador de notificaciones no termino a tiempo");
+        }
+    }
+
+    private void consumir() {
+        try {
+            while (activo) {
+                agregar(colaNotificaciones.tomar(tamanoBloque, esperaMillis));
+                if (!pendientes.isEmpty() && System.currentTimeMillis() >= proximoIntento) {
+                    volcar();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            agregar(colaNotificaciones.tomarTodos());
+            volcar();
+            terminado.countDown();
+        }
+    }
+
+    private void agregar(List<EventoNotificacion> eventos) {
+        for (EventoNotificacion evento : eventos) {
+            pendientes.computeIfAbsent(evento.getFecha(), f -> new TreeMap<>())
+                    .merge(evento.getUsuarioId(), evento, EventoNotificacion::sumar);
+        }
+    }
+
+    private void volcar() {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> pendientes.values()
+                    .forEach(porUsuario -> resumenNotificacionJdbcRepository.acumular(porUsuario.values())));
+            pendientes.clear();
+        } catch (RuntimeException e) {
+            proximoIntento = System.currentTimeMillis() + reintentoMillis;
+            log.error("No se pudieron guardar los resumenes de {} dias, se reintenta en {} ms: {}",
+                    pendientes.size(), reintentoMillis, e.getMessage());
+        }
+    }
+}
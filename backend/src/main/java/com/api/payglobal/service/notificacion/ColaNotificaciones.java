@@ -0,0 +1,119 @@
+package com.api.payglobal.service.notificacion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cola acotada en memoria entre el pago y AgregadorNotificaciones. Publicar
+ * nunca espera: si la cola esta llena el evento se descarta y se cuenta, el
+ * pago sigue igual. Las notificaciones son de mejor esfuerzo; el saldo y las
+ * transacciones ya quedaron escritos. Con la cola llena se avisa en el log
+ * a lo sumo una vez por intervalo, con lo descartado desde el aviso anterior.
+ */
+@Component
+@Slf4j
+public class ColaNotificaciones {
+
+    private final BlockingQueue<EventoNotificacion> eventos;
+    private final LongAdder descartados = new LongAdder();
+    private final long intervaloAvisoNanos;
+    private final AtomicLong proximoAviso = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong descartadosAvisados = new AtomicLong();
+
+    public ColaNotificaciones(@Value("${notificaciones.cola.capacidad:100000}") int capacidad,
+            @Value("${notificaciones.cola.aviso-ms:60000}") long intervaloAvisoMillis) {
+        this.eventos = new ArrayBlockingQueue<>(capacidad);
+        this.intervaloAvisoNanos = TimeUnit.MILLISECONDS.toNanos(intervaloAvisoMillis);
+    }
+
+    /**
+     * Publica al confirmar la transaccion actual, o ya si no hay una. Un
+     * chunk revertido no notifica nada
+     */
+    public void publicarAlConfirmar(List<EventoNotificacion> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicar(lote);
+                }
+            });
+        } else {
+            publicar(lote);
+        }
+    }
+
+    public void publicar(List<EventoNotificacion> lote) {
+        int perdidos = 0;
+        for (EventoNotificacion evento : lote) {
+            if (!eventos.offer(evento)) {
+                perdidos++;
+            }
+        }
+        if (perdidos > 0) {
+            descartados.add(perdidos);
+            avisarDescarte();
+        }
+    }
+
+    /**
+     * Solo el hilo que gana el intervalo escribe, asi una cola llena durante
+     * una corrida deja unas pocas lineas y no una por lote
+     */
+    private void avisarDescarte() {
+        long ahora = System.nanoTime();
+        long proximo = proximoAviso.get();
+        if ((proximo != Long.MIN_VALUE && ahora - proximo < 0)
+                || !proximoAviso.compareAndSet(proximo, ahora + intervaloAvisoNanos)) {
+            return;
+        }
+        long total = descartados.sum();
+        long nuevos = total - descartadosAvisados.getAndSet(total);
+        log.warn("Cola de notificaciones llena: {} eventos descartados desde el ultimo aviso ({} en total)",
+                nuevos, total);
+    }
+
+    /**
+     * Espera hasta esperaMillis por el primer evento y luego toma sin esperar
+     * los que haya, hasta maximo
+     */
+    public List<EventoNotificacion> tomar(int maximo, long esperaMillis) throws InterruptedException {
+        EventoNotificacion primero = eventos.poll(esperaMillis, TimeUnit.MILLISECONDS);
+        if (primero == null) {
+            return List.of();
+        }
+        List<EventoNotificacion> tomados = new ArrayList<>(Math.min(maximo, eventos.size() + 1));
+        tomados.add(primero);
+        eventos.drainTo(tomados, maximo - 1);
+        return tomados;
+    }
+
+    public List<EventoNotificacion> tomarTodos() {
+        List<EventoNotificacion> tomados = new ArrayList<>(eventos.size());
+        eventos.drainTo(tomados);
+        return tomados;
+    }
+
+    public int tamano() {
+        return eventos.size();
+    }
+
+    public long descartados() {
+        return descartados.sum();
+    }
+}
@@ -0,0 +1,73 @@
+package com.api.payglobal.service.notificacion;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoRango;
+import com.api.payglobal.helpers.MapaLong;
+import com.api.payglobal.service.bono.LoteAbonos;
+import com.api.payglobal.service.bono.LoteAbonos.TransaccionPendiente;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resumen compacto de lo que le paso a un usuario en un lote: centavos de
+ * ingreso pasivo, centavos de bonos y, si subio, su nuevo rango. Es lo unico
+ * que el pago deja en ColaNotificaciones; no lleva correos ni nombres.
+ */
+@Getter
+@AllArgsConstructor
+public class EventoNotificacion {
+    private final long usuarioId;
+    private final LocalDate fecha;
+    private final long ingresoPasivo;
+    private final long bonos;
+    private final TipoRango rango;
+
+    public static EventoNotificacion rango(long usuarioId, LocalDate fecha, TipoRango rango) {
+        return new EventoNotificacion(usuarioId, fecha, 0, 0, rango);
+    }
+
+    /**
+     * Suma otro evento del mismo usuario y dia; del rango queda el mayor
+     */
+    public EventoNotificacion sumar(EventoNotificacion otro) {
+        TipoRango mayor = rango == null || (otro.rango != null && otro.rango.getNumero() > rango.getNumero())
+                ? otro.rango
+                : rango;
+        return new EventoNotificacion(usuarioId, fecha, ingresoPasivo + otro.ingresoPasivo, bonos + otro.bonos,
+                mayor);
+    }
+
+    /**
+     * Un evento por usuario con las transacciones del lote sumadas, en vez de
+     * uno por transaccion
+     */
+    public static List<EventoNotificacion> dePagos(LoteAbonos lote, LocalDate fecha) {
+        Set<Long> usuarios = new TreeSet<>();
+        MapaLong ingresos = new MapaLong();
+        MapaLong bonos = new MapaLong();
+        for (TransaccionPendiente transaccion : lote.getTransacciones()) {
+            if (transaccion.getUsuarioId() == null || transaccion.getCentavos() <= 0) {
+                continue;
+            }
+            usuarios.add(transaccion.getUsuarioId());
+            if (transaccion.getConcepto() == TipoConceptos.INGRESO_PASIVO) {
+                ingresos.sumar(transaccion.getUsuarioId(), transaccion.getCentavos());
+            } else {
+                bonos.sumar(transaccion.getUsuarioId(), transaccion.getCentavos());
+            }
+        }
+        List<EventoNotificacion> eventos = new ArrayList<>(usuarios.size());
+        for (long usuarioId : usuarios) {
+            eventos.add(new EventoNotificacion(usuarioId, fecha, ingresos.obtener(usuarioId, 0),
+                    bonos.obtener(usuarioId, 0), null));
+        }
+        return eventos;
+    }
+}
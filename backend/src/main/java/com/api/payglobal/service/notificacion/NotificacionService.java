@@ -0,0 +1,14 @@
+package com.api.payglobal.service.notificacion;
+
+/**
+ * Envio de los resumenes diarios que arma AgregadorNotificaciones
+ */
+public interface NotificacionService {
+
+    /**
+     * Pasa a la bandeja de salida los resumenes pendientes de dias ya
+     * cerrados, a un ritmo de notificaciones.resumen.correos-por-segundo
+     * @return numero de resumenes enviados
+     */
+    int enviarResumenesDiarios();
+}
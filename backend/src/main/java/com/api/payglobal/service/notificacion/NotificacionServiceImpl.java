@@ -0,0 +1,113 @@
+package com.api.payglobal.service.notificacion;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.api.payglobal.helpers.Centavos;
+import com.api.payglobal.repository.ResumenNotificacionJdbcRepository;
+import com.api.payglobal.repository.ResumenNotificacionJdbcRepository.ResumenPendiente;
+import com.api.payglobal.service.email.EmailTemplateService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Entrega los resumenes diarios a la bandeja de salida por bloques de
+ * correosPorSegundo, uno por segundo como maximo. Cada bloque encola sus
+ * correos y marca los resumenes en la misma transaccion, asi un resumen no se
+ * encola dos veces aunque la tarea se corte a la mitad.
+ */
+@Service
+@Slf4j
+public class NotificacionServiceImpl implements NotificacionService {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @Value("${notificaciones.resumen.correos-por-segundo:20}")
+    private int correosPorSegundo;
+
+    @Value("${notificaciones.resumen.retencion-dias:30}")
+    private int diasRetencion;
+
+    @Autowired
+    private ResumenNotificacionJdbcRepository resumenNotificacionJdbcRepository;
+
+    @Autowired
+    private EmailTemplateService emailTemplateService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public int enviarResumenesDiarios() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDate hoy = LocalDate.now();
+        int tamanoBloque = Math.max(1, correosPorSegundo);
+        int enviados = 0;
+        long ultimoId = 0;
+        while (true) {
+            long inicio = System.currentTimeMillis();
+            long desde = ultimoId;
+            List<ResumenPendiente> bloque = transactionTemplate
+                    .execute(status -> enviarBloque(hoy, desde, tamanoBloque));
+            if (bloque.isEmpty()) {
+                break;
+            }
+            enviados += bloque.size();
+            ultimoId = bloque.get(bloque.size() - 1).getId();
+            if (bloque.size() < tamanoBloque || !esperar(1000 - (System.currentTimeMillis() - inicio))) {
+                break;
+            }
+        }
+
+        int eliminados = transactionTemplate.execute(status -> resumenNotificacionJdbcRepository
+                .eliminarEnviadosAntesDe(hoy.minusDays(diasRetencion)));
+        log.info("Resumenes diarios: {} encolados, {} antiguos eliminados", enviados, eliminados);
+        return enviados;
+    }
+
+    private List<ResumenPendiente> enviarBloque(LocalDate hoy, long despuesDeId, int limite) {
+        List<ResumenPendiente> bloque = resumenNotificacionJdbcRepository.buscarPendientes(hoy, despuesDeId,
+                limite);
+        for (ResumenPendiente resumen : bloque) {
+            try {
+                emailTemplateService.enviarEmailResumenDiario(resumen.getEmail(), resumen.getNombre(),
+                        resumen.getFecha().format(FORMATO_FECHA), formatearMonto(resumen.getIngresoPasivo()),
+                        formatearMonto(resumen.getBonos()),
+                        resumen.getRango() != null ? resumen.getRango().getNombre() : "Sin cambios");
+            } catch (IOException e) {
+                // Se marca igual: reintentarlo no cambiaria el destinatario
+                log.warn("Resumen {} sin enviar: {}", resumen.getId(), e.getMessage());
+            }
+        }
+        resumenNotificacionJdbcRepository.marcarEnviados(bloque, LocalDateTime.now());
+        return bloque;
+    }
+
+    private static String formatearMonto(BigDecimal monto) {
+        return "$" + monto.setScale(Centavos.ESCALA, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static boolean esperar(long millis) {
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
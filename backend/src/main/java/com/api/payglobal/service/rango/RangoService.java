@@ -0,0 +1,31 @@
+package com.api.payglobal.service.rango;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Mantenimiento incremental del capital de red y del rango de los usuarios
+ */
+public interface RangoService {
+
+    /**
+     * Suma el aumento de precio de la licencia de un usuario al capital de red
+     * de sus ascendientes (hasta 10 niveles) y actualiza su rango
+     */
+    void propagarCapital(Long usuarioId, long delta);
+
+    List<Long> obtenerAscendientes(Long usuarioId);
+
+    /**
+     * Recalcula desde la tabla de cierre el capital y el rango de los usuarios
+     * indicados, para cambios que no se pueden expresar como un delta
+     */
+    void recalcularCapital(Collection<Long> usuarioIds);
+
+    /**
+     * Conciliacion completa: corrige el capital y el rango de los usuarios
+     * cuyo valor almacenado no coincide con el calculado
+     * @return numero de filas corregidas
+     */
+    int reconciliar();
+}
@@ -0,0 +1,91 @@
+package com.api.payglobal.service.rango;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.api.payglobal.repository.RangoJdbcRepository;
+import com.api.payglobal.repository.RangoJdbcRepository.CambioRango;
+import com.api.payglobal.service.notificacion.ColaNotificaciones;
+import com.api.payglobal.service.notificacion.EventoNotificacion;
+import com.api.payglobal.service.resumen.DatosUsuarioModificadosEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class RangoServiceImpl implements RangoService {
+
+    @Autowired
+    private RangoJdbcRepository rangoJdbcRepository;
+
+    @Autowired
+    private ColaNotificaciones colaNotificaciones;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public void propagarCapital(Long usuarioId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        List<Long> ascendientes = rangoJdbcRepository.buscarAscendientes(usuarioId);
+        if (ascendientes.isEmpty()) {
+            return;
+        }
+        rangoJdbcRepository.sumarCapitalAscendientes(usuarioId, delta);
+        notificarAscensos(rangoJdbcRepository.actualizarRango(ascendientes));
+        // Cambio el capital de red de toda la linea, no solo el rango de algunos
+        eventPublisher.publishEvent(DatosUsuarioModificadosEvent.de(ascendientes));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> obtenerAscendientes(Long usuarioId) {
+        return rangoJdbcRepository.buscarAscendientes(usuarioId);
+    }
+
+    @Override
+    @Transactional
+    public void recalcularCapital(Collection<Long> usuarioIds) {
+        rangoJdbcRepository.recalcularCapital(usuarioIds);
+        notificarAscensos(rangoJdbcRepository.actualizarRango(usuarioIds));
+        eventPublisher.publishEvent(DatosUsuarioModificadosEvent.de(usuarioIds));
+    }
+
+    @Override
+    @Transactional
+    public int reconciliar() {
+        int capitales = rangoJdbcRepository.reconciliarCapital();
+        List<CambioRango> rangos = rangoJdbcRepository.reconciliarRango();
+        if (capitales > 0 || !rangos.isEmpty()) {
+            log.warn("Conciliacion de rangos: {} capitales y {} rangos corregidos", capitales, rangos.size());
+        }
+        notificarAscensos(rangos);
+        // La conciliacion de capital no dice a quien corrigio
+        if (capitales > 0) {
+            eventPublisher.publishEvent(DatosUsuarioModificadosEvent.deTodos());
+        } else if (!rangos.isEmpty()) {
+            eventPublisher.publishEvent(DatosUsuarioModificadosEvent.de(rangos.stream()
+                    .map(CambioRango::getUsuarioId)
+                    .toList()));
+        }
+        return capitales + rangos.size();
+    }
+
+    // Solo los ascensos van al resumen diario, y solo si la transaccion confirma
+    private void notificarAscensos(List<CambioRango> cambios) {
+        LocalDate hoy = LocalDate.now();
+        colaNotificaciones.publicarAlConfirmar(cambios.stream()
+                .filter(CambioRango::esAscenso)
+                .map(c -> EventoNotificacion.rango(c.getUsuarioId(), hoy, c.getNuevo()))
+                .toList());
+    }
+}
@@ -0,0 +1,345 @@
+package com.api.payglobal.service.red;
+
+import java.util.Arrays;
+
+/**
+ * Foto inmutable de la red de referidos en arreglos primitivos.
+ * Los usuarios se identifican por su posicion en ids (ordenado), el padre de
+ * cada uno se guarda en padre[] y los hijos en formato CSR: los hijos del
+ * indice i son hijos[inicioHijos[i] .. inicioHijos[i + 1]).
+ * Los cambios generan una foto nueva (copy-on-write), las lecturas no
+ * necesitan bloqueo.
+ */
+public final class GrafoReferidos {
+
+    /** Valor de padreId para los usuarios sin referenciador */
+    public static final long SIN_PADRE = 0L;
+
+    private static final long[] VACIO = new long[0];
+
+    private final long[] ids;
+    private final int[] padre;
+    private final int[] inicioHijos;
+    private final int[] hijos;
+    private final int[] profundidad;
+    private final int[] tamanoSubred;
+
+    private GrafoReferidos(long[] ids, int[] padre) {
+        int n = ids.length;
+        this.ids = ids;
+        this.padre = padre;
+        this.inicioHijos = new int[n + 1];
+        this.hijos = new int[n];
+        this.profundidad = new int[n];
+        this.tamanoSubred = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            if (padre[i] >= 0) {
+                inicioHijos[padre[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            inicioHijos[i + 1] += inicioHijos[i];
+        }
+        int[] siguiente = Arrays.copyOf(inicioHijos, n);
+        for (int i = 0; i < n; i++) {
+            if (padre[i] >= 0) {
+                hijos[siguiente[padre[i]]++] = i;
+            }
+        }
+        calcularProfundidades();
+    }
+
+    private GrafoReferidos(long[] ids, int[] padre, int[] inicioHijos, int[] hijos, int[] profundidad,
+            int[] tamanoSubred) {
+        this.ids = ids;
+        this.padre = padre;
+        this.inicioHijos = inicioHijos;
+        this.hijos = hijos;
+        this.profundidad = profundidad;
+        this.tamanoSubred = tamanoSubred;
+    }
+
+    /**
+     * Recorrido en anchura desde las raices. Los usuarios que no cuelgan de
+     * ninguna raiz (ciclo en los datos) quedan con profundidad -1.
+     */
+    private void calcularProfundidades() {
+        int n = ids.length;
+        Arrays.fill(profundidad, -1);
+        int[] orden = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            if (padre[i] < 0) {
+                profundidad[i] = 0;
+                orden[total++] = i;
+            }
+        }
+        for (int k = 0; k < total; k++) {
+            int actual = orden[k];
+            for (int h = inicioHijos[actual]; h < inicioHijos[actual + 1]; h++) {
+                profundidad[hijos[h]] = profundidad[actual] + 1;
+                orden[total++] = hijos[h];
+            }
+        }
+        // En orden inverso cada nodo ya tiene su subred completa al sumarse al padre
+        for (int k = total - 1; k >= 0; k--) {
+            int actual = orden[k];
+            if (padre[actual] >= 0) {
+                tamanoSubred[padre[actual]] += tamanoSubred[actual] + 1;
+            }
+        }
+    }
+
+    /**
+     * @param ids       ids de usuario ordenados de forma ascendente
+     * @param padresId  id del referenciador de cada usuario, o SIN_PADRE
+     */
+    public static GrafoReferidos construir(long[] ids, long[] padresId) {
+        int[] padre = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int p = padresId[i] == SIN_PADRE ? -1 : Arrays.binarySearch(ids, padresId[i]);
+            padre[i] = p >= 0 && p != i ? p : -1;
+        }
+        return new GrafoReferidos(ids, padre);
+    }
+
+    public static GrafoReferidos vacio() {
+        return new GrafoReferidos(VACIO, new int[0]);
+    }
+
+    public int tamano() {
+        return ids.length;
+    }
+
+    public boolean contiene(long usuarioId) {
+        return indice(usuarioId) >= 0;
+    }
+
+    public long padre(long usuarioId) {
+        int i = indice(usuarioId);
+        return i < 0 || padre[i] < 0 ? SIN_PADRE : ids[padre[i]];
+    }
+
+    /**
+     * Distancia a la raiz de su red, -1 si el usuario no existe
+     */
+    public int profundidad(long usuarioId) {
+        int i = indice(usuarioId);
+        return i < 0 ? -1 : profundidad[i];
+    }
+
+    /**
+     * Numero total de descendientes sin limite de niveles
+     */
+    public int tamanoSubred(long usuarioId) {
+        int i = indice(usuarioId);
+        return i < 0 ? 0 : tamanoSubred[i];
+    }
+
+    /**
+     * Ascendientes del usuario del mas cercano al mas lejano
+     */
+    public long[] ascendientes(long usuarioId, int profundidadMaxima) {
+        int i = indice(usuarioId);
+        if (i < 0) {
+            return VACIO;
+        }
+        long[] resultado = new long[Math.min(profundidadMaxima, ids.length)];
+        int total = 0;
+        for (int p = padre[i]; p >= 0 && total < resultado.length; p = padre[p]) {
+            resultado[total++] = ids[p];
+        }
+        return Arrays.copyOf(resultado, total);
+    }
+
+    /**
+     * Descendientes hasta profundidadMaxima niveles, ordenados por nivel
+     */
+    public long[] descendientes(long usuarioId, int profundidadMaxima) {
+        int i = indiceEnArbol(usuarioId);
+        if (i < 0) {
+            return VACIO;
+        }
+        int[] cola = new int[tamanoSubred[i]];
+        int total = recorrerDescendientes(i, profundidadMaxima, cola, null);
+        long[] resultado = new long[total];
+        for (int k = 0; k < total; k++) {
+            resultado[k] = ids[cola[k]];
+        }
+        return resultado;
+    }
+
+    /**
+     * Igual que descendientes pero devolviendo el nivel (1 = directo) de cada uno
+     */
+    public int[] nivelesDescendientes(long usuarioId, int profundidadMaxima) {
+        int i = indiceEnArbol(usuarioId);
+        if (i < 0) {
+            return new int[0];
+        }
+        int[] cola = new int[tamanoSubred[i]];
+        int[] niveles = new int[tamanoSubred[i]];
+        int total = recorrerDescendientes(i, profundidadMaxima, cola, niveles);
+        return Arrays.copyOf(niveles, total);
+    }
+
+    public int contarDescendientes(long usuarioId, int profundidadMaxima) {
+        int i = indiceEnArbol(usuarioId);
+        if (i < 0) {
+            return 0;
+        }
+        return recorrerDescendientes(i, profundidadMaxima, new int[tamanoSubred[i]], null);
+    }
+
+    private int recorrerDescendientes(int origen, int profundidadMaxima, int[] cola, int[] niveles) {
+        int total = 0;
+        int inicioNivel = 0;
+        // El primer nivel son los hijos directos del origen
+        for (int h = inicioHijos[origen]; h < inicioHijos[origen + 1]; h++) {
+            cola[total++] = hijos[h];
+        }
+        for (int nivel = 1; nivel <= profundidadMaxima && inicioNivel < total; nivel++) {
+            int finNivel = total;
+            for (int k = inicioNivel; k < finNivel; k++) {
+                if (niveles != null) {
+                    niveles[k] = nivel;
+                }
+                if (nivel < profundidadMaxima) {
+                    int actual = cola[k];
+                    for (int h = inicioHijos[actual]; h < inicioHijos[actual + 1]; h++) {
+                        cola[total++] = hijos[h];
+                    }
+                }
+            }
+            inicioNivel = finNivel;
+        }
+        return Math.min(total, inicioNivel);
+    }
+
+    /**
+     * Foto nueva con el usuario agregado o con su referenciador cambiado.
+     * Un usuario nuevo con el id mas alto (el caso normal al registrarse) se
+     * agrega al final sin reconstruir; el resto de los cambios reconstruye
+     * la foto completa.
+     */
+    public GrafoReferidos conUsuario(long usuarioId, long padreId) {
+        int i = indice(usuarioId);
+        if (i == -ids.length - 1) {
+            return agregarAlFinal(usuarioId, padreId);
+        }
+        long[] padresId = padresId();
+        if (i >= 0) {
+            padresId[i] = padreId;
+            return construir(ids, padresId);
+        }
+        int posicion = -i - 1;
+        long[] nuevosIds = new long[ids.length + 1];
+        long[] nuevosPadres = new long[ids.length + 1];
+        System.arraycopy(ids, 0, nuevosIds, 0, posicion);
+        System.arraycopy(padresId, 0, nuevosPadres, 0, posicion);
+        nuevosIds[posicion] = usuarioId;
+        nuevosPadres[posicion] = padreId;
+        System.arraycopy(ids, posicion, nuevosIds, posicion + 1, ids.length - posicion);
+        System.arraycopy(padresId, posicion, nuevosPadres, posicion + 1, ids.length - posicion);
+        return construir(nuevosIds, nuevosPadres);
+    }
+
+    /**
+     * El nuevo indice es n: se copia cada arreglo con un lugar mas, se
+     * inserta n al final de los hijos del padre, se corren los inicios
+     * posteriores al padre y se suma 1 a la subred de sus ascendientes.
+     * Queda igual que si se hubiera llamado a construir.
+     */
+    private GrafoReferidos agregarAlFinal(long usuarioId, long padreId) {
+        int n = ids.length;
+        int p = padreId == SIN_PADRE ? -1 : indice(padreId);
+        p = Math.max(p, -1);
+
+        long[] nuevosIds = Arrays.copyOf(ids, n + 1);
+        nuevosIds[n] = usuarioId;
+        int[] nuevoPadre = Arrays.copyOf(padre, n + 1);
+        nuevoPadre[n] = p;
+
+        int[] nuevoInicio = Arrays.copyOf(inicioHijos, n + 2);
+        int[] nuevosHijos = new int[n + 1];
+        if (p >= 0) {
+            int fin = inicioHijos[p + 1];
+            System.arraycopy(hijos, 0, nuevosHijos, 0, fin);
+            nuevosHijos[fin] = n;
+            System.arraycopy(hijos, fin, nuevosHijos, fin + 1, n - fin);
+            for (int k = p + 1; k <= n; k++) {
+                nuevoInicio[k]++;
+            }
+        } else {
+            System.arraycopy(hijos, 0, nuevosHijos, 0, n);
+        }
+        nuevoInicio[n + 1] = nuevoInicio[n];
+
+        int[] nuevaProfundidad = Arrays.copyOf(profundidad, n + 1);
+        int[] nuevoTamano = Arrays.copyOf(tamanoSubred, n + 1);
+        if (p < 0) {
+            nuevaProfundidad[n] = 0;
+        } else if (profundidad[p] < 0) {
+            // Padre dentro de un ciclo: el nuevo tampoco cuelga de una raiz
+            nuevaProfundidad[n] = -1;
+        } else {
+            nuevaProfundidad[n] = profundidad[p] + 1;
+            for (int a = p; a >= 0; a = padre[a]) {
+                nuevoTamano[a]++;
+            }
+        }
+        return new GrafoReferidos(nuevosIds, nuevoPadre, nuevoInicio, nuevosHijos, nuevaProfundidad, nuevoTamano);
+    }
+
+    /**
+     * Foto nueva sin el usuario; sus referidos directos quedan como raices
+     */
+    public GrafoReferidos sinUsuario(long usuarioId) {
+        int i = indice(usuarioId);
+        if (i < 0) {
+            return this;
+        }
+        long[] padresId = padresId();
+        for (int k = 0; k < padresId.length; k++) {
+            if (padresId[k] == usuarioId) {
+                padresId[k] = SIN_PADRE;
+            }
+        }
+        long[] nuevosIds = new long[ids.length - 1];
+        long[] nuevosPadres = new long[ids.length - 1];
+        System.arraycopy(ids, 0, nuevosIds, 0, i);
+        System.arraycopy(padresId, 0, nuevosPadres, 0, i);
+        System.arraycopy(ids, i + 1, nuevosIds, i, ids.length - i - 1);
+        System.arraycopy(padresId, i + 1, nuevosPadres, i, ids.length - i - 1);
+        return construir(nuevosIds, nuevosPadres);
+    }
+
+    public long[] ids() {
+        return ids.clone();
+    }
+
+    /**
+     * Id del referenciador de cada usuario en el mismo orden que ids()
+     */
+    public long[] padresId() {
+        long[] padresId = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            padresId[i] = padre[i] < 0 ? SIN_PADRE : ids[padre[i]];
+        }
+        return padresId;
+    }
+
+    private int indice(long usuarioId) {
+        return Arrays.binarySearch(ids, usuarioId);
+    }
+
+    /**
+     * Indice del usuario solo si cuelga de una raiz; los nodos de un ciclo no
+     * se recorren hacia abajo
+     */
+    private int indiceEnArbol(long usuarioId) {
+        int i = indice(usuarioId);
+        return i >= 0 && profundidad[i] >= 0 ? i : -1;
+    }
+}
@@ -0,0 +1,133 @@
+package com.api.payglobal.service.red;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.api.payglobal.dto.response.ConsistenciaGrafoResponse;
+import com.api.payglobal.repository.UsuarioRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mantiene en memoria la foto actual del grafo de referidos. Las lecturas
+ * toman la referencia volatil sin bloqueo; los cambios se aplican despues del
+ * commit de la transaccion que los produjo.
+ */
+@Component
+@Slf4j
+public class IndiceRedReferidos {
+
+    private static final int MAXIMO_EJEMPLOS = 20;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private volatile GrafoReferidos grafo = GrafoReferidos.vacio();
+
+    public GrafoReferidos obtener() {
+        return grafo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarInicial() {
+        reconstruir();
+    }
+
+    /**
+     * Vuelve a leer usuarios.referenciado y reemplaza la foto completa
+     * @return numero de usuarios en el grafo
+     */
+    public synchronized int reconstruir() {
+        long inicio = System.currentTimeMillis();
+        grafo = leerBaseDatos();
+        log.info("Grafo de referidos cargado con {} usuarios en {} ms", grafo.tamano(),
+                System.currentTimeMillis() - inicio);
+        return grafo.tamano();
+    }
+
+    public void registrarUsuario(long usuarioId, long padreId) {
+        alConfirmar(() -> aplicar(g -> g.conUsuario(usuarioId, padreId)));
+    }
+
+    public void eliminarUsuario(long usuarioId) {
+        alConfirmar(() -> aplicar(g -> g.sinUsuario(usuarioId)));
+    }
+
+    /**
+     * Compara el referenciador de cada usuario en la base de datos con el del
+     * grafo en memoria
+     */
+    public ConsistenciaGrafoResponse verificar() {
+        GrafoReferidos actual = grafo;
+        GrafoReferidos esperado = leerBaseDatos();
+        long[] ids = esperado.ids();
+        long[] padres = esperado.padresId();
+
+        int diferencias = 0;
+        List<Long> ejemplos = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (!actual.contiene(ids[i]) || actual.padre(ids[i]) != padres[i]) {
+                diferencias++;
+                if (ejemplos.size() < MAXIMO_EJEMPLOS) {
+                    ejemplos.add(ids[i]);
+                }
+            }
+        }
+        // Usuarios que siguen en memoria pero ya no existen en la base de datos
+        for (long id : actual.ids()) {
+            if (!esperado.contiene(id)) {
+                diferencias++;
+                if (ejemplos.size() < MAXIMO_EJEMPLOS) {
+                    ejemplos.add(id);
+                }
+            }
+        }
+
+        if (diferencias > 0) {
+            log.warn("Grafo de referidos inconsistente: {} diferencias", diferencias);
+        }
+        return ConsistenciaGrafoResponse.builder()
+                .usuariosBaseDatos(esperado.tamano())
+                .usuariosGrafo(actual.tamano())
+                .diferencias(diferencias)
+                .ejemplos(ejemplos)
+                .build();
+    }
+
+    private synchronized void aplicar(UnaryOperator<GrafoReferidos> cambio) {
+        grafo = cambio.apply(grafo);
+    }
+
+    private GrafoReferidos leerBaseDatos() {
+        List<Object[]> enlaces = usuarioRepository.findEnlacesReferido();
+        long[] ids = new long[enlaces.size()];
+        long[] padres = new long[enlaces.size()];
+        for (int i = 0; i < enlaces.size(); i++) {
+            Object[] fila = enlaces.get(i);
+            ids[i] = ((Number) fila[0]).longValue();
+            padres[i] = fila[1] != null ? ((Number) fila[1]).longValue() : GrafoReferidos.SIN_PADRE;
+        }
+        return GrafoReferidos.construir(ids, padres);
+    }
+
+    private void alConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+}
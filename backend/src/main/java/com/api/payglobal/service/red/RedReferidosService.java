@@ -0,0 +1,37 @@
+package com.api.payglobal.service.red;
+
+import com.api.payglobal.dto.response.ConsistenciaGrafoResponse;
+import com.api.payglobal.entity.Usuario;
+
+/**
+ * Mantenimiento de la tabla de cierre y del grafo en memoria de la red de
+ * referidos
+ */
+public interface RedReferidosService {
+
+    /**
+     * Registra al usuario recien creado bajo su referenciador
+     */
+    void registrarUsuario(Usuario usuario);
+
+    /**
+     * Mueve el subarbol del usuario bajo un nuevo referenciador
+     */
+    void cambiarReferenciador(Usuario usuario, String nuevoReferenciado) throws Exception;
+
+    void eliminarUsuario(Long usuarioId);
+
+    /**
+     * Reconstruye la tabla completa a partir de usuarios.referenciado
+     * @return numero de filas generadas
+     */
+    int reconstruir();
+
+    /**
+     * Recarga desde la base de datos el grafo de referidos en memoria
+     * @return numero de usuarios cargados
+     */
+    int reconstruirGrafo();
+
+    ConsistenciaGrafoResponse verificarGrafo();
+}
@@ -0,0 +1,125 @@
+package com.api.payglobal.service.red;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.api.payglobal.dto.response.ConsistenciaGrafoResponse;
+import com.api.payglobal.entity.RedReferido;
+import com.api.payglobal.entity.Usuario;
+import com.api.payglobal.repository.RedReferidoRepository;
+import com.api.payglobal.repository.UsuarioRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class RedReferidosServiceImpl implements RedReferidosService {
+
+    @Autowired
+    private RedReferidoRepository redReferidoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private IndiceRedReferidos indiceRedReferidos;
+
+    @Override
+    @Transactional
+    public void registrarUsuario(Usuario usuario) {
+        redReferidoRepository.insertarUsuario(usuario.getId(), usuario.getReferenciado(),
+                RedReferido.PROFUNDIDAD_MAXIMA);
+        redReferidoRepository.sumarTamanoRed(usuario.getId(), RedReferido.PROFUNDIDAD_MAXIMA);
+
+        Long padreId = usuario.getReferenciado() == null ? null
+                : usuarioRepository.findIdByUsername(usuario.getReferenciado()).orElse(null);
+        indiceRedReferidos.registrarUsuario(usuario.getId(), padreId != null ? padreId : GrafoReferidos.SIN_PADRE);
+    }
+
+    @Override
+    @Transactional
+    public void cambiarReferenciador(Usuario usuario, String nuevoReferenciado) throws Exception {
+        long padreId = GrafoReferidos.SIN_PADRE;
+        if (nuevoReferenciado != null) {
+            Usuario referenciador = usuarioRepository.findByUsername(nuevoReferenciado)
+                    .orElseThrow(() -> new Exception("Referenciador no encontrado con username: " + nuevoReferenciado));
+
+            if (redReferidoRepository.esAncestro(usuario.getId(), referenciador.getId())) {
+                throw new Exception("El referenciador " + nuevoReferenciado + " pertenece a la red del usuario "
+                        + usuario.getUsername());
+            }
+            padreId = referenciador.getId();
+        }
+
+        // El tamano de red cambia para los ascendientes anteriores y los nuevos
+        Set<Long> afectados = new HashSet<>(
+                redReferidoRepository.findIdsAscendientes(usuario.getId(), RedReferido.PROFUNDIDAD_MAXIMA));
+
+        redReferidoRepository.desvincularSubarbol(usuario.getId());
+        if (nuevoReferenciado != null) {
+            redReferidoRepository.vincularSubarbol(usuario.getId(), nuevoReferenciado,
+                    RedReferido.PROFUNDIDAD_MAXIMA);
+            afectados.addAll(
+                    redReferidoRepository.findIdsAscendientes(usuario.getId(), RedReferido.PROFUNDIDAD_MAXIMA));
+        }
+        if (!afectados.isEmpty()) {
+            redReferidoRepository.recalcularTamanoRed(afectados, RedReferido.PROFUNDIDAD_MAXIMA);
+        }
+        indiceRedReferidos.registrarUsuario(usuario.getId(), padreId);
+    }
+
+    @Override
+    @Transactional
+    public void eliminarUsuario(Long usuarioId) {
+        List<Long> afectados = redReferidoRepository.findIdsAscendientes(usuarioId, RedReferido.PROFUNDIDAD_MAXIMA);
+        redReferidoRepository.desvincularSubarbol(usuarioId);
+        redReferidoRepository.eliminarUsuario(usuarioId);
+        if (!afectados.isEmpty()) {
+            redReferidoRepository.recalcularTamanoRed(afectados, RedReferido.PROFUNDIDAD_MAXIMA);
+        }
+        indiceRedReferidos.eliminarUsuario(usuarioId);
+    }
+
+    @Override
+    @Transactional
+    public int reconstruir() {
+        redReferidoRepository.vaciar();
+        int filas = redReferidoRepository.reconstruir(RedReferido.PROFUNDIDAD_MAXIMA);
+        redReferidoRepository.recalcularTamanoRedTodos(RedReferido.PROFUNDIDAD_MAXIMA);
+        log.info("Tabla de cierre de la red reconstruida con {} filas", filas);
+        return filas;
+    }
+
+    @Override
+    public int reconstruirGrafo() {
+        return indiceRedReferidos.reconstruir();
+    }
+
+    @Override
+    public ConsistenciaGrafoResponse verificarGrafo() {
+        return indiceRedReferidos.verificar();
+    }
+
+    /**
+     * Backfill unico: si la tabla de cierre esta vacia y ya existen usuarios,
+     * se genera a partir de usuarios.referenciado al arrancar la aplicacion.
+     * Tambien inicializa usuarios.tamano_red si hay filas sin calcular
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillInicial() {
+        if (redReferidoRepository.count() == 0 && usuarioRepository.count() > 0) {
+            reconstruir();
+        } else if (redReferidoRepository.existeTamanoRedPendiente()) {
+            int filas = redReferidoRepository.recalcularTamanoRedTodos(RedReferido.PROFUNDIDAD_MAXIMA);
+            log.info("Tamano de red inicializado para {} usuarios", filas);
+        }
+    }
+}
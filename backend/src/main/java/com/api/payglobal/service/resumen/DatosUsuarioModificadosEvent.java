@@ -0,0 +1,37 @@
+package com.api.payglobal.service.resumen;
+
+import java.util.Collection;
+import java.util.Set;
+
+import lombok.Getter;
+
+/**
+ * Se publica dentro de la transaccion que cambia saldos, licencias o
+ * ganancias de uno o varios usuarios. Sin ids (esGlobal) afecta a todos,
+ * como una corrida de ingreso pasivo.
+ */
+@Getter
+public class DatosUsuarioModificadosEvent {
+
+    private final Set<Long> usuarioIds;
+
+    private DatosUsuarioModificadosEvent(Set<Long> usuarioIds) {
+        this.usuarioIds = usuarioIds;
+    }
+
+    public static DatosUsuarioModificadosEvent de(Long usuarioId) {
+        return new DatosUsuarioModificadosEvent(Set.of(usuarioId));
+    }
+
+    public static DatosUsuarioModificadosEvent de(Collection<Long> usuarioIds) {
+        return new DatosUsuarioModificadosEvent(Set.copyOf(usuarioIds));
+    }
+
+    public static DatosUsuarioModificadosEvent deTodos() {
+        return new DatosUsuarioModificadosEvent(null);
+    }
+
+    public boolean esGlobal() {
+        return usuarioIds == null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.api.payglobal.service.resumen;
+
+import com.api.payglobal.dto.response.ResumenUsuarioDTO;
+import com.api.payglobal.helpers.CacheTtl;
+
+/**
+ * Resumen del dashboard del usuario (saldos, licencia, red y ganancias por
+ * mes) servido desde una cache en memoria
+ */
+public interface ResumenUsuarioService {
+
+    ResumenUsuarioDTO obtenerResumen(Long usuarioId) throws Exception;
+
+    CacheTtl.Estadisticas estadisticas();
+}
@@ -0,0 +1,139 @@
+package com.api.payglobal.service.resumen;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.api.payglobal.dto.projection.PerfilUsuarioProjection;
+import com.api.payglobal.dto.response.ResumenUsuarioDTO;
+import com.api.payglobal.dto.response.UsuarioSesionDTO;
+import com.api.payglobal.helpers.CacheTtl;
+import com.api.payglobal.repository.GananciaMensualJdbcRepository;
+import com.api.payglobal.repository.UsuarioRepository;
+import com.api.payglobal.repository.WalletRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cada resumen se arma con una consulta de perfil (usuario y licencia), una
+ * de wallets y una del acumulado de ganancias mensuales, y se guarda por
+ * usuario. Las entradas se invalidan con DatosUsuarioModificadosEvent; el TTL
+ * acota el tiempo maximo con datos viejos si algun cambio no publica evento.
+ */
+@Service
+public class ResumenUsuarioServiceImpl implements ResumenUsuarioService {
+
+    @Value("${resumen.cache.ttl-segundos:300}")
+    private long ttlSegundos;
+
+    @Value("${resumen.cache.maximo:10000}")
+    private int maximoEntradas;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private GananciaMensualJdbcRepository gananciaMensualJdbcRepository;
+
+    private CacheTtl<Long, ResumenUsuarioDTO> cache;
+
+    @PostConstruct
+    void inicializar() {
+        cache = new CacheTtl<>(ttlSegundos * 1000, maximoEntradas);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResumenUsuarioDTO obtenerResumen(Long usuarioId) throws Exception {
+        ResumenUsuarioDTO resumen = cache.obtener(usuarioId, this::construir);
+        if (resumen == null) {
+            throw new Exception("Usuario no encontrado con id: " + usuarioId);
+        }
+        return resumen;
+    }
+
+    @Override
+    public CacheTtl.Estadisticas estadisticas() {
+        return cache.estadisticas();
+    }
+
+    /**
+     * Quita las entradas ahora y otra vez al confirmar la transaccion que
+     * publico el evento, para no conservar un resumen leido antes del commit.
+     * Un resumen que se estaba armando en ese momento no llega a guardarse
+     */
+    @EventListener
+    public void alModificarDatos(DatosUsuarioModificadosEvent evento) {
+        invalidar(evento);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidar(evento);
+                }
+            });
+        }
+    }
+
+    private void invalidar(DatosUsuarioModificadosEvent evento) {
+        if (evento.esGlobal()) {
+            cache.limpiar();
+        } else {
+            evento.getUsuarioIds().forEach(cache::invalidar);
+        }
+    }
+
+    private ResumenUsuarioDTO construir(Long usuarioId) {
+        PerfilUsuarioProjection perfil = usuarioRepository.findPerfilById(usuarioId).orElse(null);
+        if (perfil == null) {
+            return null;
+        }
+
+        List<UsuarioSesionDTO.WalletSaldo> wallets = walletRepository.findByUsuario_IdOrderById(usuarioId).stream()
+                .map(w -> UsuarioSesionDTO.WalletSaldo.builder()
+                        .id(w.getId())
+                        .tipo(w.getTipo())
+                        .codigo(w.getCodigo())
+                        .saldo(w.getSaldo())
+                        .build())
+                .toList();
+        BigDecimal saldoTotal = wallets.stream()
+                .map(UsuarioSesionDTO.WalletSaldo::getSaldo)
+                .filter(saldo -> saldo != null)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        UsuarioSesionDTO.LicenciaResumen licencia = perfil.getLicenciaNombre() == null ? null
+                : UsuarioSesionDTO.LicenciaResumen.builder()
+                        .nombre(perfil.getLicenciaNombre())
+                        .precio(perfil.getLicenciaPrecio())
+                        .limite(perfil.getLicenciaLimite())
+                        .activo(perfil.getLicenciaActivo())
+                        .saldoAcumulado(perfil.getLicenciaSaldoAcumulado())
+                        .fechaCompra(perfil.getLicenciaFechaCompra())
+                        .build();
+
+        return ResumenUsuarioDTO.builder()
+                .usuarioId(perfil.getId())
+                .username(perfil.getUsername())
+                .rango(perfil.getRango())
+                .capitalRed(perfil.getCapitalRed())
+                .tamanoRed(perfil.getTamanoRed())
+                .licencia(licencia)
+                .wallets(wallets)
+                .saldoTotal(saldoTotal)
+                .gananciasPorMes(gananciaMensualJdbcRepository.buscarPorMes(usuarioId))
+                .generadoEn(LocalDateTime.now())
+                .build();
+    }
+}
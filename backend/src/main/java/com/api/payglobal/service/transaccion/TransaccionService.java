@@ -1,12 +1,15 @@
 package com.api.payglobal.service.transaccion;
 
 import com.api.payglobal.dto.response.GananciaMesDTO;
+import com.api.payglobal.dto.response.PaginaTransaccionesResponse;
 import com.api.payglobal.entity.enums.EstadoOperacion;
 import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoConteo;
 import com.api.payglobal.entity.enums.TipoCrypto;
 import com.api.payglobal.entity.enums.TipoMetodoPago;
 import com.api.payglobal.entity.Transaccion;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -14,13 +17,24 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 public interface TransaccionService {
-    void procesarTransaccion(Long usuarioId, Double monto, TipoConceptos concepto, TipoMetodoPago metodoPago,
+    void procesarTransaccion(Long usuarioId, BigDecimal monto, TipoConceptos concepto, TipoMetodoPago metodoPago,
             EstadoOperacion estado, TipoCrypto tipoCrypto, String patrocinador) throws Exception;
 
     Page<Transaccion> listarTransacciones(Pageable pageable);
 
-    Page<Transaccion> filtrarTransacciones(Long usuarioId, LocalDateTime desde, LocalDateTime hasta, TipoConceptos concepto,
-            EstadoOperacion estado, Pageable pageable);
+    /**
+     * Historial filtrado en orden (fecha, id) descendente. Con cursor se
+     * continua despues de esa fila; sin cursor se parte de la pagina indicada
+     */
+    PaginaTransaccionesResponse filtrarTransacciones(Long usuarioId, LocalDateTime desde, LocalDateTime hasta,
+            TipoConceptos concepto, EstadoOperacion estado, LocalDateTime cursorFecha, Long cursorId,
+            Pageable pageable, TipoConteo conteo);
     
     List<GananciaMesDTO> obtenerGananciasPorMes(Long usuarioId) throws Exception;
+
+    /**
+     * Recalcula el acumulado de ganancias mensuales desde las transacciones.
+     * Devuelve las filas escritas
+     */
+    int reconstruirGananciasMensuales();
 }
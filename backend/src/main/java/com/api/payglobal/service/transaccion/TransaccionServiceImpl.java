@@ -1,25 +1,35 @@
 package com.api.payglobal.service.transaccion;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import com.api.payglobal.dto.response.GananciaMesDTO;
+import com.api.payglobal.dto.response.PaginaTransaccionesResponse;
+import com.api.payglobal.dto.response.TransaccionResumenDTO;
 import com.api.payglobal.entity.Transaccion;
 import com.api.payglobal.entity.Usuario;
 import com.api.payglobal.entity.enums.EstadoOperacion;
 import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoConteo;
 import com.api.payglobal.entity.enums.TipoCrypto;
 import com.api.payglobal.entity.enums.TipoMetodoPago;
+import com.api.payglobal.helpers.Centavos;
+import com.api.payglobal.repository.GananciaMensualJdbcRepository;
 import com.api.payglobal.repository.UsuarioRepository;
+import com.api.payglobal.repository.TransaccionJdbcRepository;
+import com.api.payglobal.repository.TransaccionJdbcRepository.Filtro;
 import com.api.payglobal.repository.TransaccionRepository;
+import com.api.payglobal.service.resumen.DatosUsuarioModificadosEvent;
 
 @Service
 public class TransaccionServiceImpl implements TransaccionService {
@@ -30,9 +40,21 @@ public class TransaccionServiceImpl implements TransaccionService {
         @Autowired
         private TransaccionRepository transaccionRepository;
 
+        @Autowired
+        private TransaccionJdbcRepository transaccionJdbcRepository;
+
+        @Autowired
+        private GananciaMensualJdbcRepository gananciaMensualJdbcRepository;
+
+        @Autowired
+        private ApplicationEventPublisher eventPublisher;
+
+        @Value("${transacciones.conteo.umbral-exacto:10000}")
+        private long umbralConteoExacto;
+
         @Override
         @Transactional
-        public void procesarTransaccion(Long usuarioId, Double monto, TipoConceptos concepto, TipoMetodoPago metodoPago,
+        public void procesarTransaccion(Long usuarioId, BigDecimal monto, TipoConceptos concepto, TipoMetodoPago metodoPago,
                         EstadoOperacion estado, TipoCrypto tipoCrypto, String descripcion) {
 
                 Usuario usuario = usuarioRepository.findById(usuarioId)
@@ -42,7 +64,7 @@ public class TransaccionServiceImpl implements TransaccionService {
                                 .concepto(concepto)
                                 .metodoPago(metodoPago)
                                 .fecha(LocalDateTime.now())
-                                .monto(new BigDecimal(monto))
+                                .monto(monto.setScale(Centavos.ESCALA, RoundingMode.HALF_UP))
                                 .estado(estado)
                                 .tipoCrypto(tipoCrypto)
                                 .descripcion(descripcion)
@@ -51,6 +73,12 @@ public class TransaccionServiceImpl implements TransaccionService {
 
                 usuario.getTransacciones().add(transaccion);
                 transaccionRepository.save(transaccion);
+
+                if (GananciaMensualJdbcRepository.esGanancia(concepto, estado)) {
+                        gananciaMensualJdbcRepository.acumular(usuarioId, transaccion.getFecha(), concepto,
+                                        Centavos.deBigDecimal(transaccion.getMonto()));
+                }
+                eventPublisher.publishEvent(DatosUsuarioModificadosEvent.de(usuarioId));
         }
 
         @Override
@@ -59,70 +87,69 @@ public class TransaccionServiceImpl implements TransaccionService {
                 return transaccionRepository.findAll(pageable);
         }
 
+        /**
+         * Se pide una fila de mas para saber si hay pagina siguiente sin contar.
+         * El total solo se calcula si se pide y no se deduce de la propia pagina
+         */
         @Override
         @Transactional(readOnly = true)
-        public Page<Transaccion> filtrarTransacciones(Long usuarioId, LocalDateTime desde, LocalDateTime hasta,
-                        TipoConceptos concepto,
-                        EstadoOperacion estado, Pageable pageable) {
-                Specification<Transaccion> spec = (root, query, cb) -> cb.conjunction();
-
-                if (usuarioId != null) {
-                        spec = spec.and((root, query, cb) -> cb.equal(root.get("usuario").get("id"), usuarioId));
-                }
-
-                if (desde != null) {
-                        spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("fecha"), desde));
-                }
-
-                if (hasta != null) {
-                        spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("fecha"), hasta));
+        public PaginaTransaccionesResponse filtrarTransacciones(Long usuarioId, LocalDateTime desde,
+                        LocalDateTime hasta, TipoConceptos concepto, EstadoOperacion estado,
+                        LocalDateTime cursorFecha, Long cursorId, Pageable pageable, TipoConteo conteo) {
+                Filtro filtro = new Filtro(usuarioId, desde, hasta, concepto, estado);
+                int tamano = pageable.getPageSize();
+                boolean conCursor = cursorFecha != null && cursorId != null;
+                long offset = conCursor ? 0 : pageable.getOffset();
+
+                List<TransaccionResumenDTO> filas = transaccionJdbcRepository.buscar(filtro, cursorFecha, cursorId,
+                                offset, tamano + 1);
+                boolean hayMas = filas.size() > tamano;
+                if (hayMas) {
+                        filas = filas.subList(0, tamano);
                 }
 
-                if (concepto != null) {
-                        spec = spec.and((root, query, cb) -> cb.equal(root.get("concepto"), concepto));
+                Long total = null;
+                boolean estimado = false;
+                if (!hayMas && !conCursor) {
+                        total = offset + filas.size();
+                } else if (conteo == TipoConteo.EXACTO) {
+                        total = transaccionJdbcRepository.contar(filtro);
+                } else if (conteo == TipoConteo.ESTIMADO) {
+                        long estimacion = transaccionJdbcRepository.estimar(filtro);
+                        estimado = estimacion >= umbralConteoExacto;
+                        total = estimado ? estimacion : transaccionJdbcRepository.contar(filtro);
                 }
 
-                if (estado != null) {
-                        spec = spec.and((root, query, cb) -> cb.equal(root.get("estado"), estado));
-                }
-
-                return transaccionRepository.findAll(spec, pageable);
+                TransaccionResumenDTO ultima = hayMas ? filas.get(filas.size() - 1) : null;
+                return PaginaTransaccionesResponse.builder()
+                                .content(filas)
+                                .page(PaginaTransaccionesResponse.InfoPagina.builder()
+                                                .number(pageable.getPageNumber())
+                                                .size(tamano)
+                                                .totalElements(total)
+                                                .totalPages(total != null ? (int) ((total + tamano - 1) / tamano) : null)
+                                                .totalEstimado(estimado)
+                                                .build())
+                                .cursorFecha(ultima != null ? ultima.getFecha() : null)
+                                .cursorId(ultima != null ? ultima.getId() : null)
+                                .hayMas(hayMas)
+                                .build();
         }
 
         @Override
         @Transactional(readOnly = true)
         public List<GananciaMesDTO> obtenerGananciasPorMes(Long usuarioId) throws Exception {
-                usuarioRepository.findById(usuarioId)
-                                .orElseThrow(() -> new Exception("Usuario no encontrado con id: " + usuarioId));
-
-                List<TipoConceptos> conceptos = List.of(TipoConceptos.BONO_ANUAL,
-                                TipoConceptos.BONO_ANUAL, TipoConceptos.BONO_FUNDADOR,
-                                TipoConceptos.BONO_RANGO, TipoConceptos.BONO_REGISTRO_DIRECTO,
-                                TipoConceptos.BONO_REONOVACION_LICENCIA, TipoConceptos.INGRESO_PASIVO,
-                                TipoConceptos.BONO_UNINIVEL);
-
-                List<Transaccion> transacciones = transaccionRepository.findByUsuarioIdAndEstadoAndConceptoIn(usuarioId,
-                                EstadoOperacion.COMPLETADA, conceptos);
-
-                List<GananciaMesDTO> gananciasPorMes = new java.util.ArrayList<>();
-
-                for (Transaccion transaccion : transacciones) {
-                        LocalDateTime fechaTransaccion = transaccion.getFecha();
-                        String mes = fechaTransaccion.getMonth().name() + " " + fechaTransaccion.getYear();
-
-                        GananciaMesDTO gananciaMes = gananciasPorMes.stream()
-                                        .filter(g -> g.getMes().equals(mes))
-                                        .findFirst()
-                                        .orElse(new GananciaMesDTO(mes, 0));
-
-                        gananciaMes.setGanancia(gananciaMes.getGanancia() + transaccion.getMonto().doubleValue());
-
-                        if (!gananciasPorMes.contains(gananciaMes)) {
-                                gananciasPorMes.add(gananciaMes);
-                        }
+                if (!usuarioRepository.existsById(usuarioId)) {
+                        throw new Exception("Usuario no encontrado con id: " + usuarioId);
                 }
+                // Una fila por mes desde el acumulado, en orden cronologico
+                return gananciaMensualJdbcRepository.buscarPorMes(usuarioId);
+        }
 
-                return gananciasPorMes;
+        @Override
+        @Transactional
+        public int reconstruirGananciasMensuales() {
+                return gananciaMensualJdbcRepository.reconstruir();
         }
 
 }
@@ -14,6 +14,7 @@ import com.api.payglobal.dto.request.RegistroResquestDTO;
 import com.api.payglobal.dto.response.JwtResponse;
 import com.api.payglobal.dto.response.UsuarioEnRedResponse;
 import com.api.payglobal.dto.response.UsuarioExplorerResponseDTO;
+import com.api.payglobal.dto.response.UsuarioSesionDTO;
 import com.api.payglobal.entity.Solicitud;
 import com.api.payglobal.entity.Usuario;
 import com.api.payglobal.entity.enums.TipoCrypto;
@@ -35,6 +36,17 @@ public interface UsuarioService extends UserDetailsService {
 
         List<UsuarioEnRedResponse> obtenerUsuariosEnRed(String username) throws Exception;
 
+        /**
+         * Resumen del perfil (datos, licencia, saldos y bonos) leido con
+         * proyecciones, sin cargar las colecciones de la entidad
+         */
+        UsuarioSesionDTO obtenerPerfil(Long idUsuario) throws Exception;
+
+        Page<Solicitud> obtenerSolicitudesUsuario(Long idUsuario, Pageable pageable);
+
+        Page<UsuarioEnRedResponse> obtenerUsuariosEnRedPaginado(String username, int nivelDesde, int nivelHasta,
+                        Pageable pageable) throws Exception;
+
         void editarUsuario(Usuario usuario) throws Exception;
 
         void solicitarCompraLicencia(TipoCrypto tipoCrypto, TipoLicencia tipoLicencia, TipoSolicitud tipoSolicitud,
@@ -5,9 +5,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -21,6 +26,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.api.payglobal.dto.projection.PerfilUsuarioProjection;
 import com.api.payglobal.dto.request.CambiarPasswordRequest;
 import com.api.payglobal.dto.request.EditarPerfilRequest;
 import com.api.payglobal.dto.request.LoginRequest;
@@ -28,7 +34,9 @@ import com.api.payglobal.dto.request.RegistroResquestDTO;
 import com.api.payglobal.dto.response.JwtResponse;
 import com.api.payglobal.dto.response.UsuarioEnRedResponse;
 import com.api.payglobal.dto.response.UsuarioExplorerResponseDTO;
+import com.api.payglobal.dto.response.UsuarioSesionDTO;
 import com.api.payglobal.entity.Licencia;
+import com.api.payglobal.entity.RedReferido;
 import com.api.payglobal.entity.Solicitud;
 import com.api.payglobal.entity.Usuario;
 import com.api.payglobal.entity.Wallet;
@@ -44,10 +52,18 @@ import com.api.payglobal.entity.enums.TipoSolicitud;
 import com.api.payglobal.entity.enums.TipoWallets;
 import com.api.payglobal.helpers.JwtHelper;
 import com.api.payglobal.helpers.UninivelHelper;
+import com.api.payglobal.repository.BonoRepository;
 import com.api.payglobal.repository.SolicitudRepository;
 import com.api.payglobal.repository.UsuarioRepository;
+import com.api.payglobal.repository.WalletRepository;
+import com.api.payglobal.security.PrincipalCache;
+import com.api.payglobal.service.bloqueo.BloqueoUsuarios;
 import com.api.payglobal.service.bono.BonoService;
+import com.api.payglobal.service.rango.RangoService;
+import com.api.payglobal.service.red.RedReferidosService;
+import com.api.payglobal.service.resumen.DatosUsuarioModificadosEvent;
 import com.api.payglobal.service.transaccion.TransaccionService;
+import com.api.payglobal.service.wallet.LedgerService;
 
 @Service
 public class UsuarioServiceImpl implements UsuarioService {
@@ -64,6 +80,12 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Autowired
     private SolicitudRepository solicitudRepository;
 
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private BonoRepository bonoRepository;
+
     @Lazy
     @Autowired
     private AuthenticationManager authenticationManager;
@@ -77,10 +99,28 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Autowired
     private TransaccionService transaccionService;
 
+    @Autowired
+    private RedReferidosService redReferidosService;
+
+    @Autowired
+    private RangoService rangoService;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private BloqueoUsuarios bloqueoUsuarios;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     Float cobroPorCompra = 15f;
 
     @Transactional
-    public JwtResponse registrar(RegistroResquestDTO registroRequest) {
+    public JwtResponse registrar(RegistroResquestDTO registroRequest) throws Exception {
 
         if (usuarioRepository.existsByUsername(registroRequest.getUsername())) {
             throw new RuntimeException("El nombre de usuario ya está en uso");
@@ -92,6 +132,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         Usuario usuario = RegistroResquestDTOToUsuario(registroRequest);
         Usuario nuevoUsuario = usuarioRepository.save(usuario);
+        redReferidosService.registrarUsuario(nuevoUsuario);
 
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setUsername(nuevoUsuario.getUsername());
@@ -102,7 +143,7 @@ public class UsuarioServiceImpl implements UsuarioService {
     }
 
     @Transactional
-    public JwtResponse login(LoginRequest loginRequest) {
+    public JwtResponse login(LoginRequest loginRequest) throws Exception {
         try {
             usuarioRepository.findByUsernameOrEmailForLogin(loginRequest.getUsername())
                     .orElseThrow(() -> new RuntimeException(
@@ -120,7 +161,11 @@ public class UsuarioServiceImpl implements UsuarioService {
             // Generar token JWT
             String token = jwtHelper.generateToken(usuario);
 
-            Integer redDeUsuario = uninivelHelper.obtenerRedDeUsuario(usuario.getUsername()).size();
+            // Resumen por proyecciones; el conteo de red sale de usuarios.tamano_red
+            UsuarioSesionDTO perfil = obtenerPerfil(usuario.getId());
+            Integer redDeUsuario = perfil.getTamanoRed() != null
+                    ? perfil.getTamanoRed()
+                    : uninivelHelper.contarRed(usuario.getId(), RedReferido.PROFUNDIDAD_MAXIMA);
 
             // Crear respuesta
             return new JwtResponse(
@@ -128,7 +173,7 @@ public class UsuarioServiceImpl implements UsuarioService {
                     usuario.getId(),
                     usuario.getUsername(),
                     usuario.getEmail(),
-                    usuario,
+                    perfil,
                     redDeUsuario);
 
         } catch (AuthenticationException e) {
@@ -136,6 +181,63 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public UsuarioSesionDTO obtenerPerfil(Long idUsuario) throws Exception {
+        PerfilUsuarioProjection perfil = usuarioRepository.findPerfilById(idUsuario)
+                .orElseThrow(() -> new Exception("Usuario no encontrado con id: " + idUsuario));
+
+        UsuarioSesionDTO.LicenciaResumen licencia = perfil.getLicenciaNombre() == null ? null
+                : UsuarioSesionDTO.LicenciaResumen.builder()
+                        .nombre(perfil.getLicenciaNombre())
+                        .precio(perfil.getLicenciaPrecio())
+                        .limite(perfil.getLicenciaLimite())
+                        .activo(perfil.getLicenciaActivo())
+                        .saldoAcumulado(perfil.getLicenciaSaldoAcumulado())
+                        .fechaCompra(perfil.getLicenciaFechaCompra())
+                        .build();
+
+        return UsuarioSesionDTO.builder()
+                .id(perfil.getId())
+                .username(perfil.getUsername())
+                .email(perfil.getEmail())
+                .nombre(perfil.getNombre())
+                .apellido(perfil.getApellido())
+                .telefono(perfil.getTelefono())
+                .pais(perfil.getPais())
+                .referenciado(perfil.getReferenciado())
+                .fechaRegistro(perfil.getFechaRegistro())
+                .activo(Boolean.TRUE.equals(perfil.getActivo()))
+                .verificado(perfil.getVerificado())
+                .rango(perfil.getRango())
+                .rol(perfil.getRol())
+                .capitalRed(perfil.getCapitalRed())
+                .tamanoRed(perfil.getTamanoRed())
+                .licencia(licencia)
+                .wallets(walletRepository.findByUsuario_IdOrderById(idUsuario).stream()
+                        .map(w -> UsuarioSesionDTO.WalletSaldo.builder()
+                                .id(w.getId())
+                                .tipo(w.getTipo())
+                                .codigo(w.getCodigo())
+                                .saldo(w.getSaldo())
+                                .build())
+                        .toList())
+                .bonos(bonoRepository.findByUsuario_IdOrderById(idUsuario).stream()
+                        .map(b -> UsuarioSesionDTO.BonoResumen.builder()
+                                .id(b.getId())
+                                .nombre(b.getNombre())
+                                .acumulado(b.getAcumulado())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Solicitud> obtenerSolicitudesUsuario(Long idUsuario, Pageable pageable) {
+        return solicitudRepository.findByUsuario_Id(idUsuario, pageable);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -197,7 +299,9 @@ public class UsuarioServiceImpl implements UsuarioService {
         usuario.setTelefono(editarPerfilRequest.getTelefono());
         usuario.setPais(editarPerfilRequest.getPais());
 
-        return usuarioRepository.save(usuario);
+        Usuario actualizado = usuarioRepository.save(usuario);
+        principalCache.invalidar(idUsuario);
+        return actualizado;
     }
 
     @Override
@@ -217,8 +321,15 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Override
     @Transactional(readOnly = true)
     public List<UsuarioEnRedResponse> obtenerUsuariosEnRed(String username) throws Exception {
-        return uninivelHelper.mapearAUsuarioEnRedResponse(
-                uninivelHelper.obtenerRedDeUsuario(username), username);
+        return uninivelHelper.obtenerRedDeUsuario(username, 1, RedReferido.PROFUNDIDAD_MAXIMA, Pageable.unpaged())
+                .getContent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UsuarioEnRedResponse> obtenerUsuariosEnRedPaginado(String username, int nivelDesde, int nivelHasta,
+            Pageable pageable) throws Exception {
+        return uninivelHelper.obtenerRedDeUsuario(username, nivelDesde, nivelHasta, pageable);
     }
 
     /**
@@ -230,6 +341,21 @@ public class UsuarioServiceImpl implements UsuarioService {
         Usuario usuarioExistente = usuarioRepository.findById(usuario.getId())
                 .orElseThrow(() -> new Exception("Usuario no encontrado con id: " + usuario.getId()));
 
+        // Ascendientes cuyo capital de red puede cambiar con la edicion
+        Set<Long> afectados = new HashSet<>();
+        boolean cambiaReferenciador = usuario.getReferenciado() != null
+                && !usuario.getReferenciado().equals(usuarioExistente.getReferenciado());
+        boolean cambiaLicencia = usuario.getLicencia() != null;
+        if (cambiaReferenciador || cambiaLicencia) {
+            afectados.addAll(rangoService.obtenerAscendientes(usuarioExistente.getId()));
+        }
+
+        // Si cambia el referenciador se mueve su subarbol en la tabla de cierre
+        if (cambiaReferenciador) {
+            redReferidosService.cambiarReferenciador(usuarioExistente, usuario.getReferenciado());
+            afectados.addAll(rangoService.obtenerAscendientes(usuarioExistente.getId()));
+        }
+
         // Actualizar campos básicos
         actualizarCampoSiPresente(usuario.getUsername(), usuarioExistente::setUsername);
         actualizarCampoSiPresente(usuario.getEmail(), usuarioExistente::setEmail);
@@ -240,12 +366,13 @@ public class UsuarioServiceImpl implements UsuarioService {
         actualizarCampoSiPresente(usuario.getRango(), usuarioExistente::setRango);
         actualizarCampoSiPresente(usuario.getReferenciado(), usuarioExistente::setReferenciado);
 
-        // Actualizar colecciones
-        if (usuario.getWallets() != null && !usuario.getWallets().isEmpty()) {
-            usuario.getWallets().forEach(wallet -> wallet.setUsuario(usuarioExistente));
-            usuarioExistente.setWallets(usuario.getWallets());
+        // Las wallets no se reemplazan: un saldo distinto se registra como asiento
+        if (usuario.getWallets() != null) {
+            ajustarSaldos(usuarioExistente, usuario.getWallets());
         }
 
+        // Actualizar colecciones
+
         if (usuario.getBonos() != null && !usuario.getBonos().isEmpty()) {
             usuario.getBonos().forEach(bono -> bono.setUsuario(usuarioExistente));
             usuarioExistente.setBonos(usuario.getBonos());
@@ -257,7 +384,38 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
 
         usuarioExistente.setActivo(usuario.isActivo());
-        usuarioRepository.save(usuarioExistente);
+        usuarioRepository.saveAndFlush(usuarioExistente);
+        principalCache.invalidar(usuarioExistente.getId());
+
+        if (!afectados.isEmpty()) {
+            rangoService.recalcularCapital(afectados);
+        }
+    }
+
+    /**
+     * Lleva cada wallet al saldo indicado por el admin con un abono o cargo en
+     * el libro mayor. Solo se toma el saldo; el resto de los campos se ignora
+     */
+    private void ajustarSaldos(Usuario usuarioExistente, List<Wallet> solicitadas) throws Exception {
+        Map<Long, Wallet> actuales = new HashMap<>();
+        usuarioExistente.getWallets().forEach(wallet -> actuales.put(wallet.getId(), wallet));
+
+        for (Wallet solicitada : solicitadas) {
+            Wallet actual = actuales.get(solicitada.getId());
+            if (actual == null) {
+                throw new Exception("La wallet " + solicitada.getId() + " no pertenece al usuario "
+                        + usuarioExistente.getUsername());
+            }
+            if (solicitada.getSaldo() == null) {
+                continue;
+            }
+            BigDecimal diferencia = solicitada.getSaldo().subtract(actual.getSaldo());
+            if (diferencia.signum() > 0) {
+                ledgerService.abonar(actual.getId(), diferencia, null, "Ajuste de saldo por administrador");
+            } else if (diferencia.signum() < 0) {
+                ledgerService.cargar(actual.getId(), diferencia.negate(), null, "Ajuste de saldo por administrador");
+            }
+        }
     }
 
     private <T> void actualizarCampoSiPresente(T valor, java.util.function.Consumer<T> setter) {
@@ -296,6 +454,15 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Override
     public void solicitarRetiroFondos(Long walletAddressId, BigDecimal monto, TipoSolicitud tipoSolicitud,
             Long idUsuario) throws Exception {
+        // Dos solicitudes simultaneas del mismo usuario no deben pasar ambas la validacion de fondos
+        bloqueoUsuarios.ejecutar(idUsuario, () -> {
+            registrarSolicitudRetiro(walletAddressId, monto, tipoSolicitud, idUsuario);
+            return null;
+        });
+    }
+
+    private void registrarSolicitudRetiro(Long walletAddressId, BigDecimal monto, TipoSolicitud tipoSolicitud,
+            Long idUsuario) throws Exception {
         Usuario usuario = usuarioRepository.findById(idUsuario)
                 .orElseThrow(() -> new Exception("Usuario no encontrado con id: " + idUsuario));
 
@@ -310,7 +477,7 @@ public class UsuarioServiceImpl implements UsuarioService {
                     .findFirst()
                     .orElseThrow(() -> new Exception(
                             "Wallet de dividendos no encontrada para el usuario con id: " + idUsuario));
-            if (walletDividendo.getSaldo().compareTo(monto) < 0) {
+            if (saldoDisponible(walletDividendo, idUsuario).compareTo(monto) < 0) {
                 throw new Exception("Fondos insuficientes en la wallet de dividendos");
             }
         }
@@ -321,7 +488,7 @@ public class UsuarioServiceImpl implements UsuarioService {
                     .findFirst()
                     .orElseThrow(() -> new Exception(
                             "Wallet de comisiones no encontrada para el usuario con id: " + idUsuario));
-            if (walletComisiones.getSaldo().compareTo(monto) < 0) {
+            if (saldoDisponible(walletComisiones, idUsuario).compareTo(monto) < 0) {
                 throw new Exception("Fondos insuficientes en la wallet de comisiones");
             }
 
@@ -342,6 +509,17 @@ public class UsuarioServiceImpl implements UsuarioService {
         usuarioRepository.save(usuario);
     }
 
+    /**
+     * Saldo de la wallet menos los retiros pendientes de aprobar sobre ella
+     */
+    private BigDecimal saldoDisponible(Wallet wallet, Long idUsuario) {
+        TipoSolicitud tipoRetiro = wallet.getTipo() == TipoWallets.WALLET_STAKING
+                ? TipoSolicitud.SOLICITUD_RETIRO_WALLET_DIVIDENDOS
+                : TipoSolicitud.SOLICITUD_RETIRO_WALLET_COMISIONES;
+        BigDecimal pendiente = solicitudRepository.sumarMonto(idUsuario, tipoRetiro, EstadoOperacion.PENDIENTE);
+        return wallet.getSaldo().subtract(pendiente);
+    }
+
     @Override
     public void comprarLicenciaDelegada(TipoLicencia tipoLicencia, String destinatario, TipoMetodoPago tipoMetodoPago,
             Long idUsuario) throws Exception {
@@ -380,7 +558,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         transaccionService.procesarTransaccion(
                 usuario.getId(),
-                new BigDecimal(tipoLicencia.getValor()).doubleValue(),
+                new BigDecimal(tipoLicencia.getValor()),
                 TipoConceptos.COMPRA_LICENCIA_DELEGADA,
                 tipoMetodoPago,
                 EstadoOperacion.APROBADA,
@@ -464,6 +642,8 @@ public class UsuarioServiceImpl implements UsuarioService {
         licencia.setNombre(licenciaCorrespondiente.name());
         licencia.setFechaCompra(LocalDate.now());
         licencia.setPrecio(precioTotal);
+        // El aumento de precio se suma al capital de red de los ascendientes
+        rangoService.propagarCapital(usuario.getId(), tipoLicencia.getValor());
         licencia.setLimite(licenciaCorrespondiente.getValor() * 2);
         licencia.setActivo(true);
         // Resetear el saldo acumulado al renovar/actualizar
@@ -476,6 +656,18 @@ public class UsuarioServiceImpl implements UsuarioService {
     public void TransferenciaEntreUsuarios(String usuarioDestinatario, BigDecimal monto, TipoWallets tipoWallet,
             Long idUsuario)
             throws Exception {
+        Long idDestino = usuarioRepository.findIdByUsername(usuarioDestinatario)
+                .orElseThrow(
+                        () -> new Exception("Usuario destinatario no encontrado con username: " + usuarioDestinatario));
+
+        bloqueoUsuarios.ejecutar(idUsuario, idDestino, () -> {
+            transferir(usuarioDestinatario, monto, tipoWallet, idUsuario);
+            return null;
+        });
+    }
+
+    private void transferir(String usuarioDestinatario, BigDecimal monto, TipoWallets tipoWallet, Long idUsuario)
+            throws Exception {
         Usuario usuarioOrigen = usuarioRepository.findById(idUsuario)
                 .orElseThrow(() -> new Exception("Usuario no encontrado con id: " + idUsuario));
 
@@ -483,30 +675,30 @@ public class UsuarioServiceImpl implements UsuarioService {
                 .orElseThrow(
                         () -> new Exception("Usuario destinatario no encontrado con username: " + usuarioDestinatario));
 
-        if (usuarioOrigen.getWallets().get(0).getSaldo().compareTo(monto) < 0) {
-            throw new Exception("Fondos insuficientes para la transferencia");
-        }
-
-        usuarioOrigen.getWallets().stream()
+        Wallet walletOrigen = usuarioOrigen.getWallets().stream()
                 .filter(w -> w.getTipo().equals(tipoWallet))
                 .findFirst()
                 .orElseThrow(() -> new Exception(
-                        "Wallet de comisiones no encontrada para el usuario con id: " + idUsuario))
-                .setSaldo(usuarioOrigen.getWallets().get(0).getSaldo().subtract(monto));
+                        "Wallet de comisiones no encontrada para el usuario con id: " + idUsuario));
 
-        usuarioDestino.getWallets().stream()
+        Wallet walletDestino = usuarioDestino.getWallets().stream()
                 .filter(w -> w.getTipo().equals(TipoWallets.WALLET_STAKING))
                 .findFirst()
                 .orElseThrow(() -> new Exception(
-                        "Wallet de comisiones no encontrada para el usuario con id: " + usuarioDestino.getId()))
-                .setSaldo(usuarioDestino.getWallets().get(0).getSaldo().add(monto));
+                        "Wallet de comisiones no encontrada para el usuario con id: " + usuarioDestino.getId()));
+
+        // Lo comprometido en retiros pendientes no se puede transferir; el libro
+        // mayor vuelve a validar el saldo sobre la fila de la wallet
+        if (saldoDisponible(walletOrigen, idUsuario).compareTo(monto) < 0) {
+            throw new Exception("Fondos insuficientes para la transferencia");
+        }
 
-        usuarioRepository.save(usuarioOrigen);
-        usuarioRepository.save(usuarioDestino);
+        ledgerService.transferir(walletOrigen.getId(), walletDestino.getId(), monto,
+                TipoConceptos.TRANSFERENCIA_ENTRE_USUARIOS, "Transferencia a " + usuarioDestinatario);
 
         transaccionService.procesarTransaccion(
                 usuarioOrigen.getId(),
-                monto.doubleValue(),
+                monto,
                 TipoConceptos.TRANSFERENCIA_ENTRE_USUARIOS,
                 null,
                 EstadoOperacion.APROBADA,
@@ -534,7 +726,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         usuarioRepository.save(solicitud.getUsuario());
         transaccionService.procesarTransaccion(
                 solicitud.getUsuario().getId(),
-                solicitud.getMonto().doubleValue(),
+                solicitud.getMonto(),
                 TipoConceptos.COMPRA_LICENCIA,
                 null,
                 EstadoOperacion.APROBADA,
@@ -543,6 +735,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         bonoService.bonoInscripcion(determinarTipoLicenciaPorPrecio(precioTotal.intValue()),
                 solicitud.getUsuario().getReferenciado());
+        eventPublisher.publishEvent(DatosUsuarioModificadosEvent.de(solicitud.getUsuario().getId()));
     }
 
     @Override
@@ -557,12 +750,13 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         transaccionService.procesarTransaccion(
                 solicitud.getUsuario().getId(),
-                solicitud.getMonto().doubleValue(),
+                solicitud.getMonto(),
                 TipoConceptos.COMPRA_LICENCIA,
                 null,
                 EstadoOperacion.RECHAZADA,
                 solicitud.getTipoCrypto(),
                 null);
+        eventPublisher.publishEvent(DatosUsuarioModificadosEvent.de(solicitud.getUsuario().getId()));
     }
 
     @Override
@@ -605,10 +799,15 @@ public class UsuarioServiceImpl implements UsuarioService {
     public void eliminarUsuarioPorId(Long idUsuario) throws Exception {
         Usuario usuario = usuarioRepository.findById(idUsuario)
                 .orElseThrow(() -> new Exception("Usuario no encontrado con id: " + idUsuario));
+        List<Long> afectados = rangoService.obtenerAscendientes(usuario.getId());
+        redReferidosService.eliminarUsuario(usuario.getId());
         usuarioRepository.delete(usuario);
+        principalCache.invalidar(idUsuario);
+        rangoService.recalcularCapital(afectados);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void aprobarRetiroFondos(Long idSolicitud) throws Exception {
         Solicitud solicitud = solicitudRepository.findById(idSolicitud)
                 .orElseThrow(() -> new Exception("Solicitud no encontrada con id: " + idSolicitud));
@@ -631,20 +830,17 @@ public class UsuarioServiceImpl implements UsuarioService {
                 .orElseThrow(() -> new Exception(
                         "Wallet no encontrada para el usuario con id: " + solicitud.getUsuario().getId()));
 
-        if (wallet.getSaldo().compareTo(solicitud.getMonto()) < 0) {
-            throw new Exception("Fondos insuficientes para el retiro");
-        }
-
-        wallet.setSaldo(wallet.getSaldo().subtract(solicitud.getMonto()));
-        usuarioRepository.save(solicitud.getUsuario());
+        ledgerService.cargar(wallet.getId(), solicitud.getMonto(), TipoConceptos.RETIRO_FONDOS,
+                "Retiro de la solicitud " + idSolicitud);
 
         transaccionService.procesarTransaccion(
                 solicitud.getUsuario().getId(),
-                solicitud.getMonto().doubleValue(),
+                solicitud.getMonto(),
                 TipoConceptos.RETIRO_FONDOS,
                 null,
                 EstadoOperacion.APROBADA,
                 solicitud.getTipoCrypto(),
                 null);
+        eventPublisher.publishEvent(DatosUsuarioModificadosEvent.de(solicitud.getUsuario().getId()));
     }
 }
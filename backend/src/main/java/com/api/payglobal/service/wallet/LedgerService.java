@@ -0,0 +1,52 @@
+package com.api.payglobal.service.wallet;
+
+import java.math.BigDecimal;
+
+import com.api.payglobal.dto.response.ConciliacionLedgerResponse;
+import com.api.payglobal.entity.enums.TipoConceptos;
+
+/**
+ * Libro mayor de doble partida de las wallets. Todo cambio de saldo debe pasar
+ * por aqui para que wallets.saldo y los movimientos sigan cuadrando.
+ * Fuera de una transaccion, abonar, cargar y transferir abren la suya y se
+ * reintentan un numero acotado de veces ante conflictos de concurrencia.
+ */
+public interface LedgerService {
+
+    /**
+     * Abona a la wallet con contrapartida externa (bonos, ingreso pasivo)
+     * @return saldo resultante
+     */
+    BigDecimal abonar(Long walletId, BigDecimal monto, TipoConceptos concepto, String descripcion) throws Exception;
+
+    /**
+     * Descuenta de la wallet con contrapartida externa (retiros)
+     * @throws Exception si la wallet no tiene fondos suficientes
+     */
+    BigDecimal cargar(Long walletId, BigDecimal monto, TipoConceptos concepto, String descripcion) throws Exception;
+
+    /**
+     * Mueve el monto entre dos wallets bajo un mismo asiento
+     * @throws Exception si la wallet de origen no tiene fondos suficientes
+     */
+    void transferir(Long walletOrigenId, Long walletDestinoId, BigDecimal monto, TipoConceptos concepto,
+            String descripcion) throws Exception;
+
+    /**
+     * Saldo segun el ultimo movimiento de la wallet, lectura de una sola fila
+     */
+    BigDecimal obtenerSaldo(Long walletId);
+
+    /**
+     * Guarda el saldo actual de cada wallet con movimientos nuevos y descarta
+     * los checkpoints anteriores
+     * @return numero de checkpoints creados
+     */
+    int crearCheckpoints();
+
+    /**
+     * Verifica en paralelo, por rangos de wallets, que wallets.saldo coincide
+     * con el libro mayor
+     */
+    ConciliacionLedgerResponse conciliar() throws Exception;
+}
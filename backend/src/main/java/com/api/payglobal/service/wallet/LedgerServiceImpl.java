@@ -0,0 +1,229 @@
+package com.api.payglobal.service.wallet;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.api.payglobal.dto.response.ConciliacionLedgerResponse;
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.helpers.EjecucionTransaccional;
+import com.api.payglobal.repository.LedgerJdbcRepository;
+import com.api.payglobal.repository.LedgerJdbcRepository.DiferenciaSaldo;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class LedgerServiceImpl implements LedgerService {
+
+    private static final int MAXIMO_EJEMPLOS = 20;
+
+    @Value("${ledger.conciliacion.chunk.size:5000}")
+    private int tamanoChunk;
+
+    @Value("${ledger.conciliacion.hilos:4}")
+    private int hilos;
+
+    @Value("${wallet.reintentos.maximo:3}")
+    private int maximoReintentos;
+
+    @Value("${wallet.reintentos.espera-ms:20}")
+    private long esperaReintentoMs;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LedgerJdbcRepository ledgerJdbcRepository;
+
+    /**
+     * Las wallets creadas antes del libro mayor reciben un movimiento de
+     * apertura con su saldo, para que la conciliacion parta de cero diferencias
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void abrirWallets() {
+        int abiertas = ledgerJdbcRepository.abrirWalletsSinMovimientos(nuevoAsiento(), LocalDateTime.now());
+        if (abiertas > 0) {
+            log.info("Libro mayor: {} wallets abiertas con su saldo actual", abiertas);
+        }
+    }
+
+    @Override
+    public BigDecimal abonar(Long walletId, BigDecimal monto, TipoConceptos concepto, String descripcion)
+            throws Exception {
+        return conReintentos(() -> {
+            BigDecimal saldo = ledgerJdbcRepository.abonar(walletId, monto, nuevoAsiento(), null, concepto,
+                    descripcion, LocalDateTime.now());
+            if (saldo == null) {
+                throw new Exception("Wallet no encontrada");
+            }
+            return saldo;
+        });
+    }
+
+    @Override
+    public BigDecimal cargar(Long walletId, BigDecimal monto, TipoConceptos concepto, String descripcion)
+            throws Exception {
+        return conReintentos(() -> {
+            BigDecimal saldo = ledgerJdbcRepository.cargar(walletId, monto, nuevoAsiento(), null, concepto,
+                    descripcion, LocalDateTime.now());
+            if (saldo == null) {
+                throw new Exception("Fondos insuficientes");
+            }
+            return saldo;
+        });
+    }
+
+    @Override
+    public void transferir(Long walletOrigenId, Long walletDestinoId, BigDecimal monto, TipoConceptos concepto,
+            String descripcion) throws Exception {
+        if (walletOrigenId.equals(walletDestinoId)) {
+            throw new Exception("La wallet de origen y destino no pueden ser la misma");
+        }
+        conReintentos(() -> {
+            String asiento = nuevoAsiento();
+            LocalDateTime fecha = LocalDateTime.now();
+            // Se bloquea primero la wallet de menor id para evitar interbloqueos
+            // entre transferencias cruzadas
+            if (walletOrigenId < walletDestinoId) {
+                cargarEnAsiento(walletOrigenId, walletDestinoId, monto, asiento, concepto, descripcion, fecha);
+                abonarEnAsiento(walletDestinoId, walletOrigenId, monto, asiento, concepto, descripcion, fecha);
+            } else {
+                abonarEnAsiento(walletDestinoId, walletOrigenId, monto, asiento, concepto, descripcion, fecha);
+                cargarEnAsiento(walletOrigenId, walletDestinoId, monto, asiento, concepto, descripcion, fecha);
+            }
+            return null;
+        });
+    }
+
+    private void cargarEnAsiento(Long walletId, Long contrapartidaId, BigDecimal monto, String asiento,
+            TipoConceptos concepto, String descripcion, LocalDateTime fecha) throws Exception {
+        if (ledgerJdbcRepository.cargar(walletId, monto, asiento, contrapartidaId, concepto, descripcion,
+                fecha) == null) {
+            throw new Exception("Fondos insuficientes");
+        }
+    }
+
+    private void abonarEnAsiento(Long walletId, Long contrapartidaId, BigDecimal monto, String asiento,
+            TipoConceptos concepto, String descripcion, LocalDateTime fecha) throws Exception {
+        if (ledgerJdbcRepository.abonar(walletId, monto, asiento, contrapartidaId, concepto, descripcion,
+                fecha) == null) {
+            throw new Exception("Wallet de destino no encontrada");
+        }
+    }
+
+    /**
+     * Ejecuta la operacion en su propia transaccion y la repite, con espera
+     * creciente, si falla por concurrencia (interbloqueo, serializacion,
+     * version de la entidad). Si ya hay una transaccion activa se ejecuta en
+     * ella sin reintentos: en PostgreSQL la transaccion externa queda abortada
+     * y el reintento le corresponde a quien la abrio.
+     */
+    private <T> T conReintentos(OperacionWallet<T> operacion) throws Exception {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return operacion.ejecutar();
+        }
+        EjecucionTransaccional transaccion = new EjecucionTransaccional(transactionManager);
+        for (int intento = 1;; intento++) {
+            try {
+                return transaccion.ejecutar(operacion::ejecutar);
+            } catch (ConcurrencyFailureException e) {
+                if (intento >= maximoReintentos) {
+                    throw e;
+                }
+                log.warn("Conflicto de concurrencia en wallet, reintento {} de {}", intento, maximoReintentos - 1);
+                long espera = esperaReintentoMs * intento + ThreadLocalRandom.current().nextLong(esperaReintentoMs + 1);
+                Thread.sleep(espera);
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal obtenerSaldo(Long walletId) {
+        BigDecimal saldo = ledgerJdbcRepository.saldoActual(walletId);
+        return saldo != null ? saldo : BigDecimal.ZERO;
+    }
+
+    @Override
+    @Transactional
+    public int crearCheckpoints() {
+        int creados = ledgerJdbcRepository.crearCheckpoints(LocalDateTime.now());
+        int descartados = ledgerJdbcRepository.compactarCheckpoints();
+        log.info("Libro mayor: {} checkpoints creados, {} descartados", creados, descartados);
+        return creados;
+    }
+
+    @Override
+    public ConciliacionLedgerResponse conciliar() throws Exception {
+        long inicio = System.currentTimeMillis();
+        long[] rango = ledgerJdbcRepository.rangoWallets();
+        List<DiferenciaSaldo> diferencias = Collections.synchronizedList(new ArrayList<>());
+        int revisadas = 0;
+
+        if (rango != null) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, hilos));
+            try {
+                List<Future<Integer>> chunks = new ArrayList<>();
+                for (long desde = rango[0]; desde <= rango[1]; desde += tamanoChunk) {
+                    final long inicioChunk = desde;
+                    final long finChunk = desde + tamanoChunk;
+                    chunks.add(executor.submit(
+                            () -> ledgerJdbcRepository.conciliarRango(inicioChunk, finChunk, diferencias)));
+                }
+                for (Future<Integer> chunk : chunks) {
+                    revisadas += chunk.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        List<Long> ejemplos = new ArrayList<>();
+        synchronized (diferencias) {
+            diferencias.sort((a, b) -> a.getWalletId().compareTo(b.getWalletId()));
+            for (DiferenciaSaldo diferencia : diferencias) {
+                if (ejemplos.size() == MAXIMO_EJEMPLOS) {
+                    break;
+                }
+                ejemplos.add(diferencia.getWalletId());
+                log.warn("Wallet {} con saldo {} no cuadra con el libro mayor ({})", diferencia.getWalletId(),
+                        diferencia.getSaldoWallet(), diferencia.getSaldoLedger());
+            }
+        }
+
+        return ConciliacionLedgerResponse.builder()
+                .walletsRevisadas(revisadas)
+                .diferencias(diferencias.size())
+                .ejemplos(ejemplos)
+                .duracionMs(System.currentTimeMillis() - inicio)
+                .build();
+    }
+
+    private static String nuevoAsiento() {
+        return UUID.randomUUID().toString();
+    }
+
+    @FunctionalInterface
+    private interface OperacionWallet<T> {
+        T ejecutar() throws Exception;
+    }
+}
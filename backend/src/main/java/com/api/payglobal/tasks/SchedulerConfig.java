@@ -2,6 +2,7 @@ package com.api.payglobal.tasks;
 
 import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -46,4 +47,50 @@ public class SchedulerConfig {
         executor.initialize();
         return executor;
     }
-}
+
+    /**
+     * Workers de las particiones del pago de ingreso pasivo
+     */
+    @Bean(name = "ingresoPasivoExecutor")
+    public ThreadPoolTaskExecutor ingresoPasivoExecutor(@Value("${ingreso.pasivo.hilos:4}") int hilos) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setThreadNamePrefix("IngresoPasivo-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Hilo unico que consume la cola de notificaciones (AgregadorNotificaciones)
+     */
+    @Bean(name = "notificacionesExecutor")
+    public ThreadPoolTaskExecutor notificacionesExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("Notificaciones-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Vistas previas de los archivos KYC, fuera del hilo de la peticion
+     */
+    @Bean(name = "kycExecutor")
+    public ThreadPoolTaskExecutor kycExecutor(@Value("${kyc.vista-previa.hilos:2}") int hilos) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("Kyc-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
\ No newline at end of file
@@ -5,12 +5,24 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import com.api.payglobal.service.bono.BonoService;
+import com.api.payglobal.service.email.DespachadorCorreos;
+import com.api.payglobal.service.notificacion.NotificacionService;
+import com.api.payglobal.service.wallet.LedgerService;
 
 @Component
 public class tasks {
     @Autowired
     private BonoService bonoService;
 
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private DespachadorCorreos despachadorCorreos;
+
+    @Autowired
+    private NotificacionService notificacionService;
+
     @Scheduled(cron = "0 0 0 * * MON-FRI")
     //@Scheduled(fixedRate = 60000)
     public void ingresoPasivoTask() {
@@ -29,4 +41,31 @@ public class tasks {
             e.printStackTrace();
         }
     }
+
+    @Scheduled(cron = "0 30 2 * * *")
+    public void conciliacionWalletsTask() {
+        try {
+            ledgerService.crearCheckpoints();
+            // Las diferencias se registran en el log del servicio
+            ledgerService.conciliar();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Reintentos y correos que quedaron sin despachar
+    @Scheduled(fixedDelayString = "${correo.despacho.intervalo-ms:15000}")
+    public void despachoCorreosTask() {
+        despachadorCorreos.despachar();
+    }
+
+    // Un correo por usuario con lo del dia anterior
+    @Scheduled(cron = "${notificaciones.resumen.cron:0 0 7 * * *}")
+    public void resumenNotificacionesTask() {
+        try {
+            notificacionService.enviarResumenesDiarios();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 }
@@ -0,0 +1,157 @@
+package com.api.payglobal.dto.response;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import com.api.payglobal.entity.Bono;
+import com.api.payglobal.entity.Licencia;
+import com.api.payglobal.entity.Solicitud;
+import com.api.payglobal.entity.Transaccion;
+import com.api.payglobal.entity.Usuario;
+import com.api.payglobal.entity.Wallet;
+import com.api.payglobal.entity.enums.CodigoTipoWallets;
+import com.api.payglobal.entity.enums.EstadoOperacion;
+import com.api.payglobal.entity.enums.RolesUsuario;
+import com.api.payglobal.entity.enums.TipoBono;
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoCrypto;
+import com.api.payglobal.entity.enums.TipoMetodoPago;
+import com.api.payglobal.entity.enums.TipoRango;
+import com.api.payglobal.entity.enums.TipoSolicitud;
+import com.api.payglobal.entity.enums.TipoWallets;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tamano y tiempo de serializacion de la respuesta del login con la entidad
+ * Usuario completa (como antes) contra UsuarioSesionDTO, para un usuario con
+ * historial. Solo corre con BENCH definida, p. ej.
+ * BENCH=1 mvn test -Dtest=JwtResponseBenchmarkTest
+ */
+@EnabledIfEnvironmentVariable(named = "BENCH", matches = ".+")
+class JwtResponseBenchmarkTest {
+
+    private static final int TRANSACCIONES = 1_000;
+    private static final int SOLICITUDES = 50;
+    private static final int SERIALIZACIONES = 2_000;
+    private static final int RONDAS = 5;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @Test
+    void respuestaCompactaEsMasChicaYRapida(TestReporter reporte) throws Exception {
+        Usuario usuario = usuarioConHistorial();
+        // Lo que devolvia el login: la entidad con todas sus colecciones
+        Object anterior = new RespuestaAnterior("token", usuario.getId(), usuario.getUsername(),
+                usuario.getEmail(), usuario, 120);
+        JwtResponse compacta = new JwtResponse("token", usuario.getId(), usuario.getUsername(), usuario.getEmail(),
+                sesion(usuario), 120);
+
+        int bytesAnterior = mapper.writeValueAsString(anterior).getBytes(StandardCharsets.UTF_8).length;
+        int bytesCompacta = mapper.writeValueAsString(compacta).getBytes(StandardCharsets.UTF_8).length;
+
+        // Calentamiento para que las dos variantes lleguen compiladas
+        medir(anterior);
+        medir(compacta);
+        long nanosAnterior = Long.MAX_VALUE;
+        long nanosCompacta = Long.MAX_VALUE;
+        for (int r = 0; r < RONDAS; r++) {
+            nanosAnterior = Math.min(nanosAnterior, medir(anterior));
+            nanosCompacta = Math.min(nanosCompacta, medir(compacta));
+        }
+
+        reporte.publishEntry("entidad bytes", String.valueOf(bytesAnterior));
+        reporte.publishEntry("dto bytes", String.valueOf(bytesCompacta));
+        reporte.publishEntry("entidad us por respuesta", String.valueOf(nanosAnterior / SERIALIZACIONES / 1_000));
+        reporte.publishEntry("dto us por respuesta", String.valueOf(nanosCompacta / SERIALIZACIONES / 1_000));
+        assertTrue(bytesCompacta * 10 < bytesAnterior, "dto=" + bytesCompacta + " entidad=" + bytesAnterior);
+        assertTrue(nanosCompacta < nanosAnterior, "dto=" + nanosCompacta + " entidad=" + nanosAnterior);
+    }
+
+    private long medir(Object respuesta) {
+        long inicio = System.nanoTime();
+        long total = 0;
+        for (int i = 0; i < SERIALIZACIONES; i++) {
+            total += mapper.writeValueAsBytes(respuesta).length;
+        }
+        sumidero += total;
+        return System.nanoTime() - inicio;
+    }
+
+    private static long sumidero;
+
+    private static Usuario usuarioConHistorial() {
+        Usuario usuario = Usuario.builder()
+                .id(1L).username("usuario1").password("hash").email("usuario1@correo.com")
+                .nombre("Ana").apellido("Perez").telefono("5550000000").pais("MX").referenciado("patrocinador")
+                .fechaRegistro(new Date(0)).activo(true).verificado(true)
+                .rango(TipoRango.DIAMOND_TEAM).rol(RolesUsuario.USUARIO).capitalRed(250_000L).tamanoRed(120)
+                .bonos(new ArrayList<>()).transacciones(new ArrayList<>()).wallets(new ArrayList<>())
+                .tiketsSoporte(new ArrayList<>()).walletAddresses(new ArrayList<>())
+                .solicitudes(new ArrayList<>()).kycFiles(new ArrayList<>())
+                .build();
+        usuario.setLicencia(Licencia.builder().id(1L).nombre("Licencia 1000").precio(1_000).limite(2_000)
+                .activo(true).fechaCompra(LocalDate.of(2026, 1, 1)).saldoAcumulado(350).usuario(usuario).build());
+        usuario.getWallets().add(Wallet.builder().id(1L).tipo(TipoWallets.WALLET_STAKING)
+                .codigo(CodigoTipoWallets.WD).saldo(new BigDecimal("120.50")).usuario(usuario).build());
+        usuario.getWallets().add(Wallet.builder().id(2L).tipo(TipoWallets.WALLET_NETWORK)
+                .codigo(CodigoTipoWallets.WC).saldo(new BigDecimal("48.00")).usuario(usuario).build());
+        usuario.getBonos().add(Bono.builder().id(1L).nombre(TipoBono.BONO_UNINIVEL)
+                .acumulado(new BigDecimal("80.00")).usuario(usuario).build());
+
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (int i = 0; i < TRANSACCIONES; i++) {
+            usuario.getTransacciones().add(Transaccion.builder().id((long) i).monto(new BigDecimal("12.50"))
+                    .fecha(fecha.plusHours(i)).estado(EstadoOperacion.COMPLETADA).tipoCrypto(TipoCrypto.USDT_TRC20)
+                    .descripcion("Ingreso pasivo diario").concepto(TipoConceptos.INGRESO_PASIVO)
+                    .metodoPago(TipoMetodoPago.WALLET_DIVIDENDOS).usuario(usuario).build());
+        }
+        for (int i = 0; i < SOLICITUDES; i++) {
+            usuario.getSolicitudes().add(Solicitud.builder().id((long) i).monto(new BigDecimal("50.00"))
+                    .fecha(fecha.plusDays(i)).estado(EstadoOperacion.COMPLETADA).tipoCrypto(TipoCrypto.USDT_TRC20)
+                    .descripcion("Retiro").walletAddress("TXabc123")
+                    .tipoSolicitud(TipoSolicitud.SOLICITUD_RETIRO_WALLET_DIVIDENDOS).usuario(usuario).build());
+        }
+        return usuario;
+    }
+
+    private static UsuarioSesionDTO sesion(Usuario usuario) {
+        Licencia licencia = usuario.getLicencia();
+        return UsuarioSesionDTO.builder()
+                .id(usuario.getId()).username(usuario.getUsername()).email(usuario.getEmail())
+                .nombre(usuario.getNombre()).apellido(usuario.getApellido()).telefono(usuario.getTelefono())
+                .pais(usuario.getPais()).referenciado(usuario.getReferenciado())
+                .fechaRegistro(usuario.getFechaRegistro()).activo(usuario.isActivo())
+                .verificado(usuario.getVerificado()).rango(usuario.getRango()).rol(usuario.getRol())
+                .capitalRed(usuario.getCapitalRed()).tamanoRed(usuario.getTamanoRed())
+                .licencia(UsuarioSesionDTO.LicenciaResumen.builder().nombre(licencia.getNombre())
+                        .precio(licencia.getPrecio()).limite(licencia.getLimite()).activo(licencia.getActivo())
+                        .saldoAcumulado(licencia.getSaldoAcumulado()).fechaCompra(licencia.getFechaCompra())
+                        .build())
+                .wallets(usuario.getWallets().stream().map(w -> UsuarioSesionDTO.WalletSaldo.builder()
+                        .id(w.getId()).tipo(w.getTipo()).codigo(w.getCodigo()).saldo(w.getSaldo()).build())
+                        .toList())
+                .bonos(usuario.getBonos().stream().map(b -> UsuarioSesionDTO.BonoResumen.builder()
+                        .id(b.getId()).nombre(b.getNombre()).acumulado(b.getAcumulado()).build())
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Forma de JwtResponse antes del cambio, con la entidad en user
+     */
+    record RespuestaAnterior(String token, Long id, String username, String email, Usuario user,
+            Integer usuarioEnRed) {
+    }
+}
@@ -0,0 +1,170 @@
+package com.api.payglobal.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+/**
+ * Correccion del bloqueo por franjas. La comparacion de throughput contra un
+ * lock global solo corre con BENCH definida, p. ej. BENCH=1 mvn test
+ */
+class BloqueoRayadoTest {
+
+    private static final int HILOS = 16;
+    private static final int USUARIOS = 10_000;
+    private static final long ESPERA_LATCH_SEGUNDOS = 10;
+
+    @Test
+    void serializaLasOperacionesDeUnMismoUsuario() throws Exception {
+        BloqueoRayado bloqueo = new BloqueoRayado(1024, 10_000);
+        long[] saldos = new long[8];
+
+        EjecucionParalela.ejecutar(HILOS, hilo -> {
+            for (int i = 0; i < 2_000; i++) {
+                int usuario = i % saldos.length;
+                // Lectura-modificacion-escritura sin atomicos: solo es correcta bajo el lock
+                bloqueo.ejecutar(usuario, () -> saldos[usuario] = saldos[usuario] + 1);
+            }
+        });
+
+        long[] esperado = new long[saldos.length];
+        Arrays.fill(esperado, (long) HILOS * 2_000 / saldos.length);
+        assertArrayEquals(esperado, saldos);
+    }
+
+    @Test
+    void elMismoUsuarioEsperaAQueTermineLaOperacionEnCurso() throws Exception {
+        // Espera corta: mientras el otro hilo retiene el lock la adquisicion debe fallar
+        BloqueoRayado bloqueo = new BloqueoRayado(1024, 50);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> retenido = executor.submit(() -> bloqueo.ejecutar(7L, () -> {
+                dentro.countDown();
+                return liberar.await(ESPERA_LATCH_SEGUNDOS, TimeUnit.SECONDS);
+            }));
+            assertTrue(dentro.await(ESPERA_LATCH_SEGUNDOS, TimeUnit.SECONDS));
+
+            Exception rechazo = assertThrows(Exception.class, () -> bloqueo.ejecutar(7L, () -> null));
+            assertEquals("Hay otra operacion en curso, intente de nuevo", rechazo.getMessage());
+
+            liberar.countDown();
+            retenido.get(ESPERA_LATCH_SEGUNDOS, TimeUnit.SECONDS);
+            assertEquals("libre", bloqueo.ejecutar(7L, () -> "libre"));
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void usuariosDistintosNoSeEsperanEntreSi() throws Exception {
+        BloqueoRayado bloqueo = new BloqueoRayado(1024, 50);
+        long usuarioA = 1;
+        long usuarioB = 2;
+        assertNotEquals(bloqueo.franja(usuarioA), bloqueo.franja(usuarioB));
+
+        CountDownLatch dentroA = new CountDownLatch(1);
+        CountDownLatch dentroB = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // A no suelta su lock hasta que B haya entrado: si B esperara a A
+            // ninguno avanzaria y B fallaria por tiempo de espera
+            Future<Boolean> operacionA = executor.submit(() -> bloqueo.ejecutar(usuarioA, () -> {
+                dentroA.countDown();
+                return dentroB.await(ESPERA_LATCH_SEGUNDOS, TimeUnit.SECONDS)
+                        && liberar.await(ESPERA_LATCH_SEGUNDOS, TimeUnit.SECONDS);
+            }));
+            assertTrue(dentroA.await(ESPERA_LATCH_SEGUNDOS, TimeUnit.SECONDS));
+
+            Future<Boolean> operacionB = executor.submit(() -> bloqueo.ejecutar(usuarioB, () -> {
+                dentroB.countDown();
+                return true;
+            }));
+            assertTrue(operacionB.get(ESPERA_LATCH_SEGUNDOS, TimeUnit.SECONDS));
+            assertFalse(operacionA.isDone());
+
+            liberar.countDown();
+            assertTrue(operacionA.get(ESPERA_LATCH_SEGUNDOS, TimeUnit.SECONDS));
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void transferenciasCruzadasNoSeInterbloquean() throws Exception {
+        // Espera corta: un interbloqueo haria fallar la adquisicion
+        BloqueoRayado bloqueo = new BloqueoRayado(64, 2_000);
+        long[] saldos = new long[32];
+        Arrays.fill(saldos, 1_000);
+
+        EjecucionParalela.ejecutar(HILOS, hilo -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 5_000; i++) {
+                int origen = random.nextInt(saldos.length);
+                int destino = random.nextInt(saldos.length);
+                if (origen == destino) {
+                    continue;
+                }
+                bloqueo.ejecutar(origen, destino, () -> {
+                    saldos[origen]--;
+                    saldos[destino]++;
+                    return null;
+                });
+            }
+        });
+
+        assertEquals(1_000L * saldos.length, Arrays.stream(saldos).sum());
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BENCH", matches = ".+")
+    void franjasSuperanAlLockGlobal(TestReporter reporte) throws Exception {
+        int operacionesPorHilo = 300;
+        long franjas = medirOperacionesPorSegundo(new BloqueoRayado(1024, 60_000), operacionesPorHilo);
+        long global = medirOperacionesPorSegundo(new BloqueoRayado(1, 60_000), operacionesPorHilo);
+
+        reporte.publishEntry("franjas ops/s", String.valueOf(franjas));
+        reporte.publishEntry("lock global ops/s", String.valueOf(global));
+        // Con 16 hilos el lock global serializa todo; por franjas casi no hay contencion
+        assertTrue(franjas > global * 3, "franjas=" + franjas + " global=" + global);
+    }
+
+    /**
+     * Cada operacion retiene el lock unos 50 microsegundos, como una
+     * validacion de fondos contra la base de datos
+     */
+    private long medirOperacionesPorSegundo(BloqueoRayado bloqueo, int operacionesPorHilo) throws Exception {
+        long inicio = System.nanoTime();
+        EjecucionParalela.ejecutar(HILOS, hilo -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < operacionesPorHilo; i++) {
+                bloqueo.ejecutar(random.nextInt(USUARIOS), () -> {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                    return null;
+                });
+            }
+        });
+        long nanos = System.nanoTime() - inicio;
+        return HILOS * (long) operacionesPorHilo * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+}
@@ -0,0 +1,76 @@
+package com.api.payglobal.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Invalidacion, desalojo por tamano y cargas que se cruzan con una
+ * invalidacion de su clave
+ */
+class CacheTtlTest {
+
+    private static final long TTL = 60_000;
+
+    @Test
+    void invalidarObligaACargarDeNuevo() {
+        CacheTtl<Long, String> cache = new CacheTtl<>(TTL, 10);
+        AtomicInteger cargas = new AtomicInteger();
+
+        assertEquals("v1", cache.obtener(1L, k -> "v" + cargas.incrementAndGet()));
+        assertEquals("v1", cache.obtener(1L, k -> "v" + cargas.incrementAndGet()));
+        cache.invalidar(1L);
+        assertEquals("v2", cache.obtener(1L, k -> "v" + cargas.incrementAndGet()));
+
+        CacheTtl.Estadisticas estadisticas = cache.estadisticas();
+        assertEquals(1, estadisticas.getAciertos());
+        assertEquals(2, estadisticas.getFallos());
+        assertEquals(0, estadisticas.getDesalojos());
+    }
+
+    @Test
+    void alSuperarElMaximoSeDesalojaLaMasAntigua() {
+        CacheTtl<Long, String> cache = new CacheTtl<>(TTL, 3);
+        for (long clave = 1; clave <= 3; clave++) {
+            cache.obtener(clave, k -> "a" + k);
+        }
+        // Recargar la 1 la pasa al final, asi la mas antigua es la 2
+        cache.invalidar(1L);
+        cache.obtener(1L, k -> "b" + k);
+        cache.obtener(4L, k -> "a" + k);
+        cache.obtener(5L, k -> "a" + k);
+
+        assertEquals(3, cache.tamano());
+        assertEquals(2, cache.estadisticas().getDesalojos());
+        assertEquals("b1", cache.obtener(1L, k -> "c" + k));
+        assertEquals("c2", cache.obtener(2L, k -> "c" + k));
+    }
+
+    @Test
+    void unaCargaInvalidadaMientrasCorreNoSeGuarda() {
+        CacheTtl<Long, String> cache = new CacheTtl<>(TTL, 10);
+
+        // La escritura confirma mientras la carga todavia lee datos viejos
+        String vieja = cache.obtener(1L, k -> {
+            cache.invalidar(k);
+            return "viejo";
+        });
+        assertEquals("viejo", vieja);
+        assertEquals("nuevo", cache.obtener(1L, k -> "nuevo"));
+
+        cache.obtener(2L, k -> {
+            cache.limpiar();
+            return "viejo";
+        });
+        assertEquals("nuevo", cache.obtener(2L, k -> "nuevo"));
+
+        cache.obtener(3L, k -> {
+            cache.invalidarSi(v -> true);
+            return "viejo";
+        });
+        assertEquals("nuevo", cache.obtener(3L, k -> "nuevo"));
+        assertEquals(1, cache.tamano());
+    }
+}
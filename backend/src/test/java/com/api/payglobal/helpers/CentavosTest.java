@@ -0,0 +1,160 @@
+package com.api.payglobal.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import com.api.payglobal.service.bono.PorcentajesBono;
+
+/**
+ * Reglas de redondeo de Centavos y comparacion contra los calculos con
+ * Double y BigDecimal que se usaban en el motor de bonos. La comparacion de
+ * tiempos solo corre con BENCH definida
+ */
+class CentavosTest {
+
+    private static final int LICENCIAS = 200_000;
+    private static final int RONDAS = 5;
+
+    @Test
+    void porTasaRedondeaMitadesLejosDeCero() {
+        // 1.01 * 5% = 0.0505 -> 0.05
+        assertEquals(5, Centavos.porTasa(101, 50_000));
+        // 0.10 * 5% = 0.005 -> 0.01
+        assertEquals(1, Centavos.porTasa(10, 50_000));
+        assertEquals(-1, Centavos.porTasa(-10, 50_000));
+        // 0.09 * 5% = 0.0045 -> 0.00
+        assertEquals(0, Centavos.porTasa(9, 50_000));
+    }
+
+    @Test
+    void coincideConBigDecimalHalfUp() {
+        for (long centavos = -5_000; centavos <= 5_000; centavos += 7) {
+            for (long tasa : PorcentajesBono.BONO_UNINIVEL) {
+                BigDecimal esperado = Centavos.aBigDecimal(centavos)
+                        .multiply(BigDecimal.valueOf(tasa, 6))
+                        .setScale(Centavos.ESCALA, RoundingMode.HALF_UP);
+                assertEquals(esperado, Centavos.aBigDecimal(Centavos.porTasa(centavos, tasa)));
+            }
+        }
+    }
+
+    @Test
+    void conversionesYUnidades() {
+        assertEquals(1_051, Centavos.deBigDecimal(new BigDecimal("10.505")));
+        assertEquals(1_050, Centavos.deBigDecimal(new BigDecimal("10.5049")));
+        assertEquals(0, Centavos.deBigDecimal(null));
+        assertEquals(new BigDecimal("12.34"), Centavos.aBigDecimal(1_234));
+        assertEquals(12, Centavos.unidades(1_299));
+        assertEquals(-12, Centavos.unidades(-1_299));
+        assertThrows(ArithmeticException.class, () -> Centavos.porTasa(Long.MAX_VALUE / 2, 10_000));
+    }
+
+    /**
+     * Sumar muchas veces el ingreso diario: con Double aparece error de
+     * representacion, con centavos el total es exacto
+     */
+    @Test
+    void acumuladoSinErrorDeRedondeo() {
+        long totalCentavos = 0;
+        double totalDouble = 0;
+        for (int i = 0; i < 100_000; i++) {
+            totalCentavos = Centavos.sumar(totalCentavos, Centavos.porTasa(Centavos.deUnidades(110), 5_000));
+            totalDouble += 110 * 0.005;
+        }
+        assertEquals(new BigDecimal("55000.00"), Centavos.aBigDecimal(totalCentavos));
+        assertNotEquals(55_000.0, totalDouble);
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BENCH", matches = ".+")
+    void centavosEsMasRapidoQueBigDecimal(TestReporter reporte) {
+        long[] precios = new long[LICENCIAS];
+        for (int i = 0; i < LICENCIAS; i++) {
+            precios[i] = 50 + i % 5_000;
+        }
+        // Calentamiento para que las tres variantes lleguen compiladas
+        medirCentavos(precios);
+        medirBigDecimal(precios);
+        medirDouble(precios);
+
+        long centavos = Long.MAX_VALUE;
+        long bigDecimal = Long.MAX_VALUE;
+        long dobles = Long.MAX_VALUE;
+        for (int r = 0; r < RONDAS; r++) {
+            centavos = Math.min(centavos, medirCentavos(precios));
+            bigDecimal = Math.min(bigDecimal, medirBigDecimal(precios));
+            dobles = Math.min(dobles, medirDouble(precios));
+        }
+
+        reporte.publishEntry("centavos us", String.valueOf(centavos / 1_000));
+        reporte.publishEntry("BigDecimal us", String.valueOf(bigDecimal / 1_000));
+        reporte.publishEntry("Double us", String.valueOf(dobles / 1_000));
+        assertTrue(centavos < bigDecimal, "centavos=" + centavos + " bigDecimal=" + bigDecimal);
+    }
+
+    private long medirCentavos(long[] precios) {
+        long inicio = System.nanoTime();
+        long total = 0;
+        for (long precio : precios) {
+            long ingreso = Centavos.porTasa(Centavos.deUnidades(precio), PorcentajesBono.INGRESO_PASIVO_DIARIO);
+            total = Centavos.sumar(total, ingreso);
+            for (long tasa : PorcentajesBono.BONO_UNINIVEL) {
+                total = Centavos.sumar(total, Centavos.porTasa(ingreso, tasa));
+            }
+        }
+        return consumir(total, inicio);
+    }
+
+    private long medirBigDecimal(long[] precios) {
+        BigDecimal diario = BigDecimal.valueOf(PorcentajesBono.INGRESO_PASIVO_DIARIO, 6);
+        BigDecimal[] tasas = new BigDecimal[PorcentajesBono.BONO_UNINIVEL.length];
+        for (int i = 0; i < tasas.length; i++) {
+            tasas[i] = BigDecimal.valueOf(PorcentajesBono.BONO_UNINIVEL[i], 6);
+        }
+        long inicio = System.nanoTime();
+        BigDecimal total = BigDecimal.ZERO;
+        for (long precio : precios) {
+            BigDecimal ingreso = BigDecimal.valueOf(precio).multiply(diario)
+                    .setScale(Centavos.ESCALA, RoundingMode.HALF_UP);
+            total = total.add(ingreso);
+            for (BigDecimal tasa : tasas) {
+                total = total.add(ingreso.multiply(tasa).setScale(Centavos.ESCALA, RoundingMode.HALF_UP));
+            }
+        }
+        return consumir(total.unscaledValue().longValue(), inicio);
+    }
+
+    private long medirDouble(long[] precios) {
+        double[] tasas = new double[PorcentajesBono.BONO_UNINIVEL.length];
+        for (int i = 0; i < tasas.length; i++) {
+            tasas[i] = PorcentajesBono.BONO_UNINIVEL[i] / (double) Centavos.PPM;
+        }
+        long inicio = System.nanoTime();
+        double total = 0;
+        for (long precio : precios) {
+            double ingreso = precio * 0.005;
+            total += ingreso;
+            for (double tasa : tasas) {
+                total += ingreso * tasa;
+            }
+        }
+        return consumir((long) total, inicio);
+    }
+
+    private static long sumidero;
+
+    private static long consumir(long resultado, long inicio) {
+        // Evita que el JIT descarte el calculo
+        sumidero += resultado;
+        return System.nanoTime() - inicio;
+    }
+}
@@ -0,0 +1,45 @@
+package com.api.payglobal.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Arranca N hilos a la vez sobre la misma tarea y espera a que terminen,
+ * relanzando la primera falla. Compartido por las pruebas de concurrencia.
+ */
+public final class EjecucionParalela {
+
+    private EjecucionParalela() {
+    }
+
+    public static void ejecutar(int hilos, TareaHilo tarea) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<?>> resultados = new ArrayList<>();
+            for (int hilo = 0; hilo < hilos; hilo++) {
+                final int numero = hilo;
+                resultados.add(executor.submit(() -> {
+                    salida.await();
+                    tarea.ejecutar(numero);
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> resultado : resultados) {
+                resultado.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    public interface TareaHilo {
+        void ejecutar(int hilo) throws Exception;
+    }
+}
@@ -0,0 +1,219 @@
+package com.api.payglobal.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.api.payglobal.entity.Licencia;
+import com.api.payglobal.entity.Transaccion;
+import com.api.payglobal.entity.enums.EstadoOperacion;
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.helpers.SecuenciasIds;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Cuenta las idas y vueltas a la base de datos en un pago simulado de
+ * ingreso pasivo sobre 10k licencias por JPA: una actualizacion de saldo y
+ * una transaccion nueva por licencia. Con ids de secuencia pooled-lo los
+ * inserts se agrupan en lotes de batch_size y solo hay un nextval por cada
+ * bloque; con IDENTITY cada insert era una sentencia.
+ *
+ * Corre contra la base configurada en application.properties:
+ * DB_URL=jdbc:postgresql://localhost:5432/payglobal DB_USER_NAME=postgres
+ * DB_PASSWORD=... mvn test -Dtest=LotesSecuenciaTest
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+class LotesSecuenciaTest {
+
+    private static final int LICENCIAS = 10_000;
+    private static final int TAMANO_LOTE = 25;
+    private static final String MARCA = "prueba-lotes-secuencia";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContadorSentencias contador;
+
+    @AfterEach
+    void limpiar() {
+        jdbcTemplate.update("DELETE FROM transacciones WHERE descripcion = ?", MARCA);
+        jdbcTemplate.update("DELETE FROM licencias WHERE nombre = ?", MARCA);
+    }
+
+    @Test
+    void pagoDeDiezMilLicenciasEnLotes(TestReporter reporte) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        contador.reiniciar();
+        transaccion.executeWithoutResult(status -> {
+            for (int i = 0; i < LICENCIAS; i++) {
+                Licencia licencia = Licencia.builder().nombre(MARCA).precio(100 + i % 900).limite(300)
+                        .activo(true).fechaCompra(LocalDate.now().minusDays(30)).saldoAcumulado(0).build();
+                entityManager.persist(licencia);
+            }
+        });
+        long sentenciasAlta = contador.total();
+
+        contador.reiniciar();
+        transaccion.executeWithoutResult(status -> {
+            LocalDateTime fecha = LocalDateTime.now();
+            List<Licencia> licencias = entityManager
+                    .createQuery("SELECT l FROM Licencia l WHERE l.nombre = :marca", Licencia.class)
+                    .setParameter("marca", MARCA).getResultList();
+            for (Licencia licencia : licencias) {
+                licencia.setSaldoAcumulado(licencia.getSaldoAcumulado() + licencia.getPrecio() / 2);
+                licencia.setFechaUltimoIngresoPasivo(LocalDate.now());
+                entityManager.persist(Transaccion.builder()
+                        .monto(BigDecimal.valueOf(licencia.getPrecio()).movePointLeft(2))
+                        .fecha(fecha).estado(EstadoOperacion.COMPLETADA).descripcion(MARCA)
+                        .concepto(TipoConceptos.INGRESO_PASIVO).build());
+            }
+        });
+        long sentenciasPago = contador.total();
+
+        reporte.publishEntry("sentencias alta", String.valueOf(sentenciasAlta));
+        reporte.publishEntry("sentencias pago", String.valueOf(sentenciasPago));
+
+        long bloques = LICENCIAS / SecuenciasIds.TAMANO_BLOQUE;
+        long lotes = LICENCIAS / TAMANO_LOTE;
+        // Alta: un nextval por bloque + lotes de insert
+        assertTrue(sentenciasAlta <= bloques + lotes + 10, "alta=" + sentenciasAlta);
+        // Pago: una lectura + lotes de update + un nextval por bloque + lotes de insert
+        assertTrue(sentenciasPago <= 1 + lotes + bloques + lotes + 10, "pago=" + sentenciasPago);
+        assertEquals(LICENCIAS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transacciones WHERE descripcion = ?", Integer.class, MARCA));
+    }
+
+    @TestConfiguration
+    static class Configuracion {
+
+        @Bean
+        ContadorSentencias contadorSentencias() {
+            return new ContadorSentencias();
+        }
+
+        @Bean
+        static BeanPostProcessor envolverDataSource(ObjectProvider<ContadorSentencias> contador) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String nombre) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceContado)) {
+                        return new DataSourceContado(dataSource, contador.getObject());
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Cada execute, executeQuery, executeUpdate o executeBatch es una ida y
+     * vuelta a la base de datos
+     */
+    static class ContadorSentencias {
+
+        private final AtomicLong sentencias = new AtomicLong();
+
+        void reiniciar() {
+            sentencias.set(0);
+        }
+
+        long total() {
+            return sentencias.get();
+        }
+
+        void contar() {
+            sentencias.incrementAndGet();
+        }
+    }
+
+    /**
+     * Proxy del DataSource que envuelve conexiones y sentencias para
+     * contarlas, sin agregar una libreria de proxy al proyecto
+     */
+    static class DataSourceContado extends DelegatingDataSource {
+
+        private final ContadorSentencias contador;
+
+        DataSourceContado(DataSource destino, ContadorSentencias contador) {
+            super(destino);
+            this.contador = contador;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return envolver(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String usuario, String password) throws SQLException {
+            return envolver(super.getConnection(usuario, password));
+        }
+
+        private Connection envolver(Connection conexion) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, metodo, argumentos) -> {
+                        Object resultado = invocar(conexion, metodo, argumentos);
+                        if (resultado instanceof Statement sentencia) {
+                            return envolverSentencia(sentencia, metodo.getReturnType());
+                        }
+                        return resultado;
+                    });
+        }
+
+        private Object envolverSentencia(Statement sentencia, Class<?> tipo) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { tipo },
+                    (proxy, metodo, argumentos) -> {
+                        if (metodo.getName().startsWith("execute")) {
+                            contador.contar();
+                        }
+                        return invocar(sentencia, metodo, argumentos);
+                    });
+        }
+
+        private static Object invocar(Object destino, Method metodo, Object[] argumentos) throws Throwable {
+            try {
+                return metodo.invoke(destino, argumentos);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
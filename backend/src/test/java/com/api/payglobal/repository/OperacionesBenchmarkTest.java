@@ -0,0 +1,235 @@
+package com.api.payglobal.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+/**
+ * Compara el esquema anterior (operaciones + transacciones, herencia JOINED)
+ * con la tabla unica de transacciones: filas insertadas por segundo en lotes
+ * como AbonoJdbcRepository y latencia del historial por keyset de un usuario
+ * con muchas transacciones. Usa tablas temporales, no toca el esquema real.
+ *
+ * Solo corre contra un PostgreSQL local indicado por variables de entorno:
+ * BENCH_DB_URL=jdbc:postgresql://localhost:5432/payglobal BENCH_DB_USER=postgres
+ * BENCH_DB_PASSWORD=... mvn test -Dtest=OperacionesBenchmarkTest
+ */
+@EnabledIfEnvironmentVariable(named = "BENCH_DB_URL", matches = ".+")
+class OperacionesBenchmarkTest {
+
+    private static final int FILAS = 100_000;
+    private static final int LOTE = 500;
+    private static final int USUARIOS = 1_000;
+    // Usuario con el 10% de las filas
+    private static final long USUARIO_PESADO = 1L;
+    private static final int CONSULTAS = 300;
+    private static final int TAMANO_PAGINA = 20;
+
+    private static final String DDL_JOINED = """
+            CREATE TEMP TABLE bench_operaciones (id BIGSERIAL PRIMARY KEY, monto NUMERIC(38, 2), fecha TIMESTAMP,
+                estado VARCHAR(255), tipo_crypto VARCHAR(255), descripcion VARCHAR(255));
+            CREATE TEMP TABLE bench_transacciones_joined (id BIGINT PRIMARY KEY REFERENCES bench_operaciones (id),
+                concepto VARCHAR(255), metodo_pago VARCHAR(255), usuario_id BIGINT);
+            CREATE INDEX ON bench_operaciones (fecha, id);
+            CREATE INDEX ON bench_transacciones_joined (usuario_id, concepto, id);
+            """;
+
+    private static final String DDL_UNICA = """
+            CREATE TEMP TABLE bench_transacciones (id BIGSERIAL PRIMARY KEY, monto NUMERIC(38, 2), fecha TIMESTAMP,
+                estado VARCHAR(255), tipo_crypto VARCHAR(255), descripcion VARCHAR(255), concepto VARCHAR(255),
+                metodo_pago VARCHAR(255), usuario_id BIGINT);
+            CREATE INDEX ON bench_transacciones (usuario_id, fecha, id);
+            CREATE INDEX ON bench_transacciones (fecha, id);
+            """;
+
+    private static final String SQL_HISTORIAL_JOINED = """
+            SELECT o.id, o.monto, o.fecha, o.estado, o.tipo_crypto, o.descripcion, t.concepto, t.metodo_pago
+            FROM bench_transacciones_joined t
+            JOIN bench_operaciones o ON o.id = t.id
+            WHERE t.usuario_id = ? AND (o.fecha, o.id) < (?, ?)
+            ORDER BY o.fecha DESC, o.id DESC
+            LIMIT ?
+            """;
+
+    private static final String SQL_HISTORIAL_UNICA = """
+            SELECT t.id, t.monto, t.fecha, t.estado, t.tipo_crypto, t.descripcion, t.concepto, t.metodo_pago
+            FROM bench_transacciones t
+            WHERE t.usuario_id = ? AND (t.fecha, t.id) < (?, ?)
+            ORDER BY t.fecha DESC, t.id DESC
+            LIMIT ?
+            """;
+
+    @Test
+    void insercionYConsultaDeHistorial(TestReporter reporte) throws Exception {
+        try (Connection conexion = DriverManager.getConnection(System.getenv("BENCH_DB_URL"),
+                System.getenv("BENCH_DB_USER"), System.getenv("BENCH_DB_PASSWORD"))) {
+            try (Statement statement = conexion.createStatement()) {
+                statement.execute(DDL_JOINED);
+                statement.execute(DDL_UNICA);
+            }
+            conexion.setAutoCommit(false);
+
+            long[] usuarios = generarUsuarios();
+            LocalDateTime base = LocalDateTime.now().minusDays(365);
+
+            long nanosJoined = insertarJoined(conexion, usuarios, base);
+            long nanosUnica = insertarUnica(conexion, usuarios, base);
+            try (Statement statement = conexion.createStatement()) {
+                statement.execute("ANALYZE bench_operaciones");
+                statement.execute("ANALYZE bench_transacciones_joined");
+                statement.execute("ANALYZE bench_transacciones");
+            }
+            conexion.commit();
+
+            long[] latenciaJoined = medirHistorial(conexion, SQL_HISTORIAL_JOINED);
+            long[] latenciaUnica = medirHistorial(conexion, SQL_HISTORIAL_UNICA);
+
+            reporte.publishEntry("insercion JOINED filas/s",
+                    String.valueOf(FILAS * 1_000_000_000L / nanosJoined));
+            reporte.publishEntry("insercion tabla unica filas/s",
+                    String.valueOf(FILAS * 1_000_000_000L / nanosUnica));
+            reporte.publishEntry("historial JOINED p50/p95 us",
+                    percentil(latenciaJoined, 50) + "/" + percentil(latenciaJoined, 95));
+            reporte.publishEntry("historial tabla unica p50/p95 us",
+                    percentil(latenciaUnica, 50) + "/" + percentil(latenciaUnica, 95));
+
+            assertEquals(contar(conexion, "bench_transacciones_joined"), contar(conexion, "bench_transacciones"));
+            conexion.rollback();
+        }
+    }
+
+    private long[] generarUsuarios() {
+        long[] usuarios = new long[FILAS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < FILAS; i++) {
+            usuarios[i] = i % 10 == 0 ? USUARIO_PESADO : 2 + random.nextInt(USUARIOS - 1);
+        }
+        return usuarios;
+    }
+
+    /**
+     * Igual que el AbonoJdbcRepository anterior: reservar ids de la secuencia
+     * de operaciones y escribir dos lotes por bloque
+     */
+    private long insertarJoined(Connection conexion, long[] usuarios, LocalDateTime base) throws Exception {
+        long inicio = System.nanoTime();
+        try (PreparedStatement ids = conexion.prepareStatement(
+                "SELECT nextval(pg_get_serial_sequence('bench_operaciones', 'id')) FROM generate_series(1, ?)");
+                PreparedStatement operacion = conexion.prepareStatement(
+                        "INSERT INTO bench_operaciones (id, monto, fecha, estado, tipo_crypto, descripcion)"
+                                + " VALUES (?, ?, ?, ?, ?, ?)");
+                PreparedStatement transaccion = conexion.prepareStatement(
+                        "INSERT INTO bench_transacciones_joined (id, concepto, metodo_pago, usuario_id)"
+                                + " VALUES (?, ?, ?, ?)")) {
+            for (int desde = 0; desde < FILAS; desde += LOTE) {
+                int hasta = Math.min(FILAS, desde + LOTE);
+                ids.setInt(1, hasta - desde);
+                try (ResultSet rs = ids.executeQuery()) {
+                    for (int i = desde; rs.next(); i++) {
+                        long id = rs.getLong(1);
+                        operacion.setLong(1, id);
+                        operacion.setBigDecimal(2, monto(i));
+                        operacion.setTimestamp(3, Timestamp.valueOf(base.plusSeconds(i * 300L)));
+                        operacion.setString(4, "COMPLETADA");
+                        operacion.setString(5, null);
+                        operacion.setString(6, "Benchmark");
+                        operacion.addBatch();
+                        transaccion.setLong(1, id);
+                        transaccion.setString(2, "INGRESO_PASIVO");
+                        transaccion.setString(3, "WALLET_DIVIDENDOS");
+                        transaccion.setLong(4, usuarios[i]);
+                        transaccion.addBatch();
+                    }
+                }
+                operacion.executeBatch();
+                transaccion.executeBatch();
+                conexion.commit();
+            }
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private long insertarUnica(Connection conexion, long[] usuarios, LocalDateTime base) throws Exception {
+        long inicio = System.nanoTime();
+        try (PreparedStatement transaccion = conexion.prepareStatement(
+                "INSERT INTO bench_transacciones (monto, fecha, estado, tipo_crypto, descripcion, concepto,"
+                        + " metodo_pago, usuario_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int desde = 0; desde < FILAS; desde += LOTE) {
+                int hasta = Math.min(FILAS, desde + LOTE);
+                for (int i = desde; i < hasta; i++) {
+                    transaccion.setBigDecimal(1, monto(i));
+                    transaccion.setTimestamp(2, Timestamp.valueOf(base.plusSeconds(i * 300L)));
+                    transaccion.setString(3, "COMPLETADA");
+                    transaccion.setString(4, null);
+                    transaccion.setString(5, "Benchmark");
+                    transaccion.setString(6, "INGRESO_PASIVO");
+                    transaccion.setString(7, "WALLET_DIVIDENDOS");
+                    transaccion.setLong(8, usuarios[i]);
+                    transaccion.addBatch();
+                }
+                transaccion.executeBatch();
+                conexion.commit();
+            }
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    /**
+     * Pagina al azar del historial del usuario pesado, siguiendo el cursor
+     * desde un punto aleatorio del ano
+     */
+    private long[] medirHistorial(Connection conexion, String sql) throws Exception {
+        long[] latencias = new long[CONSULTAS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (PreparedStatement consulta = conexion.prepareStatement(sql)) {
+            for (int i = -20; i < CONSULTAS; i++) {
+                consulta.setLong(1, USUARIO_PESADO);
+                consulta.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now().minusDays(random.nextInt(365))));
+                consulta.setLong(3, Long.MAX_VALUE);
+                consulta.setInt(4, TAMANO_PAGINA);
+                long inicio = System.nanoTime();
+                try (ResultSet rs = consulta.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getLong(1);
+                    }
+                }
+                // Las primeras consultas solo calientan cache y planes
+                if (i >= 0) {
+                    latencias[i] = (System.nanoTime() - inicio) / 1_000;
+                }
+            }
+        }
+        return latencias;
+    }
+
+    private static BigDecimal monto(int i) {
+        return BigDecimal.valueOf(100 + i % 5_000, 2);
+    }
+
+    private static long percentil(long[] valores, int percentil) {
+        long[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        return ordenados[Math.min(ordenados.length - 1, ordenados.length * percentil / 100)];
+    }
+
+    private static long contar(Connection conexion, String tabla) throws Exception {
+        try (Statement statement = conexion.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + tabla)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.api.payglobal.service.email;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+/**
+ * Compilacion y escape de las plantillas, y comparacion al renderizar 100k
+ * correos contra el String.format que se usaba antes. La comparacion de
+ * tiempos solo corre con BENCH definida
+ */
+class PlantillaCorreoTest {
+
+    private static final int CORREOS = 100_000;
+    private static final int RONDAS = 5;
+
+    @Test
+    void renderizaEnOrdenYEscapaValores() {
+        PlantillaCorreo plantilla = PlantillaCorreo.compilar("<p>{{nombre}}: {{monto}} ({{nombre}})</p>",
+                List.of("nombre", "monto"));
+
+        assertEquals("<p>&lt;b&gt;Ana &amp; &#39;Luis&#39;&lt;/b&gt;: 10.00 (&lt;b&gt;Ana &amp; &#39;Luis&#39;&lt;/b&gt;)</p>",
+                plantilla.renderizar("<b>Ana & 'Luis'</b>", "10.00"));
+        assertEquals("<p>: &quot;x&quot; ()</p>", plantilla.renderizar(null, "\"x\""));
+    }
+
+    @Test
+    void rechazaVariablesQueNoCuadran() {
+        assertThrows(IllegalArgumentException.class, () -> PlantillaCorreo.compilar("{{x}}", List.of("y")));
+        assertThrows(IllegalArgumentException.class, () -> PlantillaCorreo.compilar("{{x}}", List.of("x", "y")));
+        assertThrows(IllegalArgumentException.class, () -> PlantillaCorreo.compilar("{{x", List.of("x")));
+        PlantillaCorreo plantilla = PlantillaCorreo.compilar("{{x}}", List.of("x"));
+        assertThrows(IllegalArgumentException.class, () -> plantilla.renderizar("a", "b"));
+    }
+
+    @Test
+    void todasLasPlantillasCompilan() throws Exception {
+        for (TipoPlantillaCorreo tipo : TipoPlantillaCorreo.values()) {
+            PlantillaCorreo plantilla = PlantillaCorreo.compilar(leer(tipo), tipo.getVariables());
+            String html = plantilla.renderizar(tipo.getVariables().toArray(String[]::new));
+            assertTrue(html.startsWith("<!DOCTYPE html>"), tipo.name());
+            assertFalse(html.contains("{{"), tipo.name());
+        }
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BENCH", matches = ".+")
+    void plantillaCompiladaEsMasRapidaQueStringFormat(TestReporter reporte) throws Exception {
+        TipoPlantillaCorreo tipo = TipoPlantillaCorreo.NOTIFICACION_TRANSACCION;
+        String texto = leer(tipo);
+        PlantillaCorreo plantilla = PlantillaCorreo.compilar(texto, tipo.getVariables());
+        String formato = texto.replace("{{nombreUsuario}}", "%s").replace("{{tipoTransaccion}}", "%s")
+                .replace("{{monto}}", "%s");
+
+        // Calentamiento para que las dos variantes lleguen compiladas
+        medirPlantilla(plantilla);
+        medirFormat(formato);
+
+        long compilada = Long.MAX_VALUE;
+        long format = Long.MAX_VALUE;
+        for (int r = 0; r < RONDAS; r++) {
+            compilada = Math.min(compilada, medirPlantilla(plantilla));
+            format = Math.min(format, medirFormat(formato));
+        }
+
+        reporte.publishEntry("plantilla compilada ms", String.valueOf(compilada / 1_000_000));
+        reporte.publishEntry("String.format ms", String.valueOf(format / 1_000_000));
+        assertTrue(compilada < format, "compilada=" + compilada + " format=" + format);
+    }
+
+    private long medirPlantilla(PlantillaCorreo plantilla) {
+        long inicio = System.nanoTime();
+        long total = 0;
+        for (int i = 0; i < CORREOS; i++) {
+            total += plantilla.renderizar("Usuario " + (i % 1_000), "Ingreso pasivo", "12.50").length();
+        }
+        return consumir(total, inicio);
+    }
+
+    private long medirFormat(String formato) {
+        long inicio = System.nanoTime();
+        long total = 0;
+        for (int i = 0; i < CORREOS; i++) {
+            total += String.format(formato, "Usuario " + (i % 1_000), "Ingreso pasivo", "12.50").length();
+        }
+        return consumir(total, inicio);
+    }
+
+    private static String leer(TipoPlantillaCorreo tipo) throws Exception {
+        try (InputStream entrada = PlantillaCorreoTest.class.getResourceAsStream("/correos/" + tipo.getArchivo())) {
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long sumidero;
+
+    private static long consumir(long resultado, long inicio) {
+        // Evita que el JIT descarte el calculo
+        sumidero += resultado;
+        return System.nanoTime() - inicio;
+    }
+}
@@ -0,0 +1,88 @@
+package com.api.payglobal.service.email;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Envio contra un servidor HTTP local que imita /v3/mail/send de SendGrid:
+ * un lote es una sola peticion con una personalization por destinatario y el
+ * status decide si el error se reintenta
+ */
+class SendGridRemitenteCorreoTest {
+
+    private HttpServer servidor;
+    private final List<String> cuerpos = new CopyOnWriteArrayList<>();
+    private final AtomicInteger status = new AtomicInteger(202);
+    private SendGridRemitenteCorreo remitente;
+
+    @BeforeEach
+    void iniciar() throws Exception {
+        servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        servidor.createContext("/v3/mail/send", intercambio -> {
+            try (InputStream entrada = intercambio.getRequestBody()) {
+                cuerpos.add(new String(entrada.readAllBytes()));
+            }
+            intercambio.sendResponseHeaders(status.get(), -1);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.flush();
+            }
+        });
+        servidor.start();
+        remitente = new SendGridRemitenteCorreo("clave-prueba", "localhost:" + servidor.getAddress().getPort(),
+                true);
+    }
+
+    @AfterEach
+    void detener() {
+        servidor.stop(0);
+    }
+
+    @Test
+    void unLoteEsUnaSolaPeticion() throws Exception {
+        remitente.enviar(lote("a@payglobal.com", "b@payglobal.com", "c@payglobal.com"));
+
+        assertEquals(1, cuerpos.size());
+        JsonNode cuerpo = new ObjectMapper().readTree(cuerpos.get(0));
+        assertEquals(3, cuerpo.get("personalizations").size());
+        assertEquals("b@payglobal.com", cuerpo.get("personalizations").get(1).get("to").get(0).get("email").asText());
+        assertEquals("Pago completado", cuerpo.get("subject").asText());
+    }
+
+    @Test
+    void soloSeReintentanLimitesYErroresDelServidor() {
+        status.set(429);
+        ErrorEnvioCorreo limite = assertThrows(ErrorEnvioCorreo.class, () -> remitente.enviar(lote("a@payglobal.com")));
+        assertTrue(limite.isReintentable());
+
+        status.set(503);
+        assertTrue(assertThrows(ErrorEnvioCorreo.class, () -> remitente.enviar(lote("a@payglobal.com")))
+                .isReintentable());
+
+        status.set(400);
+        ErrorEnvioCorreo invalido = assertThrows(ErrorEnvioCorreo.class,
+                () -> remitente.enviar(lote("a@payglobal.com")));
+        assertFalse(invalido.isReintentable());
+    }
+
+    private static LoteCorreo lote(String... destinatarios) {
+        return new LoteCorreo("noreply@payglobal.com", "PayGlobal", "Pago completado", "text/html",
+                "<p>Tu pago fue acreditado</p>", List.of(destinatarios));
+    }
+}
@@ -0,0 +1,213 @@
+package com.api.payglobal.service.ingresoPasivo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.api.payglobal.entity.Licencia;
+import com.api.payglobal.entity.Usuario;
+import com.api.payglobal.entity.Wallet;
+import com.api.payglobal.entity.enums.CodigoTipoWallets;
+import com.api.payglobal.entity.enums.RolesUsuario;
+import com.api.payglobal.entity.enums.TipoRango;
+import com.api.payglobal.entity.enums.TipoWallets;
+import com.api.payglobal.helpers.Centavos;
+import com.api.payglobal.repository.CorridaIngresoPasivoRepository;
+import com.api.payglobal.repository.LicenciaRepository;
+import com.api.payglobal.repository.UsuarioRepository;
+import com.api.payglobal.repository.WalletRepository;
+import com.api.payglobal.service.bono.PorcentajesBono;
+
+/**
+ * Un miercoles sin corrida se detecta como hueco aunque el jueves ya se haya
+ * pagado, y al recuperarlo la licencia cobra ese dia una sola vez. Si falla el
+ * cierre de un dia, los dias ya cerrados no vuelven a abonar el bono
+ * uninivel al ascendiente. Usa fechas
+ * de 2001 para quedar antes de cualquier corrida real. Necesita la base de
+ * datos, por eso solo corre con DB_URL definida.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+class IngresoPasivoRecuperacionTest {
+
+    private static final LocalDate MARTES = LocalDate.of(2001, 1, 2);
+    private static final LocalDate MIERCOLES = LocalDate.of(2001, 1, 3);
+    private static final LocalDate JUEVES = LocalDate.of(2001, 1, 4);
+    private static final int PRECIO = 10_000;
+
+    @Autowired
+    private IngresoPasivoService ingresoPasivoService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private LicenciaRepository licenciaRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private CorridaIngresoPasivoRepository corridaRepository;
+
+    private Long usuarioId;
+    private Long licenciaId;
+    private Long walletId;
+    private Long ascendienteId;
+    private Long walletNetworkId;
+
+    @BeforeEach
+    void crearLicencia() {
+        Usuario ascendiente = crearUsuario(null);
+        ascendienteId = ascendiente.getId();
+        walletNetworkId = walletRepository.save(Wallet.builder()
+                .tipo(TipoWallets.WALLET_NETWORK)
+                .codigo(CodigoTipoWallets.WC)
+                .saldo(BigDecimal.ZERO)
+                .usuario(ascendiente)
+                .build()).getId();
+
+        // Con SENIOR_MANAGER el bono llega hasta el nivel 2, el ascendiente directo
+        Usuario usuario = crearUsuario(TipoRango.SENIOR_MANAGER);
+        usuarioId = usuario.getId();
+        jdbcTemplate.update("INSERT INTO red_referidos (ancestro_id, descendiente_id, profundidad) VALUES (?, ?, 1)",
+                ascendienteId, usuarioId);
+        licenciaId = licenciaRepository.save(Licencia.builder()
+                .nombre("Licencia de prueba")
+                .precio(PRECIO)
+                .limite(1_000_000)
+                .activo(true)
+                .saldoAcumulado(0)
+                .fechaCompra(MARTES)
+                .usuario(usuario)
+                .build()).getId();
+        walletId = walletRepository.save(Wallet.builder()
+                .tipo(TipoWallets.WALLET_STAKING)
+                .codigo(CodigoTipoWallets.WD)
+                .saldo(BigDecimal.ZERO)
+                .usuario(usuario)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void eliminarDatos() {
+        String corridas = "SELECT id FROM corridas_ingreso_pasivo WHERE fecha_negocio BETWEEN ? AND ?";
+        jdbcTemplate.update("DELETE FROM pagos_licencia WHERE fecha_negocio BETWEEN ? AND ?", MARTES, JUEVES);
+        jdbcTemplate.update("DELETE FROM detalle_comisiones WHERE corrida_id IN (" + corridas + ")", MARTES,
+                JUEVES);
+        jdbcTemplate.update("DELETE FROM particiones_corrida_ingreso_pasivo WHERE corrida_id IN (" + corridas + ")",
+                MARTES, JUEVES);
+        jdbcTemplate.update("DELETE FROM corridas_ingreso_pasivo WHERE fecha_negocio BETWEEN ? AND ?", MARTES,
+                JUEVES);
+        jdbcTemplate.update("DELETE FROM red_referidos WHERE descendiente_id = ?", usuarioId);
+        for (Long id : List.of(usuarioId, ascendienteId)) {
+            jdbcTemplate.update("DELETE FROM transacciones WHERE usuario_id = ?", id);
+            jdbcTemplate.update("DELETE FROM ganancias_mensuales WHERE usuario_id = ?", id);
+            jdbcTemplate.update("DELETE FROM bonos WHERE usuario_id = ?", id);
+        }
+        jdbcTemplate.update("DELETE FROM wallets WHERE id IN (?, ?)", walletId, walletNetworkId);
+        jdbcTemplate.update("DELETE FROM licencias WHERE id = ?", licenciaId);
+        jdbcTemplate.update("DELETE FROM usuarios WHERE id IN (?, ?)", usuarioId, ascendienteId);
+    }
+
+    @Test
+    void recuperaElMiercolesDespuesDePagarElJueves() throws Exception {
+        ingresoPasivoService.ejecutarCorrida(MARTES);
+        // El miercoles no corre; el jueves si
+        ingresoPasivoService.ejecutarCorrida(JUEVES);
+
+        assertEquals(List.of(MIERCOLES), ingresoPasivoService.diasPendientes(null, JUEVES));
+        assertEquals(List.of(MIERCOLES), ingresoPasivoService.recuperarDias(null, JUEVES).stream()
+                .map(c -> c.getFechaNegocio())
+                .toList());
+        // Repetir el dia ya pagado no vuelve a abonar
+        ingresoPasivoService.ejecutarCorrida(MIERCOLES);
+
+        assertEquals(List.of(), ingresoPasivoService.diasPendientes(null, JUEVES));
+        assertEquals(0, Centavos.aBigDecimal(3 * diario()).compareTo(saldo(walletId)));
+        assertEquals(List.of(MARTES, MIERCOLES, JUEVES), jdbcTemplate.queryForList(
+                "SELECT fecha_negocio FROM pagos_licencia WHERE licencia_id = ? ORDER BY fecha_negocio",
+                LocalDate.class, licenciaId));
+        assertEquals(JUEVES, jdbcTemplate.queryForObject(
+                "SELECT fecha_ultimo_ingreso_pasivo FROM licencias WHERE id = ?", LocalDate.class, licenciaId));
+    }
+
+    @Test
+    void unCierreFallidoNoVuelveAAbonarLosDiasYaCerrados() throws Exception {
+        // Falla el cierre del segundo dia del grupo, despues de confirmar el primero
+        AtomicBoolean fallar = new AtomicBoolean(true);
+        AtomicInteger cierres = new AtomicInteger();
+        // El repositorio es una interfaz: el resto de las llamadas va al bean real
+        Answer<?> real = mockingDetails(corridaRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocacion -> {
+            if (fallar.get() && cierres.incrementAndGet() == 2) {
+                throw new IllegalStateException("Cierre interrumpido");
+            }
+            return real.answer(invocacion);
+        }).when(corridaRepository).actualizarProcesadas(anyLong(), anyLong());
+
+        assertThrows(IllegalStateException.class, () -> ingresoPasivoService.recuperarDias(MARTES, MIERCOLES));
+        assertEquals("COMPLETADA", estadoCorrida(MARTES));
+        assertEquals("FALLIDA", estadoCorrida(MIERCOLES));
+
+        fallar.set(false);
+        assertEquals(List.of(MIERCOLES), ingresoPasivoService.recuperarDias(MARTES, MIERCOLES).stream()
+                .map(c -> c.getFechaNegocio())
+                .toList());
+
+        // Un bono por dia, aunque el martes estuvo en el grupo que fallo
+        long bono = Centavos.porTasa(diario(), PorcentajesBono.BONO_UNINIVEL[2]);
+        assertEquals(0, Centavos.aBigDecimal(2 * bono).compareTo(saldo(walletNetworkId)));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transacciones WHERE usuario_id = ? AND concepto = 'BONO_UNINIVEL'",
+                Integer.class, ascendienteId));
+    }
+
+    private Usuario crearUsuario(TipoRango rango) {
+        String username = "recuperacion" + System.nanoTime();
+        return usuarioRepository.save(Usuario.builder()
+                .username(username)
+                .email(username + "@prueba.com")
+                .password("x")
+                .rol(RolesUsuario.USUARIO)
+                .rango(rango)
+                .activo(true)
+                .fechaRegistro(new Date())
+                .build());
+    }
+
+    private static long diario() {
+        return Centavos.porTasa(Centavos.deUnidades(PRECIO), PorcentajesBono.INGRESO_PASIVO_DIARIO);
+    }
+
+    private String estadoCorrida(LocalDate fechaNegocio) {
+        return jdbcTemplate.queryForObject("SELECT estado FROM corridas_ingreso_pasivo WHERE fecha_negocio = ?",
+                String.class, fechaNegocio);
+    }
+
+    private BigDecimal saldo(Long id) {
+        return jdbcTemplate.queryForObject("SELECT saldo FROM wallets WHERE id = ?", BigDecimal.class, id);
+    }
+}
@@ -0,0 +1,149 @@
+package com.api.payglobal.service.kycFile;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Limite de tamano, reconocimiento del contenido y deduplicacion por hash al
+ * guardar archivos KYC
+ */
+class FileStorageServiceTest {
+
+    private static final long MAXIMO = 1024 * 1024;
+    private static final byte[] FIRMA_PNG = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void contenidoRepetidoSeGuardaUnaVez() throws IOException {
+        FileStorageService almacen = new FileStorageService(carpeta, MAXIMO);
+        byte[] contenido = png(200_000);
+
+        ArchivoAlmacenado primero = almacen.storeFile(new ByteArrayInputStream(contenido), contenido.length,
+                "ana", "DOCUMENTO_IDENTIDAD");
+        ArchivoAlmacenado segundo = almacen.storeFile(new ByteArrayInputStream(contenido), -1, "luis",
+                "COMPROBANTE_DOMICILIO");
+
+        assertEquals(primero.getFileName(), segundo.getFileName());
+        assertTrue(primero.getFileName().matches("[0-9a-f]{64}\\.png"), primero.getFileName());
+        assertFalse(primero.isDuplicado());
+        assertTrue(segundo.isDuplicado());
+        assertEquals(contenido.length, segundo.getSize());
+        assertArrayEquals(contenido, Files.readAllBytes(almacen.resolveFile(primero.getFileName())));
+        assertEquals(1, contar(carpeta));
+        assertEquals(0, contar(carpeta.resolve(".tmp")));
+    }
+
+    @Test
+    void publicarVuelveACrearUnArchivoBorrado() throws IOException {
+        FileStorageService almacen = new FileStorageService(carpeta, MAXIMO);
+        byte[] contenido = png(1_000);
+
+        try (ArchivoRecibido recibido = almacen.recibir(new ByteArrayInputStream(contenido), -1)) {
+            // Otro registro con el mismo contenido se borro despues de recibir
+            almacen.storeFile(new ByteArrayInputStream(contenido), -1, "ana", "DOCUMENTO_IDENTIDAD");
+            almacen.deleteFile(recibido.getFileName());
+
+            ArchivoAlmacenado archivo = almacen.publicar(recibido);
+            assertFalse(archivo.isDuplicado());
+            assertArrayEquals(contenido, Files.readAllBytes(almacen.resolveFile(archivo.getFileName())));
+        }
+        assertEquals(0, contar(carpeta.resolve(".tmp")));
+    }
+
+    @Test
+    void tamanoDeclaradoExcesivoSeRechazaSinLeer() {
+        FileStorageService almacen = new FileStorageService(carpeta, MAXIMO);
+        InputStream sinLeer = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("no deberia leerse");
+            }
+        };
+
+        ErrorArchivoKyc error = assertThrows(ErrorArchivoKyc.class,
+                () -> almacen.storeFile(sinLeer, MAXIMO + 1, "ana", "DOCUMENTO_IDENTIDAD"));
+        assertTrue(error.isDemasiadoGrande());
+    }
+
+    @Test
+    void sinTamanoDeclaradoSeCortaAlPasarElLimite() throws IOException {
+        FileStorageService almacen = new FileStorageService(carpeta, MAXIMO);
+        EntradaInfinita entrada = new EntradaInfinita();
+
+        ErrorArchivoKyc error = assertThrows(ErrorArchivoKyc.class,
+                () -> almacen.storeFile(entrada, -1, "ana", "DOCUMENTO_IDENTIDAD"));
+
+        assertTrue(error.isDemasiadoGrande());
+        // A lo sumo un buffer mas alla del limite
+        assertTrue(entrada.leidos <= MAXIMO + 64 * 1024, "leidos=" + entrada.leidos);
+        assertEquals(0, contar(carpeta));
+        assertEquals(0, contar(carpeta.resolve(".tmp")));
+    }
+
+    @Test
+    void contenidoQueNoEsPdfNiImagenSeRechaza() throws IOException {
+        FileStorageService almacen = new FileStorageService(carpeta, MAXIMO);
+        byte[] texto = "<html><script>alert(1)</script></html>".getBytes();
+
+        ErrorArchivoKyc error = assertThrows(ErrorArchivoKyc.class,
+                () -> almacen.storeFile(new ByteArrayInputStream(texto), texto.length, "ana",
+                        "DOCUMENTO_IDENTIDAD"));
+        assertFalse(error.isDemasiadoGrande());
+        assertEquals(0, contar(carpeta));
+    }
+
+    private static byte[] png(int longitud) {
+        byte[] contenido = new byte[longitud];
+        for (int i = 0; i < longitud; i++) {
+            contenido[i] = (byte) (i * 31);
+        }
+        System.arraycopy(FIRMA_PNG, 0, contenido, 0, FIRMA_PNG.length);
+        return contenido;
+    }
+
+    // Archivos sueltos en la carpeta, sin contar subcarpetas
+    private static long contar(Path carpeta) throws IOException {
+        try (Stream<Path> archivos = Files.list(carpeta)) {
+            return archivos.filter(Files::isRegularFile).count();
+        }
+    }
+
+    /**
+     * Un PNG que nunca termina, como un cliente que sigue mandando bytes
+     */
+    private static class EntradaInfinita extends InputStream {
+        private long leidos;
+
+        @Override
+        public int read() {
+            byte[] uno = new byte[1];
+            read(uno, 0, 1);
+            return uno[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int longitud) {
+            for (int i = 0; i < longitud; i++) {
+                long posicion = leidos + i;
+                destino[desde + i] = posicion < FIRMA_PNG.length ? FIRMA_PNG[(int) posicion] : 0;
+            }
+            leidos += longitud;
+            return longitud;
+        }
+    }
+}
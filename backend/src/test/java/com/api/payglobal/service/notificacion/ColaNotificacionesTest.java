@@ -0,0 +1,70 @@
+package com.api.payglobal.service.notificacion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoMetodoPago;
+import com.api.payglobal.entity.enums.TipoRango;
+import com.api.payglobal.service.bono.LoteAbonos;
+
+/**
+ * Los eventos de un lote se juntan por usuario y publicar no espera aunque
+ * nadie consuma la cola: con la cola llena el pago sigue y los eventos se
+ * descartan
+ */
+class ColaNotificacionesTest {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 1, 15);
+
+    @Test
+    void unEventoPorUsuarioConLosMontosSumados() {
+        LoteAbonos lote = new LoteAbonos();
+        lote.registrarTransaccion(2L, 150, TipoConceptos.INGRESO_PASIVO, TipoMetodoPago.WALLET_DIVIDENDOS, null);
+        lote.registrarTransaccion(1L, 100, TipoConceptos.INGRESO_PASIVO, TipoMetodoPago.WALLET_DIVIDENDOS, null);
+        lote.registrarTransaccion(1L, 40, TipoConceptos.BONO_UNINIVEL, TipoMetodoPago.WALLET_COMISIONES, null);
+        lote.registrarTransaccion(1L, 60, TipoConceptos.INGRESO_PASIVO, TipoMetodoPago.WALLET_DIVIDENDOS, null);
+
+        List<EventoNotificacion> eventos = EventoNotificacion.dePagos(lote, HOY);
+
+        assertEquals(2, eventos.size());
+        assertEquals(1L, eventos.get(0).getUsuarioId());
+        assertEquals(160, eventos.get(0).getIngresoPasivo());
+        assertEquals(40, eventos.get(0).getBonos());
+        assertEquals(150, eventos.get(1).getIngresoPasivo());
+        assertNull(eventos.get(1).getRango());
+
+        EventoNotificacion total = eventos.get(0)
+                .sumar(EventoNotificacion.rango(1L, HOY, TipoRango.DIAMOND_TEAM))
+                .sumar(EventoNotificacion.rango(1L, HOY, TipoRango.SENIOR_MANAGER));
+        assertEquals(160, total.getIngresoPasivo());
+        assertEquals(TipoRango.DIAMOND_TEAM, total.getRango());
+    }
+
+    @Test
+    void publicarNoBloqueaConLaColaLlena() throws Exception {
+        int capacidad = 1_000;
+        int lotes = 1_000;
+        int porLote = 1_000;
+        ColaNotificaciones cola = new ColaNotificaciones(capacidad, 60_000);
+        List<EventoNotificacion> lote = new ArrayList<>(porLote);
+        for (int i = 0; i < porLote; i++) {
+            lote.add(new EventoNotificacion(i, HOY, 100, 0, null));
+        }
+
+        // Sin consumidor: si publicar esperara a que haya lugar, esto no terminaria
+        for (int i = 0; i < lotes; i++) {
+            cola.publicar(lote);
+        }
+
+        assertEquals(capacidad, cola.tamano());
+        assertEquals((long) lotes * porLote - capacidad, cola.descartados());
+        assertEquals(capacidad, cola.tomar(capacidad * 2, 0).size());
+    }
+}
@@ -0,0 +1,42 @@
+package com.api.payglobal.service.red;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Agregar usuarios uno a uno por el camino rapido debe dejar la misma foto
+ * que construirla de una vez con los mismos enlaces
+ */
+class GrafoReferidosTest {
+
+    private static final int USUARIOS = 2_000;
+
+    @Test
+    void agregarAlFinalQuedaIgualQueConstruir() {
+        Random random = new Random(42);
+        long[] ids = new long[USUARIOS];
+        long[] padres = new long[USUARIOS];
+        GrafoReferidos incremental = GrafoReferidos.vacio();
+        for (int i = 0; i < USUARIOS; i++) {
+            ids[i] = 10L + i * 3L;
+            // Algunas raices y el resto colgando de un usuario anterior
+            padres[i] = i == 0 || random.nextInt(10) == 0 ? GrafoReferidos.SIN_PADRE : ids[random.nextInt(i)];
+            incremental = incremental.conUsuario(ids[i], padres[i]);
+        }
+
+        GrafoReferidos completo = GrafoReferidos.construir(ids, padres);
+
+        assertArrayEquals(completo.ids(), incremental.ids());
+        assertArrayEquals(completo.padresId(), incremental.padresId());
+        for (long id : ids) {
+            assertEquals(completo.profundidad(id), incremental.profundidad(id));
+            assertEquals(completo.tamanoSubred(id), incremental.tamanoSubred(id));
+            assertArrayEquals(completo.descendientes(id, 8), incremental.descendientes(id, 8));
+            assertArrayEquals(completo.ascendientes(id, 8), incremental.ascendientes(id, 8));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.api.payglobal.service.wallet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.api.payglobal.entity.Wallet;
+import com.api.payglobal.entity.enums.TipoConceptos;
+import com.api.payglobal.entity.enums.TipoWallets;
+import com.api.payglobal.helpers.EjecucionParalela;
+import com.api.payglobal.repository.WalletRepository;
+
+/**
+ * 64 hilos escribiendo a la vez sobre las mismas wallets: el saldo final, la
+ * version y el libro mayor deben reflejar todas las operaciones. Necesita
+ * la base de datos, por eso solo corre con DB_URL definida.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+class LedgerServiceConcurrenciaTest {
+
+    private static final int HILOS = 64;
+    private static final int OPERACIONES_POR_HILO = 50;
+    private static final BigDecimal SALDO_INICIAL = new BigDecimal("10000.00");
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> walletIds = new ArrayList<>();
+
+    @BeforeEach
+    void crearWallets() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            Wallet wallet = walletRepository.save(Wallet.builder()
+                    .tipo(TipoWallets.WALLET_STAKING)
+                    .saldo(BigDecimal.ZERO)
+                    .build());
+            walletIds.add(wallet.getId());
+            ledgerService.abonar(wallet.getId(), SALDO_INICIAL, null, "Saldo inicial de prueba");
+        }
+    }
+
+    @AfterEach
+    void eliminarWallets() {
+        for (Long walletId : walletIds) {
+            jdbcTemplate.update("DELETE FROM checkpoints_wallet WHERE wallet_id = ?", walletId);
+            jdbcTemplate.update("DELETE FROM movimientos_wallet WHERE wallet_id = ?", walletId);
+            jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+        }
+        walletIds.clear();
+    }
+
+    @Test
+    void abonosYCargosConcurrentesNoPierdenActualizaciones() throws Exception {
+        Long walletId = walletIds.get(0);
+        BigDecimal abono = new BigDecimal("1.00");
+        BigDecimal cargo = new BigDecimal("0.50");
+
+        ejecutarEnParalelo(hilo -> {
+            for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                ledgerService.abonar(walletId, abono, TipoConceptos.BONO_UNINIVEL, "Prueba");
+                ledgerService.cargar(walletId, cargo, TipoConceptos.RETIRO_FONDOS, "Prueba");
+            }
+        });
+
+        int operaciones = HILOS * OPERACIONES_POR_HILO;
+        BigDecimal esperado = SALDO_INICIAL
+                .add(abono.multiply(BigDecimal.valueOf(operaciones)))
+                .subtract(cargo.multiply(BigDecimal.valueOf(operaciones)));
+
+        assertEquals(0, esperado.compareTo(saldoWallet(walletId)));
+        assertEquals(0, esperado.compareTo(ledgerService.obtenerSaldo(walletId)));
+        // Saldo inicial mas un abono y un cargo por operacion
+        assertEquals(1L + 2L * operaciones, versionWallet(walletId));
+        assertEquals(1 + 2 * operaciones, contarMovimientos(walletId));
+    }
+
+    @Test
+    void transferenciasCruzadasConservanElTotal() throws Exception {
+        Long walletA = walletIds.get(0);
+        Long walletB = walletIds.get(1);
+        BigDecimal monto = new BigDecimal("3.00");
+
+        // La mitad de los hilos mueve de A a B y la otra mitad de B a A
+        ejecutarEnParalelo(hilo -> {
+            Long origen = hilo % 2 == 0 ? walletA : walletB;
+            Long destino = hilo % 2 == 0 ? walletB : walletA;
+            for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                ledgerService.transferir(origen, destino, monto, TipoConceptos.TRANSFERENCIA_ENTRE_USUARIOS,
+                        "Prueba");
+            }
+        });
+
+        assertEquals(0, SALDO_INICIAL.compareTo(saldoWallet(walletA)));
+        assertEquals(0, SALDO_INICIAL.compareTo(saldoWallet(walletB)));
+        assertEquals(0, saldoWallet(walletA).compareTo(ledgerService.obtenerSaldo(walletA)));
+        assertEquals(0, saldoWallet(walletB).compareTo(ledgerService.obtenerSaldo(walletB)));
+    }
+
+    @Test
+    void cargosConcurrentesNoDejanSaldoNegativo() throws Exception {
+        Long walletId = walletIds.get(0);
+        // Entre todos los hilos se intenta retirar mas de lo que hay
+        BigDecimal cargo = new BigDecimal("12.50");
+        int cargosPosibles = SALDO_INICIAL.divide(cargo).intValue();
+
+        ejecutarEnParalelo(hilo -> {
+            for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                try {
+                    ledgerService.cargar(walletId, cargo, TipoConceptos.RETIRO_FONDOS, "Prueba");
+                } catch (Exception e) {
+                    assertEquals("Fondos insuficientes", e.getMessage());
+                }
+            }
+        });
+
+        // Solo se aplican los cargos que caben en el saldo; el resto se rechaza
+        assertEquals(0, BigDecimal.ZERO.compareTo(saldoWallet(walletId)));
+        assertEquals(1 + cargosPosibles, contarMovimientos(walletId));
+    }
+
+    private void ejecutarEnParalelo(EjecucionParalela.TareaHilo tarea) throws Exception {
+        EjecucionParalela.ejecutar(HILOS, tarea);
+    }
+
+    private BigDecimal saldoWallet(Long walletId) {
+        return jdbcTemplate.queryForObject("SELECT saldo FROM wallets WHERE id = ?", BigDecimal.class, walletId);
+    }
+
+    private long versionWallet(Long walletId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM wallets WHERE id = ?", Long.class, walletId);
+    }
+
+    private int contarMovimientos(Long walletId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos_wallet WHERE wallet_id = ?",
+                Integer.class, walletId);
+    }
+}